@@ -2,6 +2,9 @@ package nand.modid;
 
 import nand.modid.registry.ModItems;
 import nand.modid.game.MinecraftChessManager;
+import nand.modid.chess.dsl.chessembly.ScriptArtifact;
+import nand.modid.chess.movegen.ScriptCache;
+import nand.modid.chess.movegen.ScriptRegistry;
 
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
@@ -9,6 +12,7 @@ import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 
 import net.minecraft.util.Identifier;
@@ -53,6 +57,18 @@ public class StasisChess implements ModInitializer {
 	public void onInitialize() {
 		ModItems.register();
 
+		// 내장 기물 행마법 스크립트 사전 컴파일 (게임 간 공유)
+		// -Dstasischess.precompiled=true면 .csb 묶음에서 원본이 같은 프로그램은 그대로 쓴다
+		long warmStart = System.nanoTime();
+		ScriptArtifact.Pack precompiled = ScriptArtifact.loadIfEnabled(ScriptRegistry.defaultArtifact());
+		ScriptRegistry.usePrecompiled(precompiled);
+		int compiled = ScriptCache.warmUp(precompiled);
+		LOGGER.info("Prepared {} chessembly scripts in {} ms ({})", compiled,
+				(System.nanoTime() - warmStart) / 1_000_000, precompiled.status());
+
+		// 외부 행마법 스크립트 (mods/stasischess/scripts) — 백그라운드 컴파일
+		ScriptRegistry.reloadAsync(ScriptRegistry.defaultDirectory()).thenAccept(StasisChess::logReload);
+
 		// Register the payload types
 		PayloadTypeRegistry.playS2C().register(PerspectivePacketPayload.ID, PerspectivePacketPayload.CODEC);
 		PayloadTypeRegistry.playC2S().register(PerspectivePacketPayload.ID, PerspectivePacketPayload.CODEC);
@@ -80,6 +96,19 @@ public class StasisChess implements ModInitializer {
 								}
 								context.getSource().sendMessage(
 										Text.literal("§a[StasisChess] Textures reloaded!"));
+
+								// 행마법 스크립트는 백그라운드에서 컴파일하고, 결과는 서버 스레드에서 알린다
+								var source = context.getSource();
+								ScriptRegistry.reloadAsync(ScriptRegistry.defaultDirectory()).thenAccept(report -> {
+									logReload(report);
+									source.getServer().execute(() -> {
+										source.sendMessage(Text.literal(
+												(report.applied() ? "§a" : "§c") + "[StasisChess] " + report));
+										for (String error : report.errors) {
+											source.sendMessage(Text.literal("§c  " + error));
+										}
+									});
+								});
 								return 1;
 							}))
 					.then(CommandManager.literal("debug")
@@ -98,6 +127,14 @@ public class StasisChess implements ModInitializer {
 								}
 								return 1;
 							}))
+					.then(CommandManager.literal("trace")
+							.executes(context -> {
+								ServerPlayerEntity player = context.getSource().getPlayer();
+								if (player != null) {
+									MinecraftChessManager.getInstance().dumpTrace(player);
+								}
+								return 1;
+							}))
 					.then(CommandManager.literal("load")
 							.then(CommandManager
 									.argument("id", com.mojang.brigadier.arguments.StringArgumentType.string())
@@ -141,8 +178,30 @@ public class StasisChess implements ModInitializer {
 							})));
 		});
 
+		ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+			try {
+				ScriptRegistry.startWatching(ScriptRegistry.defaultDirectory(), StasisChess::logReload);
+			} catch (java.io.IOException e) {
+				LOGGER.warn("Cannot watch chessembly script directory: {}", e.getMessage());
+			}
+		});
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> ScriptRegistry.stopWatching());
+
 		ServerTickEvents.END_SERVER_TICK.register(server -> {
 			MinecraftChessManager.getInstance().tick(server);
 		});
 	}
+
+	private static void logReload(ScriptRegistry.ReloadReport report) {
+		if (report.applied()) {
+			LOGGER.info("Chessembly scripts v{}: {} files, {} overrides in {} ms", report.version, report.files,
+					report.overrides, report.elapsedMillis);
+		} else {
+			LOGGER.warn("Chessembly script reload failed in {} ms, keeping v{}", report.elapsedMillis,
+					ScriptRegistry.current().version());
+			for (String error : report.errors) {
+				LOGGER.warn("  {}", error);
+			}
+		}
+	}
 }
\ No newline at end of file
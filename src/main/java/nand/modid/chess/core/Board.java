@@ -1,45 +1,167 @@
 package nand.modid.chess.core;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
- * Board — HashMap 기반 체스판.
- * Square → PieceId(String) 매핑.
+ * Board — 배열 기반 체스판.
+ * 칸 인덱스(y * BOARD_WIDTH + x) → 기물 핸들(int)과 PieceId(String). 좌표는 {@link Move.Square#of(int, int)}의
+ * 표준 인스턴스를 쓴다. GameState는 핸들({@link #getHandle})로 기물 배열을 바로 찾고, ID는 외부 이름으로만 쓴다.
+ * {@link #entries()}와 {@link #asMap()}는 배열 위의 읽기 전용 뷰로, 인덱스 순서(a1, b1, …, h8)로 순회한다.
+ * 보드 밖 좌표나 null은 HashMap 시절처럼 "없음"으로 취급한다 (put만 예외).
  */
 public final class Board {
 
-    private final Map<Move.Square, String> map = new HashMap<>();
+    private final String[] cells = new String[RuleSet.BOARD_WIDTH * RuleSet.BOARD_HEIGHT];
+    /** 칸별 기물 핸들, 비었거나 핸들 없이 놓였으면 NO_HANDLE */
+    private final int[] handles = new int[RuleSet.BOARD_WIDTH * RuleSet.BOARD_HEIGHT];
+    private int size;
 
+    public Board() {
+        Arrays.fill(handles, Piece.PieceData.NO_HANDLE);
+    }
+
+    /** 핸들 없이 놓는다 ({@link #getHandle}은 NO_HANDLE). 보드 밖 좌표는 IllegalArgumentException */
     public void put(Move.Square sq, String pieceId) {
-        map.put(sq, pieceId);
+        put(sq, Piece.PieceData.NO_HANDLE, pieceId);
+    }
+
+    /** 보드 밖 좌표는 IllegalArgumentException */
+    public void put(Move.Square sq, int handle, String pieceId) {
+        if (!sq.isValid()) throw new IllegalArgumentException("보드 밖 좌표: " + sq);
+        Objects.requireNonNull(pieceId, "pieceId");
+        int i = sq.index();
+        if (cells[i] == null) size++;
+        cells[i] = pieceId;
+        handles[i] = handle;
+    }
+
+    /** 칸의 기물 핸들, 비었거나 보드 밖이면 NO_HANDLE */
+    public int getHandle(Move.Square sq) {
+        return sq != null && sq.isValid() ? handles[sq.index()] : Piece.PieceData.NO_HANDLE;
+    }
+
+    /** 좌표 객체 없이 핸들 조회 — 보드 밖이면 NO_HANDLE */
+    public int getHandle(int x, int y) {
+        if (x < 0 || x >= RuleSet.BOARD_WIDTH || y < 0 || y >= RuleSet.BOARD_HEIGHT) return Piece.PieceData.NO_HANDLE;
+        return handles[y * RuleSet.BOARD_WIDTH + x];
     }
 
     public String get(Move.Square sq) {
-        return map.get(sq);
+        return sq != null && sq.isValid() ? cells[sq.index()] : null;
+    }
+
+    /** 좌표 객체 없이 조회 — 보드 밖이면 null */
+    public String get(int x, int y) {
+        if (x < 0 || x >= RuleSet.BOARD_WIDTH || y < 0 || y >= RuleSet.BOARD_HEIGHT) return null;
+        return cells[y * RuleSet.BOARD_WIDTH + x];
     }
 
     public String remove(Move.Square sq) {
-        return map.remove(sq);
+        if (sq == null || !sq.isValid()) return null;
+        int i = sq.index();
+        String old = cells[i];
+        if (old != null) {
+            cells[i] = null;
+            handles[i] = Piece.PieceData.NO_HANDLE;
+            size--;
+        }
+        return old;
     }
 
     public boolean contains(Move.Square sq) {
-        return map.containsKey(sq);
+        return sq != null && sq.isValid() && cells[sq.index()] != null;
+    }
+
+    /** 기물이 있는 칸을 인덱스 순서로 순회 — entries()와 달리 항목 객체를 만들지 않는다 */
+    public void forEach(BiConsumer<Move.Square, String> action) {
+        for (int i = 0; i < cells.length; i++) {
+            String id = cells[i];
+            if (id != null) action.accept(Move.Square.ofIndex(i), id);
+        }
     }
 
     public Set<Map.Entry<Move.Square, String>> entries() {
-        return map.entrySet();
+        return entries;
     }
 
     public int size() {
-        return map.size();
+        return size;
     }
 
     public void clear() {
-        map.clear();
+        Arrays.fill(cells, null);
+        Arrays.fill(handles, Piece.PieceData.NO_HANDLE);
+        size = 0;
     }
 
     /** 모든 좌표-기물ID 쌍을 반환 */
     public Map<Move.Square, String> asMap() {
-        return Collections.unmodifiableMap(map);
+        return view;
     }
+
+    // ── 뷰 ────────────────────────────────────────────
+
+    private final Set<Map.Entry<Move.Square, String>> entries = new AbstractSet<Map.Entry<Move.Square, String>>() {
+        @Override
+        public Iterator<Map.Entry<Move.Square, String>> iterator() {
+            return new Iterator<Map.Entry<Move.Square, String>>() {
+                private int next = advance(0);
+
+                private int advance(int from) {
+                    while (from < cells.length && cells[from] == null) from++;
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < cells.length;
+                }
+
+                @Override
+                public Map.Entry<Move.Square, String> next() {
+                    if (next >= cells.length) throw new NoSuchElementException();
+                    Map.Entry<Move.Square, String> e =
+                            new AbstractMap.SimpleImmutableEntry<>(Move.Square.ofIndex(next), cells[next]);
+                    next = advance(next + 1);
+                    return e;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return e.getKey() instanceof Move.Square && e.getValue() != null
+                    && e.getValue().equals(get((Move.Square) e.getKey()));
+        }
+    };
+
+    private final Map<Move.Square, String> view = new AbstractMap<Move.Square, String>() {
+        @Override
+        public Set<Map.Entry<Move.Square, String>> entrySet() {
+            return entries;
+        }
+
+        @Override
+        public String get(Object key) {
+            return key instanceof Move.Square ? Board.this.get((Move.Square) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Move.Square && contains((Move.Square) key);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
 }
@@ -0,0 +1,157 @@
+package nand.modid.chess.core;
+
+import nand.modid.chess.movegen.ScriptRegistry;
+
+import java.util.*;
+
+/**
+ * GameSnapshot — {@link GameState}의 불변 스냅샷 ({@link GameState#snapshot()}).
+ *
+ * 기물(핸들별)과 보드(칸별)는 {@link PersistentArray}에 담겨 이전 스냅샷과 바뀌지 않은 노드를 공유한다.
+ * GameState는 마지막 스냅샷 뒤 바뀐 기물·칸만 기억해 두었다가 다음 스냅샷에서 그 경로만 새로 만들므로,
+ * 바뀐 것이 없으면 스냅샷은 같은 객체를 돌려주고 바뀐 기물 하나는 O(log n)이다.
+ * 포켓과 이번 턴 행동 목록은 작으므로 바뀐 경우에만 통째로 복사한다.
+ *
+ * 모든 필드가 final이고 내용도 고치지 않으므로 만든 스레드와 다른 스레드(관전 화면, AI 작업자, 리플레이)에서
+ * 동기화 없이 읽어도 된다. {@link #thaw()}는 이 스냅샷에서 이어지는 새 GameState를 만든다.
+ */
+public final class GameSnapshot {
+
+    /** 스냅샷 속 기물 — {@link Piece.PieceData}의 불변 사본 */
+    public static final class PieceRecord {
+        public final int handle;
+        public final String id;
+        public final Piece.PieceKind kind;
+        public final int owner;
+        public final Move.Square pos;
+        public final int stun;
+        public final int moveStack;
+        public final boolean isRoyal;
+        public final Piece.PieceKind disguise;
+        /** 읽기 전용 */
+        public final Map<String, Integer> state;
+        /** state의 바탕 사본 (비었으면 null) */
+        private final Piece.PieceState slots;
+        public final Piece.PieceSpec spec;
+
+        PieceRecord(Piece.PieceData p) {
+            this.handle = p.handle;
+            this.id = p.id;
+            this.kind = p.kind;
+            this.owner = p.owner;
+            this.pos = p.pos;
+            this.stun = p.stun;
+            this.moveStack = p.moveStack;
+            this.isRoyal = p.isRoyal;
+            this.disguise = p.disguise;
+            this.slots = p.state.isEmpty() ? null : p.state.copy();
+            this.state = slots != null ? Collections.unmodifiableMap(slots) : Collections.emptyMap();
+            this.spec = p.spec;
+        }
+
+        public Piece.PieceKind effectiveKind() {
+            return disguise != null ? disguise : kind;
+        }
+
+        public boolean isNeutral() {
+            return kind.isNeutral();
+        }
+
+        public boolean canMove() {
+            return stun == 0 && moveStack > 0;
+        }
+
+        /** 같은 값의 새 PieceData (thaw용) */
+        Piece.PieceData toPieceData() {
+            Piece.PieceData p = new Piece.PieceData(id, kind, owner);
+            p.handle = handle;
+            p.pos = pos;
+            p.stun = stun;
+            p.moveStack = moveStack;
+            p.isRoyal = isRoyal;
+            p.disguise = disguise;
+            p.spec = spec;
+            if (slots != null) p.state.copyFrom(slots);
+            return p;
+        }
+
+        @Override
+        public String toString() {
+            return kind.scriptName() + "(" + id + ") @" + pos + " stun=" + stun + " ms=" + moveStack
+                    + (isRoyal ? " ROYAL" : "") + (isNeutral() ? " NEUTRAL" : "");
+        }
+    }
+
+    final PersistentArray<PieceRecord> pieces;
+    final PersistentArray<PieceRecord> board;
+    final Map<Integer, List<Piece.PieceSpec>> pockets;
+    final List<Move.Action> turnActions;
+    final int[] freeHandles;
+    final int handleLimit;
+    final int turn;
+    final int activeHandle;
+    final boolean actionTaken;
+    final int nextPieceId;
+    final long hash;
+    final boolean debugMode;
+    final ScriptRegistry.Generation scripts;
+
+    GameSnapshot(PersistentArray<PieceRecord> pieces, PersistentArray<PieceRecord> board,
+                 Map<Integer, List<Piece.PieceSpec>> pockets, List<Move.Action> turnActions,
+                 int[] freeHandles, int handleLimit, int turn, int activeHandle, boolean actionTaken,
+                 int nextPieceId, long hash, boolean debugMode, ScriptRegistry.Generation scripts) {
+        this.pieces = pieces;
+        this.board = board;
+        this.pockets = pockets;
+        this.turnActions = turnActions;
+        this.freeHandles = freeHandles;
+        this.handleLimit = handleLimit;
+        this.turn = turn;
+        this.activeHandle = activeHandle;
+        this.actionTaken = actionTaken;
+        this.nextPieceId = nextPieceId;
+        this.hash = hash;
+        this.debugMode = debugMode;
+        this.scripts = scripts;
+    }
+
+    /** 이 스냅샷과 같은 상태에서 시작하는 새 GameState — 스냅샷은 그대로이고 둘은 서로 영향을 주지 않는다 */
+    public GameState thaw() {
+        return new GameState(this);
+    }
+
+    // ── 접근자 ────────────────────────────────────────
+
+    public int getTurn()                { return turn; }
+    public int getActiveHandle()        { return activeHandle; }
+    public boolean isActionTaken()      { return actionTaken; }
+    public long getHash()               { return hash; }
+    public int getHandleLimit()         { return handleLimit; }
+    public List<Move.Action> getTurnActions() { return turnActions; }
+    public ScriptRegistry.Generation getScripts() { return scripts; }
+
+    /** 읽기 전용 포켓 */
+    public List<Piece.PieceSpec> getPocket(int player) {
+        return pockets.getOrDefault(player, Collections.emptyList());
+    }
+
+    /** 핸들의 기물, 없으면 null */
+    public PieceRecord getPiece(int handle) {
+        return handle >= 0 && handle < handleLimit ? pieces.get(handle) : null;
+    }
+
+    /** 칸의 기물, 비었거나 보드 밖이면 null */
+    public PieceRecord getPieceAt(Move.Square sq) {
+        return sq != null && sq.isValid() ? board.get(sq.index()) : null;
+    }
+
+    /** 보드 위 기물을 칸 인덱스 순서로 */
+    public List<PieceRecord> getBoardPieces() {
+        List<PieceRecord> result = new ArrayList<>();
+        for (int i = 0; i < RuleSet.BOARD_WIDTH * RuleSet.BOARD_HEIGHT; i++) {
+            PieceRecord r = board.get(i);
+            if (r != null) result.add(r);
+        }
+        return result;
+    }
+}
@@ -1,7 +1,10 @@
 package nand.modid.chess.core;
 
 import nand.modid.chess.dsl.chessembly.*;
+import nand.modid.chess.movegen.LegalMoveCache;
 import nand.modid.chess.movegen.MoveGenerator;
+import nand.modid.chess.movegen.PackedMoveList;
+import nand.modid.chess.movegen.ScriptRegistry;
 
 import java.util.*;
 
@@ -11,6 +14,20 @@ import java.util.*;
  *
  * 포함: 보드, 포켓, 기물 맵, 턴 관리, 이동/착수/캡처/계승/위장/스턴,
  *       행마법 계산(chessembly 연동), 승리 조건 확인.
+ *
+ * 기물은 작은 정수 핸들로 찾는다 — 핸들은 기물 배열의 인덱스이고, 잡힌 기물의 핸들은 다음에 만드는 기물이
+ * 재사용한다. 문자열 ID("piece_N")는 Minecraft 엔티티 태그와 기록용 외부 이름이며, ID를 받는 메서드만
+ * ID → 기물 맵을 한 번 본다.
+ *
+ * 탐색용 make 계열({@link #make(Move.LegalMove)}, {@link #makePlace}, {@link #make(Move.Action)},
+ * {@link #makeEndTurn()})은 바꾸기 전 값만 모은 {@link Undo}를 돌려주고, {@link #unmake(Undo)}가 그 기록으로
+ * 이전 상태를 그대로 되돌린다.
+ *
+ * 전체 상태의 Zobrist 해시({@link #getHash()})는 같은 변경 지점에서 함께 고친다. {@link #computeHash()}는
+ * 처음부터 다시 계산한 값으로, 둘이 다르면 어딘가 기록하지 않고 상태를 바꾼 것이다.
+ *
+ * {@link #snapshot()}은 다른 스레드에서 읽어도 되는 불변 {@link GameSnapshot}을 돌려준다. 마지막 스냅샷 뒤 바뀐
+ * 기물·칸만 새로 담고 나머지는 이전 스냅샷과 공유하며, {@link GameSnapshot#thaw()}로 다시 GameState를 만든다.
  */
 public final class GameState {
 
@@ -18,23 +35,98 @@ public final class GameState {
 
     private final Board board = new Board();
     private final Map<Integer, List<Piece.PieceSpec>> pockets = new HashMap<>();
+    /** 핸들 → 기물 (잡힌 기물의 칸은 null) */
+    private Piece.PieceData[] byHandle = new Piece.PieceData[32];
+    /** 한 번이라도 쓴 핸들 수 — 순회 범위 */
+    private int handleLimit;
+    /** 재사용할 핸들 (나중에 풀린 것부터) */
+    private int[] freeHandles = new int[8];
+    private int freeCount;
+    /** 외부 이름(ID) → 기물. ID를 받는 공개 메서드만 쓴다 */
     private final Map<String, Piece.PieceData> pieces = new HashMap<>();
     private int turn;
 
-    private String activePiece;   // 현재 턴에 이동 중인 기물 ID
+    private int activeHandle = Piece.PieceData.NO_HANDLE;   // 현재 턴에 이동 중인 기물
     private boolean actionTaken;  // 이번 턴에 행동 여부
     private final List<Move.Action> turnActions = new ArrayList<>();
     private boolean debugMode;
-    private java.util.function.Consumer<String> debugLogger = null;
     private int nextPieceId;
+    /** 이번 턴에 사용하는 행마법 세대 (턴 도중 리로드되어도 바뀌지 않는다) */
+    private ScriptRegistry.Generation scripts = ScriptRegistry.current();
+    /** 기물별 합법 수 캐시 — 칸 내용을 바꾸는 곳은 모두 {@link #squareChanged}를 호출해야 한다 */
+    private final LegalMoveCache moveCache = new LegalMoveCache();
+
+    // 점유 비트보드 (비트 = y * BOARD_WIDTH + x) — 보드에 기물을 놓고 빼는 곳은 모두 occupy/vacate를 거친다
+    private long whiteOccupancy;
+    private long blackOccupancy;
+    private long neutralOccupancy;
+    /** PieceKind.ordinal() → 그 종류(위장 전 실제 종류) 기물의 비트보드 */
+    private final long[] kindOccupancy = new long[Piece.PieceKind.values().length];
+
+    /**
+     * 색 관점별 Chessembly 보드 뷰 (0 = 백 관점, 1 = 흑 관점, 중립기물은 관점 색으로 등록).
+     * 처음 조회할 때 만들고, 이후에는 {@link #staleSquares}의 칸만 다시 써서 질의마다 보드를 새로 만들지 않는다.
+     */
+    private final BuiltinOps.BoardState[] views = new BuiltinOps.BoardState[2];
+    /** 뷰에 아직 반영하지 않은 칸 — 기물·종류·스택·상태를 바꾸는 곳은 모두 setOccupancy나 {@link #pieceChanged}를 거친다 */
+    private long staleSquares;
+
+    /** make 도중에만 non-null — 상태를 바꾸는 곳은 모두 바꾸기 전 값을 여기에 남긴다 */
+    private Undo journal;
+
+    /** 전체 상태의 Zobrist 해시 — 보드 위 기물(종류·소유·스턴·스택·로얄·위장·이동 중·상태), 포켓, 턴, 행동 여부 */
+    private long hash;
+
+    /** 마지막으로 만든 스냅샷, 아직 없으면 null */
+    private GameSnapshot snapshot;
+    /** 마지막 스냅샷 뒤 바뀐 핸들 (비트셋) — 기물 필드를 바꾸는 곳은 모두 {@link #changed}를 거친다 */
+    private long[] changedHandles = new long[1];
+    /** 마지막 스냅샷 뒤 놓거나 뺀 칸 */
+    private long changedSquares;
+    private boolean pocketsChanged;
+    private boolean actionsChanged;
+    private boolean handlesChanged;
 
     // ── 생성자 ────────────────────────────────────────
 
     public GameState(int startingPlayer) {
         this.turn = startingPlayer;
+        if (startingPlayer == 1) hash = Zobrist.TURN;
         setupInitialKings();
     }
 
+    /** 스냅샷에서 이어지는 상태 ({@link GameSnapshot#thaw()}) — 기물은 모두 새 PieceData로 복사한다 */
+    GameState(GameSnapshot s) {
+        this.turn = s.turn;
+        this.activeHandle = s.activeHandle;
+        this.actionTaken = s.actionTaken;
+        if (turn == 1) hash ^= Zobrist.TURN;
+        if (actionTaken) hash ^= Zobrist.ACTION_TAKEN;
+        if (s.handleLimit > byHandle.length) byHandle = new Piece.PieceData[s.handleLimit];
+        handleLimit = s.handleLimit;
+        for (int h = 0; h < handleLimit; h++) {
+            GameSnapshot.PieceRecord r = s.pieces.get(h);
+            if (r == null) continue;
+            Piece.PieceData p = r.toPieceData();
+            byHandle[h] = p;
+            pieces.put(p.id, p);
+            if (p.pos != null && s.board.get(p.pos.index()) == r) occupy(p.pos, p);
+        }
+        freeHandles = Arrays.copyOf(s.freeHandles, Math.max(8, s.freeHandles.length));
+        freeCount = s.freeHandles.length;
+        nextPieceId = s.nextPieceId;
+        scripts = s.scripts;
+        debugMode = s.debugMode;
+        turnActions.addAll(s.turnActions);
+        for (Map.Entry<Integer, List<Piece.PieceSpec>> e : s.pockets.entrySet()) {
+            setupPocketUnchecked(e.getKey(), e.getValue());
+        }
+        changedHandles = new long[(handleLimit >> 6) + 1];
+        changedSquares = 0L;
+        pocketsChanged = actionsChanged = handlesChanged = false;
+        snapshot = s;
+    }
+
     public static GameState newDefault() {
         return new GameState(0);
     }
@@ -44,30 +136,67 @@ public final class GameState {
     private void setupInitialKings() {
         // 백 킹 (e1)
         Piece.PieceData wk = createPiece(Piece.PieceKind.KING, 0);
-        pieces.put(wk.id, wk);
-        placeKing(wk.id, new Move.Square(4, 0));
+        register(wk);
+        placeKing(wk, Move.Square.of(4, 0));
 
         // 흑 킹 (e8)
         Piece.PieceData bk = createPiece(Piece.PieceKind.KING, 1);
-        pieces.put(bk.id, bk);
-        placeKing(bk.id, new Move.Square(4, 7));
+        register(bk);
+        placeKing(bk, Move.Square.of(4, 7));
     }
 
-    private void placeKing(String pieceId, Move.Square square) {
-        Piece.PieceData p = pieces.get(pieceId);
-        if (p == null) return;
+    private void placeKing(Piece.PieceData p, Move.Square square) {
         p.pos = square;
         p.isRoyal = true;
         p.stun = 0;
         p.moveStack = 3; // 킹 초기 이동 스택
-        board.put(square, pieceId);
+        occupy(square, p);
+        squareChanged(square);
     }
 
     private Piece.PieceData createPiece(Piece.PieceKind kind, int owner) {
+        if (journal != null) journal.add(U_NEXT_ID, null, null, nextPieceId, 0);
         String id = "piece_" + nextPieceId++;
         return new Piece.PieceData(id, kind, owner);
     }
 
+    // ── 기물 핸들 ─────────────────────────────────────
+
+    /** 기물에 핸들을 주고 등록한다 (풀린 핸들이 있으면 재사용) */
+    private void register(Piece.PieceData p) {
+        if (journal != null) journal.add(U_REGISTER, p, null, freeCount > 0 ? 1 : 0, 0);
+        int h;
+        if (freeCount > 0) {
+            h = freeHandles[--freeCount];
+        } else {
+            h = handleLimit++;
+            if (h == byHandle.length) byHandle = Arrays.copyOf(byHandle, h * 2);
+        }
+        p.handle = h;
+        byHandle[h] = p;
+        pieces.put(p.id, p);
+        changed(p);
+        handlesChanged = true;
+    }
+
+    /** 기물 등록 해제 — 핸들은 다음 기물이 재사용한다 */
+    private void unregister(Piece.PieceData p) {
+        int h = p.handle;
+        if (journal != null) journal.add(U_UNREGISTER, p, null, h, 0);
+        changed(p);
+        handlesChanged = true;
+        byHandle[h] = null;
+        p.handle = Piece.PieceData.NO_HANDLE;
+        pieces.remove(p.id);
+        if (freeCount == freeHandles.length) freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        freeHandles[freeCount++] = h;
+    }
+
+    /** 핸들의 기물, 없으면 null */
+    private Piece.PieceData piece(int handle) {
+        return handle >= 0 && handle < handleLimit ? byHandle[handle] : null;
+    }
+
     /**
      * 중립기물(gray piece)을 보드에 직접 배치한다.
      * 중립기물은 포켓에 넣을 수 없으므로 이 메서드를 통해서만 생성된다.
@@ -91,16 +220,16 @@ public final class GameState {
             throw new IllegalStateException("해당 칸에 이미 기물이 있습니다");
         }
         // owner = -1 : 중립 소유권 없음
-        String id = "piece_" + nextPieceId++;
-        Piece.PieceData piece = new Piece.PieceData(id, kind, -1);
+        Piece.PieceData piece = createPiece(kind, -1);
         piece.spec = new Piece.PieceSpec(kind);
         piece.pos = target;
         piece.stun = 0;
         piece.moveStack = RuleSet.initialMoveStack(piece.score());
 
-        pieces.put(id, piece);
-        board.put(target, id);
-        return id;
+        register(piece);
+        occupy(target, piece);
+        squareChanged(target);
+        return piece.id;
     }
 
     // ── 포켓 ──────────────────────────────────────────
@@ -153,12 +282,34 @@ public final class GameState {
             throw new IllegalArgumentException(
                 "포켓 점수 " + total + "점이 제한 " + RuleSet.MAX_POCKET_SCORE + "점을 초과합니다");
         }
-        pockets.put(player, new ArrayList<>(specs));
+        setupPocketUnchecked(player, specs);
     }
 
     /** 포켓 설정 (점수 제한 없음, 실험용) */
     public void setupPocketUnchecked(int player, List<Piece.PieceSpec> specs) {
-        pockets.put(player, new ArrayList<>(specs));
+        hash ^= pocketKey(player, pockets.get(player));
+        List<Piece.PieceSpec> pocket = new ArrayList<>(specs);
+        pockets.put(player, pocket);
+        hash ^= pocketKey(player, pocket);
+        pocketsChanged = true;
+    }
+
+    /**
+     * 기물의 스턴을 정한다 (실험·테스트용 포지션 설정, 턴 규칙 없음).
+     * PieceData를 직접 고치는 대신 이것을 쓰면 해시·뷰·합법 수 캐시가 함께 맞춰진다.
+     */
+    public void setupStun(int handle, int stun) {
+        Piece.PieceData p = piece(handle);
+        if (p == null) throw new IllegalStateException("기물을 찾을 수 없습니다");
+        if (stun < 0) throw new IllegalArgumentException("스턴은 0 이상이어야 합니다: " + stun);
+        setStun(p, stun);
+    }
+
+    /** 기물 상태 한 항목을 정한다 (실험·테스트용 포지션 설정) — {@link #setupStun}처럼 해시·뷰·캐시를 함께 고친다 */
+    public void setupPieceState(int handle, String key, int value) {
+        Piece.PieceData p = piece(handle);
+        if (p == null) throw new IllegalStateException("기물을 찾을 수 없습니다");
+        putState(p, ScriptSymbols.stateSlot(key), value);
     }
 
     /** 실험용 포켓 설정 */
@@ -226,7 +377,7 @@ public final class GameState {
     /** 포켓에 기물 추가 */
     public void addPieceToPocket(int player, Piece.PieceKind kind) {
         List<Piece.PieceSpec> pocket = pockets.computeIfAbsent(player, k -> new ArrayList<>());
-        pocket.add(new Piece.PieceSpec(kind));
+        pocketInsert(player, pocket, pocket.size(), new Piece.PieceSpec(kind));
     }
 
     /** 포켓에서 기물 제거 */
@@ -235,7 +386,7 @@ public final class GameState {
         if (pocket == null) return false;
         for (int i = 0; i < pocket.size(); i++) {
             if (pocket.get(i).kind == kind) {
-                pocket.remove(i);
+                pocketRemove(player, pocket, i);
                 return true;
             }
         }
@@ -248,7 +399,7 @@ public final class GameState {
     public void canPlace(int player, Piece.PieceKind kind, Move.Square target) {
         if (turn != player) throw new IllegalStateException("자신의 턴이 아닙니다");
         if (actionTaken) throw new IllegalStateException("이번 턴에 이미 행동했습니다");
-        if (activePiece != null) throw new IllegalStateException("이동 중인 기물이 있습니다");
+        if (activeHandle != Piece.PieceData.NO_HANDLE) throw new IllegalStateException("이동 중인 기물이 있습니다");
         if (board.contains(target)) throw new IllegalStateException("해당 칸에 이미 기물이 있습니다");
 
         boolean isWhite = player == 0;
@@ -271,22 +422,24 @@ public final class GameState {
         if (pocket != null) {
             for (int i = 0; i < pocket.size(); i++) {
                 if (pocket.get(i).kind == kind) {
-                    pocket.remove(i);
+                    Piece.PieceSpec spec = pocketRemove(player, pocket, i);
+                    if (journal != null) journal.add(U_POCKET, null, spec, player, i);
                     break;
                 }
             }
         }
 
-        // 기물 생성 및 배치
+        // 기물 생성 및 배치 (새 기물의 필드는 register를 되돌리면 함께 버려지므로 기록하지 않는다)
         Piece.PieceData piece = createPiece(kind, player);
         piece.stun = RuleSet.calculatePlacementStun(piece, target);
         piece.moveStack = RuleSet.initialMoveStack(piece.score());
         piece.pos = target;
 
-        pieces.put(piece.id, piece);
-        board.put(target, piece.id);
-        actionTaken = true;
-        turnActions.add(Move.Action.place(piece.id, target));
+        register(piece);
+        occupy(target, piece);
+        squareChanged(target);
+        setActionTaken(true);
+        addTurnAction(Move.Action.place(piece.handle, piece.id, target));
 
         return piece.id;
     }
@@ -296,14 +449,22 @@ public final class GameState {
     /** 이동 가능 여부 확인 */
     public void canMovePiece(int player, String pieceId, Move.Square from, Move.Square to,
                               AST.MoveType moveType) {
+        canMovePiece(player, pieces.get(pieceId), to, moveType);
+    }
+
+    /** 핸들로 이동 가능 여부 확인 */
+    public void canMovePiece(int player, int handle, Move.Square from, Move.Square to, AST.MoveType moveType) {
+        canMovePiece(player, piece(handle), to, moveType);
+    }
+
+    private void canMovePiece(int player, Piece.PieceData piece, Move.Square to, AST.MoveType moveType) {
         if (turn != player) throw new IllegalStateException("자신의 턴이 아닙니다");
         if (actionTaken) throw new IllegalStateException("이번 턴에 이미 다른 행동을 했습니다");
 
-        if (activePiece != null && !activePiece.equals(pieceId)) {
+        if (activeHandle != Piece.PieceData.NO_HANDLE && (piece == null || activeHandle != piece.handle)) {
             throw new IllegalStateException("다른 기물이 이동 중입니다");
         }
 
-        Piece.PieceData piece = pieces.get(pieceId);
         if (piece == null) throw new IllegalStateException("기물을 찾을 수 없습니다");
         // 중립기물은 어느 플레이어도 사용 가능하다
         if (!piece.isNeutral() && piece.owner != player)
@@ -315,20 +476,17 @@ public final class GameState {
             throw new IllegalStateException("이동 스택이 없습니다");
         }
 
-        boolean targetEmpty = !board.contains(to);
+        boolean targetEmpty = !isOccupied(to);
         boolean hasEnemy = false, hasFriendly = false;
-        String targetPid = board.get(to);
-        if (targetPid != null) {
-            Piece.PieceData tp = pieces.get(targetPid);
-            if (tp != null) {
-                if (tp.isNeutral()) {
-                    // 중립기물은 어느 플레이어에게도 아군으로 취급된다 (포획 불가, Shift 가능)
-                    hasEnemy = false;
-                    hasFriendly = true;
-                } else {
-                    hasEnemy = tp.owner != player;
-                    hasFriendly = tp.owner == player;
-                }
+        Piece.PieceData tp = piece(board.getHandle(to));
+        if (tp != null) {
+            if (tp.isNeutral()) {
+                // 중립기물은 어느 플레이어에게도 아군으로 취급된다 (포획 불가, Shift 가능)
+                hasEnemy = false;
+                hasFriendly = true;
+            } else {
+                hasEnemy = tp.owner != player;
+                hasFriendly = tp.owner == player;
             }
         }
 
@@ -361,122 +519,129 @@ public final class GameState {
         Move.Square from = mv.from;
         Move.Square to = mv.to;
 
-        String pieceId = board.get(from);
-        if (pieceId == null) throw new IllegalStateException("출발 위치에 기물이 없습니다");
+        Piece.PieceData piece = piece(board.getHandle(from));
+        if (piece == null) throw new IllegalStateException("출발 위치에 기물이 없습니다");
 
-        Piece.PieceData piece = pieces.get(pieceId);
-        if (piece == null) throw new IllegalStateException("기물을 찾을 수 없습니다");
-
-        canMovePiece(piece.owner, pieceId, from, to, mv.moveType);
+        canMovePiece(piece.owner, piece, to, mv.moveType);
 
         String capturedId = null;
+        squareChanged(from);
+        squareChanged(to);
 
         switch (mv.moveType) {
             case MOVE: {
-                board.remove(from);
-                board.put(to, pieceId);
-                piece.pos = to;
-                piece.moveStack--;
+                vacate(from, piece);
+                occupy(to, piece);
+                setPos(piece, to);
+                setMoveStack(piece, piece.moveStack - 1);
                 break;
             }
             case TAKE:
             case TAKE_MOVE: {
-                String victimId = board.get(to);
-                if (victimId != null) {
-                    capturedId = victimId;
-                    capture(pieceId, victimId);
+                Piece.PieceData victim = piece(board.getHandle(to));
+                if (victim != null) {
+                    capturedId = victim.id;
+                    capture(piece, victim);
                 }
-                board.remove(from);
-                board.put(to, pieceId);
-                piece.pos = to;
-                if (capturedId == null) piece.moveStack--;
+                vacate(from, piece);
+                occupy(to, piece);
+                setPos(piece, to);
+                if (capturedId == null) setMoveStack(piece, piece.moveStack - 1);
                 break;
             }
             case CATCH: {
-                String victimId = board.get(to);
-                if (victimId == null) throw new IllegalStateException("Catch 대상이 없습니다");
-                capturedId = victimId;
-                capture(pieceId, victimId);
+                Piece.PieceData victim = piece(board.getHandle(to));
+                if (victim == null) throw new IllegalStateException("Catch 대상이 없습니다");
+                capturedId = victim.id;
+                capture(piece, victim);
                 break;
             }
             case SHIFT: {
-                String targetPid = board.get(to);
-                if (targetPid == null) throw new IllegalStateException("Shift 대상이 없습니다");
-                board.remove(from);
-                board.remove(to);
-                board.put(from, targetPid);
-                board.put(to, pieceId);
-                piece.pos = to;
-                piece.moveStack--;
-                Piece.PieceData tp = pieces.get(targetPid);
-                if (tp != null) tp.pos = from;
+                Piece.PieceData tp = piece(board.getHandle(to));
+                if (tp == null) throw new IllegalStateException("Shift 대상이 없습니다");
+                vacate(from, piece);
+                vacate(to, tp);
+                occupy(from, tp);
+                occupy(to, piece);
+                setPos(piece, to);
+                setMoveStack(piece, piece.moveStack - 1);
+                setPos(tp, from);
                 break;
             }
             case JUMP: {
-                board.remove(from);
-                board.put(to, pieceId);
-                piece.pos = to;
-                piece.moveStack--;
+                vacate(from, piece);
+                occupy(to, piece);
+                setPos(piece, to);
+                setMoveStack(piece, piece.moveStack - 1);
 
                 if (mv.catchTo != null && mv.catchTo.isValid()) {
-                    String victimId = board.get(mv.catchTo);
-                    if (victimId != null) {
-                        capturedId = victimId;
-                        capture(pieceId, victimId);
+                    Piece.PieceData victim = piece(board.getHandle(mv.catchTo));
+                    if (victim != null) {
+                        capturedId = victim.id;
+                        capture(piece, victim);
                     }
                 }
                 break;
             }
         }
 
-        activePiece = pieceId;
-        applyActionTags(pieceId, mv.tags);
-        turnActions.add(Move.Action.move(pieceId, from, to));
+        setActiveHandle(piece.handle);
+        applyActionTags(piece, mv.tags);
+        addTurnAction(Move.Action.move(piece.handle, piece.id, from, to));
 
         return capturedId;
     }
 
     /** 캡처 처리 (스택 이전) */
     public void capture(String attackerId, String victimId) {
-        Piece.PieceData victim = pieces.get(victimId);
-        if (victim == null) throw new IllegalStateException("피해자를 찾을 수 없습니다");
+        capture(pieces.get(attackerId), pieces.get(victimId));
+    }
+
+    /** 핸들로 캡처 처리 */
+    public void capture(int attackerHandle, int victimHandle) {
+        capture(piece(attackerHandle), piece(victimHandle));
+    }
 
-        Piece.PieceData attacker = pieces.get(attackerId);
+    private void capture(Piece.PieceData attacker, Piece.PieceData victim) {
+        if (victim == null) throw new IllegalStateException("피해자를 찾을 수 없습니다");
 
         if (attacker != null) {
-            attacker.moveStack = attacker.moveStack - 1 + victim.moveStack;
-            attacker.stun += victim.stun;
+            setMoveStack(attacker, attacker.moveStack - 1 + victim.moveStack);
+            setStun(attacker, attacker.stun + victim.stun);
         }
 
-        if (victim.pos != null) board.remove(victim.pos);
-        pieces.remove(victimId);
+        if (victim.pos != null) {
+            vacate(victim.pos, victim);
+            squareChanged(victim.pos);
+        }
+        moveCache.remove(victim.handle);
+        unregister(victim);
     }
 
     /** 액션 태그 적용 */
-    private void applyActionTags(String pieceId, List<AST.ActionTag> tags) {
+    private void applyActionTags(Piece.PieceData piece, List<AST.ActionTag> tags) {
         if (tags == null) return;
         for (AST.ActionTag tag : tags) {
             switch (tag.tagType) {
                 case TRANSITION: {
                     if (tag.pieceName != null) {
-                        Piece.PieceData p = pieces.get(pieceId);
-                        if (p != null) {
-                            Piece.PieceKind newKind = Piece.PieceKind.fromString(tag.pieceName);
-                            p.kind = newKind;
-                            p.moveStack = RuleSet.initialMoveStack(newKind.score());
-                        }
+                        // 이름은 스크립트 컴파일 때 ScriptSymbols로 해석되어 있다
+                        Piece.PieceKind newKind = ScriptSymbols.kind(tag.kind);
+                        if (newKind == null) throw new IllegalArgumentException("알 수 없는 기물 이름: " + tag.pieceName);
+                        changeKind(piece, newKind);
+                        setMoveStack(piece, RuleSet.initialMoveStack(newKind.score()));
+                        squareChanged(piece.pos);
                     }
                     break;
                 }
                 case SET_STATE: {
-                    Piece.PieceData sp = pieces.get(pieceId);
-                    if (sp != null) sp.state.put(tag.key, tag.value);
+                    putState(piece, tag.slot, tag.value);
                     break;
                 }
                 case USEING_STACK:
-                    String actor = board.get(tag.where_stack_is_comming);
-                    Piece.PieceData p = pieces.get(actor);
-                    p.moveStack--;
+                    Piece.PieceData p = piece(board.getHandle(tag.where_stack_is_comming));
+                    if (p == null) throw new IllegalStateException("스택을 사용할 기물이 없습니다: " + tag.where_stack_is_comming);
+                    setMoveStack(p, p.moveStack - 1);
             }
         }
     }
@@ -484,36 +649,57 @@ public final class GameState {
     // ── 계승 / 위장 / 스턴 ────────────────────────────
 
     public void crownPiece(int player, String pieceId) {
+        crownPiece(player, pieces.get(pieceId));
+    }
+
+    public void crownPiece(int player, int handle) {
+        crownPiece(player, piece(handle));
+    }
+
+    private void crownPiece(int player, Piece.PieceData p) {
         if (turn != player) throw new IllegalStateException("자신의 턴이 아닙니다");
-        if (actionTaken || activePiece != null) throw new IllegalStateException("이번 턴에 이미 행동했습니다");
+        if (actionTaken || activeHandle != Piece.PieceData.NO_HANDLE) throw new IllegalStateException("이번 턴에 이미 행동했습니다");
 
-        Piece.PieceData p = pieces.get(pieceId);
         if (p == null) throw new IllegalStateException("기물을 찾을 수 없습니다");
         if (p.owner != player) throw new IllegalStateException("자신의 기물이 아닙니다");
         if (p.pos == null) throw new IllegalStateException("보드 위의 기물만 계승할 수 있습니다");
 
-        p.isRoyal = true;
-        actionTaken = true;
-        turnActions.add(Move.Action.crown(pieceId));
+        setRoyal(p, true);
+        setActionTaken(true);
+        addTurnAction(Move.Action.crown(p.handle, p.id));
     }
 
     public void disguisePiece(int player, String pieceId, Piece.PieceKind asKind) {
+        disguisePiece(player, pieces.get(pieceId), asKind);
+    }
+
+    public void disguisePiece(int player, int handle, Piece.PieceKind asKind) {
+        disguisePiece(player, piece(handle), asKind);
+    }
+
+    private void disguisePiece(int player, Piece.PieceData p, Piece.PieceKind asKind) {
         if (turn != player) throw new IllegalStateException("자신의 턴이 아닙니다");
-        if (actionTaken || activePiece != null) throw new IllegalStateException("이번 턴에 이미 행동했습니다");
+        if (actionTaken || activeHandle != Piece.PieceData.NO_HANDLE) throw new IllegalStateException("이번 턴에 이미 행동했습니다");
 
-        Piece.PieceData p = pieces.get(pieceId);
         if (p == null) throw new IllegalStateException("기물을 찾을 수 없습니다");
         if (p.owner != player) throw new IllegalStateException("자신의 기물이 아닙니다");
         if (!p.isRoyal) throw new IllegalStateException("로얄 피스만 위장할 수 있습니다");
 
-        p.moveStack = RuleSet.initialMoveStack(asKind.score());
-        p.disguise = asKind;
-        actionTaken = true;
-        turnActions.add(Move.Action.disguise(pieceId, asKind.name()));
+        setMoveStack(p, RuleSet.initialMoveStack(asKind.score()));
+        setDisguise(p, asKind);
+        setActionTaken(true);
+        addTurnAction(Move.Action.disguise(p.handle, p.id, asKind.name()));
     }
 
     public void stunPiece(String pieceId, int amount) {
-        Piece.PieceData p = pieces.get(pieceId);
+        stunPiece(pieces.get(pieceId), amount);
+    }
+
+    public void stunPiece(int handle, int amount) {
+        stunPiece(piece(handle), amount);
+    }
+
+    private void stunPiece(Piece.PieceData p, int amount) {
         if (p == null) throw new IllegalStateException("기물을 찾을 수 없습니다");
 
         // 중립기물은 어느 플레이어에게나 아군으로 취급 → 아군 스턴 규칙(1~3) 적용
@@ -526,15 +712,22 @@ public final class GameState {
                 throw new IllegalArgumentException("적에게는 1 스턴만 부여할 수 있습니다");
         }
 
-        p.stun += amount;
-        actionTaken = true;
-        turnActions.add(Move.Action.stun(pieceId, amount));
+        setStun(p, p.stun + amount);
+        setActionTaken(true);
+        addTurnAction(Move.Action.stun(p.handle, p.id, amount));
     }
 
     // ── 프로모션 ──────────────────────────────────────
 
     public void promote(String pieceId, Piece.PieceKind toKind) {
-        Piece.PieceData p = pieces.get(pieceId);
+        promote(pieces.get(pieceId), toKind);
+    }
+
+    public void promote(int handle, Piece.PieceKind toKind) {
+        promote(piece(handle), toKind);
+    }
+
+    private void promote(Piece.PieceData p, Piece.PieceKind toKind) {
         if (p == null) throw new IllegalStateException("기물을 찾을 수 없습니다");
         if (!p.kind.canPromote()) throw new IllegalStateException("프로모션할 수 없는 기물입니다");
         if (!p.kind.promotionTargets().contains(toKind))
@@ -543,7 +736,8 @@ public final class GameState {
         if (!p.kind.isPromotionSquare(p.pos, p.isWhite()))
             throw new IllegalStateException("프로모션 칸에 있지 않습니다");
 
-        p.kind = toKind;
+        changeKind(p, toKind);
+        squareChanged(p.pos);
         // 스택은 유지 (promotion.md)
     }
 
@@ -552,35 +746,45 @@ public final class GameState {
     public void endTurn() {
         // 현재 턴 기물 스턴 감소
         // 중립기물은 능동·수동 모두 매 반턴마다 스턴을 감소시킨다
-        for (Piece.PieceData p : pieces.values()) {
-            if (p.isNeutral() || p.owner == turn) {
-                p.stun = Math.max(p.stun - 1, 0);
+        for (int h = 0; h < handleLimit; h++) {
+            Piece.PieceData p = byHandle[h];
+            if (p != null && (p.isNeutral() || p.owner == turn) && p.stun > 0) {
+                setStun(p, p.stun - 1);
             }
         }
 
         // 다음 플레이어
-        turn = 1 - turn;
+        setTurn(1 - turn);
 
         // 다음 턴 기물들 이동 스택 초기화
         // 중립기물은 매 반턴마다 스택을 초기화한다 (양측 모두 접근 가능)
-        for (Piece.PieceData p : pieces.values()) {
-            if (p.pos == null) continue;
+        for (int h = 0; h < handleLimit; h++) {
+            Piece.PieceData p = byHandle[h];
+            if (p == null || p.pos == null) continue;
             if (p.owner == turn || p.isNeutral()) {
-                p.moveStack = RuleSet.initialMoveStack(p.score());
+                int stack = RuleSet.initialMoveStack(p.score());
+                if (p.moveStack != stack) setMoveStack(p, stack);
             }
         }
 
-        activePiece = null;
-        actionTaken = false;
+        setActiveHandle(Piece.PieceData.NO_HANDLE);
+        setActionTaken(false);
+        if (journal != null && !turnActions.isEmpty()) journal.add(U_ACTIONS_CLEARED, null, new ArrayList<>(turnActions), 0, 0);
+        if (!turnActions.isEmpty()) actionsChanged = true;
         turnActions.clear();
+
+        // 새 턴부터 최신 행마법 세대 사용
+        if (journal != null) journal.add(U_SCRIPTS, null, scripts, 0, 0);
+        scripts = ScriptRegistry.current();
     }
 
     // ── 승리 조건 ─────────────────────────────────────
 
     public Move.GameResult checkVictory() {
         boolean whiteHasRoyal = false, blackHasRoyal = false;
-        for (Piece.PieceData p : pieces.values()) {
-            if (p.isRoyal) {
+        for (int h = 0; h < handleLimit; h++) {
+            Piece.PieceData p = byHandle[h];
+            if (p != null && p.isRoyal) {
                 if (p.owner == 0) whiteHasRoyal = true;
                 else blackHasRoyal = true;
             }
@@ -594,55 +798,210 @@ public final class GameState {
 
     /** Chessembly 보드 상태 생성 */
     public BuiltinOps.BoardState toChessemblyBoard(String pieceId) {
-        Piece.PieceData piece = pieces.get(pieceId);
+        return toChessemblyBoard(pieces.get(pieceId));
+    }
+
+    public BuiltinOps.BoardState toChessemblyBoard(int handle) {
+        return toChessemblyBoard(piece(handle));
+    }
+
+    /**
+     * 이 게임에 등록된 기물의 Chessembly 보드 상태, piece가 null이거나 포켓에 있으면 null.
+     * 반환값은 GameState가 소유한 색 관점 뷰에 이동할 기물만 정한 것이다 — 기물을 더하거나 빼지 말 것.
+     */
+    public BuiltinOps.BoardState toChessemblyBoard(Piece.PieceData piece) {
         if (piece == null || piece.pos == null) return null;
 
         // 중립기물의 색 관점은 현재 턴 플레이어를 기준으로 결정된다
         boolean pieceIsWhite = piece.isNeutral() ? (turn == 0) : piece.isWhite();
 
+        BuiltinOps.BoardState bs = toChessemblyView(pieceIsWhite);
+        bs.pieceX = piece.pos.x;
+        bs.pieceY = piece.pos.y;
+        Piece.PieceKind kind = piece.effectiveKind();
+        bs.pieceName = kind.scriptName();
+        bs.pieceKind = kind.ordinal();
+        return bs;
+    }
+
+    /**
+     * 보드 위 모든 기물을 등록한 Chessembly 보드 상태 (이동할 기물은 아직 정하지 않음).
+     * 같은 색 관점의 기물 여러 개가 pieceX/pieceY/pieceName만 바꿔 가며 공유할 수 있다.
+     * 관점마다 하나를 GameState가 유지하며, 지난 조회 뒤 바뀐 칸만 다시 쓰고 돌려준다.
+     *
+     * @param perspectiveWhite 이동하는 쪽의 색 — 중립기물은 이 색으로 등록되어 아군 취급된다
+     */
+    public BuiltinOps.BoardState toChessemblyView(boolean perspectiveWhite) {
+        if (staleSquares != 0) syncViews();
+        int v = perspectiveWhite ? 0 : 1;
+        if (views[v] == null) views[v] = buildView(perspectiveWhite);
+        return views[v];
+    }
+
+    private BuiltinOps.BoardState buildView(boolean perspectiveWhite) {
         BuiltinOps.BoardState bs = new BuiltinOps.BoardState(
                 RuleSet.BOARD_WIDTH, RuleSet.BOARD_HEIGHT,
-                piece.pos.x, piece.pos.y,
-                piece.effectiveKind().scriptName(),
-                pieceIsWhite
+                0, 0, "",
+                perspectiveWhite
         );
 
         // 보드 위 모든 기물 등록
-        for (Map.Entry<Move.Square, String> entry : board.entries()) {
-            Move.Square sq = entry.getKey();
-            Piece.PieceData p = pieces.get(entry.getValue());
-            if (p != null) {
-                // 중립기물은 현재 기물(및 현재 플레이어)과 같은 색으로 등록 → 아군 취급
-                boolean pIsWhite = p.isNeutral() ? pieceIsWhite : p.isWhite();
-                bs.putPiece(sq.x, sq.y, p.effectiveKind().scriptName(), pIsWhite, p.stun, p.moveStack, p.state);
-            }
+        for (int h = 0; h < handleLimit; h++) {
+            Piece.PieceData p = byHandle[h];
+            if (p != null && p.pos != null) putView(bs, perspectiveWhite, p);
         }
 
         return bs;
     }
 
+    /** 바뀐 칸을 만들어 둔 뷰에 다시 쓴다 */
+    private void syncViews() {
+        for (long stale = staleSquares; stale != 0; stale &= stale - 1) {
+            int index = Long.numberOfTrailingZeros(stale);
+            Piece.PieceData p = piece(board.getHandle(Move.Square.ofIndex(index)));
+            for (int v = 0; v < views.length; v++) {
+                BuiltinOps.BoardState bs = views[v];
+                if (bs == null) continue;
+                if (p != null) putView(bs, v == 0, p);
+                else bs.removePiece(index % RuleSet.BOARD_WIDTH, index / RuleSet.BOARD_WIDTH);
+            }
+        }
+        staleSquares = 0L;
+    }
+
+    private static void putView(BuiltinOps.BoardState bs, boolean perspectiveWhite, Piece.PieceData p) {
+        // 중립기물은 현재 기물(및 현재 플레이어)과 같은 색으로 등록 → 아군 취급
+        boolean pIsWhite = p.isNeutral() ? perspectiveWhite : p.isWhite();
+        Piece.PieceKind kind = p.effectiveKind();
+        bs.putPiece(p.pos.x, p.pos.y, kind.scriptName(), kind.ordinal(), pIsWhite, p.stun, p.moveStack, p.state);
+    }
+
+    /** 보드 위 기물의 스택·상태·위장이 바뀌었음을 뷰에 알린다 (위치·종류 변경은 setOccupancy가 알린다) */
+    private void pieceChanged(Piece.PieceData p) {
+        if (p.pos != null) staleSquares |= 1L << p.pos.index();
+    }
+
+    // ── 점유 비트보드 ─────────────────────────────────
+
+    /** 보드에 기물을 놓고 그 칸을 색·종류 비트보드에 더한다 */
+    private void occupy(Move.Square sq, Piece.PieceData p) {
+        if (journal != null) journal.add(U_OCCUPY, p, null, sq.index(), 0);
+        board.put(sq, p.handle, p.id);
+        setOccupancy(sq.index(), p, true);
+        changedSquares |= 1L << sq.index();
+        hash ^= pieceKey(sq.index(), p);
+    }
+
+    /** 보드에서 기물을 빼고 그 칸을 색·종류 비트보드에서 지운다 */
+    private void vacate(Move.Square sq, Piece.PieceData p) {
+        if (journal != null) journal.add(U_VACATE, p, null, sq.index(), 0);
+        hash ^= pieceKey(sq.index(), p);
+        board.remove(sq);
+        setOccupancy(sq.index(), p, false);
+        changedSquares |= 1L << sq.index();
+    }
+
+    /** 기물 종류 변경 (transition, 프로모션) — 종류에 따라 중립 여부도 바뀔 수 있다 */
+    private void changeKind(Piece.PieceData p, Piece.PieceKind kind) {
+        if (journal != null) journal.add(U_KIND, p, p.kind, 0, 0);
+        int sq = squareOf(p);
+        if (sq >= 0) hash ^= Zobrist.piece(sq, p.kind, p.owner) ^ Zobrist.piece(sq, kind, p.owner);
+        if (p.pos != null) setOccupancy(p.pos.index(), p, false);
+        p.kind = kind;
+        if (p.pos != null) setOccupancy(p.pos.index(), p, true);
+        changed(p);
+    }
+
+    private void setOccupancy(int index, Piece.PieceData p, boolean on) {
+        long bit = 1L << index;
+        long mask = on ? bit : 0L;
+        if (p.isNeutral()) neutralOccupancy = neutralOccupancy & ~bit | mask;
+        else if (p.owner == 0) whiteOccupancy = whiteOccupancy & ~bit | mask;
+        else blackOccupancy = blackOccupancy & ~bit | mask;
+        int k = p.kind.ordinal();
+        kindOccupancy[k] = kindOccupancy[k] & ~bit | mask;
+        staleSquares |= bit;
+    }
+
+    private boolean isOccupied(Move.Square sq) {
+        return sq != null && sq.isValid() && (getOccupancy() & 1L << sq.index()) != 0;
+    }
+
+    /** 칸 내용(기물, 종류)이 바뀌었음을 합법 수 캐시에 알린다 */
+    private void squareChanged(Move.Square sq) {
+        if (sq != null && sq.isValid()) moveCache.invalidate(1L << sq.index());
+    }
+
     /** 특정 기물의 합법 수 목록 계산 */
     public List<Move.LegalMove> getLegalMoves(String pieceId) {
         return MoveGenerator.generateLegalMoves(this, pieceId);
     }
 
+    public List<Move.LegalMove> getLegalMoves(int handle) {
+        return MoveGenerator.generateLegalMoves(this, handle);
+    }
+
+    /** 한 플레이어(와 중립기물)의 모든 기물의 합법 수를 한 번에 계산 */
+    public PackedMoveList getAllLegalMoves(int player) {
+        return MoveGenerator.generateAllForSide(this, player);
+    }
+
     /** 특정 위치의 기물 합법 수 */
     public List<Move.LegalMove> getLegalMovesAt(Move.Square square) {
-        String pid = board.get(square);
-        if (pid == null) return Collections.emptyList();
-        return getLegalMoves(pid);
+        int h = board.getHandle(square);
+        if (h == Piece.PieceData.NO_HANDLE) return Collections.emptyList();
+        return getLegalMoves(h);
     }
 
-    /** 이동 유효성 확인 */
+    /** 이동 유효성 확인 — 수 목록을 만들지 않고 to로 가는 수가 확정되면 행마법을 멈춘다 */
     public boolean isValidMove(String pieceId, Move.Square from, Move.Square to) {
-        return getLegalMoves(pieceId).stream()
-                .anyMatch(m -> m.from.equals(from) && m.to.equals(to));
+        Piece.PieceData p = pieces.get(pieceId);
+        return p != null && isValidMove(p.handle, from, to);
+    }
+
+    public boolean isValidMove(int handle, Move.Square from, Move.Square to) {
+        Piece.PieceData p = piece(handle);
+        if (p == null || p.pos == null || !p.pos.equals(from)) return false;
+        return MoveGenerator.findMove(this, handle, to) != null;
     }
 
     public boolean isValidMoveAt(Move.Square from, Move.Square to) {
-        String pid = board.get(from);
-        if (pid == null) return false;
-        return isValidMove(pid, from, to);
+        int h = board.getHandle(from);
+        if (h == Piece.PieceData.NO_HANDLE) return false;
+        return isValidMove(h, from, to);
+    }
+
+    /** from의 기물이 to로 가는 첫 합법 수 (getLegalMovesAt 목록에서 to로 가는 첫 수), 없으면 null */
+    public Move.LegalMove findLegalMoveAt(Move.Square from, Move.Square to) {
+        int h = board.getHandle(from);
+        if (h == Piece.PieceData.NO_HANDLE) return null;
+        return MoveGenerator.findMove(this, h, to);
+    }
+
+    /**
+     * 플레이어가 지금 착수나 이동을 하나라도 할 수 있는지. 수 목록을 만들지 않고 기물마다 첫 합법 수에서 멈춘다.
+     * 스턴·계승·위장처럼 보드 밖에서 처리하는 행동은 세지 않는다.
+     */
+    public boolean hasAnyLegalAction(int player) {
+        if (turn != player || actionTaken) return false;
+        if (activeHandle != Piece.PieceData.NO_HANDLE) return MoveGenerator.hasLegalMove(this, activeHandle);
+
+        List<Piece.PieceSpec> pocket = pockets.get(player);
+        if (pocket != null && !pocket.isEmpty()) {
+            boolean isWhite = player == 0;
+            for (long empty = ~getOccupancy(); empty != 0; empty &= empty - 1) {
+                Move.Square sq = Move.Square.ofIndex(Long.numberOfTrailingZeros(empty));
+                for (Piece.PieceSpec spec : pocket) {
+                    if (!spec.kind.isPromotionSquare(sq, isWhite)) return true;
+                }
+            }
+        }
+
+        for (long movers = getOccupancy(player) | neutralOccupancy; movers != 0; movers &= movers - 1) {
+            int h = board.getHandle(Move.Square.ofIndex(Long.numberOfTrailingZeros(movers)));
+            if (MoveGenerator.hasLegalMove(this, h)) return true;
+        }
+        return false;
     }
 
     // ── 액션 적용 ─────────────────────────────────────
@@ -650,59 +1009,584 @@ public final class GameState {
     public void applyAction(Move.Action action) {
         switch (action.type) {
             case PLACE: {
-                Piece.PieceData p = pieces.get(action.pieceId);
+                Piece.PieceData p = pieceOf(action);
                 if (p != null) {
                     placePiece(turn, p.kind, action.to);
                 }
                 break;
             }
             case MOVE: {
-                List<Move.LegalMove> moves = getLegalMovesAt(action.from);
-                for (Move.LegalMove lm : moves) {
-                    if (lm.to.equals(action.to)) {
-                        movePieceByLegalMove(lm);
-                        break;
-                    }
-                }
+                Move.LegalMove lm = findLegalMoveAt(action.from, action.to);
+                if (lm != null) movePieceByLegalMove(lm);
                 break;
             }
             case STUN:
-                stunPiece(action.pieceId, action.stunAmount);
+                stunPiece(pieceOf(action), action.stunAmount);
                 break;
             case CROWN: {
-                Piece.PieceData p = pieces.get(action.pieceId);
-                if (p != null) p.isRoyal = true;
+                Piece.PieceData p = pieceOf(action);
+                if (p != null) setRoyal(p, true);
                 break;
             }
             case DISGUISE: {
-                Piece.PieceData p = pieces.get(action.pieceId);
-                if (p != null) p.disguise = Piece.PieceKind.fromString(action.asKind);
+                Piece.PieceData p = pieceOf(action);
+                if (p != null) setDisguise(p, Piece.PieceKind.fromString(action.asKind));
                 break;
             }
         }
     }
 
+    /** 액션의 기물 — 기록된 핸들이 아직 같은 기물(ID)을 가리킬 때만 핸들을 쓰고, 아니면 ID로 찾는다 */
+    private Piece.PieceData pieceOf(Move.Action action) {
+        Piece.PieceData p = piece(action.pieceHandle);
+        if (p != null && p.id.equals(action.pieceId)) return p;
+        return action.pieceId != null ? pieces.get(action.pieceId) : null;
+    }
+
+    // ── 스냅샷 ────────────────────────────────────────
+
+    /**
+     * 현재 상태의 불변 스냅샷. 마지막 스냅샷 뒤 바뀐 것이 없으면 그 스냅샷을 그대로 돌려주고, 아니면 바뀐 기물과
+     * 칸의 경로만 새로 만든다 (기물 하나당 O(log n)). 이 GameState를 고치는 스레드에서 불러야 하며, 돌려받은
+     * 스냅샷은 어느 스레드에서 읽어도 된다. PieceData 필드나 포켓 목록을 GameState 밖에서 직접 고친 것은 담기지 않는다.
+     */
+    public GameSnapshot snapshot() {
+        GameSnapshot prev = snapshot;
+        boolean first = prev == null;
+        if (!first && changedSquares == 0L && !pocketsChanged && !actionsChanged && !handlesChanged
+                && !anyHandleChanged() && prev.turn == turn && prev.activeHandle == activeHandle
+                && prev.actionTaken == actionTaken && prev.nextPieceId == nextPieceId && prev.hash == hash
+                && prev.handleLimit == handleLimit && prev.scripts == scripts && prev.debugMode == debugMode) {
+            return prev;
+        }
+
+        PersistentArray<GameSnapshot.PieceRecord> recs = first ? PersistentArray.empty() : prev.pieces;
+        long squares = first ? -1L : changedSquares;
+        for (int w = 0; w < changedHandles.length; w++) {
+            long bits = first ? -1L : changedHandles[w];
+            while (bits != 0L) {
+                int h = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (h >= handleLimit) break;
+                Piece.PieceData p = byHandle[h];
+                GameSnapshot.PieceRecord r = p != null ? new GameSnapshot.PieceRecord(p) : null;
+                recs = recs.set(h, r);
+                if (p != null && p.pos != null && p.pos.isValid()) squares |= 1L << p.pos.index();
+            }
+            changedHandles[w] = 0L;
+        }
+        if (first) {
+            for (int h = changedHandles.length << 6; h < handleLimit; h++) {
+                Piece.PieceData p = byHandle[h];
+                if (p != null) recs = recs.set(h, new GameSnapshot.PieceRecord(p));
+            }
+        }
+
+        PersistentArray<GameSnapshot.PieceRecord> cells = first ? PersistentArray.empty() : prev.board;
+        while (squares != 0L) {
+            int sq = Long.numberOfTrailingZeros(squares);
+            squares &= squares - 1;
+            int h = board.getHandle(Move.Square.ofIndex(sq));
+            cells = cells.set(sq, h != Piece.PieceData.NO_HANDLE ? recs.get(h) : null);
+        }
+
+        Map<Integer, List<Piece.PieceSpec>> pocketCopy;
+        if (first || pocketsChanged) {
+            Map<Integer, List<Piece.PieceSpec>> m = new HashMap<>();
+            for (Map.Entry<Integer, List<Piece.PieceSpec>> e : pockets.entrySet()) {
+                m.put(e.getKey(), List.copyOf(e.getValue()));
+            }
+            pocketCopy = Map.copyOf(m);
+        } else {
+            pocketCopy = prev.pockets;
+        }
+        List<Move.Action> actionCopy = first || actionsChanged ? List.copyOf(turnActions) : prev.turnActions;
+        int[] freeCopy = first || handlesChanged ? Arrays.copyOf(freeHandles, freeCount) : prev.freeHandles;
+
+        changedSquares = 0L;
+        pocketsChanged = actionsChanged = handlesChanged = false;
+        snapshot = new GameSnapshot(recs, cells, pocketCopy, actionCopy, freeCopy, handleLimit, turn,
+                activeHandle, actionTaken, nextPieceId, hash, debugMode, scripts);
+        return snapshot;
+    }
+
+    /** 기물이 다음 스냅샷에 다시 담겨야 함을 표시한다 */
+    private void changed(Piece.PieceData p) {
+        int h = p.handle;
+        if (h == Piece.PieceData.NO_HANDLE) return;
+        int w = h >>> 6;
+        if (w >= changedHandles.length) changedHandles = Arrays.copyOf(changedHandles, Math.max(w + 1, changedHandles.length * 2));
+        changedHandles[w] |= 1L << h;
+    }
+
+    private boolean anyHandleChanged() {
+        for (long bits : changedHandles) {
+            if (bits != 0L) return true;
+        }
+        return false;
+    }
+
+    // ── 해시 ──────────────────────────────────────────
+
+    /**
+     * 전체 상태의 Zobrist 해시. 변경 메서드가 매번 함께 고치므로 조회는 필드 하나를 읽는다.
+     * 같은 국면(같은 행동 가능성)이면 같은 값이다 — 기물 ID·핸들, 턴 기록, 행마법 세대는 넣지 않는다.
+     * PieceData 필드나 {@link #getPocket} 목록을 GameState 밖에서 직접 고치면 맞지 않게 된다.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /** 해시를 처음부터 다시 계산한다 (검증용) — 정상이면 {@link #getHash()}와 같다 */
+    public long computeHash() {
+        long h = turn == 1 ? Zobrist.TURN : 0L;
+        if (actionTaken) h ^= Zobrist.ACTION_TAKEN;
+        for (int sq = 0; sq < RuleSet.BOARD_WIDTH * RuleSet.BOARD_HEIGHT; sq++) {
+            Piece.PieceData p = piece(board.getHandle(Move.Square.ofIndex(sq)));
+            if (p != null) h ^= pieceKey(sq, p);
+        }
+        for (Map.Entry<Integer, List<Piece.PieceSpec>> e : pockets.entrySet()) {
+            h ^= pocketKey(e.getKey(), e.getValue());
+        }
+        return h;
+    }
+
+    /** 칸 square에 있는 기물의 키 */
+    private long pieceKey(int square, Piece.PieceData p) {
+        long k = Zobrist.piece(square, p.kind, p.owner)
+                ^ Zobrist.stun(square, p.stun)
+                ^ Zobrist.moveStack(square, p.moveStack);
+        if (p.isRoyal) k ^= Zobrist.royal(square);
+        if (p.disguise != null) k ^= Zobrist.disguise(square, p.disguise);
+        if (activeHandle != Piece.PieceData.NO_HANDLE && p.handle == activeHandle) k ^= Zobrist.active(square);
+        for (int s = p.state.nextSlot(0); s >= 0; s = p.state.nextSlot(s + 1)) {
+            k ^= Zobrist.state(square, s, p.state.getSlot(s));
+        }
+        return k;
+    }
+
+    /**
+     * 기물의 키가 해시에 들어 있는 칸, 아니면 -1 (포켓·잡힌 기물, 또는 occupy 뒤 pos를 아직 바꾸지 않은 이동 도중).
+     * 필드 하나를 바꾸는 곳은 이 칸에서 그 필드의 이전 키와 새 키만 바꿔 끼운다.
+     */
+    private int squareOf(Piece.PieceData p) {
+        if (p == null || p.pos == null || p.handle == Piece.PieceData.NO_HANDLE
+                || board.getHandle(p.pos) != p.handle) return -1;
+        return p.pos.index();
+    }
+
+    private static long pocketKey(int player, List<Piece.PieceSpec> pocket) {
+        if (pocket == null || pocket.isEmpty()) return 0L;
+        int[] counts = new int[Piece.PieceKind.values().length];
+        for (Piece.PieceSpec spec : pocket) counts[spec.kind.ordinal()]++;
+        long k = 0L;
+        Piece.PieceKind[] kinds = Piece.PieceKind.values();
+        for (int i = 0; i < counts.length; i++) k ^= Zobrist.pocket(player, kinds[i], counts[i]);
+        return k;
+    }
+
+    private static int pocketCount(List<Piece.PieceSpec> pocket, Piece.PieceKind kind) {
+        int n = 0;
+        for (Piece.PieceSpec spec : pocket) {
+            if (spec.kind == kind) n++;
+        }
+        return n;
+    }
+
+    // ── make / unmake ─────────────────────────────────
+
+    /**
+     * 합법 수를 두고 되돌리기 기록을 돌려준다 ({@link #movePieceByLegalMove}와 같은 검증·효과).
+     * 도중에 예외가 나면 이미 바꾼 부분을 되돌린 뒤 다시 던진다.
+     */
+    public Undo make(Move.LegalMove mv) {
+        Undo u = begin();
+        try {
+            movePieceByLegalMove(mv);
+        } catch (RuntimeException e) {
+            abort(u);
+            throw e;
+        }
+        journal = null;
+        return u;
+    }
+
+    /** 포켓에서 착수하고 되돌리기 기록을 돌려준다 ({@link #placePiece}와 같은 검증·효과) */
+    public Undo makePlace(int player, Piece.PieceKind kind, Move.Square target) {
+        Undo u = begin();
+        try {
+            placePiece(player, kind, target);
+        } catch (RuntimeException e) {
+            abort(u);
+            throw e;
+        }
+        journal = null;
+        return u;
+    }
+
+    /** 액션을 적용하고 되돌리기 기록을 돌려준다 ({@link #applyAction}과 같은 효과) */
+    public Undo make(Move.Action action) {
+        Undo u = begin();
+        try {
+            applyAction(action);
+        } catch (RuntimeException e) {
+            abort(u);
+            throw e;
+        }
+        journal = null;
+        return u;
+    }
+
+    /** 턴을 넘기고 되돌리기 기록을 돌려준다 (스턴 감소, 이동 스택 초기화, 턴 기록 포함) */
+    public Undo makeEndTurn() {
+        Undo u = begin();
+        endTurn();
+        journal = null;
+        return u;
+    }
+
+    /**
+     * make 직전 상태로 되돌린다. 기록은 make한 역순으로 되돌려야 하며, 한 기록은 한 번만 쓴다.
+     *
+     * @throws IllegalStateException make 도중이거나 이미 되돌린 기록인 경우
+     */
+    public void unmake(Undo u) {
+        if (journal != null) throw new IllegalStateException("make 도중에는 되돌릴 수 없습니다");
+        if (u.owner != this || u.size < 0) throw new IllegalStateException("이 게임에서 아직 되돌리지 않은 기록이 아닙니다");
+        rollback(u);
+        u.size = -1;
+    }
+
+    private Undo begin() {
+        if (journal != null) throw new IllegalStateException("이미 make 도중입니다");
+        journal = new Undo(this);
+        return journal;
+    }
+
+    private void abort(Undo u) {
+        journal = null;
+        rollback(u);
+    }
+
+    /** 기록을 역순으로 적용한다 — journal이 null이므로 되돌리는 변경은 다시 기록되지 않는다 */
+    private void rollback(Undo u) {
+        int[] ints = u.ints;
+        Object[] refs = u.refs;
+        for (int e = u.size - 1; e >= 0; e--) {
+            int a = ints[e * 3 + 1], b = ints[e * 3 + 2];
+            Piece.PieceData p = (Piece.PieceData) refs[e * 2];
+            Object old = refs[e * 2 + 1];
+            switch (ints[e * 3]) {
+                case U_OCCUPY: {
+                    Move.Square sq = Move.Square.ofIndex(a);
+                    vacate(sq, p);
+                    squareChanged(sq);
+                    break;
+                }
+                case U_VACATE: {
+                    Move.Square sq = Move.Square.ofIndex(a);
+                    occupy(sq, p);
+                    squareChanged(sq);
+                    break;
+                }
+                case U_POS:
+                    setPos(p, (Move.Square) old);
+                    break;
+                case U_STUN:
+                    setStun(p, a);
+                    break;
+                case U_STACK:
+                    setMoveStack(p, a);
+                    break;
+                case U_KIND:
+                    changeKind(p, (Piece.PieceKind) old);
+                    squareChanged(p.pos);
+                    break;
+                case U_DISGUISE:
+                    setDisguise(p, (Piece.PieceKind) old);
+                    break;
+                case U_ROYAL:
+                    setRoyal(p, a != 0);
+                    break;
+                case U_STATE:
+                    // a = 슬롯, b = 이전 값, 이전 값 객체는 키가 있었으면 non-null
+                    if (old != null) putState(p, a, b);
+                    else removeState(p, a);
+                    break;
+                case U_REGISTER: {
+                    int h = p.handle;
+                    changed(p);
+                    handlesChanged = true;
+                    byHandle[h] = null;
+                    p.handle = Piece.PieceData.NO_HANDLE;
+                    pieces.remove(p.id);
+                    moveCache.remove(h);
+                    if (a != 0) freeHandles[freeCount++] = h;
+                    else handleLimit--;
+                    break;
+                }
+                case U_UNREGISTER:
+                    freeCount--;
+                    byHandle[a] = p;
+                    p.handle = a;
+                    pieces.put(p.id, p);
+                    changed(p);
+                    handlesChanged = true;
+                    moveCache.remove(a);
+                    break;
+                case U_NEXT_ID:
+                    nextPieceId = a;
+                    break;
+                case U_TURN:
+                    setTurn(a);
+                    break;
+                case U_ACTIVE:
+                    setActiveHandle(a);
+                    break;
+                case U_TAKEN:
+                    setActionTaken(a != 0);
+                    break;
+                case U_ACTION_ADDED:
+                    turnActions.remove(turnActions.size() - 1);
+                    actionsChanged = true;
+                    break;
+                case U_ACTIONS_CLEARED: {
+                    @SuppressWarnings("unchecked")
+                    List<Move.Action> cleared = (List<Move.Action>) old;
+                    turnActions.addAll(cleared);
+                    actionsChanged = true;
+                    break;
+                }
+                case U_SCRIPTS:
+                    scripts = (ScriptRegistry.Generation) old;
+                    break;
+                case U_POCKET:
+                    pocketInsert(a, pockets.get(a), b, (Piece.PieceSpec) old);
+                    break;
+                default:
+                    throw new IllegalStateException("알 수 없는 되돌리기 항목: " + ints[e * 3]);
+            }
+        }
+    }
+
+    // ── 기록하는 변경 ─────────────────────────────────
+    // make 도중에는 바꾸기 전 값을 journal에 남긴다. 보드 위 기물이면 해시를 고치고 뷰에도 알린다.
+
+    private void setPos(Piece.PieceData p, Move.Square pos) {
+        if (journal != null) journal.add(U_POS, p, p.pos, 0, 0);
+        p.pos = pos;
+        changed(p);
+    }
+
+    private void setStun(Piece.PieceData p, int stun) {
+        if (journal != null) journal.add(U_STUN, p, null, p.stun, 0);
+        int sq = squareOf(p);
+        if (sq >= 0) hash ^= Zobrist.stun(sq, p.stun) ^ Zobrist.stun(sq, stun);
+        p.stun = stun;
+        pieceChanged(p);
+        changed(p);
+    }
+
+    private void setMoveStack(Piece.PieceData p, int moveStack) {
+        if (journal != null) journal.add(U_STACK, p, null, p.moveStack, 0);
+        int sq = squareOf(p);
+        if (sq >= 0) hash ^= Zobrist.moveStack(sq, p.moveStack) ^ Zobrist.moveStack(sq, moveStack);
+        p.moveStack = moveStack;
+        pieceChanged(p);
+        changed(p);
+    }
+
+    private void setDisguise(Piece.PieceData p, Piece.PieceKind disguise) {
+        if (journal != null) journal.add(U_DISGUISE, p, p.disguise, 0, 0);
+        int sq = squareOf(p);
+        if (sq >= 0) {
+            if (p.disguise != null) hash ^= Zobrist.disguise(sq, p.disguise);
+            if (disguise != null) hash ^= Zobrist.disguise(sq, disguise);
+        }
+        p.disguise = disguise;
+        pieceChanged(p);
+        changed(p);
+        squareChanged(p.pos);
+    }
+
+    private void setRoyal(Piece.PieceData p, boolean royal) {
+        if (journal != null) journal.add(U_ROYAL, p, null, p.isRoyal ? 1 : 0, 0);
+        int sq = squareOf(p);
+        if (sq >= 0 && royal != p.isRoyal) hash ^= Zobrist.royal(sq);
+        p.isRoyal = royal;
+        changed(p);
+    }
+
+    private void putState(Piece.PieceData p, int slot, int value) {
+        boolean had = p.state.hasSlot(slot);
+        int old = p.state.getSlot(slot);
+        if (journal != null) journal.add(U_STATE, p, had ? Boolean.TRUE : null, slot, old);
+        int sq = squareOf(p);
+        if (sq >= 0) {
+            if (had) hash ^= Zobrist.state(sq, slot, old);
+            hash ^= Zobrist.state(sq, slot, value);
+        }
+        p.state.putSlot(slot, value);
+        pieceChanged(p);
+        changed(p);
+    }
+
+    /** 되돌리기 전용 — make가 새로 넣은 상태 슬롯을 지운다 */
+    private void removeState(Piece.PieceData p, int slot) {
+        if (!p.state.hasSlot(slot)) return;
+        int sq = squareOf(p);
+        if (sq >= 0) hash ^= Zobrist.state(sq, slot, p.state.getSlot(slot));
+        p.state.removeSlot(slot);
+        pieceChanged(p);
+        changed(p);
+    }
+
+    private void setTurn(int t) {
+        if (journal != null) journal.add(U_TURN, null, null, turn, 0);
+        if (t != turn) hash ^= Zobrist.TURN;
+        turn = t;
+    }
+
+    private void setActiveHandle(int handle) {
+        if (journal != null) journal.add(U_ACTIVE, null, null, activeHandle, 0);
+        if (handle == activeHandle) return;
+        // 이동 중 표시는 기물이 있는 칸의 키다
+        int prev = squareOf(piece(activeHandle)), next = squareOf(piece(handle));
+        if (prev >= 0) hash ^= Zobrist.active(prev);
+        if (next >= 0) hash ^= Zobrist.active(next);
+        activeHandle = handle;
+    }
+
+    private void setActionTaken(boolean taken) {
+        if (journal != null) journal.add(U_TAKEN, null, null, actionTaken ? 1 : 0, 0);
+        if (taken != actionTaken) hash ^= Zobrist.ACTION_TAKEN;
+        actionTaken = taken;
+    }
+
+    /** 포켓에서 i번째를 뺀다 — 그 종류의 개수 키를 바꾼다 */
+    private Piece.PieceSpec pocketRemove(int player, List<Piece.PieceSpec> pocket, int i) {
+        Piece.PieceKind kind = pocket.get(i).kind;
+        int n = pocketCount(pocket, kind);
+        hash ^= Zobrist.pocket(player, kind, n) ^ Zobrist.pocket(player, kind, n - 1);
+        pocketsChanged = true;
+        return pocket.remove(i);
+    }
+
+    private void pocketInsert(int player, List<Piece.PieceSpec> pocket, int i, Piece.PieceSpec spec) {
+        int n = pocketCount(pocket, spec.kind);
+        hash ^= Zobrist.pocket(player, spec.kind, n) ^ Zobrist.pocket(player, spec.kind, n + 1);
+        pocket.add(i, spec);
+        pocketsChanged = true;
+    }
+
+    private void addTurnAction(Move.Action action) {
+        if (journal != null) journal.add(U_ACTION_ADDED, null, null, 0, 0);
+        turnActions.add(action);
+        actionsChanged = true;
+    }
+
+    // 되돌리기 항목 종류 — (기물, 이전 값 객체, 정수 a, 정수 b)의 뜻은 rollback 참고
+    private static final int U_OCCUPY = 0;
+    private static final int U_VACATE = 1;
+    private static final int U_POS = 2;
+    private static final int U_STUN = 3;
+    private static final int U_STACK = 4;
+    private static final int U_KIND = 5;
+    private static final int U_DISGUISE = 6;
+    private static final int U_ROYAL = 7;
+    private static final int U_STATE = 8;
+    private static final int U_REGISTER = 9;
+    private static final int U_UNREGISTER = 10;
+    private static final int U_NEXT_ID = 11;
+    private static final int U_TURN = 12;
+    private static final int U_ACTIVE = 13;
+    private static final int U_TAKEN = 14;
+    private static final int U_ACTION_ADDED = 15;
+    private static final int U_ACTIONS_CLEARED = 16;
+    private static final int U_SCRIPTS = 17;
+    private static final int U_POCKET = 18;
+
+    /**
+     * make 한 번의 되돌리기 기록 — 바뀐 값마다 정수 세 개(종류, a, b)와 참조 두 개(기물, 이전 값 객체)만 남긴다.
+     * 잡힌 기물은 참조로 남으므로 스턴·이동 스택·상태가 그대로 돌아온다.
+     */
+    public static final class Undo {
+        private final GameState owner;
+        private int[] ints = new int[3 * 8];
+        private Object[] refs = new Object[2 * 8];
+        /** 항목 수, 되돌린 뒤에는 -1 */
+        private int size;
+
+        private Undo(GameState owner) {
+            this.owner = owner;
+        }
+
+        /** 기록한 변경 수 */
+        public int size() {
+            return Math.max(size, 0);
+        }
+
+        private void add(int op, Piece.PieceData piece, Object old, int a, int b) {
+            if (size * 3 == ints.length) {
+                ints = Arrays.copyOf(ints, ints.length * 2);
+                refs = Arrays.copyOf(refs, refs.length * 2);
+            }
+            ints[size * 3] = op;
+            ints[size * 3 + 1] = a;
+            ints[size * 3 + 2] = b;
+            refs[size * 2] = piece;
+            refs[size * 2 + 1] = old;
+            size++;
+        }
+    }
+
     // ── 접근자 ────────────────────────────────────────
 
     public Board getBoard()             { return board; }
     public int getTurn()                { return turn; }
-    public String getActivePiece()      { return activePiece; }
+    public String getActivePiece() {
+        Piece.PieceData p = piece(activeHandle);
+        return p != null ? p.id : null;
+    }
+    /** 이동 중인 기물의 핸들, 없으면 NO_HANDLE */
+    public int getActiveHandle()        { return activeHandle; }
     public boolean isActionTaken()      { return actionTaken; }
     public List<Move.Action> getTurnActions() { return Collections.unmodifiableList(turnActions); }
+    public ScriptRegistry.Generation getScripts() { return scripts; }
+    public LegalMoveCache getMoveCache() { return moveCache; }
     public boolean isDebugMode()        { return debugMode; }
     public void setDebugMode(boolean d) { debugMode = d; }
-    public java.util.function.Consumer<String> getDebugLogger() { return debugLogger; }
-    public void setDebugLogger(java.util.function.Consumer<String> logger) { this.debugLogger = logger; }
+
+    // 점유 비트보드 (비트 = y * BOARD_WIDTH + x, 읽기 전용 값)
+    public long getOccupancy()          { return whiteOccupancy | blackOccupancy | neutralOccupancy; }
+    public long getWhiteOccupancy()     { return whiteOccupancy; }
+    public long getBlackOccupancy()     { return blackOccupancy; }
+    /** 중립기물 — 흰색·검은색 비트보드에는 들어가지 않는다 */
+    public long getNeutralOccupancy()   { return neutralOccupancy; }
+    /** 플레이어(0 = 백, 1 = 흑) 자신의 기물 (중립기물 제외) */
+    public long getOccupancy(int player) { return player == 0 ? whiteOccupancy : blackOccupancy; }
+    /** 해당 종류(위장 전 실제 종류) 기물 */
+    public long getKindOccupancy(Piece.PieceKind kind) { return kindOccupancy[kind.ordinal()]; }
 
     public Piece.PieceData getPieceAt(Move.Square sq) {
-        String id = board.get(sq);
-        return id != null ? pieces.get(id) : null;
+        return piece(board.getHandle(sq));
     }
 
+    /** 외부 이름(ID)으로 찾기 — 게임 안에서는 {@link #getPiece(int)}를 쓴다 */
     public Piece.PieceData getPiece(String id) {
         return pieces.get(id);
     }
 
+    /** 핸들의 기물, 없거나 잡혔으면 null */
+    public Piece.PieceData getPiece(int handle) {
+        return piece(handle);
+    }
+
+    /** 지금까지 쓴 핸들 수 — 핸들은 [0, 이 값) 범위이고 잡힌 기물의 칸은 비어 있다 */
+    public int getHandleLimit() {
+        return handleLimit;
+    }
+
     public Map<String, Piece.PieceData> getAllPieces() {
         return Collections.unmodifiableMap(pieces);
     }
@@ -714,8 +1598,8 @@ public final class GameState {
     /** 모든 기물의 state를 병합하여 반환 (디버그용) */
     public Map<String, Integer> getGlobalState() {
         Map<String, Integer> merged = new HashMap<>();
-        for (Piece.PieceData p : pieces.values()) {
-            merged.putAll(p.state);
+        for (int h = 0; h < handleLimit; h++) {
+            if (byHandle[h] != null) merged.putAll(byHandle[h].state);
         }
         return Collections.unmodifiableMap(merged);
     }
@@ -723,8 +1607,9 @@ public final class GameState {
     /** 보드 위 모든 기물 정보 반환 */
     public List<Piece.PieceData> getBoardPieces() {
         List<Piece.PieceData> result = new ArrayList<>();
-        for (Piece.PieceData p : pieces.values()) {
-            if (p.pos != null) result.add(p);
+        for (int h = 0; h < handleLimit; h++) {
+            Piece.PieceData p = byHandle[h];
+            if (p != null && p.pos != null) result.add(p);
         }
         return result;
     }
@@ -15,13 +15,41 @@ public final class Move {
         public final int x; // 0=a, 7=h
         public final int y; // 0=1, 7=8
 
+        /** 보드 안 모든 칸의 표준 인스턴스 — 인덱스 y * BOARD_WIDTH + x */
+        private static final Square[] TABLE = new Square[RuleSet.BOARD_WIDTH * RuleSet.BOARD_HEIGHT];
+        static {
+            for (int i = 0; i < TABLE.length; i++) {
+                TABLE[i] = new Square(i % RuleSet.BOARD_WIDTH, i / RuleSet.BOARD_WIDTH);
+            }
+        }
+
+        /** 새 인스턴스가 필요할 때만 쓴다 — 보통은 {@link #of(int, int)} */
         public Square(int x, int y) {
             this.x = x;
             this.y = y;
         }
 
+        /**
+         * 좌표의 표준 인스턴스. 보드 안 칸은 항상 같은 객체를 돌려주므로 할당이 없고 == 비교가 된다.
+         * 보드 밖 좌표는 매번 새 인스턴스를 만든다.
+         */
+        public static Square of(int x, int y) {
+            if (x < 0 || x >= RuleSet.BOARD_WIDTH || y < 0 || y >= RuleSet.BOARD_HEIGHT) return new Square(x, y);
+            return TABLE[y * RuleSet.BOARD_WIDTH + x];
+        }
+
+        /** 인덱스(y * BOARD_WIDTH + x)의 표준 인스턴스 */
+        public static Square ofIndex(int index) {
+            return TABLE[index];
+        }
+
+        /** 보드 배열 인덱스 (y * BOARD_WIDTH + x) — 보드 안 칸에서만 의미가 있다 */
+        public int index() {
+            return y * RuleSet.BOARD_WIDTH + x;
+        }
+
         public boolean isValid() {
-            return x >= 0 && x < 8 && y >= 0 && y < 8;
+            return x >= 0 && x < RuleSet.BOARD_WIDTH && y >= 0 && y < RuleSet.BOARD_HEIGHT;
         }
 
         /** "e4" 같은 체스 표기법에서 파싱 */
@@ -30,7 +58,7 @@ public final class Move {
             int fx = s.charAt(0) - 'a';
             int fy = s.charAt(1) - '1';
             if (fx < 0 || fx > 7 || fy < 0 || fy > 7) return null;
-            return new Square(fx, fy);
+            return of(fx, fy);
         }
 
         /** 체스 표기법으로 변환 */
@@ -95,14 +123,20 @@ public final class Move {
     public static final class Action {
         public final ActionType type;
         public final String pieceId;
+        /**
+         * 기록할 때의 기물 핸들 (핸들 없이 만들었으면 {@link Piece.PieceData#NO_HANDLE}).
+         * 잡힌 기물의 핸들은 재사용되므로 {@link GameState}는 핸들의 기물 ID가 pieceId와 같을 때만 핸들을 쓴다.
+         */
+        public final int pieceHandle;
         public final Square from;     // MOVE 전용
         public final Square to;       // MOVE, PLACE 전용
         public final String asKind;   // DISGUISE 전용
         public final int stunAmount;  // STUN 전용
 
-        private Action(ActionType type, String pieceId, Square from, Square to,
+        private Action(ActionType type, int pieceHandle, String pieceId, Square from, Square to,
                        String asKind, int stunAmount) {
             this.type = type;
+            this.pieceHandle = pieceHandle;
             this.pieceId = pieceId;
             this.from = from;
             this.to = to;
@@ -111,23 +145,43 @@ public final class Move {
         }
 
         public static Action place(String pieceId, Square target) {
-            return new Action(ActionType.PLACE, pieceId, null, target, null, 0);
+            return place(Piece.PieceData.NO_HANDLE, pieceId, target);
+        }
+
+        public static Action place(int pieceHandle, String pieceId, Square target) {
+            return new Action(ActionType.PLACE, pieceHandle, pieceId, null, target, null, 0);
         }
 
         public static Action move(String pieceId, Square from, Square to) {
-            return new Action(ActionType.MOVE, pieceId, from, to, null, 0);
+            return move(Piece.PieceData.NO_HANDLE, pieceId, from, to);
+        }
+
+        public static Action move(int pieceHandle, String pieceId, Square from, Square to) {
+            return new Action(ActionType.MOVE, pieceHandle, pieceId, from, to, null, 0);
         }
 
         public static Action disguise(String pieceId, String asKind) {
-            return new Action(ActionType.DISGUISE, pieceId, null, null, asKind, 0);
+            return disguise(Piece.PieceData.NO_HANDLE, pieceId, asKind);
+        }
+
+        public static Action disguise(int pieceHandle, String pieceId, String asKind) {
+            return new Action(ActionType.DISGUISE, pieceHandle, pieceId, null, null, asKind, 0);
         }
 
         public static Action crown(String pieceId) {
-            return new Action(ActionType.CROWN, pieceId, null, null, null, 0);
+            return crown(Piece.PieceData.NO_HANDLE, pieceId);
+        }
+
+        public static Action crown(int pieceHandle, String pieceId) {
+            return new Action(ActionType.CROWN, pieceHandle, pieceId, null, null, null, 0);
         }
 
         public static Action stun(String pieceId, int amount) {
-            return new Action(ActionType.STUN, pieceId, null, null, null, amount);
+            return stun(Piece.PieceData.NO_HANDLE, pieceId, amount);
+        }
+
+        public static Action stun(int pieceHandle, String pieceId, int amount) {
+            return new Action(ActionType.STUN, pieceHandle, pieceId, null, null, null, amount);
         }
     }
 }
@@ -0,0 +1,76 @@
+package nand.modid.chess.core;
+
+/**
+ * PersistentArray — 16갈래 트라이로 만든 불변 배열. {@link #set}은 루트에서 그 칸까지의 노드만 복사한 새 배열을
+ * 돌려주고 나머지 노드는 이전 배열과 공유한다 (O(log16 n)). 만든 뒤에는 어떤 노드도 고치지 않으므로
+ * 여러 스레드가 동기화 없이 읽어도 된다. {@link GameSnapshot}이 기물(핸들별)과 보드(칸별)를 담는 데 쓴다.
+ */
+final class PersistentArray<T> {
+
+    private static final int BITS = 4;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentArray<?> EMPTY = new PersistentArray<>(new Object[WIDTH], 0);
+
+    /** 잎 노드는 값을, 안쪽 노드는 자식 Object[]를 담는다 */
+    private final Object[] root;
+    /** 루트 노드가 보는 인덱스 비트의 시작 위치 (잎 하나뿐이면 0) */
+    private final int shift;
+
+    private PersistentArray(Object[] root, int shift) {
+        this.root = root;
+        this.shift = shift;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PersistentArray<T> empty() {
+        return (PersistentArray<T>) EMPTY;
+    }
+
+    /** i번째 값, 한 번도 정하지 않았거나 범위 밖이면 null */
+    @SuppressWarnings("unchecked")
+    T get(int i) {
+        if (i < 0 || (i >>> shift) >= WIDTH) return null;
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(i >>> level) & MASK];
+            if (node == null) return null;
+        }
+        return (T) node[i & MASK];
+    }
+
+    /** i번째만 value로 바꾼 새 배열 (이 배열은 그대로다) */
+    PersistentArray<T> set(int i, T value) {
+        if (i < 0) throw new IndexOutOfBoundsException("인덱스: " + i);
+        Object[] r = root;
+        int s = shift;
+        while ((i >>> s) >= WIDTH) {
+            Object[] grown = new Object[WIDTH];
+            grown[0] = r;
+            r = grown;
+            s += BITS;
+        }
+        if (get(r, s, i) == value) return r == root ? this : new PersistentArray<>(r, s);
+        return new PersistentArray<>(set(r, s, i, value), s);
+    }
+
+    private static Object get(Object[] node, int level, int i) {
+        for (; level > 0; level -= BITS) {
+            node = (Object[]) node[(i >>> level) & MASK];
+            if (node == null) return null;
+        }
+        return node[i & MASK];
+    }
+
+    private static Object[] set(Object[] node, int level, int i, Object value) {
+        Object[] copy = node != null ? node.clone() : new Object[WIDTH];
+        if (level == 0) {
+            copy[i & MASK] = value;
+        } else {
+            int slot = (i >>> level) & MASK;
+            copy[slot] = set((Object[]) copy[slot], level - BITS, i, value);
+        }
+        return copy;
+    }
+}
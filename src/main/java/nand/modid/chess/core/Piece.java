@@ -1,9 +1,11 @@
 package nand.modid.chess.core;
 
+import nand.modid.chess.dsl.chessembly.ScriptSymbols;
+
 import java.util.*;
 
 /**
- * Piece — 기물 종류(PieceKind), 기물 스펙(PieceSpec), 기물(PieceData)을 정의한다.
+ * Piece — 기물 종류(PieceKind), 기물 스펙(PieceSpec), 기물(PieceData), 기물 상태(PieceState)를 정의한다.
  * Rust의 PieceKind enum + Piece struct 1:1 포팅.
  */
 public final class Piece {
@@ -280,10 +282,209 @@ public final class Piece {
         public String toString() { return kind.scriptName(); }
     }
 
+    // ── PieceState (기물별 상태) ──────────────────────
+
+    /**
+     * 기물별 상태 (if-state / set-state) — 키를 {@link ScriptSymbols#stateSlot} 슬롯으로 바꿔 슬롯 → 값 int 배열과
+     * 있음 비트마스크에 담는다. 상태를 쓰지 않는 기물은 배열을 만들지 않는다 (빈 공유 배열).
+     * 실행 티어와 GameState는 슬롯 메서드로 바로 읽고 쓰며, Map 메서드는 기록·디버그와 예전 호출자를 위해 남겨 둔다
+     * (키 순서가 아니라 슬롯 순서로 순회한다).
+     */
+    public static final class PieceState extends AbstractMap<String, Integer> {
+        private static final int[] NO_VALUES = new int[0];
+        private static final long[] NO_BITS = new long[0];
+
+        /** 슬롯 → 값 (없는 슬롯은 0) */
+        private int[] values = NO_VALUES;
+        /** 슬롯별 있음 비트 */
+        private long[] present = NO_BITS;
+        private int size;
+
+        public PieceState() {}
+
+        /** 같은 내용의 사본 */
+        public PieceState copy() {
+            PieceState c = new PieceState();
+            c.copyFrom(this);
+            return c;
+        }
+
+        /** 내용을 other와 같게 바꾼다 */
+        public void copyFrom(PieceState other) {
+            values = other.size == 0 ? NO_VALUES : other.values.clone();
+            present = other.size == 0 ? NO_BITS : other.present.clone();
+            size = other.size;
+        }
+
+        // ── 슬롯 ──
+
+        public boolean hasSlot(int slot) {
+            int w = slot >>> 6;
+            return slot >= 0 && w < present.length && (present[w] & 1L << slot) != 0;
+        }
+
+        /** 슬롯의 값, 없으면 0 */
+        public int getSlot(int slot) {
+            return slot >= 0 && slot < values.length ? values[slot] : 0;
+        }
+
+        public void putSlot(int slot, int value) {
+            if (slot < 0) throw new IllegalArgumentException("상태 슬롯: " + slot);
+            if (slot >= values.length) values = Arrays.copyOf(values, slot + 1);
+            int w = slot >>> 6;
+            if (w >= present.length) present = Arrays.copyOf(present, w + 1);
+            if ((present[w] & 1L << slot) == 0) {
+                present[w] |= 1L << slot;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        public void removeSlot(int slot) {
+            if (!hasSlot(slot)) return;
+            present[slot >>> 6] &= ~(1L << slot);
+            values[slot] = 0;
+            size--;
+        }
+
+        /** from 이상에서 값이 있는 첫 슬롯, 없으면 -1 */
+        public int nextSlot(int from) {
+            if (from < 0) from = 0;
+            int w = from >>> 6;
+            if (w >= present.length) return -1;
+            long bits = present[w] & -1L << from;
+            while (true) {
+                if (bits != 0) return (w << 6) + Long.numberOfTrailingZeros(bits);
+                if (++w == present.length) return -1;
+                bits = present[w];
+            }
+        }
+
+        // ── Map ──
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && hasSlot(ScriptSymbols.findStateSlot((String) key));
+        }
+
+        @Override
+        public Integer get(Object key) {
+            if (!(key instanceof String)) return null;
+            int slot = ScriptSymbols.findStateSlot((String) key);
+            return hasSlot(slot) ? values[slot] : null;
+        }
+
+        @Override
+        public Integer put(String key, Integer value) {
+            Objects.requireNonNull(value, "value");
+            int slot = ScriptSymbols.stateSlot(key);
+            Integer old = hasSlot(slot) ? values[slot] : null;
+            putSlot(slot, value);
+            return old;
+        }
+
+        @Override
+        public Integer remove(Object key) {
+            if (!(key instanceof String)) return null;
+            int slot = ScriptSymbols.findStateSlot((String) key);
+            if (!hasSlot(slot)) return null;
+            Integer old = values[slot];
+            removeSlot(slot);
+            return old;
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends Integer> m) {
+            if (m instanceof PieceState) {
+                PieceState o = (PieceState) m;
+                for (int s = o.nextSlot(0); s >= 0; s = o.nextSlot(s + 1)) putSlot(s, o.values[s]);
+            } else {
+                super.putAll(m);
+            }
+        }
+
+        @Override
+        public void clear() {
+            values = NO_VALUES;
+            present = NO_BITS;
+            size = 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PieceState)) return super.equals(o);
+            PieceState other = (PieceState) o;
+            if (other.size != size) return false;
+            for (int s = nextSlot(0); s >= 0; s = nextSlot(s + 1)) {
+                if (!other.hasSlot(s) || other.values[s] != values[s]) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return super.hashCode();
+        }
+
+        @Override
+        public Set<Map.Entry<String, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Integer>>() {
+                @Override
+                public Iterator<Map.Entry<String, Integer>> iterator() {
+                    return new Iterator<Map.Entry<String, Integer>>() {
+                        private int next = nextSlot(0);
+                        private int last = -1;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next >= 0;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Integer> next() {
+                            if (next < 0) throw new NoSuchElementException();
+                            last = next;
+                            next = nextSlot(next + 1);
+                            return new AbstractMap.SimpleImmutableEntry<>(ScriptSymbols.stateKey(last), values[last]);
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last < 0) throw new IllegalStateException();
+                            removeSlot(last);
+                            last = -1;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
     // ── PieceData (보드 위 기물) ──────────────────────
 
     public static final class PieceData {
+        /** {@link #handle()}가 없음 — 아직 게임에 등록되지 않았거나 잡힌 기물 */
+        public static final int NO_HANDLE = -1;
+
+        /** 외부 이름 (Minecraft 엔티티 태그, 기록용). 게임 안에서는 {@link #handle()}로 찾는다 */
         public final String id;
+        /** GameState가 등록할 때 정하는 정수 핸들 — 잡히면 NO_HANDLE이 되고 번호는 다른 기물이 재사용한다 */
+        int handle = NO_HANDLE;
         public PieceKind kind;
         public final int owner; // 0=백, 1=흑, -1=중립
         public Move.Square pos; // null이면 포켓
@@ -292,7 +493,7 @@ public final class Piece {
         public boolean isRoyal;
         public PieceKind disguise; // nullable
         /** 기물별 상태 */
-        public final java.util.Map<String, Integer> state = new java.util.HashMap<>();
+        public final PieceState state = new PieceState();
 
         /**
          * 이 기물의 스펙(종류·중립 여부 등 고유 특성).
@@ -323,6 +524,11 @@ public final class Piece {
 
 
 
+        /** 게임 안 정수 핸들 ({@link GameState#getPiece(int)}), 등록 전이나 잡힌 뒤에는 NO_HANDLE */
+        public int handle() {
+            return handle;
+        }
+
         /** 실제 행마에 사용되는 기물 종류 (위장 고려) */
         public PieceKind effectiveKind() {
             return disguise != null ? disguise : kind;
@@ -347,13 +553,14 @@ public final class Piece {
         /** 깊은 복사 */
         public PieceData copy() {
             PieceData c = new PieceData(id, kind, owner);
+            c.handle = handle;
             c.pos = pos;
             c.stun = stun;
             c.moveStack = moveStack;
             c.isRoyal = isRoyal;
             c.disguise = disguise;
             c.spec = spec; // PieceSpec는 불변(final 필드)이므로 참조 공유
-            c.state.putAll(state);
+            c.state.copyFrom(state);
             return c;
         }
 
@@ -0,0 +1,139 @@
+package nand.modid.chess.core;
+
+import nand.modid.chess.dsl.chessembly.ScriptSymbols;
+
+import java.util.Arrays;
+
+/**
+ * Zobrist — 게임 상태 해시 키 표.
+ *
+ * 보드 칸마다 (종류, 소유) 키와 스턴·이동 스택·로얄·위장·이동 중 표시 키를 두고, 포켓은 (플레이어, 종류, 개수)
+ * 키로 다중집합을 나타낸다. 스턴과 이동 스택은 값마다 키가 필요하므로 자주 나오는 0~{@value #COUNTER_BUCKETS}-1은
+ * 표에서 찾고, 그보다 큰 값(잡기로 스택이 쌓인 경우)은 같은 섞기 함수로 그 자리에서 만든다.
+ * 기물 상태(state)는 (칸, 상태 슬롯, 값)으로 찾는다. 슬롯 번호는 등록 순서라 실행마다 다를 수 있으므로
+ * 슬롯마다 키 이름의 글자를 64비트로 섞은 씨앗을 한 번 계산해 두고 그 씨앗을 섞는다 — 조회에 락이나 문자열 해시가 없고,
+ * String.hashCode가 같은 키("Aa"와 "BB")도 다른 키를 얻는다.
+ *
+ * 키는 고정 시드의 splitmix64로 만들어 실행마다 같다 — 기록한 해시를 다른 실행에서 비교해도 된다.
+ */
+public final class Zobrist {
+
+    private Zobrist() {}
+
+    /** 표로 미리 만드는 카운터 값 개수 (0 ~ COUNTER_BUCKETS-1) */
+    public static final int COUNTER_BUCKETS = 16;
+
+    private static final int SQUARES = RuleSet.BOARD_WIDTH * RuleSet.BOARD_HEIGHT;
+    private static final int KINDS = Piece.PieceKind.values().length;
+
+    /** splitmix64 증분 */
+    private static final long GOLDEN = 0x9E37_79B9_7F4A_7C15L;
+
+    // 섞기 함수 영역 — 표 밖에서 만드는 키끼리 겹치지 않도록 앞에 붙인다
+    private static final long TAG_STUN = 1, TAG_STACK = 2, TAG_STATE = 3, TAG_POCKET = 4;
+
+    /** 흑 차례 */
+    public static final long TURN;
+    /** 이번 턴에 이미 행동함 */
+    public static final long ACTION_TAKEN;
+
+    /** [칸][종류][소유: 0 백, 1 흑, 2 중립] */
+    private static final long[] PIECE = new long[SQUARES * KINDS * 3];
+    private static final long[] STUN = new long[SQUARES * COUNTER_BUCKETS];
+    private static final long[] STACK = new long[SQUARES * COUNTER_BUCKETS];
+    private static final long[] ROYAL = new long[SQUARES];
+    private static final long[] DISGUISE = new long[SQUARES * KINDS];
+    private static final long[] ACTIVE = new long[SQUARES];
+    /** [플레이어][종류][개수] — 개수 0은 키가 없다 */
+    private static final long[] POCKET = new long[2 * KINDS * COUNTER_BUCKETS];
+    /** 상태 슬롯 → 키 이름 씨앗. 등록된 슬롯까지 늘린 새 배열로만 바꾼다 */
+    private static volatile long[] stateSeeds = new long[0];
+
+    static {
+        long seed = 0x5EED_C4E5_5000_0001L;
+        for (int i = 0; i < PIECE.length; i++) PIECE[i] = mix(seed += GOLDEN);
+        for (int i = 0; i < STUN.length; i++) STUN[i] = mix(seed += GOLDEN);
+        for (int i = 0; i < STACK.length; i++) STACK[i] = mix(seed += GOLDEN);
+        for (int i = 0; i < ROYAL.length; i++) ROYAL[i] = mix(seed += GOLDEN);
+        for (int i = 0; i < DISGUISE.length; i++) DISGUISE[i] = mix(seed += GOLDEN);
+        for (int i = 0; i < ACTIVE.length; i++) ACTIVE[i] = mix(seed += GOLDEN);
+        for (int i = 0; i < POCKET.length; i++) POCKET[i] = mix(seed += GOLDEN);
+        TURN = mix(seed += GOLDEN);
+        ACTION_TAKEN = mix(seed + GOLDEN);
+    }
+
+    /** 칸의 기물 (owner: 0 백, 1 흑, -1 중립) */
+    public static long piece(int square, Piece.PieceKind kind, int owner) {
+        int side = owner < 0 ? 2 : owner;
+        return PIECE[(square * KINDS + kind.ordinal()) * 3 + side];
+    }
+
+    public static long stun(int square, int stun) {
+        if (stun >= 0 && stun < COUNTER_BUCKETS) return STUN[square * COUNTER_BUCKETS + stun];
+        return mix3(TAG_STUN, square, stun);
+    }
+
+    public static long moveStack(int square, int moveStack) {
+        if (moveStack >= 0 && moveStack < COUNTER_BUCKETS) return STACK[square * COUNTER_BUCKETS + moveStack];
+        return mix3(TAG_STACK, square, moveStack);
+    }
+
+    public static long royal(int square) {
+        return ROYAL[square];
+    }
+
+    public static long disguise(int square, Piece.PieceKind asKind) {
+        return DISGUISE[square * KINDS + asKind.ordinal()];
+    }
+
+    /** 이번 턴에 이동 중인 기물의 칸 */
+    public static long active(int square) {
+        return ACTIVE[square];
+    }
+
+    /** 기물 상태 한 항목 ({@link ScriptSymbols#stateSlot} 슬롯) */
+    public static long state(int square, int slot, int value) {
+        long[] seeds = stateSeeds;
+        long seed = slot >= 0 && slot < seeds.length ? seeds[slot] : stateSeed(slot);
+        return mix(seed ^ mix3(TAG_STATE, square, value));
+    }
+
+    /** 새로 등록된 슬롯까지 씨앗을 만든다 (슬롯마다 처음 한 번만) */
+    private static synchronized long stateSeed(int slot) {
+        long[] seeds = stateSeeds;
+        if (slot < 0 || slot >= seeds.length) {
+            int n = ScriptSymbols.stateSlotCount();
+            if (slot < 0 || slot >= n) throw new IllegalArgumentException("등록되지 않은 상태 슬롯: " + slot);
+            long[] grown = Arrays.copyOf(seeds, n);
+            for (int s = seeds.length; s < n; s++) grown[s] = keySeed(ScriptSymbols.stateKey(s));
+            stateSeeds = seeds = grown;
+        }
+        return seeds[slot];
+    }
+
+    /** 상태 키 이름의 씨앗 — 길이와 글자를 차례로 섞는다 */
+    private static long keySeed(String key) {
+        long h = mix(TAG_STATE * GOLDEN + key.length());
+        for (int i = 0; i < key.length(); i++) h = mix((h ^ key.charAt(i)) + GOLDEN);
+        return h;
+    }
+
+    /** 포켓에 같은 종류가 count개 있음 (count 0이면 0) */
+    public static long pocket(int player, Piece.PieceKind kind, int count) {
+        if (count <= 0) return 0L;
+        if (count < COUNTER_BUCKETS) return POCKET[((player & 1) * KINDS + kind.ordinal()) * COUNTER_BUCKETS + count];
+        return mix3(TAG_POCKET, (player & 1) * KINDS + kind.ordinal(), count);
+    }
+
+    // ── splitmix64 ──
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long mix3(long tag, long a, long b) {
+        return mix(mix(mix(tag * GOLDEN) ^ a) ^ b);
+    }
+}
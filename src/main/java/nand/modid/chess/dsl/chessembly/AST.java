@@ -35,6 +35,10 @@ public final class AST {
         public final int value;
         public final String pieceName; // nullable
         public final Move.Square where_stack_is_comming;
+        /** transition 대상 기물 종류 서수 ({@link ScriptSymbols}), 해당 없거나 모르는 이름이면 -1 */
+        public final int kind;
+        /** set-state 키의 상태 슬롯 ({@link ScriptSymbols}), 해당 없으면 -1 */
+        public final int slot;
 
         public ActionTag(ActionTagType tagType, String key, int value, String pieceName, Move.Square Sq) {
             this.tagType = tagType;
@@ -42,6 +46,8 @@ public final class AST {
             this.value = value;
             this.pieceName = pieceName;
             this.where_stack_is_comming = Sq;
+            this.kind = tagType == ActionTagType.TRANSITION ? ScriptSymbols.transitionKindOf(pieceName) : -1;
+            this.slot = tagType == ActionTagType.SET_STATE && key != null ? ScriptSymbols.stateSlot(key) : -1;
         }
 
         @Override
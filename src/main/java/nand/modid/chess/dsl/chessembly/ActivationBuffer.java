@@ -0,0 +1,260 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+import nand.modid.chess.core.Move.Square;
+
+/**
+ * ActivationBuffer — 실행 결과를 객체 대신 int 배열에 담는 재사용 버퍼.
+ *
+ * 활성화 하나는 {@link #STRIDE}칸을 차지한다.
+ * <pre>
+ * [DX] [DY] [TYPE] [CATCH_X] [CATCH_Y] [TAG_SET]
+ * </pre>
+ * <ul>
+ *   <li>TYPE      — AST.MoveType.ordinal()</li>
+ *   <li>CATCH_X/Y — jump가 잡는 칸의 오프셋, 없으면 {@link #NO_CATCH}</li>
+ *   <li>TAG_SET   — 이 버퍼 안의 태그 묶음 인덱스, 태그가 없으면 {@link #NO_TAGS}</li>
+ * </ul>
+ *
+ * 실행한 명령어 수({@link #steps()})와 {@link ExecutionBudget} 초과 여부도 함께 기록한다.
+ *
+ * 질의 모드({@link #queryExists()}, {@link #queryReaches(int, int)}, {@link #queryCount(int)})를 정하면
+ * 답이 확정되는 즉시 {@link #add}가 true를 돌려주고, 실행 티어는 프로그램을 그 자리에서 끝낸다.
+ * take 활성화는 뒤따르는 jump가 지울 수 있으므로 다른 종류의 활성화가 추가되거나 실행이 끝나야 확정된다.
+ * 일찍 멈춘 실행은 그 뒤에서 단계 한도를 넘었을 실행도 답을 낸다.
+ *
+ * 같은 태그 묶음을 가진 연속된 활성화는 묶음 하나를 공유한다. 배열은 필요할 때만 커지므로,
+ * 호출자가 버퍼를 재사용하면 충분히 커진 뒤에는 실행 한 번에 할당이 일어나지 않는다.
+ * 스레드 간에 공유하지 않는다.
+ */
+public final class ActivationBuffer {
+
+    public static final int STRIDE = 6;
+    public static final int DX = 0, DY = 1, TYPE = 2, CATCH_X = 3, CATCH_Y = 4, TAG_SET = 5;
+
+    public static final int NO_CATCH = Integer.MIN_VALUE;
+    public static final int NO_TAGS = -1;
+
+    /** 태그 항목 종류 */
+    static final int TAG_STATIC = 0, TAG_USE_STACK = 1;
+
+    private static final AST.MoveType[] MOVE_TYPES = AST.MoveType.values();
+    private static final int TAKE_ORDINAL = AST.MoveType.TAKE.ordinal();
+
+    /** 질의 모드 */
+    private static final int QUERY_ALL = 0, QUERY_EXISTS = 1, QUERY_REACHES = 2, QUERY_COUNT = 3;
+
+    private int[] data = new int[STRIDE * 32];
+    private int size;
+
+    /** 태그 묶음: [개수, (종류, a, b) * 개수] — 정적 태그는 a = 명령어 주소, use-move-stack은 (a, b) = 칸 */
+    private int[] tagData = new int[64];
+    private int tagLength;
+
+    /** 정적 태그를 실제 객체로 바꿀 때 사용할 프로그램 */
+    private Bytecode program;
+
+    // ── 실행 비용 ──
+    private int steps;
+    private boolean budgetExceeded;
+    private int activationLimit = Integer.MAX_VALUE;
+
+    // ── 질의 ──
+    private int query = QUERY_ALL;
+    private int queryDx, queryDy, queryLimit;
+    /** 앞에서부터 확정된 활성화 수 */
+    private int confirmed;
+    private int match = -1;
+    private boolean stopped;
+
+    public ActivationBuffer() {}
+
+    /** 새 실행 전에 비운다 (배열은 유지) */
+    void reset(Bytecode program) {
+        this.program = program;
+        this.size = 0;
+        this.tagLength = 0;
+        this.steps = 0;
+        this.budgetExceeded = false;
+        this.activationLimit = ExecutionBudget.maxActivations();
+        this.confirmed = 0;
+        this.match = -1;
+        this.stopped = false;
+    }
+
+    // ── 질의 모드 ─────────────────────────────────────
+
+    /** 모든 활성화를 기록한다 (기본값) */
+    public void queryAll() {
+        query = QUERY_ALL;
+    }
+
+    /** 확정된 활성화가 하나라도 생기면 멈춘다 — 결과는 {@code !isEmpty()} */
+    public void queryExists() {
+        query = QUERY_EXISTS;
+    }
+
+    /** 오프셋 (dx, dy)로 가는 첫 활성화가 확정되면 멈춘다 — 결과는 {@link #match()} */
+    public void queryReaches(int dx, int dy) {
+        query = QUERY_REACHES;
+        queryDx = dx;
+        queryDy = dy;
+    }
+
+    /** 확정된 활성화가 limit개가 되면 멈춘다 — 결과는 {@code min(size(), limit)} */
+    public void queryCount(int limit) {
+        query = QUERY_COUNT;
+        queryLimit = Math.max(1, limit);
+    }
+
+    /** 질의의 답이 확정되어 프로그램 끝까지 실행하지 않았는지 */
+    public boolean stoppedEarly() { return stopped; }
+
+    /** {@link #queryReaches} 결과: 대상 칸으로 가는 첫 활성화의 인덱스, 없으면 -1 */
+    public int match() { return match; }
+
+    /** 확정된 활성화까지 질의를 판정하고, 답이 나왔으면 true */
+    private boolean settle(int upTo) {
+        switch (query) {
+            case QUERY_EXISTS:
+                stopped = upTo > 0;
+                break;
+            case QUERY_REACHES:
+                for (int i = confirmed; i < upTo && match < 0; i++) {
+                    if (data[i * STRIDE + DX] == queryDx && data[i * STRIDE + DY] == queryDy) match = i;
+                }
+                stopped = match >= 0;
+                break;
+            case QUERY_COUNT:
+                stopped = upTo >= queryLimit;
+                break;
+            default:
+                break;
+        }
+        confirmed = upTo;
+        return stopped;
+    }
+
+    // ── 읽기 ──────────────────────────────────────────
+
+    /** 활성화 수 */
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /** 마지막 실행에서 실행한 명령어 수 */
+    public int steps() { return steps; }
+
+    /** 마지막 실행이 {@link ExecutionBudget}을 넘겨 중단되었는지 (이때 활성화는 0개) */
+    public boolean budgetExceeded() { return budgetExceeded; }
+
+    public int dx(int i) { return data[i * STRIDE + DX]; }
+
+    public int dy(int i) { return data[i * STRIDE + DY]; }
+
+    public int moveTypeOrdinal(int i) { return data[i * STRIDE + TYPE]; }
+
+    public AST.MoveType moveType(int i) { return MOVE_TYPES[data[i * STRIDE + TYPE]]; }
+
+    public boolean hasCatch(int i) { return data[i * STRIDE + CATCH_X] != NO_CATCH; }
+
+    public int catchX(int i) { return data[i * STRIDE + CATCH_X]; }
+
+    public int catchY(int i) { return data[i * STRIDE + CATCH_Y]; }
+
+    /** 태그 묶음 인덱스, 없으면 {@link #NO_TAGS} */
+    public int tagSet(int i) { return data[i * STRIDE + TAG_SET]; }
+
+    /** 태그 묶음의 태그 수 */
+    public int tagCount(int set) { return set == NO_TAGS ? 0 : tagData[set]; }
+
+    /**
+     * 태그 묶음의 k번째 태그. set-state/transition은 프로그램이 가진 공유 인스턴스를 돌려주고,
+     * use-move-stack은 새 객체를 만든다.
+     */
+    public AST.ActionTag tag(int set, int k) {
+        int base = set + 1 + k * 3;
+        if (tagData[base] == TAG_STATIC) return program.staticTags[tagData[base + 1]];
+        return new AST.ActionTag(AST.ActionTagType.USEING_STACK, "", 0, "",
+                Square.of(tagData[base + 1], tagData[base + 2]));
+    }
+
+    /** 객체 리스트로 변환 (기존 API 호환용) */
+    public List<AST.Activation> toActivations() {
+        List<AST.Activation> out = new ArrayList<>(size);
+        List<AST.ActionTag> tags = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            tags.clear();
+            int set = tagSet(i);
+            for (int k = 0, n = tagCount(set); k < n; k++) tags.add(tag(set, k));
+            int[] catchTo = hasCatch(i) ? new int[]{ catchX(i), catchY(i) } : null;
+            out.add(new AST.Activation(dx(i), dy(i), moveType(i), tags, catchTo));
+        }
+        return out;
+    }
+
+    // ── 쓰기 (실행기 전용) ─────────────────────────────
+
+    /** 활성화 추가. 질의의 답이 확정되었으면 true — 실행 티어는 {@link #finish}로 바로 끝내야 한다 */
+    boolean add(int dx, int dy, int type, int catchX, int catchY, ExecutionScratch scratch) {
+        if (stopped) return true;
+        if (size >= activationLimit) {
+            // 한도 초과분은 버리고 실행 끝에서 결과 전체를 비운다
+            budgetExceeded = true;
+            return false;
+        }
+        if ((size + 1) * STRIDE > data.length) data = Arrays.copyOf(data, data.length * 2);
+        int base = size * STRIDE;
+        data[base + DX] = dx;
+        data[base + DY] = dy;
+        data[base + TYPE] = type;
+        data[base + CATCH_X] = catchX;
+        data[base + CATCH_Y] = catchY;
+        data[base + TAG_SET] = tagSetFor(scratch);
+        size++;
+        // take가 아닌 활성화 앞의 것은 더 이상 지워지지 않는다
+        return query != QUERY_ALL && type != TAKE_ORDINAL && settle(size);
+    }
+
+    /** jump 직전: 마지막 활성화가 take이면 제거 */
+    void removeLastIfTake() {
+        if (size > 0 && data[(size - 1) * STRIDE + TYPE] == AST.MoveType.TAKE.ordinal()) size--;
+    }
+
+    /** 정상 종료: 단계 수 기록, 활성화 한도를 넘었으면 결과를 비운다 */
+    void finish(int steps) {
+        this.steps = steps;
+        if (budgetExceeded) discard();
+        else if (query != QUERY_ALL && !stopped) settle(size);
+    }
+
+    /** 단계 한도 초과로 중단 */
+    void exceedSteps(int steps) {
+        this.steps = steps;
+        this.budgetExceeded = true;
+        discard();
+    }
+
+    private void discard() {
+        size = 0;
+        tagLength = 0;
+        confirmed = 0;
+        match = -1;
+        stopped = false;
+    }
+
+    /** 대기 중인 태그를 묶음으로 기록 (직전 묶음과 같으면 재사용) */
+    private int tagSetFor(ExecutionScratch scratch) {
+        int count = scratch.tagCount;
+        if (count == 0) return NO_TAGS;
+        if (scratch.tagSet >= 0) return scratch.tagSet;
+        int need = tagLength + 1 + count * 3;
+        if (need > tagData.length) tagData = Arrays.copyOf(tagData, Math.max(need, tagData.length * 2));
+        int set = tagLength;
+        tagData[set] = count;
+        System.arraycopy(scratch.tags, 0, tagData, set + 1, count * 3);
+        tagLength = need;
+        scratch.tagSet = set;
+        return set;
+    }
+}
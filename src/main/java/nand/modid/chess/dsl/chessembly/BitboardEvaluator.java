@@ -0,0 +1,747 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+import static nand.modid.chess.dsl.chessembly.Bytecode.*;
+
+/**
+ * BitboardEvaluator — 8x8 보드의 모든 출발 칸에 대해 한 번에 Chessembly 프로그램을 실행하는 분석기.
+ *
+ * 공격 지도, 기동성 평가, 히트맵처럼 한 기물 종류의 행마를 칸마다 알아야 하는 분석 기능용이다
+ * ({@link nand.modid.chess.movegen.BoardAnalysis}, 스크립트별 인스턴스는 {@link CompiledScript#bitboard()}).
+ * 실행 상태(앵커, 스코프, 체인 등)마다 그 상태에 있는 출발 칸들의 64비트 집합을 들고 다닌다.
+ * <ul>
+ *   <li>앵커 이동 — 집합은 그대로, 오프셋만 바뀐다 (목표 칸 = 출발 칸을 오프셋만큼 시프트)</li>
+ *   <li>조건 — 점유 비트보드를 오프셋만큼 거꾸로 시프트한 마스크로 집합을 나눈다</li>
+ *   <li>기하 조건식 (edge, corner, bound) — 파일/랭크 마스크</li>
+ *   <li>활성화 — (오프셋, 이동 종류)별 출발 칸 집합에 OR</li>
+ * </ul>
+ * 같은 상태에 도달한 출발 칸들은 합쳐지므로, 한 번의 실행으로 64칸 결과가 나온다.
+ *
+ * 각 출발 칸의 결과는 이동하는 기물을 그 칸에 놓고(원래 있던 기물은 대신한다) 스칼라 실행기로
+ * 실행한 활성화의 목표 칸 집합과 같다. 순서와 jump의 잡는 칸은 보존하지 않는다.
+ * 단계 수는 상태와 함께 세고 {@link ExecutionBudget#maxSteps()}를 넘은 출발 칸은 스칼라 실행기처럼
+ * 결과를 비우고 {@link Result#diverged()}에 표시한다. 합쳐진 출발 칸들은 그중 가장 큰 단계 수를 이어받으므로
+ * 한도 바로 아래에서 끝나는 칸은 한도를 넘은 것으로 볼 수 있다 (끝나지 않는 루프는 항상 정확하다).
+ *
+ * 기물 상태, 변환, 이동 스택 식(if-state, set-state, transition, if-move-stack, use-move-stack)은
+ * 표현할 수 없으므로 {@link #compile}에서 거부한다.
+ */
+public final class BitboardEvaluator {
+
+    private static final int TYPES = AST.MoveType.values().length;
+    private static final int TAKE_MOVE_TYPE = AST.MoveType.TAKE_MOVE.ordinal();
+    private static final int MOVE_TYPE = AST.MoveType.MOVE.ordinal();
+    private static final int TAKE_TYPE = AST.MoveType.TAKE.ordinal();
+    private static final int CATCH_TYPE = AST.MoveType.CATCH.ordinal();
+    private static final int SHIFT_TYPE = AST.MoveType.SHIFT.ordinal();
+    private static final int JUMP_TYPE = AST.MoveType.JUMP.ordinal();
+
+    private static final long ALL = -1L;
+    private static final long FILE_A = 0x0101010101010101L;
+
+    /** 처리할 수 있는 최대 상태 수 (넘으면 남은 출발 칸은 단계 한도를 넘은 것으로 본다) */
+    static final int MAX_STATES = 1 << 16;
+
+    private final Bytecode program;
+
+    private BitboardEvaluator(Bytecode program) {
+        this.program = program;
+    }
+
+    /**
+     * 컴파일된 프로그램을 분석기로 만든다.
+     *
+     * @throws IllegalArgumentException 비트보드로 표현할 수 없는 식이 있을 때
+     */
+    public static BitboardEvaluator compile(CompiledScript script) {
+        Bytecode program = script.bytecode();
+        for (int pc = 0; pc < program.length; pc++) {
+            int op = program.op(pc);
+            if (!supports(op)) {
+                throw new IllegalArgumentException("비트보드 분석기가 지원하지 않는 식입니다: "
+                        + AST.TokenType.values()[op].name().toLowerCase().replace('_', '-') + " (명령어 " + pc + ")");
+            }
+        }
+        return new BitboardEvaluator(program);
+    }
+
+    /** 프로그램의 모든 명령어를 비트보드로 표현할 수 있는지 ({@link #compile}이 거부하지 않는지) */
+    public static boolean supports(CompiledScript script) {
+        Bytecode program = script.bytecode();
+        for (int pc = 0; pc < program.length; pc++) {
+            if (!supports(program.op(pc))) return false;
+        }
+        return true;
+    }
+
+    /** 스크립트 문자열을 분석기로 만든다. */
+    public static BitboardEvaluator compile(String source) {
+        return compile(CompiledScript.compile(source));
+    }
+
+    /** 비트보드로 표현할 수 있는 명령어인지 (기물 상태, 변환, 이동 스택 식 제외) */
+    public static boolean supports(int op) {
+        switch (op) {
+            case IF_STATE:
+            case SET_STATE:
+            case SET_STATE_RESET:
+            case TRANSITION:
+            case IF_MOVE_STACK:
+            case USE_MOVE_STACK:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /** 모든 출발 칸에 대해 실행한다. */
+    public Result evaluate(BuiltinOps.BoardState board) {
+        return evaluate(board, ALL);
+    }
+
+    /**
+     * 주어진 출발 칸들에 대해 실행한다. 보드의 기물 이름(pieceName)과 색(isWhite)이 이동하는 기물이고,
+     * pieceX/pieceY는 쓰지 않는다. 보드에는 이동하는 기물을 넣지 않는 것이 보통이다.
+     *
+     * @param origins 출발 칸 비트 집합 (비트 = y*8+x)
+     * @throws IllegalArgumentException 8x8 보드가 아니거나 보드 밖에 기물이 있을 때
+     */
+    public Result evaluate(BuiltinOps.BoardState board, long origins) {
+        if (board.boardWidth != 8 || board.boardHeight != 8) {
+            throw new IllegalArgumentException("비트보드 분석기는 8x8 보드만 지원합니다: "
+                    + board.boardWidth + "x" + board.boardHeight);
+        }
+        if (board.hasPiecesOutOfBounds()) {
+            throw new IllegalArgumentException("보드 밖에 기물이 있는 보드는 분석할 수 없습니다");
+        }
+        return new Run(program, board).execute(origins);
+    }
+
+    // ── 마스크 ────────────────────────────────────────
+
+    /** x가 [lo, hi)인 칸 */
+    private static long files(int lo, int hi) {
+        lo = Math.max(lo, 0);
+        hi = Math.min(hi, 8);
+        if (lo >= hi) return 0L;
+        return (((1L << hi) - 1) & ~((1L << lo) - 1)) * FILE_A;
+    }
+
+    /** y가 [lo, hi)인 칸 */
+    private static long ranks(int lo, int hi) {
+        lo = Math.max(lo, 0);
+        hi = Math.min(hi, 8);
+        if (lo >= hi) return 0L;
+        long below = hi == 8 ? ALL : (1L << (8 * hi)) - 1;
+        return below & ~((1L << (8 * lo)) - 1);
+    }
+
+    /** 출발 칸 + (ox, oy)가 보드 안인 출발 칸 */
+    private static long inBounds(int ox, int oy) {
+        return files(-ox, 8 - ox) & ranks(-oy, 8 - oy);
+    }
+
+    private static long shift(long bb, int by) {
+        if (by >= 64 || by <= -64) return 0L;
+        return by >= 0 ? bb << by : bb >>> -by;
+    }
+
+    /** 출발 칸 + (ox, oy)가 squares에 속하는 출발 칸 */
+    private static long originsHitting(long squares, int ox, int oy) {
+        return shift(squares, -(oy * 8 + ox)) & inBounds(ox, oy);
+    }
+
+    // ── 결과 ──────────────────────────────────────────
+
+    /** 출발 칸별 목표 칸 */
+    public static final class Result {
+        // 활성화 기록: (이동 종류, 비트 오프셋) → 그 활성화를 만든 출발 칸 집합. 같은 키가 여러 번 나올 수 있다
+        private final int count;
+        private final int[] types;
+        private final int[] offsets;
+        private final long[] sets;
+        /** [이동 종류][출발 칸] → 목표 칸 집합 (처음 조회할 때 펼친다) */
+        private long[][] targets;
+        private final long diverged;
+
+        private Result(int count, int[] types, int[] offsets, long[] sets, long diverged) {
+            this.count = count;
+            this.types = types;
+            this.offsets = offsets;
+            this.sets = sets;
+            this.diverged = diverged;
+            if (diverged != 0L) {
+                for (int i = 0; i < count; i++) sets[i] &= ~diverged;
+            }
+        }
+
+        private long[][] expanded() {
+            long[][] t = targets;
+            if (t != null) return t;
+            t = new long[TYPES][64];
+            for (int i = 0; i < count; i++) {
+                long[] byOrigin = t[types[i]];
+                long set = sets[i];
+                int off = offsets[i];
+                while (set != 0) {
+                    int o = Long.numberOfTrailingZeros(set);
+                    set &= set - 1;
+                    byOrigin[o] |= 1L << (o + off);
+                }
+            }
+            targets = t;
+            return t;
+        }
+
+        /** 출발 칸에서 갈 수 있는 모든 목표 칸 (이동 종류 무관) */
+        public long targets(int origin) {
+            long[][] t = expanded();
+            long all = 0L;
+            for (int type = 0; type < TYPES; type++) all |= t[type][origin];
+            return all;
+        }
+
+        /** 출발 칸에서 특정 이동 종류로 가는 목표 칸 */
+        public long targets(int origin, AST.MoveType type) {
+            return expanded()[type.ordinal()][origin];
+        }
+
+        /** 목표 칸 수 (기동성) */
+        public int mobility(int origin) {
+            return Long.bitCount(targets(origin));
+        }
+
+        /** 주어진 출발 칸들 중 하나에서라도 닿는 칸 (공격 지도) — 출발 칸별로 풀지 않고 시프트로 계산 */
+        public long reach(long origins) {
+            long all = 0L;
+            for (int i = 0; i < count; i++) {
+                long set = sets[i] & origins;
+                if (set != 0) all |= shift(set, offsets[i]);
+            }
+            return all;
+        }
+
+        /** 끝나지 않는 루프에 빠져 결과를 비운 출발 칸 */
+        public long diverged() { return diverged; }
+    }
+
+    // ── 실행 ──────────────────────────────────────────
+
+    /** 출발 칸 집합이 공유하는 실행 상태 */
+    private static final class State {
+        int pc, chainIndex, numOpenBrace;
+        int anchorX, anchorY;
+        boolean lastValue = true;
+        int doIndex = -1;
+        boolean hasTake;
+        /** [anchorX, anchorY] 쌍 */
+        int[] scope = new int[0];
+        /**
+         * 아직 확정하지 않은 끝부분의 take 활성화 오프셋 쌍. jump의 "마지막이 take이면 제거"는
+         * 연속된 take만 거슬러 올라가므로, 다른 활성화가 추가되면 확정한다.
+         */
+        int[] pendingTakes = new int[0];
+
+        // 상태 동일성에 들어가지 않는 작업 목록용 값
+        /** 이 상태에 있는 출발 칸 */
+        long origins;
+        /** 지금까지 실행한 명령어 수 (합쳐지면 최대값) */
+        int steps;
+
+        State copy() {
+            State c = new State();
+            c.pc = pc; c.chainIndex = chainIndex; c.numOpenBrace = numOpenBrace;
+            c.anchorX = anchorX; c.anchorY = anchorY;
+            c.lastValue = lastValue;
+            c.doIndex = doIndex;
+            c.hasTake = hasTake;
+            c.scope = scope;                 // 변경 시 새 배열로 교체
+            c.pendingTakes = pendingTakes;   // 변경 시 새 배열로 교체
+            c.steps = steps;
+            return c;
+        }
+
+        void pushScope() {
+            int[] next = Arrays.copyOf(scope, scope.length + 2);
+            next[scope.length] = anchorX;
+            next[scope.length + 1] = anchorY;
+            scope = next;
+        }
+
+        void popScope() {
+            if (scope.length == 0) return;
+            anchorX = scope[scope.length - 2];
+            anchorY = scope[scope.length - 1];
+            scope = Arrays.copyOf(scope, scope.length - 2);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State)) return false;
+            State s = (State) o;
+            return pc == s.pc && chainIndex == s.chainIndex && numOpenBrace == s.numOpenBrace
+                    && anchorX == s.anchorX && anchorY == s.anchorY && lastValue == s.lastValue
+                    && doIndex == s.doIndex && hasTake == s.hasTake
+                    && Arrays.equals(scope, s.scope) && Arrays.equals(pendingTakes, s.pendingTakes);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = pc;
+            h = h * 31 + chainIndex;
+            h = h * 31 + numOpenBrace;
+            h = h * 31 + anchorX;
+            h = h * 31 + anchorY;
+            h = h * 31 + (lastValue ? 1 : 0);
+            h = h * 31 + doIndex;
+            h = h * 31 + (hasTake ? 1 : 0);
+            h = h * 31 + Arrays.hashCode(scope);
+            return h * 31 + Arrays.hashCode(pendingTakes);
+        }
+    }
+
+    /** 보드 하나에 대한 실행 — 상태별 출발 칸 집합을 작업 목록으로 처리한다 */
+    private static final class Run {
+        private final Bytecode program;
+        private final int[] code;
+        private final int n;
+        private final BuiltinOps.BoardState board;
+        private final long friendly, enemy;
+        /** 기물 종류 서수 → 그 종류가 있는 칸 (처음 쓸 때 만든다) */
+        private long[] byKind;
+
+        private int count;
+        private int[] types = new int[16];
+        private int[] offsets = new int[16];
+        private long[] sets = new long[16];
+        private final int stepLimit = ExecutionBudget.maxSteps();
+        /** 작업 목록에 있는 상태 — 같은 상태로 오는 출발 칸은 여기에 합친다 */
+        private final Map<State, State> pending = new HashMap<>();
+        /** pc 순으로 처리해 앞쪽 분기에서 온 출발 칸들이 최대한 합쳐진 뒤 실행한다 */
+        private final PriorityQueue<State> work = new PriorityQueue<>(Comparator.comparingInt(st -> st.pc));
+        private long diverged;
+
+        Run(Bytecode program, BuiltinOps.BoardState board) {
+            this.program = program;
+            this.code = program.code;
+            this.n = program.length;
+            this.board = board;
+            this.friendly = board.friendlyOccupancy();
+            this.enemy = board.occupancy() & ~friendly;
+        }
+
+        Result execute(long origins) {
+            enqueue(new State(), origins);
+            int processed = 0;
+            while (!work.isEmpty()) {
+                State st = work.poll();
+                pending.remove(st);
+                if (++processed > MAX_STATES) {
+                    diverged |= st.origins;
+                    continue;
+                }
+                run(st, st.origins);
+            }
+            return new Result(count, types, offsets, sets, diverged);
+        }
+
+        /** st는 이후 바꾸지 않는다 (작업 목록의 키가 된다) */
+        private void enqueue(State st, long set) {
+            if (set == 0L) return;
+            State waiting = pending.get(st);
+            if (waiting == null) {
+                st.origins = set;
+                pending.put(st, st);
+                work.add(st);
+            } else {
+                waiting.origins |= set;
+                waiting.steps = Math.max(waiting.steps, st.steps);
+            }
+        }
+
+        /** 분기 없이 갈 수 있는 데까지 실행하고, 조건에서 나뉜 집합과 체인 시작은 작업 목록에 넣는다 */
+        private void run(State st, long set) {
+            while (st.pc < n) {
+                if (++st.steps > stepLimit) {
+                    diverged |= set;
+                    return;
+                }
+                final int base = st.pc * STRIDE;
+                final int op = code[base];
+                st.pc++;
+
+                // ── 종료 규칙 ──
+                if (!st.lastValue && !EXEMPT[op]) {
+                    skip(st, base);
+                    continue;
+                }
+
+                final int dx = code[base + DX];
+                final int dy = code[base + DY];
+                final int ox = st.anchorX + dx, oy = st.anchorY + dy;
+
+                switch (op) {
+                    // ── 구조 ──
+                    case SEMICOLON:
+                        // 체인 시작마다 작업 목록을 거쳐, 앞 체인에서 갈라진 출발 칸들을 다시 합친다
+                        resetChain(st);
+                        st.lastValue = true;
+                        if (st.pc < n) {
+                            enqueue(st, set);
+                            return;
+                        }
+                        break;
+                    case OPEN_BRACE:
+                        st.pushScope();
+                        st.lastValue = true;
+                        break;
+                    case CLOSE_BRACE:
+                        st.popScope();
+                        st.lastValue = true;
+                        break;
+
+                    // ── 행마식 ──
+                    case TAKE_MOVE: {
+                        long ok = set & ~outside(ox, oy) & ~friendlyAt(ox, oy);
+                        long capture = ok & enemyAt(ox, oy);
+                        branch(st, set & ~ok, false);
+                        State moved = st.copy();
+                        add(moved, ok, ox, oy, TAKE_MOVE_TYPE);
+                        moved.anchorX = ox; moved.anchorY = oy;
+                        branch(moved, capture, false);
+                        st = moved;
+                        set = ok & ~capture;
+                        st.lastValue = true;
+                        break;
+                    }
+                    case MOVE: {
+                        long ok = set & emptyAt(ox, oy);
+                        branch(st, set & ~ok, false);
+                        add(st, ok, ox, oy, MOVE_TYPE);
+                        st.anchorX = ox; st.anchorY = oy;
+                        set = ok;
+                        st.lastValue = true;
+                        break;
+                    }
+                    case TAKE: {
+                        long capture = set & enemyAt(ox, oy);
+                        long pass = set & emptyAt(ox, oy);
+                        branch(st, set & ~capture & ~pass, false);
+                        State taken = st.copy();
+                        taken.hasTake = true;
+                        add(taken, capture, ox, oy, TAKE_TYPE);
+                        taken.anchorX = ox; taken.anchorY = oy;
+                        branch(taken, capture, true);
+                        st.anchorX = ox; st.anchorY = oy;
+                        set = pass;
+                        st.lastValue = true;
+                        break;
+                    }
+                    case JUMP: {
+                        if (st.pendingTakes.length > 0) {
+                            st.pendingTakes = Arrays.copyOf(st.pendingTakes, st.pendingTakes.length - 2);
+                        }
+                        long ok = st.hasTake ? set & emptyAt(ox, oy) : 0L;
+                        branch(st, set & ~ok, false);
+                        add(st, ok, ox, oy, JUMP_TYPE);
+                        st.anchorX = ox; st.anchorY = oy;
+                        set = ok;
+                        st.lastValue = true;
+                        break;
+                    }
+                    case CATCH: {
+                        long ok = set & enemyAt(ox, oy);
+                        branch(st, set & ~ok, false);
+                        add(st, ok, ox, oy, CATCH_TYPE);
+                        set = ok;
+                        st.lastValue = true;
+                        break;
+                    }
+                    case SHIFT: {
+                        long ok = set & (friendlyAt(ox, oy) | enemyAt(ox, oy));
+                        branch(st, set & ~ok, false);
+                        add(st, ok, ox, oy, SHIFT_TYPE);
+                        st.anchorX = ox; st.anchorY = oy;
+                        set = ok;
+                        st.lastValue = true;
+                        break;
+                    }
+                    case ANCHOR:
+                        st.anchorX = ox; st.anchorY = oy;
+                        st.lastValue = true;
+                        break;
+
+                    // ── 조건식 ──
+                    case OBSERVE:
+                        set = condition(st, set, emptyAt(ox, oy));
+                        break;
+                    case PEEK: {
+                        long inside = set & ~outside(ox, oy);
+                        branch(st, set & ~inside, false);
+                        st.anchorX = ox; st.anchorY = oy;
+                        set = condition(st, inside, emptyAt(ox, oy));
+                        break;
+                    }
+                    case ENEMY:
+                        set = condition(st, set, enemyAt(ox, oy));
+                        break;
+                    case FRIENDLY:
+                        set = condition(st, set, friendlyAt(ox, oy));
+                        break;
+                    case PIECE_ON:
+                        set = condition(st, set, kindAt(code[base + SYM], ox, oy));
+                        break;
+                    case DANGER:
+                        set = condition(st, set, dangerAt(ox, oy));
+                        break;
+                    case CHECK:
+                        set = condition(st, set, board.inCheck ? ALL : 0L);
+                        break;
+                    case PIECE:
+                        set = condition(st, set, board.isPieceKind(code[base + SYM]) ? ALL : 0L);
+                        break;
+
+                    // ── 기하 조건식 ──
+                    case BOUND:
+                    case EDGE:
+                        set = condition(st, set, outside(ox, oy));
+                        break;
+                    case EDGE_TOP:
+                        set = condition(st, set, ranks(8 - oy, 8));
+                        break;
+                    case EDGE_BOTTOM:
+                        set = condition(st, set, ranks(0, -oy));
+                        break;
+                    case EDGE_LEFT:
+                        set = condition(st, set, files(0, -ox));
+                        break;
+                    case EDGE_RIGHT:
+                        set = condition(st, set, files(8 - ox, 8));
+                        break;
+                    case CORNER:
+                        set = condition(st, set, ~files(-ox, 8 - ox) & ~ranks(-oy, 8 - oy));
+                        break;
+                    case CORNER_TOP_LEFT:
+                        set = condition(st, set, files(0, -ox) & ranks(8 - oy, 8));
+                        break;
+                    case CORNER_TOP_RIGHT:
+                        set = condition(st, set, files(8 - ox, 8) & ranks(8 - oy, 8));
+                        break;
+                    case CORNER_BOTTOM_LEFT:
+                        set = condition(st, set, files(0, -ox) & ranks(0, -oy));
+                        break;
+                    case CORNER_BOTTOM_RIGHT:
+                        set = condition(st, set, files(8 - ox, 8) & ranks(0, -oy));
+                        break;
+
+                    // ── 제어 ──
+                    case REPEAT: {
+                        int target = code[base + TARGET];
+                        if (st.lastValue && target >= 0) st.pc = target;
+                        break;
+                    }
+                    case DO:
+                        if (st.lastValue) st.doIndex = code[base + TARGET];
+                        break;
+                    case WHILE:
+                        if (st.lastValue && st.doIndex >= 0) st.pc = st.doIndex;
+                        st.lastValue = true;
+                        break;
+                    case JMP:
+                        if (st.lastValue) st.pc = BytecodeInterpreter.jumpTarget(program, base, st.chainIndex, st.pc);
+                        st.lastValue = true;
+                        break;
+                    case JNE:
+                        if (!st.lastValue) st.pc = BytecodeInterpreter.jumpTarget(program, base, st.chainIndex, st.pc);
+                        st.lastValue = true;
+                        break;
+                    case NOT:
+                        st.lastValue = !st.lastValue;
+                        break;
+                    case END:
+                        st.lastValue = false;
+                        break;
+                    default:
+                        break;
+                }
+                if (set == 0L) return;
+            }
+            commitPending(st, set);
+        }
+
+        /** 참이면 set에 남고, 거짓인 출발 칸은 lastValue=false 상태로 작업 목록에 넣는다 */
+        private long condition(State st, long set, long mask) {
+            branch(st, set & ~mask, false);
+            st.lastValue = true;
+            return set & mask;
+        }
+
+        /**
+         * 현재 상태의 사본을 lastValue만 정해 작업 목록에 넣는다 (pc는 이미 다음 명령어).
+         * 거짓이면 뒤따르는 스킵을 먼저 적용해 둔다 — 체인 끝으로 건너뛰면 앵커가 초기화되므로
+         * 서로 다른 칸에서 실패한 출발 칸들이 다음 체인 시작 상태 하나로 합쳐진다.
+         */
+        private void branch(State st, long set, boolean lastValue) {
+            if (set == 0L) return;
+            State b = st.copy();
+            b.lastValue = lastValue;
+            while (!b.lastValue && b.pc < n) {
+                if (++b.steps > stepLimit) {
+                    diverged |= set;
+                    return;
+                }
+                int base = b.pc * STRIDE;
+                int op = code[base];
+                if (!EXEMPT[op]) {
+                    b.pc++;
+                    skip(b, base);
+                } else if (op == SEMICOLON) {
+                    b.pc++;
+                    resetChain(b);
+                    b.lastValue = true;
+                } else if (op == CLOSE_BRACE) {
+                    b.pc++;
+                    b.popScope();
+                    b.lastValue = true;
+                } else if (op == LABEL) {
+                    b.pc++;
+                } else {
+                    break;
+                }
+            }
+            if (b.pc >= n) {
+                commitPending(b, set);
+                return;
+            }
+            enqueue(b, set);
+        }
+
+        /** 종료 규칙 — BytecodeInterpreter와 같다 (pc는 이미 다음 명령어) */
+        private void skip(State st, int base) {
+            if (st.numOpenBrace == 0) {
+                int info = code[base + SKIP_INFO];
+                switch (info & 3) {
+                    case SKIP_CHAIN:
+                        resetChain(st);
+                        break;
+                    case SKIP_SCOPE:
+                        st.popScope();
+                        break;
+                    default:
+                        break;
+                }
+                st.numOpenBrace = info >>> 2;
+                st.pc = code[base + SKIP];
+            } else {
+                while (st.pc < n) {
+                    int tt = code[st.pc * STRIDE];
+                    if (tt == SEMICOLON) {
+                        resetChain(st);
+                        st.pc++;
+                        break;
+                    } else if (tt == CLOSE_BRACE) {
+                        if (st.numOpenBrace > 0) {
+                            st.numOpenBrace--;
+                            st.pc++;
+                            continue;
+                        }
+                        st.popScope();
+                        st.pc++;
+                        break;
+                    } else if (tt == OPEN_BRACE) {
+                        st.numOpenBrace++;
+                        st.pc++;
+                    } else {
+                        st.pc++;
+                    }
+                }
+            }
+            st.lastValue = true;
+        }
+
+        private static void resetChain(State st) {
+            st.anchorX = 0; st.anchorY = 0;
+            st.doIndex = -1;
+            st.hasTake = false;
+            st.chainIndex++;
+        }
+
+        // ── 활성화 ──
+
+        private void add(State st, long set, int ox, int oy, int type) {
+            if (set == 0L) return;
+            if (type == TAKE_TYPE) {
+                int[] next = Arrays.copyOf(st.pendingTakes, st.pendingTakes.length + 2);
+                next[next.length - 2] = ox;
+                next[next.length - 1] = oy;
+                st.pendingTakes = next;
+                return;
+            }
+            commitPending(st, set);
+            record(set, ox, oy, type);
+        }
+
+        private void commitPending(State st, long set) {
+            int[] takes = st.pendingTakes;
+            if (takes.length == 0) return;
+            for (int i = 0; i < takes.length; i += 2) record(set, takes[i], takes[i + 1], TAKE_TYPE);
+            st.pendingTakes = new int[0];
+        }
+
+        private void record(long set, int ox, int oy, int type) {
+            if (count == sets.length) {
+                types = Arrays.copyOf(types, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+                sets = Arrays.copyOf(sets, count * 2);
+            }
+            types[count] = type;
+            offsets[count] = oy * 8 + ox;
+            sets[count++] = set;
+        }
+
+        // ── 칸 마스크 (출발 칸 기준) ──
+
+        private long outside(int ox, int oy) {
+            return ~inBounds(ox, oy);
+        }
+
+        /** 자기 칸(오프셋 0)은 이동하는 기물 자신이므로 아군 */
+        private long friendlyAt(int ox, int oy) {
+            return ox == 0 && oy == 0 ? ALL : originsHitting(friendly, ox, oy);
+        }
+
+        private long enemyAt(int ox, int oy) {
+            return ox == 0 && oy == 0 ? 0L : originsHitting(enemy, ox, oy);
+        }
+
+        private long emptyAt(int ox, int oy) {
+            return inBounds(ox, oy) & ~friendlyAt(ox, oy) & ~enemyAt(ox, oy);
+        }
+
+        private long kindAt(int kind, int ox, int oy) {
+            if (kind < 0) return 0L;
+            if (ox == 0 && oy == 0) return board.pieceKind == kind ? ALL : 0L;
+            if (byKind == null) {
+                byKind = new long[ScriptSymbols.kindCount()];
+                for (Map.Entry<Long, BuiltinOps.PieceInfo> e : board.pieces.entrySet()) {
+                    int k = e.getValue().kind;
+                    if (k < 0) continue;
+                    long key = e.getKey();
+                    byKind[k] |= 1L << ((int) key * 8 + (int) (key >> 32));
+                }
+            }
+            return originsHitting(byKind[kind], ox, oy);
+        }
+
+        /** 위협 칸 키는 보드 밖일 수도 있으므로 키마다 해당 출발 칸을 계산한다 */
+        private long dangerAt(int ox, int oy) {
+            long origins = 0L;
+            for (long k : board.dangerSquares) {
+                int x = (int) (k >> 32) - ox, y = (int) k - oy;
+                if (x >= 0 && x < 8 && y >= 0 && y < 8) origins |= 1L << (y * 8 + x);
+            }
+            return origins;
+        }
+    }
+}
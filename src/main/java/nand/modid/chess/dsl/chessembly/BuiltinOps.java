@@ -1,5 +1,7 @@
 package nand.modid.chess.dsl.chessembly;
 
+import nand.modid.chess.core.Piece;
+
 import java.util.*;
 
 /**
@@ -13,14 +15,21 @@ public final class BuiltinOps {
     /** 보드 위 기물 정보 */
     public static final class PieceInfo {
         public final String name;
+        /** 기물 종류 서수 ({@link ScriptSymbols#kindOf}), 모르는 이름이면 -1 */
+        public final int kind;
         public final boolean isWhite;
         public final int stun_stack;
         public final int move_stack;
-        /** 기물별 상태 */
-        public final Map<String, Integer> state = new HashMap<>();
+        /** 기물별 상태 (슬롯 → 값) */
+        public final Piece.PieceState state = new Piece.PieceState();
 
         public PieceInfo(String name, boolean isWhite, int st, int mo) {
+            this(name, ScriptSymbols.kindOf(name), isWhite, st, mo);
+        }
+
+        public PieceInfo(String name, int kind, boolean isWhite, int st, int mo) {
             this.name = name;
+            this.kind = kind;
             this.isWhite = isWhite;
             this.stun_stack = st;
             this.move_stack = mo;
@@ -34,9 +43,12 @@ public final class BuiltinOps {
         public int pieceX;
         public int pieceY;
         public String pieceName;
+        /** pieceName의 기물 종류 서수 — pieceName을 바꾸면 함께 바꾼다 */
+        public int pieceKind;
         public boolean isWhite;
-        /** (x,y) → PieceInfo */
-        public final Map<Long, PieceInfo> pieces = new HashMap<>();
+        private final Map<Long, PieceInfo> squares = new HashMap<>();
+        /** (x,y) → PieceInfo, 읽기 전용 — 기물은 putPiece/removePiece로만 바꾼다 (격자·비트보드가 함께 고쳐진다) */
+        public final Map<Long, PieceInfo> pieces = Collections.unmodifiableMap(squares);
         /** 위협 칸 */
         public final Set<Long> dangerSquares = new HashSet<>();
         /** 체크 상태 */
@@ -49,6 +61,7 @@ public final class BuiltinOps {
             this.pieceX = pieceX;
             this.pieceY = pieceY;
             this.pieceName = pieceName;
+            this.pieceKind = ScriptSymbols.kindOf(pieceName);
             this.isWhite = isWhite;
         }
 
@@ -57,14 +70,183 @@ public final class BuiltinOps {
         }
 
         public void putPiece(int x, int y, String name, boolean white, int stun, int move) {
-            pieces.put(key(x, y), new PieceInfo(name, white, stun, move));
+            place(x, y, new PieceInfo(name, white, stun, move));
         }
 
         public void putPiece(int x, int y, String name, boolean white, int stun, int move,
                              Map<String, Integer> pieceState) {
-            PieceInfo info = new PieceInfo(name, white, stun, move);
-            if (pieceState != null) info.state.putAll(pieceState);
-            pieces.put(key(x, y), info);
+            putPiece(x, y, name, ScriptSymbols.kindOf(name), white, stun, move, pieceState);
+        }
+
+        /** 기물 종류 서수를 이미 아는 호출자(GameState)용 — 이름을 다시 조회하지 않는다 */
+        public void putPiece(int x, int y, String name, int kind, boolean white, int stun, int move,
+                             Map<String, Integer> pieceState) {
+            PieceInfo info = new PieceInfo(name, kind, white, stun, move);
+            if (pieceState instanceof Piece.PieceState) info.state.copyFrom((Piece.PieceState) pieceState);
+            else if (pieceState != null && !pieceState.isEmpty()) info.state.putAll(pieceState);
+            place(x, y, info);
+        }
+
+        /** (x, y)의 기물을 뺀다 (없으면 아무것도 하지 않는다) */
+        public void removePiece(int x, int y) {
+            place(x, y, null);
+        }
+
+        /** 격자가 최신이면 바뀐 칸만 고치고, 아니면 다음 조회에서 다시 만들게 한다 */
+        private void place(int x, int y, PieceInfo info) {
+            boolean current = gridValid && gridWidth == boardWidth && gridHeight == boardHeight;
+            PieceInfo old = info != null ? squares.put(key(x, y), info) : squares.remove(key(x, y));
+            if (!current) {
+                gridValid = false;
+                return;
+            }
+            if (inBounds(x, y)) {
+                int idx = y * boardWidth + x;
+                grid[idx] = info;
+                if (boardWidth * boardHeight <= 64) {
+                    long bit = 1L << idx;
+                    occupied = info != null ? occupied | bit : occupied & ~bit;
+                    whiteOccupied = info != null && info.isWhite ? whiteOccupied | bit : whiteOccupied & ~bit;
+                }
+            } else if (old == null && info != null) {
+                outOfBounds++;
+            } else if (old != null && info == null) {
+                outOfBounds--;
+            }
+        }
+
+        // ── 조밀 격자 ──
+        // 조회 때마다 Long 키를 박싱하지 않도록 pieces를 y*width+x 배열로 펼쳐 둔다.
+        // 처음 조회할 때 만들고, 이후 putPiece/removePiece는 바뀐 칸만 고친다. 맵은 그 둘로만 바뀌므로
+        // 격자와 비트보드는 보드 크기가 바뀔 때만 다시 만든다.
+        private PieceInfo[] grid;
+        private int gridWidth, gridHeight;
+        private boolean gridValid;
+        /** 보드 밖 좌표에 놓인 기물 수 (0이면 보드 밖 조회는 맵을 보지 않는다) */
+        private int outOfBounds;
+        /** 점유 비트보드 (비트 = y*width+x, 64칸 이하 보드에서만) */
+        private long occupied, whiteOccupied;
+
+        private PieceInfo[] grid() {
+            if (!gridValid || gridWidth != boardWidth || gridHeight != boardHeight) {
+                rebuildGrid();
+            }
+            return grid;
+        }
+
+        private void rebuildGrid() {
+            int cells = Math.max(0, boardWidth) * Math.max(0, boardHeight);
+            if (grid == null || grid.length != cells) grid = new PieceInfo[cells];
+            else Arrays.fill(grid, null);
+            outOfBounds = 0;
+            occupied = 0L;
+            whiteOccupied = 0L;
+            boolean bitboards = cells <= 64;
+            for (Map.Entry<Long, PieceInfo> e : squares.entrySet()) {
+                long k = e.getKey();
+                int x = (int) (k >> 32);
+                int y = (int) k;
+                if (inBounds(x, y)) {
+                    int idx = y * boardWidth + x;
+                    grid[idx] = e.getValue();
+                    if (bitboards) {
+                        occupied |= 1L << idx;
+                        if (e.getValue().isWhite) whiteOccupied |= 1L << idx;
+                    }
+                } else {
+                    outOfBounds++;
+                }
+            }
+            gridWidth = boardWidth;
+            gridHeight = boardHeight;
+            gridValid = true;
+        }
+
+        /** (x, y)의 기물, 없으면 null. 할당 없이 조회한다. */
+        public PieceInfo pieceAt(int x, int y) {
+            PieceInfo[] g = grid();
+            if (inBounds(x, y)) {
+                int idx = y * boardWidth + x;
+                if (trackingReads) noteRead(idx);
+                return g[idx];
+            }
+            if (outOfBounds == 0) return null;
+            if (trackingReads) readFlags |= READS_UNTRACKED;
+            return squares.get(key(x, y));
+        }
+
+        // ── 읽기 집합 ──
+        // 실행이 실제로 조회한 칸을 비트(y*width+x)로 모은다. 결과는 이 칸들의 내용,
+        // 기물 자신(위치·이름·색), 그리고 플래그가 가리키는 의존성에만 달려 있다.
+        // GameState가 기물별 합법 수 캐시를 바뀐 칸만으로 무효화할 때 사용한다.
+
+        /** 다른 기물의 이동 스택을 읽었다 (if-move-stack) */
+        public static final int READS_STACK = 1;
+        /** 자기 기물의 상태(if-state)를 읽었다 */
+        public static final int READS_STATE = 2;
+        /** 위협 칸 또는 체크 상태를 읽었다 */
+        public static final int READS_DANGER = 4;
+        /** 칸 비트로 표현할 수 없는 조회 (64칸 초과 보드, 보드 밖 기물) */
+        public static final int READS_UNTRACKED = 8;
+
+        private boolean trackingReads;
+        private long readSet;
+        private int readFlags;
+
+        /** 읽기 집합 기록 시작 (이전 기록은 지운다) */
+        public void beginReadTracking() {
+            trackingReads = true;
+            readSet = 0L;
+            readFlags = 0;
+        }
+
+        /** 읽기 집합 기록 중지 (기록한 값은 남는다) */
+        public void endReadTracking() {
+            trackingReads = false;
+        }
+
+        /** 기록 중 조회한 칸의 비트 집합 */
+        public long readSet() { return readSet; }
+
+        /** 기록 중 생긴 READS_* 의존성 */
+        public int readFlags() { return readFlags; }
+
+        private void noteRead(int idx) {
+            if (idx < 64 && boardWidth * boardHeight <= 64) readSet |= 1L << idx;
+            else readFlags |= READS_UNTRACKED;
+        }
+
+        /**
+         * 비트보드로 한꺼번에 판정한 칸들을 읽기 집합에 더한다.
+         * {@link #occupancy()}는 보드 전체를 돌려주지만 기록하지 않으므로, 그 결과를 쓰는 쪽이
+         * 실제로 결과에 영향을 준 칸(광선의 막힌 칸까지)을 알려야 한다.
+         */
+        public void noteReads(long squares) {
+            if (trackingReads) readSet |= squares;
+        }
+
+        /** (x, y) 기물의 이동 스택 (기물이 있어야 한다) */
+        public int moveStackAt(int x, int y) {
+            if (trackingReads) readFlags |= READS_STACK;
+            return pieceAt(x, y).move_stack;
+        }
+
+        /** 보드 안 모든 기물의 비트보드 (비트 = y*width+x). 64칸 초과 보드에서는 0. 읽기 집합에 기록하지 않는다 */
+        public long occupancy() {
+            grid();
+            return occupied;
+        }
+
+        /** 이동하는 쪽(isWhite) 기물의 비트보드. 64칸 초과 보드에서는 0 */
+        public long friendlyOccupancy() {
+            grid();
+            return isWhite ? whiteOccupied : occupied & ~whiteOccupied;
+        }
+
+        /** 보드 밖 좌표에 놓인 기물이 있는지 (있으면 보드 밖 조회도 맵을 본다) */
+        public boolean hasPiecesOutOfBounds() {
+            grid();
+            return outOfBounds > 0;
         }
 
         public boolean inBounds(int x, int y) {
@@ -72,31 +254,55 @@ public final class BuiltinOps {
         }
 
         public boolean isEmpty(int x, int y) {
-            return inBounds(x, y) && !pieces.containsKey(key(x, y));
+            return inBounds(x, y) && pieceAt(x, y) == null;
         }
 
         public boolean hasEnemy(int x, int y) {
-            PieceInfo info = pieces.get(key(x, y));
+            PieceInfo info = pieceAt(x, y);
             return info != null && info.isWhite != this.isWhite;
         }
 
         public boolean hasFriendly(int x, int y) {
-            PieceInfo info = pieces.get(key(x, y));
+            PieceInfo info = pieceAt(x, y);
             return info != null && info.isWhite == this.isWhite;
         }
 
         public boolean hasPiece(int x, int y, String pieceName) {
-            PieceInfo info = pieces.get(key(x, y));
-            return info != null && info.name.equals(pieceName);
+            return hasPieceKind(x, y, ScriptSymbols.kindOf(pieceName));
+        }
+
+        /** (x, y)에 해당 종류의 기물이 있는지 — 모르는 종류(-1)는 어떤 기물과도 같지 않다 */
+        public boolean hasPieceKind(int x, int y, int kind) {
+            PieceInfo info = pieceAt(x, y);
+            return info != null && kind >= 0 && info.kind == kind;
+        }
+
+        /** 이동하는 기물이 해당 종류인지 */
+        public boolean isPieceKind(int kind) {
+            return kind >= 0 && pieceKind == kind;
         }
 
         public int getState(String k) {
-            PieceInfo info = pieces.get(key(pieceX, pieceY));
-            return info != null ? info.state.getOrDefault(k, 0) : 0;
+            if (trackingReads) readFlags |= READS_STATE;
+            PieceInfo info = pieceAt(pieceX, pieceY);
+            return info != null ? info.state.getSlot(ScriptSymbols.findStateSlot(k)) : 0;
+        }
+
+        /** 상태 슬롯으로 읽기 — 컴파일된 실행 티어용 */
+        public int getState(int slot) {
+            if (trackingReads) readFlags |= READS_STATE;
+            PieceInfo info = pieceAt(pieceX, pieceY);
+            return info != null ? info.state.getSlot(slot) : 0;
+        }
+
+        public boolean isInCheck() {
+            if (trackingReads) readFlags |= READS_DANGER;
+            return inCheck;
         }
 
         public boolean isDanger(int x, int y) {
-            return dangerSquares.contains(key(x, y));
+            if (trackingReads) readFlags |= READS_DANGER;
+            return !dangerSquares.isEmpty() && dangerSquares.contains(key(x, y));
         }
     }
 }
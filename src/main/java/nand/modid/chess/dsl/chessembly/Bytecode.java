@@ -0,0 +1,328 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+/**
+ * Bytecode — Chessembly 토큰 리스트를 평탄한 int[] 명령어 스트림으로 컴파일한 결과.
+ *
+ * 명령어 하나는 토큰 하나에 1:1 대응하며 {@link #STRIDE}칸을 차지한다.
+ * 따라서 명령어 인덱스 = 토큰 인덱스이고, repeat(n)의 역방향 점프도 토큰 인터프리터와 같은 주소가 된다.
+ *
+ * <pre>
+ * [OP] [DX] [DY] [ARG] [STR] [SKIP] [SKIP_INFO] [TARGET] [SYM]
+ * </pre>
+ * <ul>
+ *   <li>OP        — 오피코드 (= AST.TokenType.ordinal())</li>
+ *   <li>DX, DY    — 좌표 피연산자</li>
+ *   <li>ARG       — 정수 피연산자 (repeat 횟수, 상태 값). jmp/jne는 정적 체인 인덱스</li>
+ *   <li>STR       — 문자열 풀 인덱스 (기물 이름, 상태 키, 라벨), 없으면 -1</li>
+ *   <li>SKIP      — 직전 식이 실패한 채 이 명령어에 도달했을 때 재개할 주소 (체인 끝 / 스코프 끝 / 프로그램 끝)</li>
+ *   <li>SKIP_INFO — 스킵 종료 종류(하위 2비트) | 스킵 중 열린 중괄호 수 &lt;&lt; 2</li>
+ *   <li>TARGET    — repeat 역방향 주소, jmp/jne 라벨 주소, do 앵커 주소, while의 정적 do 앵커</li>
+ *   <li>SYM       — {@link ScriptSymbols}로 해석한 이름: piece-on/piece/transition은 기물 종류 서수
+ *                   (모르는 이름은 {@link ScriptSymbols#UNKNOWN}), if-state/set-state는 상태 슬롯, 그 밖에는 -1</li>
+ * </ul>
+ *
+ * 토큰 인터프리터({@link Interpreter})가 기준 구현이며, 이 형식은 그 동작을 그대로 재현한다.
+ */
+public final class Bytecode {
+
+    // ── 명령어 레이아웃 ───────────────────────────────
+    public static final int STRIDE = 9;
+    public static final int OP = 0;
+    public static final int DX = 1;
+    public static final int DY = 2;
+    public static final int ARG = 3;
+    public static final int STR = 4;
+    public static final int SKIP = 5;
+    public static final int SKIP_INFO = 6;
+    public static final int TARGET = 7;
+    public static final int SYM = 8;
+
+    // ── 스킵 종료 종류 ────────────────────────────────
+    /** 프로그램 끝까지 스킵 */
+    public static final int SKIP_END = 0;
+    /** 세미콜론에서 종료 → 체인 초기화 */
+    public static final int SKIP_CHAIN = 1;
+    /** 닫는 중괄호에서 종료 → 스코프 복원 */
+    public static final int SKIP_SCOPE = 2;
+
+    // ── 오피코드 (AST.TokenType 순서와 동일) ─────────
+    public static final int TAKE_MOVE = 0, MOVE = 1, TAKE = 2, CATCH = 3, SHIFT = 4, JUMP = 5, ANCHOR = 6;
+    public static final int OBSERVE = 7, PEEK = 8, ENEMY = 9, FRIENDLY = 10, PIECE_ON = 11, DANGER = 12, CHECK = 13;
+    public static final int BOUND = 14, EDGE = 15, EDGE_TOP = 16, EDGE_BOTTOM = 17, EDGE_LEFT = 18, EDGE_RIGHT = 19;
+    public static final int CORNER = 20, CORNER_TOP_LEFT = 21, CORNER_TOP_RIGHT = 22,
+                            CORNER_BOTTOM_LEFT = 23, CORNER_BOTTOM_RIGHT = 24;
+    public static final int PIECE = 25, IF_STATE = 26, SET_STATE = 27, SET_STATE_RESET = 28, TRANSITION = 29;
+    public static final int USE_MOVE_STACK = 30, IF_MOVE_STACK = 31;
+    public static final int REPEAT = 32, DO = 33, WHILE = 34, JMP = 35, JNE = 36, LABEL = 37, NOT = 38, END = 39;
+    public static final int OPEN_BRACE = 40, CLOSE_BRACE = 41, SEMICOLON = 42;
+
+    static {
+        // 오피코드 상수와 TokenType 순서가 어긋나면 즉시 실패시킨다
+        String[] expected = {
+            "TAKE_MOVE", "MOVE", "TAKE", "CATCH", "SHIFT", "JUMP", "ANCHOR",
+            "OBSERVE", "PEEK", "ENEMY", "FRIENDLY", "PIECE_ON", "DANGER", "CHECK",
+            "BOUND", "EDGE", "EDGE_TOP", "EDGE_BOTTOM", "EDGE_LEFT", "EDGE_RIGHT",
+            "CORNER", "CORNER_TOP_LEFT", "CORNER_TOP_RIGHT", "CORNER_BOTTOM_LEFT", "CORNER_BOTTOM_RIGHT",
+            "PIECE", "IF_STATE", "SET_STATE", "SET_STATE_RESET", "TRANSITION",
+            "USE_MOVE_STACK", "IF_MOVE_STACK",
+            "REPEAT", "DO", "WHILE", "JMP", "JNE", "LABEL", "NOT", "END",
+            "OPEN_BRACE", "CLOSE_BRACE", "SEMICOLON"
+        };
+        AST.TokenType[] types = AST.TokenType.values();
+        if (types.length != expected.length) throw new IllegalStateException("오피코드 표가 TokenType과 다릅니다");
+        for (int i = 0; i < types.length; i++) {
+            if (!types[i].name().equals(expected[i]))
+                throw new IllegalStateException("오피코드 불일치: " + i + " " + types[i]);
+        }
+    }
+
+    /** 실패해도 체인을 종료하지 않는 명령어 (제어식/구조) */
+    static final boolean[] EXEMPT = new boolean[AST.TokenType.values().length];
+    static {
+        EXEMPT[WHILE] = EXEMPT[JMP] = EXEMPT[JNE] = EXEMPT[NOT] = EXEMPT[LABEL] = true;
+        EXEMPT[SEMICOLON] = EXEMPT[CLOSE_BRACE] = true;
+    }
+
+    // ── 필드 ──────────────────────────────────────────
+
+    final int[] code;
+    final int length;
+    final String[] strings;
+    /** 명령어별 정적 액션 태그 (set-state, transition), 없으면 null */
+    final AST.ActionTag[] staticTags;
+    /** [정적 체인][문자열 인덱스] → 라벨 다음 주소, 없으면 -1 */
+    final int[][] chainLabels;
+
+    private Bytecode(int[] code, int length, String[] strings, AST.ActionTag[] staticTags, int[][] chainLabels) {
+        this.code = code;
+        this.length = length;
+        this.strings = strings;
+        this.staticTags = staticTags;
+        this.chainLabels = chainLabels;
+    }
+
+    /** 명령어 수 (= 토큰 수) */
+    public int length() { return length; }
+
+    /** 명령어 스트림 사본 */
+    public int[] code() { return code.clone(); }
+
+    /** 문자열 풀 사본 */
+    public String[] strings() { return strings.clone(); }
+
+    public int op(int pc) { return code[pc * STRIDE + OP]; }
+
+    public int operand(int pc, int field) { return code[pc * STRIDE + field]; }
+
+    public String string(int idx) { return idx >= 0 ? strings[idx] : null; }
+
+    // ── 컴파일 ────────────────────────────────────────
+
+    public static Bytecode compile(List<AST.Token> tokens) {
+        int n = tokens.size();
+        int[] code = new int[n * STRIDE];
+        AST.ActionTag[] staticTags = new AST.ActionTag[n];
+        List<String> pool = new ArrayList<>();
+        Map<String, Integer> poolIndex = new HashMap<>();
+
+        // 1) 피연산자 인라인 + 정적 체인 번호
+        int[] chainOf = new int[n];
+        int chain = 0;
+        for (int i = 0; i < n; i++) {
+            AST.Token t = tokens.get(i);
+            int base = i * STRIDE;
+            code[base + OP] = t.type.ordinal();
+            code[base + DX] = t.dx;
+            code[base + DY] = t.dy;
+            code[base + ARG] = t.intArg;
+            code[base + STR] = t.strArg != null ? intern(t.strArg, pool, poolIndex) : -1;
+            code[base + TARGET] = -1;
+            code[base + SYM] = symbol(code[base + OP], t.strArg);
+            chainOf[i] = chain;
+            if (t.type == AST.TokenType.SEMICOLON) chain++;
+
+            staticTags[i] = staticTag(code[base + OP], t.strArg, t.intArg);
+        }
+        int chainCount = chain + 1;
+
+        // 2) 체인별 라벨 표 (같은 체인에 중복 라벨이 있으면 마지막 것이 유효)
+        int[][] chainLabels = new int[chainCount][pool.size()];
+        for (int[] row : chainLabels) Arrays.fill(row, -1);
+        for (int i = 0; i < n; i++) {
+            if (code[i * STRIDE + OP] == LABEL) {
+                chainLabels[chainOf[i]][code[i * STRIDE + STR]] = i + 1;
+            }
+        }
+
+        // 3) 스킵 대상 / 점프 대상 사전 계산
+        int lastDo = -1;
+        for (int i = 0; i < n; i++) {
+            int base = i * STRIDE;
+            int op = code[base + OP];
+            if (!EXEMPT[op]) {
+                resolveSkip(code, n, i);
+            }
+            switch (op) {
+                case REPEAT: {
+                    int times = code[base + ARG];
+                    if (times > 0) code[base + TARGET] = i >= times ? i - times : 0;
+                    break;
+                }
+                case DO:
+                    code[base + TARGET] = i + 1;
+                    lastDo = i + 1;
+                    break;
+                case WHILE:
+                    code[base + TARGET] = lastDo;
+                    break;
+                case JMP:
+                case JNE: {
+                    int c = chainOf[i];
+                    code[base + ARG] = c;
+                    int s = code[base + STR];
+                    code[base + TARGET] = s >= 0 ? chainLabels[c][s] : -1;
+                    break;
+                }
+                case SEMICOLON:
+                    lastDo = -1;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return new Bytecode(code, n, pool.toArray(new String[0]), staticTags, chainLabels);
+    }
+
+    /**
+     * 저장해 둔 명령어 스트림으로 프로그램을 다시 만든다 ({@link ScriptArtifact}).
+     * 스킵·점프 주소와 라벨 표는 그대로 쓰고, 실행 중에만 의미가 있는 SYM과 정적 태그는 새로 해석한다
+     * (상태 슬롯 번호는 프로세스마다 다르다). 주소가 범위를 벗어나면 IllegalArgumentException.
+     */
+    static Bytecode restore(int[] code, int length, String[] strings, int[][] chainLabels) {
+        if (length < 0 || code.length != length * STRIDE) throw new IllegalArgumentException("명령어 스트림 길이가 맞지 않습니다");
+        int opCount = AST.TokenType.values().length;
+        AST.ActionTag[] staticTags = new AST.ActionTag[length];
+        for (int i = 0; i < length; i++) {
+            int base = i * STRIDE;
+            int op = code[base + OP], str = code[base + STR];
+            if (op < 0 || op >= opCount) throw new IllegalArgumentException("잘못된 오피코드: " + op + " @" + i);
+            if (str < -1 || str >= strings.length) throw new IllegalArgumentException("잘못된 문자열 인덱스 @" + i);
+            if (code[base + SKIP] < 0 || code[base + SKIP] > length
+                    || code[base + TARGET] < -1 || code[base + TARGET] > length) {
+                throw new IllegalArgumentException("잘못된 주소 @" + i);
+            }
+            String name = str >= 0 ? strings[str] : null;
+            code[base + SYM] = symbol(op, name);
+            staticTags[i] = staticTag(op, name, code[base + ARG]);
+        }
+        for (int[] row : chainLabels) {
+            if (row.length != strings.length) throw new IllegalArgumentException("라벨 표 크기가 맞지 않습니다");
+            for (int target : row) {
+                if (target < -1 || target > length) throw new IllegalArgumentException("잘못된 라벨 주소");
+            }
+        }
+        return new Bytecode(code, length, strings, staticTags, chainLabels);
+    }
+
+    /**
+     * 기물 이름·상태 키를 컴파일 때 번호로 바꾼다 — 실행 중에는 문자열을 비교하지 않는다.
+     * 알 수 없는 기물 이름은 어떤 비교에도 맞지 않으므로 IllegalArgumentException으로 거부한다.
+     */
+    private static int symbol(int op, String name) {
+        switch (op) {
+            case PIECE_ON:
+            case PIECE:
+                return knownKind(ScriptSymbols.kindOf(name), name);
+            case TRANSITION:
+                return knownKind(ScriptSymbols.transitionKindOf(name), name);
+            case IF_STATE:
+            case SET_STATE:
+                return ScriptSymbols.stateSlot(name);
+            default:
+                return -1;
+        }
+    }
+
+    private static int knownKind(int kind, String name) {
+        if (kind == ScriptSymbols.UNKNOWN) throw new IllegalArgumentException("알 수 없는 기물: " + name);
+        return kind;
+    }
+
+    /** set-state / transition의 정적 액션 태그, 그 밖의 명령어는 null */
+    private static AST.ActionTag staticTag(int op, String name, int value) {
+        if (op == SET_STATE) return new AST.ActionTag(AST.ActionTagType.SET_STATE, name, value, null, null);
+        if (op == TRANSITION) return new AST.ActionTag(AST.ActionTagType.TRANSITION, "", 0, name, null);
+        return null;
+    }
+
+    private static int intern(String s, List<String> pool, Map<String, Integer> index) {
+        Integer idx = index.get(s);
+        if (idx != null) return idx;
+        pool.add(s);
+        index.put(s, pool.size() - 1);
+        return pool.size() - 1;
+    }
+
+    /**
+     * 직전 식이 실패한 상태에서 명령어 i를 만났을 때의 스킵 결과를 계산한다.
+     * 명령어 i는 실행되지 않고 소비되며, 스캔은 i+1부터 시작한다.
+     * 진입 시 열린 중괄호 수가 0이라고 가정한다 (아니면 실행기가 선형 스캔으로 폴백).
+     */
+    private static void resolveSkip(int[] code, int n, int i) {
+        int pc = i + 1;
+        int depth = 0;
+        int kind = SKIP_END;
+        while (pc < n) {
+            int op = code[pc * STRIDE + OP];
+            if (op == SEMICOLON) {
+                kind = SKIP_CHAIN;
+                pc++;
+                break;
+            } else if (op == CLOSE_BRACE) {
+                if (depth > 0) {
+                    depth--;
+                    pc++;
+                    continue;
+                }
+                kind = SKIP_SCOPE;
+                pc++;
+                break;
+            } else if (op == OPEN_BRACE) {
+                depth++;
+                pc++;
+            } else {
+                pc++;
+            }
+        }
+        code[i * STRIDE + SKIP] = Math.min(pc, n);
+        code[i * STRIDE + SKIP_INFO] = kind | (depth << 2);
+    }
+
+    /** 특정 런타임 체인에서 라벨 주소 조회 (정적 체인과 다를 때의 폴백) */
+    int labelAddress(int runtimeChain, int strIdx) {
+        if (strIdx < 0 || runtimeChain < 0 || runtimeChain >= chainLabels.length) return -1;
+        return chainLabels[runtimeChain][strIdx];
+    }
+
+    // ── 디버그 ────────────────────────────────────────
+
+    /** 사람이 읽을 수 있는 역어셈블 결과 */
+    public String disassemble() {
+        AST.TokenType[] types = AST.TokenType.values();
+        StringBuilder sb = new StringBuilder();
+        for (int pc = 0; pc < length; pc++) {
+            int base = pc * STRIDE;
+            sb.append(String.format("%4d  %-20s dx=%d dy=%d arg=%d", pc, types[code[base + OP]],
+                    code[base + DX], code[base + DY], code[base + ARG]));
+            if (code[base + STR] >= 0) sb.append(" str='").append(strings[code[base + STR]]).append('\'');
+            sb.append(" skip=").append(code[base + SKIP]).append('/').append(code[base + SKIP_INFO] & 3);
+            if (code[base + TARGET] >= 0) sb.append(" target=").append(code[base + TARGET]);
+            if (code[base + SYM] >= 0) sb.append(" sym=").append(code[base + SYM]);
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,443 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+import static nand.modid.chess.dsl.chessembly.Bytecode.*;
+
+/**
+ * BytecodeInterpreter — {@link Bytecode} 명령어 스트림 실행기.
+ *
+ * 토큰 인터프리터({@link Interpreter})와 결과가 완전히 같아야 한다. 차이점은
+ * 라벨 표를 매 실행마다 만들지 않고, 실패 시 체인/스코프 끝을 토큰 단위로 찾지 않고
+ * 컴파일 때 계산한 주소로 바로 이동한다는 점뿐이다.
+ *
+ * 결과는 {@link ActivationBuffer}에 int로 기록하고, 스코프 스택과 대기 태그는
+ * 스레드별 {@link ExecutionScratch}를 사용한다. 호출자가 버퍼를 재사용하면
+ * 실행 한 번에 객체를 할당하지 않는다. 여러 스레드가 동시에 호출해도 안전하다.
+ * 버퍼에 질의 모드가 정해져 있으면 답이 확정된 활성화 직후 실행을 끝낸다.
+ */
+public final class BytecodeInterpreter {
+
+    private BytecodeInterpreter() {}
+
+    private static final int TAKE_MOVE_TYPE = AST.MoveType.TAKE_MOVE.ordinal();
+    private static final int MOVE_TYPE = AST.MoveType.MOVE.ordinal();
+    private static final int TAKE_TYPE = AST.MoveType.TAKE.ordinal();
+    private static final int CATCH_TYPE = AST.MoveType.CATCH.ordinal();
+    private static final int SHIFT_TYPE = AST.MoveType.SHIFT.ordinal();
+    private static final int JUMP_TYPE = AST.MoveType.JUMP.ordinal();
+    private static final int NO_CATCH = ActivationBuffer.NO_CATCH;
+
+    /** 객체 리스트로 결과를 돌려준다 (기존 API 호환용) */
+    public static List<AST.Activation> execute(Bytecode program, BuiltinOps.BoardState board) {
+        ActivationBuffer out = new ActivationBuffer();
+        execute(program, board, out);
+        return out.toActivations();
+    }
+
+    /**
+     * 결과를 호출자가 준 버퍼에 기록한다. 버퍼는 먼저 비워진다.
+     * {@link ExecutionBudget}의 단계 한도를 넘으면 중단하고 버퍼를 비운다.
+     */
+    public static void execute(Bytecode program, BuiltinOps.BoardState board, ActivationBuffer out) {
+        final int[] code = program.code;
+        final int n = program.length;
+
+        out.reset(program);
+        final ExecutionScratch s = ExecutionScratch.get();
+        s.reset();
+
+        int pc = 0;
+        int chainIndex = 0;
+        int numOpenBrace = 0;
+        int anchorX = 0, anchorY = 0;
+        boolean lastValue = true;
+        int doIndex = -1;
+        boolean hasTake = false;
+        int takeX = 0, takeY = 0;
+        int usableX = 0, usableY = 0; // if-move-stack 전용
+        int steps = 0;
+        final int stepLimit = ExecutionBudget.maxSteps();
+
+        while (pc < n) {
+            if (++steps > stepLimit) {
+                out.exceedSteps(steps);
+                return;
+            }
+            final int base = pc * STRIDE;
+            final int op = code[base];
+            pc++;
+
+            // ── 종료 규칙: 사전 계산된 주소로 스킵 ──
+            if (!lastValue && !EXEMPT[op]) {
+                if (numOpenBrace == 0) {
+                    int info = code[base + SKIP_INFO];
+                    switch (info & 3) {
+                        case SKIP_CHAIN:
+                            anchorX = 0; anchorY = 0;
+                            s.clearTags();
+                            doIndex = -1;
+                            hasTake = false;
+                            chainIndex++;
+                            break;
+                        case SKIP_SCOPE:
+                            if (s.scopeSize > 0) {
+                                s.scopeSize--;
+                                anchorX = s.scope[s.scopeSize * 2]; anchorY = s.scope[s.scopeSize * 2 + 1];
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    numOpenBrace = info >>> 2;
+                    pc = code[base + SKIP];
+                } else {
+                    // 불균형 중괄호 상태 — 기준 구현과 같은 선형 스캔
+                    while (pc < n) {
+                        int tt = code[pc * STRIDE];
+                        if (tt == SEMICOLON) {
+                            anchorX = 0; anchorY = 0;
+                            s.clearTags();
+                            doIndex = -1;
+                            hasTake = false;
+                            pc++;
+                            chainIndex++;
+                            break;
+                        } else if (tt == CLOSE_BRACE) {
+                            if (numOpenBrace > 0) {
+                                numOpenBrace--;
+                                pc++;
+                                continue;
+                            }
+                            if (s.scopeSize > 0) {
+                                s.scopeSize--;
+                                anchorX = s.scope[s.scopeSize * 2]; anchorY = s.scope[s.scopeSize * 2 + 1];
+                            }
+                            pc++;
+                            break;
+                        } else if (tt == OPEN_BRACE) {
+                            numOpenBrace++;
+                            pc++;
+                        } else {
+                            pc++;
+                        }
+                    }
+                }
+                lastValue = true;
+                continue;
+            }
+
+            final int dx = code[base + DX];
+            final int dy = code[base + DY];
+
+            switch (op) {
+
+                // ── 구조 ──────────────────────────────
+                case SEMICOLON:
+                    anchorX = 0; anchorY = 0;
+                    lastValue = true;
+                    s.clearTags();
+                    doIndex = -1;
+                    hasTake = false;
+                    chainIndex++;
+                    break;
+
+                case OPEN_BRACE:
+                    s.pushScope(anchorX, anchorY);
+                    lastValue = true;
+                    break;
+
+                case CLOSE_BRACE:
+                    if (s.scopeSize > 0) {
+                        s.scopeSize--;
+                        anchorX = s.scope[s.scopeSize * 2]; anchorY = s.scope[s.scopeSize * 2 + 1];
+                    }
+                    lastValue = true;
+                    break;
+
+                // ── 행마식 ────────────────────────────
+                case TAKE_MOVE: {
+                    int tx = board.pieceX + anchorX + dx;
+                    int ty = board.pieceY + anchorY + dy;
+                    if (!board.inBounds(tx, ty) || board.hasFriendly(tx, ty)) {
+                        lastValue = false;
+                    } else {
+                        if (out.add(anchorX + dx, anchorY + dy, TAKE_MOVE_TYPE, NO_CATCH, NO_CATCH, s)) pc = n;   // 질의 답 확정
+                        anchorX += dx; anchorY += dy;
+                        lastValue = !board.hasEnemy(tx, ty);
+                    }
+                    break;
+                }
+
+                case MOVE: {
+                    int tx = board.pieceX + anchorX + dx;
+                    int ty = board.pieceY + anchorY + dy;
+                    if (board.isEmpty(tx, ty)) {
+                        if (out.add(anchorX + dx, anchorY + dy, MOVE_TYPE, NO_CATCH, NO_CATCH, s)) pc = n;
+                        anchorX += dx; anchorY += dy;
+                        lastValue = true;
+                    } else {
+                        lastValue = false;
+                    }
+                    break;
+                }
+
+                case TAKE: {
+                    int tx = board.pieceX + anchorX + dx;
+                    int ty = board.pieceY + anchorY + dy;
+                    if (board.hasEnemy(tx, ty)) {
+                        hasTake = true;
+                        takeX = anchorX + dx; takeY = anchorY + dy;
+                        if (out.add(anchorX + dx, anchorY + dy, TAKE_TYPE, NO_CATCH, NO_CATCH, s)) pc = n;
+                        anchorX += dx; anchorY += dy;
+                        lastValue = true;
+                    } else if (board.inBounds(tx, ty) && !board.hasFriendly(tx, ty)) {
+                        anchorX += dx; anchorY += dy;
+                        lastValue = true;
+                    } else {
+                        lastValue = false;
+                    }
+                    break;
+                }
+
+                case JUMP: {
+                    out.removeLastIfTake();
+                    if (hasTake) {
+                        int tx = board.pieceX + anchorX + dx;
+                        int ty = board.pieceY + anchorY + dy;
+                        if (board.isEmpty(tx, ty)) {
+                            if (out.add(anchorX + dx, anchorY + dy, JUMP_TYPE, takeX, takeY, s)) pc = n;
+                            anchorX += dx; anchorY += dy;
+                            lastValue = true;
+                        } else {
+                            lastValue = false;
+                        }
+                    } else {
+                        lastValue = false;
+                    }
+                    break;
+                }
+
+                case CATCH: {
+                    int tx = board.pieceX + anchorX + dx;
+                    int ty = board.pieceY + anchorY + dy;
+                    if (board.hasEnemy(tx, ty)) {
+                        if (out.add(anchorX + dx, anchorY + dy, CATCH_TYPE, NO_CATCH, NO_CATCH, s)) pc = n;
+                        lastValue = true;
+                    } else {
+                        lastValue = false;
+                    }
+                    break;
+                }
+
+                case SHIFT: {
+                    int tx = board.pieceX + anchorX + dx;
+                    int ty = board.pieceY + anchorY + dy;
+                    if (board.inBounds(tx, ty) && !board.isEmpty(tx, ty)) {
+                        if (out.add(anchorX + dx, anchorY + dy, SHIFT_TYPE, NO_CATCH, NO_CATCH, s)) pc = n;
+                        anchorX += dx; anchorY += dy;
+                        lastValue = true;
+                    } else {
+                        lastValue = false;
+                    }
+                    break;
+                }
+
+                case ANCHOR:
+                    anchorX += dx;
+                    anchorY += dy;
+                    lastValue = true;
+                    break;
+
+                // ── 조건식 ────────────────────────────
+                case OBSERVE:
+                    lastValue = board.isEmpty(board.pieceX + anchorX + dx, board.pieceY + anchorY + dy);
+                    break;
+
+                case PEEK: {
+                    int tx = board.pieceX + anchorX + dx;
+                    int ty = board.pieceY + anchorY + dy;
+                    if (!board.inBounds(tx, ty)) {
+                        lastValue = false;
+                    } else {
+                        anchorX += dx;
+                        anchorY += dy;
+                        lastValue = board.isEmpty(tx, ty);
+                    }
+                    break;
+                }
+
+                case ENEMY:
+                    lastValue = board.hasEnemy(board.pieceX + anchorX + dx, board.pieceY + anchorY + dy);
+                    break;
+
+                case FRIENDLY:
+                    lastValue = board.hasFriendly(board.pieceX + anchorX + dx, board.pieceY + anchorY + dy);
+                    break;
+
+                case PIECE_ON:
+                    lastValue = board.hasPieceKind(board.pieceX + anchorX + dx, board.pieceY + anchorY + dy,
+                            code[base + SYM]);
+                    break;
+
+                case DANGER:
+                    lastValue = board.isDanger(board.pieceX + anchorX + dx, board.pieceY + anchorY + dy);
+                    break;
+
+                case CHECK:
+                    lastValue = board.isInCheck();
+                    break;
+
+                case BOUND:
+                    lastValue = !board.inBounds(board.pieceX + anchorX + dx, board.pieceY + anchorY + dy);
+                    break;
+
+                case EDGE: {
+                    int tx = board.pieceX + anchorX + dx;
+                    int ty = board.pieceY + anchorY + dy;
+                    lastValue = tx < 0 || tx >= board.boardWidth || ty < 0 || ty >= board.boardHeight;
+                    break;
+                }
+
+                case EDGE_TOP:
+                    lastValue = board.pieceY + anchorY + dy >= board.boardHeight;
+                    break;
+
+                case EDGE_BOTTOM:
+                    lastValue = board.pieceY + anchorY + dy < 0;
+                    break;
+
+                case EDGE_LEFT:
+                    lastValue = board.pieceX + anchorX + dx < 0;
+                    break;
+
+                case EDGE_RIGHT:
+                    lastValue = board.pieceX + anchorX + dx >= board.boardWidth;
+                    break;
+
+                case CORNER: {
+                    int tx = board.pieceX + anchorX + dx;
+                    int ty = board.pieceY + anchorY + dy;
+                    lastValue = (tx < 0 || tx >= board.boardWidth) && (ty < 0 || ty >= board.boardHeight);
+                    break;
+                }
+
+                case CORNER_TOP_LEFT:
+                    lastValue = board.pieceX + anchorX + dx < 0
+                             && board.pieceY + anchorY + dy >= board.boardHeight;
+                    break;
+
+                case CORNER_TOP_RIGHT:
+                    lastValue = board.pieceX + anchorX + dx >= board.boardWidth
+                             && board.pieceY + anchorY + dy >= board.boardHeight;
+                    break;
+
+                case CORNER_BOTTOM_LEFT:
+                    lastValue = board.pieceX + anchorX + dx < 0 && board.pieceY + anchorY + dy < 0;
+                    break;
+
+                case CORNER_BOTTOM_RIGHT:
+                    lastValue = board.pieceX + anchorX + dx >= board.boardWidth && board.pieceY + anchorY + dy < 0;
+                    break;
+
+                // ── 상태 ──────────────────────────────
+                case PIECE:
+                    lastValue = board.isPieceKind(code[base + SYM]);
+                    break;
+
+                case IF_STATE:
+                    lastValue = board.getState(code[base + SYM]) == code[base + ARG];
+                    break;
+
+                case SET_STATE:
+                case TRANSITION:
+                    s.pushStaticTag(pc - 1);
+                    lastValue = true;
+                    break;
+
+                case SET_STATE_RESET:
+                    s.removeLastTag();
+                    lastValue = true;
+                    break;
+
+                // ── 스택 관련 ─────────────────────────
+                case IF_MOVE_STACK: {
+                    int tx = board.pieceX + anchorX + dx;
+                    int ty = board.pieceY + anchorY + dy;
+                    if (board.hasEnemy(tx, ty)) {
+                        lastValue = false;
+                        break;
+                    }
+                    if (board.hasFriendly(tx, ty)) {
+                        if (board.moveStackAt(tx, ty) > 0) {
+                            usableX = tx; usableY = ty;
+                            lastValue = true;
+                        } else {
+                            lastValue = false;
+                        }
+                        break;
+                    }
+                    // 기준 구현과 동일하게 use-move-stack으로 이어진다
+                    s.pushUseStack(usableX, usableY);
+                    lastValue = true;
+                    break;
+                }
+
+                case USE_MOVE_STACK:
+                    s.pushUseStack(usableX, usableY);
+                    lastValue = true;
+                    break;
+
+                // ── 제어 ──────────────────────────────
+                case REPEAT: {
+                    int target = code[base + TARGET];
+                    if (lastValue && target >= 0) pc = target;
+                    break;
+                }
+
+                case DO:
+                    if (lastValue) doIndex = code[base + TARGET];
+                    break;
+
+                case WHILE:
+                    if (lastValue && doIndex >= 0) pc = doIndex;
+                    lastValue = true;
+                    break;
+
+                case JMP:
+                    if (lastValue) pc = jumpTarget(program, base, chainIndex, pc);
+                    lastValue = true;
+                    break;
+
+                case JNE:
+                    if (!lastValue) pc = jumpTarget(program, base, chainIndex, pc);
+                    lastValue = true;
+                    break;
+
+                case LABEL:
+                    break;
+
+                case NOT:
+                    lastValue = !lastValue;
+                    break;
+
+                case END:
+                    lastValue = false;
+                    break;
+
+                default:
+                    break;
+            }
+        }
+        out.finish(steps);
+    }
+
+    /** 라벨 주소: 정적 체인과 런타임 체인이 같으면 인라인 주소, 다르면 체인 표 조회 */
+    static int jumpTarget(Bytecode program, int base, int chainIndex, int fallthrough) {
+        int[] code = program.code;
+        int target = code[base + ARG] == chainIndex
+                ? code[base + TARGET]
+                : program.labelAddress(chainIndex, code[base + STR]);
+        return target >= 0 ? target : fallthrough;
+    }
+}
@@ -0,0 +1,189 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+/**
+ * CompiledScript — 한 번 토큰화된 Chessembly 프로그램.
+ *
+ * 불변 객체이므로 여러 게임/스레드가 같은 인스턴스를 동시에 실행해도 안전하다.
+ * 실행 상태(앵커, 스코프 스택 등)는 모두 {@link Interpreter#execute(CompiledScript, BuiltinOps.BoardState)}
+ * 호출의 지역 변수로만 존재한다.
+ *
+ * 토큰 목록과 함께 점프/스킵 주소가 해석된 {@link Bytecode}도 보관한다.
+ *
+ * 실행 티어: {@link #run}은 처음에는 {@link BytecodeInterpreter}로 실행하고,
+ * 코드 생성 대상으로 표시된 프로그램이 {@link GeneratedScript#threshold()}회 실행되면
+ * {@link ScriptJit}로 JVM 클래스를 만들어 이후 호출부터 사용한다.
+ * 코드 생성을 쓸 수 없거나(ASM 없음) 생성에 실패한 프로그램은 같은 횟수 이후
+ * {@link SpecializedScript}의 출발 칸별 특수화 프로그램으로 실행한다.
+ * {@code -Dstasischess.jit=false}({@link GeneratedScript#isForcedOff()})면 둘 다 쓰지 않고 실행기로 실행한다.
+ * 리퍼/라이더/호퍼로만 이루어진 스크립트는 그보다 먼저 {@link MovePattern}의 칸별 표로 처리한다.
+ */
+public final class CompiledScript {
+
+    private final String source;
+    private final int sourceHash;
+    private final List<AST.Token> tokens;
+    private final Bytecode bytecode;
+    /** 정적 판별 결과, 단순 형태가 아니면 null */
+    private final MovePattern pattern;
+
+    // ── 실행 티어 ──
+    private final boolean jitEligible;
+    private volatile GeneratedScript generated;
+    private volatile boolean jitFailed;
+    /** 실행 횟수 (동기화하지 않음 — 승격 시점이 조금 어긋나도 무방) */
+    private int executions;
+    /** 출발 칸별 특수화 표 (보드 크기가 바뀌면 교체) */
+    private volatile SpecializedScript.Table specialized;
+    /** 64칸 동시 분석기 (처음 요청할 때 만든다) */
+    private volatile BitboardEvaluator bitboard;
+    private volatile boolean bitboardChecked;
+
+    private CompiledScript(String source, List<AST.Token> tokens, Bytecode bytecode, boolean jitEligible) {
+        this.source = source;
+        this.sourceHash = source.hashCode();
+        this.tokens = Collections.unmodifiableList(new ArrayList<>(tokens));
+        this.bytecode = bytecode != null ? bytecode : Bytecode.compile(this.tokens);
+        this.pattern = ScriptClassifier.classify(this.tokens);
+        this.jitEligible = jitEligible;
+    }
+
+    /** 스크립트 문자열을 토큰화하여 컴파일된 프로그램을 만든다 (인터프리터 전용). */
+    public static CompiledScript compile(String source) {
+        return compile(source, false);
+    }
+
+    /**
+     * 스크립트 문자열을 토큰화하여 컴파일된 프로그램을 만든다.
+     *
+     * @param jitEligible 자주 실행되면 JVM 클래스로 승격할지 여부 (내장 기물 스크립트)
+     */
+    public static CompiledScript compile(String source, boolean jitEligible) {
+        if (source == null) source = "";
+        return new CompiledScript(source, Parser.parse(source), null, jitEligible);
+    }
+
+    /** 미리 컴파일해 둔 토큰과 명령어 스트림으로 프로그램을 만든다 ({@link ScriptArtifact}) */
+    static CompiledScript restore(String source, List<AST.Token> tokens, Bytecode bytecode, boolean jitEligible) {
+        return new CompiledScript(source, tokens, bytecode, jitEligible);
+    }
+
+    /**
+     * 현재 티어로 프로그램을 실행하고 결과를 버퍼에 기록한다. 결과는 어느 티어든
+     * {@link Interpreter#execute(CompiledScript, BuiltinOps.BoardState)}와 같다.
+     * 버퍼를 재사용하면 실행 중 할당이 일어나지 않는다.
+     */
+    public void run(BuiltinOps.BoardState board, ActivationBuffer out) {
+        if (pattern != null && MovePattern.isEnabled() && pattern.generate(board, out)) return;
+        boolean jit = GeneratedScript.isEnabled();
+        if (jit) {
+            GeneratedScript g = generated;
+            if (g == null && jitEligible && !jitFailed && ++executions >= GeneratedScript.threshold()) {
+                g = promote();
+            }
+            if (g != null) {
+                g.execute(board, out);
+                return;
+            }
+        }
+        // 코드 생성을 쓸 수 없는(ASM 없음, 생성 실패) 대상 프로그램은 출발 칸별 특수화로 실행 — 설정으로 끈 경우는 제외
+        if (jitEligible && (!jit || jitFailed) && !GeneratedScript.isForcedOff() && SpecializedScript.isEnabled()
+                && (executions >= GeneratedScript.threshold() || ++executions >= GeneratedScript.threshold())) {
+            SpecializedScript sp = specializedFor(board);
+            if (sp != null) {
+                sp.execute(board, out);
+                return;
+            }
+        }
+        BytecodeInterpreter.execute(bytecode, board, out);
+    }
+
+    /** 현재 티어로 실행하고 객체 리스트로 결과를 돌려준다 */
+    public List<AST.Activation> run(BuiltinOps.BoardState board) {
+        ActivationBuffer out = new ActivationBuffer();
+        run(board, out);
+        return out.toActivations();
+    }
+
+    /** 출발 칸의 특수화 프로그램, 쓸 수 없으면 null (보드가 너무 크거나, 보드 밖 기물이 있거나, 한도 초과) */
+    private SpecializedScript specializedFor(BuiltinOps.BoardState board) {
+        int w = board.boardWidth, h = board.boardHeight;
+        if (w <= 0 || h <= 0 || w > MovePattern.MAX_SIDE || h > MovePattern.MAX_SIDE
+                || !board.inBounds(board.pieceX, board.pieceY) || board.hasPiecesOutOfBounds()) {
+            return null;
+        }
+        SpecializedScript.Table t = specialized;
+        if (t == null || t.width != w || t.height != h) {
+            t = new SpecializedScript.Table(w, h);
+            specialized = t;
+        }
+        return t.get(bytecode, board.pieceX, board.pieceY);
+    }
+
+    private synchronized GeneratedScript promote() {
+        if (generated == null && !jitFailed) {
+            try {
+                generated = ScriptJit.compile(bytecode);
+            } catch (RuntimeException | LinkageError e) {
+                jitFailed = true;
+            }
+        }
+        return generated;
+    }
+
+    /**
+     * 모든 출발 칸을 한 번에 실행하는 분석기, 비트보드로 표현할 수 없는 스크립트면 null.
+     * 처음 요청할 때 만들어 두고 재사용한다 (동시에 만들어져도 결과는 같다).
+     */
+    public BitboardEvaluator bitboard() {
+        if (!bitboardChecked) {
+            if (BitboardEvaluator.supports(this)) bitboard = BitboardEvaluator.compile(this);
+            bitboardChecked = true;
+        }
+        return bitboard;
+    }
+
+    /** JVM 클래스로 승격되었는지 여부 */
+    public boolean isGenerated() { return generated != null; }
+
+    /** 특수화 프로그램이 만들어진 출발 칸 수 (현재 보드 크기 기준) */
+    public int specializedOrigins() {
+        SpecializedScript.Table t = specialized;
+        return t != null ? t.builtCount() : 0;
+    }
+
+    /** 출발 칸별 특수화 표가 차지하는 대략의 바이트 수 */
+    public long specializationBytes() {
+        SpecializedScript.Table t = specialized;
+        return t != null ? t.memoryBytes() : 0L;
+    }
+
+    /** 자주 실행되면 JVM 클래스로 승격할 대상인지 */
+    public boolean isJitEligible() { return jitEligible; }
+
+    /** 표 기반 생성 패턴, 단순 형태가 아니면 null */
+    public MovePattern pattern() { return pattern; }
+
+    /** 원본 스크립트 */
+    public String source() { return source; }
+
+    /** 원본 스크립트의 해시 (캐시 키 검증용) */
+    public int sourceHash() { return sourceHash; }
+
+    /** 읽기 전용 토큰 목록 */
+    public List<AST.Token> tokens() { return tokens; }
+
+    /** 점프/스킵 주소가 미리 해석된 명령어 스트림 */
+    public Bytecode bytecode() { return bytecode; }
+
+    /** 이 프로그램이 주어진 스크립트 문자열에서 컴파일되었는지 여부 */
+    public boolean matches(String script) {
+        return script == source || (script != null && script.hashCode() == sourceHash && script.equals(source));
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledScript{" + tokens.size() + " tokens, hash=" + Integer.toHexString(sourceHash) + "}";
+    }
+}
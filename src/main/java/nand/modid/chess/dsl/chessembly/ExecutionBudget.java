@@ -0,0 +1,30 @@
+package nand.modid.chess.dsl.chessembly;
+
+/**
+ * ExecutionBudget — 스크립트 실행 한 번에 허용하는 명령어 수와 활성화 수.
+ *
+ * {@code do … while}, {@code repeat}, {@code jmp}로 끝나지 않는 스크립트가 서버 스레드를 멈추지 않도록
+ * 모든 실행 티어가 명령어마다 단계를 세고, 한도를 넘으면 즉시 중단한다.
+ * 예산을 넘긴 실행은 활성화를 하나도 내지 않으며 {@link ActivationBuffer#budgetExceeded()}로 구분된다.
+ *
+ * 단계 = 실행한 명령어 수 (실패 후 스킵도 한 단계). 바이트코드 실행기, 생성된 클래스, 토큰 인터프리터가
+ * 같은 스크립트·보드에서 같은 단계 수를 센다. 표 기반 생성({@link MovePattern})은 체인 수를 단계로 센다.
+ */
+public final class ExecutionBudget {
+
+    private ExecutionBudget() {}
+
+    /** -Dstasischess.budget.steps */
+    private static volatile int maxSteps = Integer.getInteger("stasischess.budget.steps", 100_000);
+
+    /** -Dstasischess.budget.activations */
+    private static volatile int maxActivations = Integer.getInteger("stasischess.budget.activations", 4096);
+
+    public static int maxSteps() { return maxSteps; }
+
+    public static void setMaxSteps(int value) { maxSteps = Math.max(1, value); }
+
+    public static int maxActivations() { return maxActivations; }
+
+    public static void setMaxActivations(int value) { maxActivations = Math.max(1, value); }
+}
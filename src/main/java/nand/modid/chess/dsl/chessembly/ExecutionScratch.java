@@ -0,0 +1,84 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+/**
+ * ExecutionScratch — 실행기가 쓰는 스레드별 작업 공간 (스코프 스택, 대기 중인 태그).
+ *
+ * 실행 한 번 동안만 의미가 있으며, 다음 실행 시작 시 {@link #reset()}으로 비운다.
+ * 배열은 스레드마다 한 번 만들어 재사용하므로 실행마다 할당하지 않는다.
+ * 실행기는 재진입하지 않으므로 스레드당 하나로 충분하다.
+ */
+final class ExecutionScratch {
+
+    private static final ThreadLocal<ExecutionScratch> LOCAL = ThreadLocal.withInitial(ExecutionScratch::new);
+
+    static ExecutionScratch get() { return LOCAL.get(); }
+
+    /** 스코프 스택: [anchorX, anchorY] 쌍 */
+    int[] scope = new int[16];
+    int scopeSize;
+
+    /** 대기 중인 태그: (종류, a, b) 3칸씩 — {@link ActivationBuffer} 태그 묶음과 같은 형식 */
+    int[] tags = new int[24];
+    int tagCount;
+    /** 현재 태그들이 이미 기록된 묶음 인덱스, 바뀌었으면 -1 */
+    int tagSet = -1;
+
+    private ExecutionScratch() {}
+
+    void reset() {
+        scopeSize = 0;
+        tagCount = 0;
+        tagSet = -1;
+    }
+
+    // ── 스코프 ────────────────────────────────────────
+
+    void pushScope(int anchorX, int anchorY) {
+        if (scopeSize * 2 + 2 > scope.length) scope = Arrays.copyOf(scope, scope.length * 2);
+        scope[scopeSize * 2] = anchorX;
+        scope[scopeSize * 2 + 1] = anchorY;
+        scopeSize++;
+    }
+
+    /** 생성 코드용: 배열을 키운 뒤 새 배열을 돌려준다 */
+    int[] growScope() {
+        scope = Arrays.copyOf(scope, scope.length * 2);
+        return scope;
+    }
+
+    // ── 태그 ──────────────────────────────────────────
+
+    void pushStaticTag(int instruction) {
+        pushTag(ActivationBuffer.TAG_STATIC, instruction, 0);
+    }
+
+    void pushUseStack(int x, int y) {
+        pushTag(ActivationBuffer.TAG_USE_STACK, x, y);
+    }
+
+    private void pushTag(int kind, int a, int b) {
+        if ((tagCount + 1) * 3 > tags.length) tags = Arrays.copyOf(tags, tags.length * 2);
+        int base = tagCount * 3;
+        tags[base] = kind;
+        tags[base + 1] = a;
+        tags[base + 2] = b;
+        tagCount++;
+        tagSet = -1;
+    }
+
+    void removeLastTag() {
+        if (tagCount > 0) {
+            tagCount--;
+            tagSet = -1;
+        }
+    }
+
+    void clearTags() {
+        if (tagCount > 0) {
+            tagCount = 0;
+            tagSet = -1;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+/**
+ * GeneratedScript — {@link ScriptJit}가 런타임에 생성하는 JVM 클래스의 기반 클래스.
+ *
+ * 생성된 하위 클래스는 {@link #execute}를 구현하며, 앵커·lastValue·스코프 스택을 지역 변수로,
+ * 점프를 실제 분기로 갖는다. 여기의 static 헬퍼들은 생성 코드가 호출하는 런타임 지원 함수이다.
+ *
+ * 이 클래스는 ASM에 의존하지 않으므로, ASM이 없는 환경에서도 티어 설정을 조회할 수 있다.
+ */
+public abstract class GeneratedScript {
+
+    // ── 티어 설정 ─────────────────────────────────────
+
+    /** -Dstasischess.jit=false 로 강제 인터프리터 모드 (코드 생성도, 그 대체인 출발 칸 특수화도 쓰지 않는다) */
+    private static volatile boolean enabled =
+            !"false".equalsIgnoreCase(System.getProperty("stasischess.jit", "true"));
+
+    /** 이 횟수만큼 실행된 스크립트를 JVM 클래스로 승격한다 */
+    private static volatile int threshold = Integer.getInteger("stasischess.jit.threshold", 64);
+
+    private static final boolean ASM_PRESENT = detectAsm();
+
+    /** 테스트에서 ASM이 없는 환경을 흉내낼 때 true */
+    private static volatile boolean asmHidden;
+
+    private static boolean detectAsm() {
+        try {
+            Class.forName("org.objectweb.asm.ClassWriter", false, GeneratedScript.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /** 코드 생성 티어 사용 가능 여부 (설정 + ASM 존재) */
+    public static boolean isEnabled() { return enabled && ASM_PRESENT && !asmHidden; }
+
+    /** 설정으로 코드 생성을 껐는지 — ASM이 없어 못 쓰는 경우와 달리 다른 티어로 대신하지 않는다 */
+    public static boolean isForcedOff() { return !enabled; }
+
+    /** false로 설정하면 모든 스크립트가 인터프리터로 실행된다 */
+    public static void setEnabled(boolean value) { enabled = value; }
+
+    /** 테스트용 — true면 ASM이 클래스패스에 없는 것처럼 동작한다 */
+    static void setAsmHidden(boolean hidden) { asmHidden = hidden; }
+
+    public static int threshold() { return threshold; }
+
+    public static void setThreshold(int value) { threshold = Math.max(1, value); }
+
+    // ── 인스턴스 ──────────────────────────────────────
+
+    protected final Bytecode program;
+
+    protected GeneratedScript(Bytecode program) {
+        this.program = program;
+    }
+
+    /**
+     * 결과를 호출자가 준 버퍼에 기록한다. {@link BytecodeInterpreter#execute(Bytecode, BuiltinOps.BoardState, ActivationBuffer)}와
+     * 동일한 결과를 내야 한다.
+     */
+    public abstract void execute(BuiltinOps.BoardState board, ActivationBuffer out);
+
+    /** 객체 리스트로 결과를 돌려준다 (기존 API 호환용) */
+    public List<AST.Activation> execute(BuiltinOps.BoardState board) {
+        ActivationBuffer out = new ActivationBuffer();
+        execute(board, out);
+        return out.toActivations();
+    }
+
+    // ── 생성 코드용 런타임 헬퍼 ───────────────────────
+
+    protected static int moveStackAt(BuiltinOps.BoardState board, int x, int y) {
+        return board.moveStackAt(x, y);
+    }
+
+    protected static int labelAddress(Bytecode program, int chain, int strIdx, int fallthrough) {
+        int target = program.labelAddress(chain, strIdx);
+        return target >= 0 ? target : fallthrough;
+    }
+
+    // 기하 조건식 (보드 점유와 무관)
+
+    protected static boolean edge(BuiltinOps.BoardState b, int tx, int ty) {
+        return tx < 0 || tx >= b.boardWidth || ty < 0 || ty >= b.boardHeight;
+    }
+
+    protected static boolean corner(BuiltinOps.BoardState b, int tx, int ty) {
+        return (tx < 0 || tx >= b.boardWidth) && (ty < 0 || ty >= b.boardHeight);
+    }
+
+    protected static boolean cornerTopLeft(BuiltinOps.BoardState b, int tx, int ty) {
+        return tx < 0 && ty >= b.boardHeight;
+    }
+
+    protected static boolean cornerTopRight(BuiltinOps.BoardState b, int tx, int ty) {
+        return tx >= b.boardWidth && ty >= b.boardHeight;
+    }
+
+    protected static boolean cornerBottomLeft(BuiltinOps.BoardState b, int tx, int ty) {
+        return tx < 0 && ty < 0;
+    }
+
+    protected static boolean cornerBottomRight(BuiltinOps.BoardState b, int tx, int ty) {
+        return tx >= b.boardWidth && ty < 0;
+    }
+}
@@ -1,7 +1,6 @@
 package nand.modid.chess.dsl.chessembly;
 
 import java.util.*;
-import java.util.function.Consumer;
 import nand.modid.chess.core.Move;
 import nand.modid.chess.core.Move.Square;
 
@@ -14,28 +13,51 @@ import nand.modid.chess.core.Move.Square;
  * - 종료(Termination): 일반 식이 false → 현재 체인 스킵.
  * - 스코프({ }): 앵커 저장/복원 + 실패 격리.
  * - 제어식(while, jmp, jne, not, label): false여도 체인 종료하지 않음.
+ *
+ * 실행 상태는 모두 execute 호출의 지역 변수이므로, {@link CompiledScript}를 받는
+ * 실행 메서드는 하나의 인스턴스를 여러 스레드가 공유해도 안전하다.
+ * (parse()로 보관하는 토큰은 기존 API 호환용, 마지막 실행의 단계 수/예산 초과 여부는 인스턴스에 기록되므로
+ * 공유하는 경우 의미가 없다)
+ *
+ * {@link ExecutionBudget}의 한도를 넘으면 빈 목록을 돌려주고 {@link #lastBudgetExceeded()}가 true가 된다.
+ * {@link #setTrackReads(boolean)}를 켜면 실행이 조회한 칸의 비트 집합({@link #lastReadSet()})과
+ * 스택·상태 의존 플래그({@link #lastReadFlags()}, BoardState.READS_*)도 기록한다.
  */
 public final class Interpreter {
 
     private List<AST.Token> tokens = new ArrayList<>();
     private boolean debug;
-    /** 디버그 로그 수신자. null이면 System.out 사용 */
-    private Consumer<String> logger = null;
+
+    // 마지막 실행 비용
+    private int lastSteps;
+    private boolean lastBudgetExceeded;
+
+    private boolean trackReads;
+    private long lastReadSet;
+    private int lastReadFlags;
 
     public Interpreter() {}
 
-    public void setDebug(boolean enabled) {
-        this.debug = enabled;
-    }
+    /** 마지막 실행에서 실행한 명령어 수 */
+    public int lastSteps() { return lastSteps; }
 
-    /** 디버그 로그를 받을 콜백 설정. null 설정 시 System.out으로 폴백. */
-    public void setLogger(Consumer<String> logger) {
-        this.logger = logger;
+    /** 마지막 실행이 {@link ExecutionBudget}을 넘겨 중단되었는지 */
+    public boolean lastBudgetExceeded() { return lastBudgetExceeded; }
+
+    /** 마지막 실행이 조회한 칸 (비트 = y*width+x), 읽기 추적을 켠 경우에만 */
+    public long lastReadSet() { return lastReadSet; }
+
+    /** 마지막 실행의 의존 플래그 (BoardState.READS_*), 읽기 추적을 켠 경우에만 */
+    public int lastReadFlags() { return lastReadFlags; }
+
+    /** true면 실행마다 읽기 집합을 기록한다 */
+    public void setTrackReads(boolean enabled) {
+        this.trackReads = enabled;
     }
 
-    private void log(String msg) {
-        if (logger != null) logger.accept(msg);
-        else System.out.println(msg);
+    /** true면 실행 추적을 현재 스레드의 {@link TraceRecorder}에 기록한다 */
+    public void setDebug(boolean enabled) {
+        this.debug = enabled;
     }
 
     /** 스크립트 파싱 (토큰화) */
@@ -43,17 +65,35 @@ public final class Interpreter {
         tokens = Parser.parse(input);
     }
 
-    /** 행마법 계산 실행 */
+    /** 행마법 계산 실행 (parse()로 읽어 둔 토큰 사용) */
     public List<AST.Activation> execute(BuiltinOps.BoardState board) {
+        return run(tokens, board);
+    }
+
+    /** 미리 컴파일된 프로그램으로 행마법 계산 실행. 인터프리터의 파싱 상태를 건드리지 않는다. */
+    public List<AST.Activation> execute(CompiledScript script, BuiltinOps.BoardState board) {
+        return run(script.tokens(), board);
+    }
+
+    private List<AST.Activation> run(List<AST.Token> tokens, BuiltinOps.BoardState board) {
+        if (!trackReads) return interpret(tokens, board);
+        board.beginReadTracking();
+        try {
+            return interpret(tokens, board);
+        } finally {
+            board.endReadTracking();
+            lastReadSet = board.readSet();
+            lastReadFlags = board.readFlags();
+        }
+    }
+
+    private List<AST.Activation> interpret(List<AST.Token> tokens, BuiltinOps.BoardState board) {
         List<AST.Activation> activations = new ArrayList<>();
         int pc = 0;
 
         // ── 라벨 사전 처리: 체인 인덱스 → (라벨명 → pc) ──
         Map<Integer, Map<String, Integer>> labels = new HashMap<>();
         {
-            if(debug){
-                log(String.format("[interpreter] label index preprocessing..."));
-            }
             int chainIdx = 0;
             int i = 0;
             while (i < tokens.size()) {
@@ -66,9 +106,6 @@ public final class Interpreter {
                           .put(t.strArg, i);
                 }
             }
-            if(debug){
-                log(String.format("[interpreter] done."));
-            }
         }
 
         int chainIndex = 0;
@@ -94,14 +131,26 @@ public final class Interpreter {
 
         Square isMoveStackUsable = new Square(0, 0); //if-move-stack전용 필드.
 
+        int steps = 0;
+        final int stepLimit = ExecutionBudget.maxSteps();
+        final int activationLimit = ExecutionBudget.maxActivations();
+        lastBudgetExceeded = false;
+
+        final TraceRecorder trace = debug ? TraceRecorder.forCurrentThread() : null;
+        if (trace != null) trace.begin(tokens, board);
+
         while (pc < tokens.size()) {
             AST.Token token = tokens.get(pc);
 
-            if (debug) {
-                log(String.format("  [PC:%d] %s | Anchor(%d,%d) | last=%b",
-                        pc - 1, token, anchorX, anchorY, lastValue));
+            if (++steps > stepLimit || activations.size() > activationLimit) {
+                if (trace != null) trace.end(steps, activations.size(), true);
+                lastSteps = steps;
+                lastBudgetExceeded = true;
+                return new ArrayList<>();
             }
 
+            if (trace != null) trace.step(pc, token.type, anchorX, anchorY, lastValue);
+
             pc++;
 
             // ── 종료 규칙: 일반 식이 false면 체인 스킵 ──
@@ -342,7 +391,8 @@ public final class Interpreter {
                 case PIECE_ON: {
                     int tx = board.pieceX + anchorX + token.dx;
                     int ty = board.pieceY + anchorY + token.dy;
-                    lastValue = board.hasPiece(tx, ty, token.strArg);
+                    // 이름 규칙은 ScriptSymbols와 같다 (모르는 이름은 어떤 기물과도 같지 않다)
+                    lastValue = board.hasPieceKind(tx, ty, ScriptSymbols.kindOf(token.strArg));
                     break;
                 }
 
@@ -354,7 +404,7 @@ public final class Interpreter {
                 }
 
                 case CHECK:
-                    lastValue = board.inCheck;
+                    lastValue = board.isInCheck();
                     break;
 
                 case BOUND: {
@@ -433,7 +483,7 @@ public final class Interpreter {
 
                 // ── 상태 ──────────────────────────────
                 case PIECE:
-                    lastValue = board.pieceName.equals(token.strArg);
+                    lastValue = board.isPieceKind(ScriptSymbols.kindOf(token.strArg));
                     break;
 
                 case IF_STATE: {
@@ -471,7 +521,7 @@ public final class Interpreter {
                         break;
                     }
                     if (board.hasFriendly(tx, ty)){
-                        if(board.pieces.get(board.key(tx, ty)).move_stack > 0){
+                        if(board.moveStackAt(tx, ty) > 0){
                             isMoveStackUsable = new Square(tx, ty);
                             lastValue = true;
                             break;
@@ -556,6 +606,13 @@ public final class Interpreter {
             }
         }
 
+        lastSteps = steps;
+        boolean exceeded = activations.size() > activationLimit;
+        if (trace != null) trace.end(steps, activations.size(), exceeded);
+        if (exceeded) {
+            lastBudgetExceeded = true;
+            return new ArrayList<>();
+        }
         return activations;
     }
 
@@ -564,9 +621,7 @@ public final class Interpreter {
     private void addActivation(List<AST.Activation> list,
                                int dx, int dy, AST.MoveType moveType,
                                List<AST.ActionTag> tags, int[] catchTo) {
-        if (debug) {
-            log(String.format("    → Activation(%d, %d) %s", dx, dy, moveType));
-        }
+        if (debug) TraceRecorder.forCurrentThread().activation(dx, dy, moveType);
         list.add(new AST.Activation(dx, dy, moveType, tags, catchTo));
     }
 }
@@ -5,194 +5,351 @@ import java.util.*;
 /**
  * Lexer — Chessembly 스크립트를 토큰 스트림으로 변환한다.
  * Rust의 Lexer 구조체를 1:1 포팅.
+ *
+ * 입력 {@link CharSequence}를 직접 스캔한다. 단어와 인자는 부분 문자열을 만들지 않고
+ * 구간(start, end)으로만 다루며, 정수는 그 자리에서 해석하고, 키워드는 {@link Symbols}의 고정 표로, 이름은 렉서마다의 심볼 표로 조회한다.
+ * 인자가 없는 토큰과 작은 좌표 토큰은 공유 인스턴스를 사용한다 (Token은 불변).
+ *
+ * 스트리밍 커서 API: {@link #advance()}로 다음 토큰으로 이동한 뒤 {@link #type()}, {@link #dx()} 등으로
+ * 현재 토큰을 읽는다. 이 경로에서는 Token 객체를 만들지 않는다.
  */
 public final class Lexer {
 
-    private final String input;
+    private final CharSequence input;
+    private final int length;
+    /** 이 입력의 피연산자 문자열 */
+    private final Symbols.Table symbols = new Symbols.Table();
     private int pos;
 
-    public Lexer(String input) {
+    // ── 현재 토큰 (커서) ──
+    private int tokenStart, wordEnd;
+    private AST.TokenType type;
+    private int dx, dy, intArg;
+    private String strArg;
+
+    // ── 현재 단어의 인자 구간 (앞뒤 공백 제거 후, 빈 인자는 제외) ──
+    private int[] argStart = new int[4];
+    private int[] argEnd = new int[4];
+    private int argCount;
+
+    public Lexer(CharSequence input) {
         this.input = input;
+        this.length = input.length();
         this.pos = 0;
     }
 
     // ── 스캔 유틸 ────────────────────────────────────
 
     private void skipWhitespace() {
-        while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) {
+        while (pos < length && Character.isWhitespace(input.charAt(pos))) {
             pos++;
         }
     }
 
     private void skipComment() {
-        if (pos < input.length() && input.charAt(pos) == '#') {
-            while (pos < input.length() && input.charAt(pos) != '\n') {
+        if (pos < length && input.charAt(pos) == '#') {
+            while (pos < length && input.charAt(pos) != '\n') {
                 pos++;
             }
         }
     }
 
-    private String readWord() {
-        int start = pos;
-        while (pos < input.length()) {
-            char ch = input.charAt(pos);
-            if (Character.isWhitespace(ch) || ";{}(),#".indexOf(ch) >= 0) break;
-            pos++;
+    private static boolean isDelimiter(char ch) {
+        switch (ch) {
+            case ';': case '{': case '}': case '(': case ')': case ',': case '#':
+                return true;
+            default:
+                return Character.isWhitespace(ch);
         }
-        return input.substring(start, pos);
     }
 
-    private List<String> readArgs() {
+    /** 단어 끝까지 이동 */
+    private void skipWord() {
+        while (pos < length && !isDelimiter(input.charAt(pos))) pos++;
+    }
+
+    /**
+     * 괄호 인자를 구간으로 읽는다. 최상위 쉼표로 나누고, 중첩 괄호는 인자 내용에 포함한다.
+     * 닫는 괄호 없이 입력이 끝나면 마지막 인자는 버린다 (기존 동작).
+     */
+    private void readArgs() {
+        argCount = 0;
         skipWhitespace();
-        if (pos >= input.length() || input.charAt(pos) != '(') {
-            return Collections.emptyList();
-        }
+        if (pos >= length || input.charAt(pos) != '(') return;
         pos++; // consume '('
-        List<String> args = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
+        int start = pos;
         int depth = 0;
 
-        while (pos < input.length()) {
+        while (pos < length) {
             char ch = input.charAt(pos);
             pos++;
             if (ch == '(') {
                 depth++;
-                current.append(ch);
             } else if (ch == ')') {
                 if (depth == 0) {
-                    String trimmed = current.toString().trim();
-                    if (!trimmed.isEmpty()) args.add(trimmed);
-                    return args;
+                    addArg(start, pos - 1);
+                    return;
                 }
                 depth--;
-                current.append(ch);
-            } else if (ch == ',') {
-                if (depth == 0) {
-                    String trimmed = current.toString().trim();
-                    if (!trimmed.isEmpty()) args.add(trimmed);
-                    current.setLength(0);
-                } else {
-                    current.append(ch);
-                }
-            } else {
-                current.append(ch);
+            } else if (ch == ',' && depth == 0) {
+                addArg(start, pos - 1);
+                start = pos;
             }
         }
-        return args;
     }
 
-    // ── 토큰 읽기 ───────────────────────────────────
+    private void addArg(int start, int end) {
+        // String.trim()과 같은 기준 (<= ' ')
+        while (start < end && input.charAt(start) <= ' ') start++;
+        while (end > start && input.charAt(end - 1) <= ' ') end--;
+        if (start == end) return;
+        if (argCount == argStart.length) {
+            argStart = Arrays.copyOf(argStart, argCount * 2);
+            argEnd = Arrays.copyOf(argEnd, argCount * 2);
+        }
+        argStart[argCount] = start;
+        argEnd[argCount] = end;
+        argCount++;
+    }
 
-    public AST.Token nextToken() {
+    /** i번째 인자를 정수로 (Integer.parseInt와 같은 규칙, 실패하면 0) */
+    private int argInt(int i) {
+        int s = argStart[i], e = argEnd[i];
+        boolean negative = false;
+        char first = input.charAt(s);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++s == e) return 0;
+        }
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (; s < e; s++) {
+            int digit = Character.digit(input.charAt(s), 10);
+            if (digit < 0) return 0;
+            value = value * 10 + digit;
+            if (value > limit) return 0;
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    private String argString(int i) {
+        return symbols.intern(input, argStart[i], argEnd[i]);
+    }
+
+    // ── 커서 API ─────────────────────────────────────
+
+    /**
+     * 다음 토큰으로 이동한다.
+     *
+     * @return 토큰이 있으면 true, 입력 끝이면 false
+     */
+    public boolean advance() {
         while (true) {
             skipWhitespace();
             skipComment();
             skipWhitespace();
-            if (pos >= input.length()) return null;
+            if (pos >= length) {
+                type = null;
+                return false;
+            }
 
             char ch = input.charAt(pos);
-            if (ch == ';') { pos++; return new AST.Token(AST.TokenType.SEMICOLON); }
-            if (ch == '{') { pos++; return new AST.Token(AST.TokenType.OPEN_BRACE); }
-            if (ch == '}') { pos++; return new AST.Token(AST.TokenType.CLOSE_BRACE); }
+            tokenStart = pos;
+            wordEnd = pos + 1;
+            if (ch == ';') { pos++; set(AST.TokenType.SEMICOLON); return true; }
+            if (ch == '{') { pos++; set(AST.TokenType.OPEN_BRACE); return true; }
+            if (ch == '}') { pos++; set(AST.TokenType.CLOSE_BRACE); return true; }
             if (ch == '#') { skipComment(); continue; }
 
-            String word = readWord();
-            if (word.isEmpty()) { pos++; continue; }
+            skipWord();
+            wordEnd = pos;
+            if (tokenStart == wordEnd) { pos++; continue; }
 
-            List<String> args = readArgs();
-            return buildToken(word, args);
+            readArgs();
+            build(Symbols.keyword(input, tokenStart, wordEnd));
+            return true;
         }
     }
 
+    /** 현재 토큰이 시작하는 입력 위치 */
+    public int tokenStart() { return tokenStart; }
+
+    /** 현재 토큰의 단어 (인자 제외, 진단용 — 새 문자열을 만든다) */
+    public String word() {
+        return input.subSequence(tokenStart, wordEnd).toString();
+    }
+
+    /** 현재 토큰 종류 (advance 전이나 입력 끝이면 null) */
+    public AST.TokenType type() { return type; }
+
+    public int dx() { return dx; }
+
+    public int dy() { return dy; }
+
+    public int intArg() { return intArg; }
+
+    /** 현재 토큰의 문자열 인자 (심볼 표의 공유 인스턴스), 없으면 null */
+    public String strArg() { return strArg; }
+
+    /** 현재 토큰을 Token 객체로 (가능하면 공유 인스턴스) */
+    public AST.Token token() {
+        if (type == null) return null;
+        if (strArg == null && intArg == 0) return TokenCache.get(type, dx, dy);
+        return new AST.Token(type, dx, dy, strArg, intArg);
+    }
+
+    // ── 토큰 읽기 ───────────────────────────────────
+
+    public AST.Token nextToken() {
+        return advance() ? token() : null;
+    }
+
     /** 모든 토큰을 리스트로 반환 */
     public List<AST.Token> tokenizeAll() {
         List<AST.Token> tokens = new ArrayList<>();
-        AST.Token t;
-        while ((t = nextToken()) != null) {
-            tokens.add(t);
+        while (advance()) {
+            tokens.add(token());
         }
         return tokens;
     }
 
     // ── 토큰 빌드 ───────────────────────────────────
 
-    private static int parseInt(String s) {
-        try { return Integer.parseInt(s.trim()); }
-        catch (NumberFormatException e) { return 0; }
+    private void set(AST.TokenType t) {
+        set(t, 0, 0, null, 0);
+    }
+
+    private void set(AST.TokenType t, int x, int y, String s, int n) {
+        type = t;
+        dx = x;
+        dy = y;
+        strArg = s;
+        intArg = n;
     }
 
-    private static int[] xy(List<String> args) {
-        if (args.size() >= 2) return new int[]{ parseInt(args.get(0)), parseInt(args.get(1)) };
-        return new int[]{ 0, 0 };
+    /** 좌표 두 개를 받는 식: 인자가 모자라면 (0, 0) */
+    private void xy(AST.TokenType t) {
+        if (argCount >= 2) set(t, argInt(0), argInt(1), null, 0);
+        else set(t);
     }
 
-    private AST.Token buildToken(String word, List<String> args) {
-        int[] p;
-        switch (word) {
+    // 키워드 번호 (KEYWORDS 배열 순서)
+    private static final int K_TAKE_MOVE = 0, K_MOVE = 1, K_TAKE = 2, K_CATCH = 3, K_SHIFT = 4, K_JUMP = 5,
+            K_ANCHOR = 6, K_OBSERVE = 7, K_PEEK = 8, K_ENEMY = 9, K_FRIENDLY = 10, K_PIECE_ON = 11,
+            K_DANGER = 12, K_CHECK = 13, K_BOUND = 14, K_EDGE = 15, K_EDGE_TOP = 16, K_EDGE_BOTTOM = 17,
+            K_EDGE_LEFT = 18, K_EDGE_RIGHT = 19, K_CORNER = 20, K_CORNER_TOP_LEFT = 21,
+            K_CORNER_TOP_RIGHT = 22, K_CORNER_BOTTOM_LEFT = 23, K_CORNER_BOTTOM_RIGHT = 24,
+            K_PIECE = 25, K_IF_STATE = 26, K_SET_STATE = 27, K_TRANSITION = 28,
+            K_USE_MOVE_STACK = 29, K_IF_MOVE_STACK = 30, K_REPEAT = 31, K_DO = 32, K_WHILE = 33,
+            K_JMP = 34, K_JNE = 35, K_LABEL = 36, K_NOT = 37, K_END = 38;
+
+    /** 키워드 (번호 순서, {@link Symbols}가 표를 만든다) */
+    static final String[] KEYWORDS = {
+        "take-move", "move", "take", "catch", "shift", "jump",
+        "anchor", "observe", "peek", "enemy", "friendly", "piece-on",
+        "danger", "check", "bound", "edge", "edge-top", "edge-bottom",
+        "edge-left", "edge-right", "corner", "corner-top-left",
+        "corner-top-right", "corner-bottom-left", "corner-bottom-right",
+        "piece", "if-state", "set-state", "transition",
+        "use-move-stack", "if-move-stack", "repeat", "do", "while",
+        "jmp", "jne", "label", "not", "end"
+    };
+
+    private void build(int keyword) {
+        switch (keyword) {
             // 행마식
-            case "take-move": p = xy(args); return new AST.Token(AST.TokenType.TAKE_MOVE, p[0], p[1]);
-            case "move":      p = xy(args); return new AST.Token(AST.TokenType.MOVE, p[0], p[1]);
-            case "take":      p = xy(args); return new AST.Token(AST.TokenType.TAKE, p[0], p[1]);
-            case "catch":     p = xy(args); return new AST.Token(AST.TokenType.CATCH, p[0], p[1]);
-            case "shift":     p = xy(args); return new AST.Token(AST.TokenType.SHIFT, p[0], p[1]);
-            case "jump":      p = xy(args); return new AST.Token(AST.TokenType.JUMP, p[0], p[1]);
-            case "anchor":    p = xy(args); return new AST.Token(AST.TokenType.ANCHOR, p[0], p[1]);
+            case K_TAKE_MOVE: xy(AST.TokenType.TAKE_MOVE); return;
+            case K_MOVE:      xy(AST.TokenType.MOVE); return;
+            case K_TAKE:      xy(AST.TokenType.TAKE); return;
+            case K_CATCH:     xy(AST.TokenType.CATCH); return;
+            case K_SHIFT:     xy(AST.TokenType.SHIFT); return;
+            case K_JUMP:      xy(AST.TokenType.JUMP); return;
+            case K_ANCHOR:    xy(AST.TokenType.ANCHOR); return;
             // 조건식
-            case "observe":   p = xy(args); return new AST.Token(AST.TokenType.OBSERVE, p[0], p[1]);
-            case "peek":      p = xy(args); return new AST.Token(AST.TokenType.PEEK, p[0], p[1]);
-            case "enemy":     p = xy(args); return new AST.Token(AST.TokenType.ENEMY, p[0], p[1]);
-            case "friendly":  p = xy(args); return new AST.Token(AST.TokenType.FRIENDLY, p[0], p[1]);
-            case "piece-on":
-                if (args.size() >= 3)
-                    return AST.Token.pieceOn(args.get(0), parseInt(args.get(1)), parseInt(args.get(2)));
-                return new AST.Token(AST.TokenType.END);
-            case "danger":    p = xy(args); return new AST.Token(AST.TokenType.DANGER, p[0], p[1]);
-            case "check":     return new AST.Token(AST.TokenType.CHECK);
-            case "bound":     p = xy(args); return new AST.Token(AST.TokenType.BOUND, p[0], p[1]);
-            case "edge":      p = xy(args); return new AST.Token(AST.TokenType.EDGE, p[0], p[1]);
-            case "edge-top":  p = xy(args); return new AST.Token(AST.TokenType.EDGE_TOP, p[0], p[1]);
-            case "edge-bottom": p = xy(args); return new AST.Token(AST.TokenType.EDGE_BOTTOM, p[0], p[1]);
-            case "edge-left":   p = xy(args); return new AST.Token(AST.TokenType.EDGE_LEFT, p[0], p[1]);
-            case "edge-right":  p = xy(args); return new AST.Token(AST.TokenType.EDGE_RIGHT, p[0], p[1]);
-            case "corner":      p = xy(args); return new AST.Token(AST.TokenType.CORNER, p[0], p[1]);
-            case "corner-top-left":     p = xy(args); return new AST.Token(AST.TokenType.CORNER_TOP_LEFT, p[0], p[1]);
-            case "corner-top-right":    p = xy(args); return new AST.Token(AST.TokenType.CORNER_TOP_RIGHT, p[0], p[1]);
-            case "corner-bottom-left":  p = xy(args); return new AST.Token(AST.TokenType.CORNER_BOTTOM_LEFT, p[0], p[1]);
-            case "corner-bottom-right": p = xy(args); return new AST.Token(AST.TokenType.CORNER_BOTTOM_RIGHT, p[0], p[1]);
+            case K_OBSERVE:   xy(AST.TokenType.OBSERVE); return;
+            case K_PEEK:      xy(AST.TokenType.PEEK); return;
+            case K_ENEMY:     xy(AST.TokenType.ENEMY); return;
+            case K_FRIENDLY:  xy(AST.TokenType.FRIENDLY); return;
+            case K_PIECE_ON:
+                if (argCount >= 3) set(AST.TokenType.PIECE_ON, argInt(1), argInt(2), argString(0), 0);
+                else set(AST.TokenType.END);
+                return;
+            case K_DANGER:    xy(AST.TokenType.DANGER); return;
+            case K_CHECK:     set(AST.TokenType.CHECK); return;
+            case K_BOUND:     xy(AST.TokenType.BOUND); return;
+            case K_EDGE:      xy(AST.TokenType.EDGE); return;
+            case K_EDGE_TOP:    xy(AST.TokenType.EDGE_TOP); return;
+            case K_EDGE_BOTTOM: xy(AST.TokenType.EDGE_BOTTOM); return;
+            case K_EDGE_LEFT:   xy(AST.TokenType.EDGE_LEFT); return;
+            case K_EDGE_RIGHT:  xy(AST.TokenType.EDGE_RIGHT); return;
+            case K_CORNER:      xy(AST.TokenType.CORNER); return;
+            case K_CORNER_TOP_LEFT:     xy(AST.TokenType.CORNER_TOP_LEFT); return;
+            case K_CORNER_TOP_RIGHT:    xy(AST.TokenType.CORNER_TOP_RIGHT); return;
+            case K_CORNER_BOTTOM_LEFT:  xy(AST.TokenType.CORNER_BOTTOM_LEFT); return;
+            case K_CORNER_BOTTOM_RIGHT: xy(AST.TokenType.CORNER_BOTTOM_RIGHT); return;
             // 상태
-            case "piece":
-                if (args.size() >= 1) return new AST.Token(AST.TokenType.PIECE, args.get(0));
-                return new AST.Token(AST.TokenType.END);
-            case "if-state":
-                if (args.size() >= 2) return new AST.Token(AST.TokenType.IF_STATE, args.get(0), parseInt(args.get(1)));
-                return new AST.Token(AST.TokenType.END);
-            case "set-state":
-                if (args.size() >= 2) return new AST.Token(AST.TokenType.SET_STATE, args.get(0), parseInt(args.get(1)));
-                return new AST.Token(AST.TokenType.SET_STATE_RESET);
-            case "transition":
-                if (args.size() >= 1) return new AST.Token(AST.TokenType.TRANSITION, args.get(0));
-                return new AST.Token(AST.TokenType.END);
+            case K_PIECE:
+                if (argCount >= 1) set(AST.TokenType.PIECE, 0, 0, argString(0), 0);
+                else set(AST.TokenType.END);
+                return;
+            case K_IF_STATE:
+                if (argCount >= 2) set(AST.TokenType.IF_STATE, 0, 0, argString(0), argInt(1));
+                else set(AST.TokenType.END);
+                return;
+            case K_SET_STATE:
+                if (argCount >= 2) set(AST.TokenType.SET_STATE, 0, 0, argString(0), argInt(1));
+                else set(AST.TokenType.SET_STATE_RESET);
+                return;
+            case K_TRANSITION:
+                if (argCount >= 1) set(AST.TokenType.TRANSITION, 0, 0, argString(0), 0);
+                else set(AST.TokenType.END);
+                return;
             //스택 관련 식
-            case "use-move-stack": return new AST.Token(AST.TokenType.USE_MOVE_STACK);
-            case "if-move-stack": p = xy(args); return new AST.Token(AST.TokenType.IF_MOVE_STACK, p[0], p[1]);
+            case K_USE_MOVE_STACK: set(AST.TokenType.USE_MOVE_STACK); return;
+            case K_IF_MOVE_STACK:  xy(AST.TokenType.IF_MOVE_STACK); return;
             // 제어
-            case "repeat":
-                return new AST.Token(AST.TokenType.REPEAT, 0, 0, null,
-                                     args.size() >= 1 ? parseInt(args.get(0)) : 1);
-            case "do":    return new AST.Token(AST.TokenType.DO);
-            case "while": return new AST.Token(AST.TokenType.WHILE);
-            case "jmp":
-                if (args.size() >= 1) return new AST.Token(AST.TokenType.JMP, args.get(0));
-                return new AST.Token(AST.TokenType.END);
-            case "jne":
-                if (args.size() >= 1) return new AST.Token(AST.TokenType.JNE, args.get(0));
-                return new AST.Token(AST.TokenType.END);
-            case "label":
-                if (args.size() >= 1) return new AST.Token(AST.TokenType.LABEL, args.get(0));
-                return new AST.Token(AST.TokenType.END);
-            case "not": return new AST.Token(AST.TokenType.NOT);
-            case "end": return new AST.Token(AST.TokenType.END);
-            default:    return new AST.Token(AST.TokenType.END);
+            case K_REPEAT:
+                set(AST.TokenType.REPEAT, 0, 0, null, argCount >= 1 ? argInt(0) : 1);
+                return;
+            case K_DO:    set(AST.TokenType.DO); return;
+            case K_WHILE: set(AST.TokenType.WHILE); return;
+            case K_JMP:
+                if (argCount >= 1) set(AST.TokenType.JMP, 0, 0, argString(0), 0);
+                else set(AST.TokenType.END);
+                return;
+            case K_JNE:
+                if (argCount >= 1) set(AST.TokenType.JNE, 0, 0, argString(0), 0);
+                else set(AST.TokenType.END);
+                return;
+            case K_LABEL:
+                if (argCount >= 1) set(AST.TokenType.LABEL, 0, 0, argString(0), 0);
+                else set(AST.TokenType.END);
+                return;
+            case K_NOT: set(AST.TokenType.NOT); return;
+            case K_END: set(AST.TokenType.END); return;
+            default:    set(AST.TokenType.END); return;
+        }
+    }
+
+    /** 문자열/정수 인자가 없는 토큰의 공유 인스턴스 (좌표 -8..8) */
+    private static final class TokenCache {
+        private static final int RANGE = 8;
+        private static final int SIDE = RANGE * 2 + 1;
+        private static final AST.TokenType[] TYPES = AST.TokenType.values();
+        private static final AST.Token[] CACHE = new AST.Token[TYPES.length * SIDE * SIDE];
+
+        static AST.Token get(AST.TokenType type, int dx, int dy) {
+            if (dx < -RANGE || dx > RANGE || dy < -RANGE || dy > RANGE) {
+                return new AST.Token(type, dx, dy);
+            }
+            int idx = (type.ordinal() * SIDE + dx + RANGE) * SIDE + dy + RANGE;
+            AST.Token t = CACHE[idx];
+            if (t == null) {
+                // Token은 불변(final 필드)이므로 경쟁 상태에서 두 번 만들어져도 무방하다
+                t = new AST.Token(type, dx, dy);
+                CACHE[idx] = t;
+            }
+            return t;
         }
     }
 }
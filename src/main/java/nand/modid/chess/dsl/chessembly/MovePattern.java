@@ -0,0 +1,203 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+/**
+ * MovePattern — {@link ScriptClassifier}가 인식한 리퍼/라이더/호퍼 체인의 목록과
+ * 칸별로 미리 계산한 목표 칸 표.
+ *
+ * 스크립트를 해석하지 않고 표를 따라 보드를 조회해 활성화를 만든다.
+ * 8x8 보드에서 단위 방향 라이더(룩/비숍 광선)는 {@link SliderAttacks}의 매직 비트보드로 처리한다.
+ * 결과(순서, 이동 종류, 오프셋)는 원래 스크립트를 인터프리터로 실행한 것과 같다.
+ * 표는 보드 크기별로 처음 사용할 때 만들고, 불변 객체로 교체하므로 여러 스레드에서 안전하다.
+ */
+public final class MovePattern {
+
+    /** -Dstasischess.patterns=false 로 비활성화 (항상 실행기 사용) */
+    private static volatile boolean enabled =
+            !"false".equalsIgnoreCase(System.getProperty("stasischess.patterns", "true"));
+
+    public static boolean isEnabled() { return enabled; }
+
+    public static void setEnabled(boolean value) { enabled = value; }
+
+    /** 표를 만들 최대 보드 한 변 길이 (넘으면 실행기로 폴백) */
+    static final int MAX_SIDE = 32;
+
+    private static final int TAKE_MOVE = AST.MoveType.TAKE_MOVE.ordinal();
+
+    public enum Shape {
+        /** take-move(dx, dy) — 한 칸 도약 */
+        LEAPER,
+        /** take-move(dx, dy) repeat(1) — 막힐 때까지 반복 */
+        RIDER,
+        /** do peek(dx, dy) while take-move(dx, dy) — 첫 기물을 넘어 바로 뒤 칸 */
+        HOPPER
+    }
+
+    public static final class Segment {
+        public final Shape shape;
+        public final int dx;
+        public final int dy;
+        /** 단위 방향 라이더면 {@link SliderAttacks} 방향 번호, 아니면 -1 */
+        final int sliderDirection;
+
+        Segment(Shape shape, int dx, int dy) {
+            this.shape = shape;
+            this.dx = dx;
+            this.dy = dy;
+            this.sliderDirection = shape == Shape.RIDER ? SliderAttacks.direction(dx, dy) : -1;
+        }
+
+        @Override
+        public String toString() {
+            return shape.name().toLowerCase() + "(" + dx + ", " + dy + ")";
+        }
+    }
+
+    private final Segment[] segments;
+    private volatile Tables tables;
+
+    MovePattern(List<Segment> segments) {
+        this.segments = segments.toArray(new Segment[0]);
+    }
+
+    public List<Segment> segments() { return Collections.unmodifiableList(Arrays.asList(segments)); }
+
+    /** 형태별 개수 요약 (예: "rider×4 leaper×8") */
+    public String summary() {
+        EnumMap<Shape, Integer> counts = new EnumMap<>(Shape.class);
+        for (Segment s : segments) counts.merge(s.shape, 1, Integer::sum);
+        StringBuilder sb = new StringBuilder();
+        counts.forEach((shape, c) -> {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(shape.name().toLowerCase()).append('×').append(c);
+        });
+        return sb.toString();
+    }
+
+    // ── 생성 ──────────────────────────────────────────
+
+    /**
+     * 표를 이용해 활성화를 버퍼에 기록한다.
+     *
+     * @return false면 이 보드에는 표를 쓸 수 없음 (기물이 보드 밖이거나 보드가 너무 큼) — 버퍼는 건드리지 않는다
+     */
+    public boolean generate(BuiltinOps.BoardState board, ActivationBuffer out) {
+        int w = board.boardWidth, h = board.boardHeight;
+        if (w <= 0 || h <= 0 || w > MAX_SIDE || h > MAX_SIDE || !board.inBounds(board.pieceX, board.pieceY)) {
+            return false;
+        }
+        Tables t = tables;
+        if (t == null || t.width != w || t.height != h) {
+            t = new Tables(segments, w, h);
+            tables = t;
+        }
+
+        out.reset(null);
+        ExecutionScratch scratch = ExecutionScratch.get();
+        scratch.reset();   // 태그 없음
+
+        int px = board.pieceX, py = board.pieceY;
+        int[][] rays = t.rays[py * w + px];
+        boolean magic = w == 8 && h == 8 && SliderAttacks.isEnabled();
+        int sq = py * 8 + px;
+        long occupancy = 0L, own = 0L, rookAttacks = 0L, bishopAttacks = 0L;
+        boolean haveRook = false, haveBishop = false;
+
+        scan:
+        for (int s = 0; s < segments.length; s++) {
+            int dir = segments[s].sliderDirection;
+            if (magic && dir >= 0) {
+                // 매직 비트보드: 공격 집합을 방향 광선으로 잘라 가까운 칸부터
+                if (!haveRook && !haveBishop) {
+                    occupancy = board.occupancy();
+                    own = board.friendlyOccupancy();
+                }
+                long attacks;
+                if (SliderAttacks.isDiagonal(dir)) {
+                    if (!haveBishop) { bishopAttacks = SliderAttacks.bishopAttacks(sq, occupancy); haveBishop = true; }
+                    attacks = bishopAttacks;
+                } else {
+                    if (!haveRook) { rookAttacks = SliderAttacks.rookAttacks(sq, occupancy); haveRook = true; }
+                    attacks = rookAttacks;
+                }
+                attacks &= SliderAttacks.ray(sq, dir);
+                board.noteReads(attacks);   // 광선에서 실제로 본 칸 (막은 기물 칸까지)
+                attacks &= ~own;
+                boolean ascending = SliderAttacks.ascending(dir);
+                while (attacks != 0) {
+                    int target = ascending ? Long.numberOfTrailingZeros(attacks) : 63 - Long.numberOfLeadingZeros(attacks);
+                    attacks &= ~(1L << target);
+                    if (out.add((target & 7) - px, (target >>> 3) - py, TAKE_MOVE,
+                            ActivationBuffer.NO_CATCH, ActivationBuffer.NO_CATCH, scratch)) break scan;   // 질의 답 확정
+                }
+                continue;
+            }
+
+            int[] ray = rays[s];   // (ox, oy) 쌍
+            switch (segments[s].shape) {
+                case LEAPER:
+                case RIDER:
+                    for (int k = 0; k < ray.length; k += 2) {
+                        int ox = ray[k], oy = ray[k + 1];
+                        BuiltinOps.PieceInfo info = board.pieceAt(px + ox, py + oy);
+                        if (info != null && info.isWhite == board.isWhite) break;
+                        if (out.add(ox, oy, TAKE_MOVE, ActivationBuffer.NO_CATCH, ActivationBuffer.NO_CATCH, scratch)) break scan;
+                        if (info != null) break;
+                    }
+                    break;
+                case HOPPER:
+                    for (int k = 0; k < ray.length; k += 2) {
+                        if (board.pieceAt(px + ray[k], py + ray[k + 1]) == null) continue;
+                        // 첫 기물 바로 뒤 칸
+                        if (k + 2 < ray.length) {
+                            int ox = ray[k + 2], oy = ray[k + 3];
+                            if (!board.hasFriendly(px + ox, py + oy)) {
+                                if (out.add(ox, oy, TAKE_MOVE, ActivationBuffer.NO_CATCH, ActivationBuffer.NO_CATCH, scratch)) {
+                                    break scan;
+                                }
+                            }
+                        }
+                        break;
+                    }
+                    break;
+            }
+        }
+        out.finish(segments.length);
+        return true;
+    }
+
+    /** 보드 크기별 표: rays[원점 칸][체인] = 보드 안에 있는 목표 오프셋 (ox, oy) 순서 목록 */
+    private static final class Tables {
+        final int width, height;
+        final int[][][] rays;
+
+        Tables(Segment[] segments, int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.rays = new int[width * height][][];
+            int[] buf = new int[2 * Math.max(width, height)];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int[][] perSegment = new int[segments.length][];
+                    for (int s = 0; s < segments.length; s++) {
+                        Segment seg = segments[s];
+                        int len = 0;
+                        int ox = 0, oy = 0;
+                        do {
+                            ox += seg.dx;
+                            oy += seg.dy;
+                            int tx = x + ox, ty = y + oy;
+                            if (tx < 0 || tx >= width || ty < 0 || ty >= height) break;
+                            buf[len++] = ox;
+                            buf[len++] = oy;
+                        } while (seg.shape != Shape.LEAPER);
+                        perSegment[s] = Arrays.copyOf(buf, len);
+                    }
+                    rays[y * width + x] = perSegment;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * ScriptArtifact — 미리 컴파일한 Chessembly 프로그램 묶음(.csb)의 바이너리 형식과 읽기/쓰기.
+ *
+ * 오프라인 컴파일러({@link nand.modid.chess.movegen.ScriptPrecompiler})가 검사를 통과한 스크립트를
+ * 컴파일해 저장하고, 모드 초기화 때 파일을 메모리 매핑해 읽는다. 읽은 프로그램은 원본 문자열로 찾으므로
+ * 스크립트가 바뀌었으면 해당 항목은 쓰이지 않고 원본에서 다시 컴파일된다.
+ * 형식 버전·엔진 지문·체크섬 중 하나라도 맞지 않으면 묶음 전체를 버린다 ({@link Pack#EMPTY}와 같음).
+ *
+ * 모드 초기화 때 읽기는 {@code -Dstasischess.precompiled=true}일 때만 켜진다 ({@link #loadIfEnabled}).
+ * 내장 스크립트만으로는 원본 컴파일이 충분히 빨라 이득이 작고, 외부 스크립트 묶음이 클 때 쓰는 경로다
+ * (StartupBench로 비교).
+ *
+ * <pre>
+ * [MAGIC "CSB1"] [FORMAT_VERSION] [ENGINE_FINGERPRINT] [항목 수] [항목 ...] [CRC32]
+ * 항목: [플래그] [원본] [명령어 수] [문자열 수] [문자열 ...] [명령어 스트림] [토큰 정수 인자 ...]
+ *       [체인 수] [라벨 표]
+ * </pre>
+ * 정수는 빅 엔디언 4바이트, 문자열은 UTF-8 바이트 수 + 바이트. CRC32는 그 앞의 모든 바이트에 대한 값이다.
+ * 명령어 스트림은 스킵·점프 주소까지 해석된 상태로 저장하며, 프로세스마다 다른 SYM(상태 슬롯)과
+ * 정적 태그만 읽을 때 다시 해석한다. 토큰은 명령어의 OP/DX/DY/STR과 저장된 정수 인자로 복원한다.
+ */
+public final class ScriptArtifact {
+
+    private ScriptArtifact() {}
+
+    public static final String EXTENSION = ".csb";
+
+    static final int MAGIC = 0x43534231;   // "CSB1"
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int FLAG_JIT = 1;
+
+    /** 모드 초기화 때 .csb 묶음을 읽을지 — 기본은 끔 */
+    private static final boolean ENABLED = Boolean.getBoolean("stasischess.precompiled");
+
+    public static boolean isEnabled() { return ENABLED; }
+
+    /**
+     * 명령어 스트림의 의미를 정하는 표(오피코드 순서, 명령어 레이아웃, 스킵 종류, 태그 종류)의 지문.
+     * 엔진이 바뀌어 이 값이 달라지면 이전에 만든 파일은 읽지 않는다.
+     */
+    public static final int ENGINE_FINGERPRINT;
+    static {
+        int h = FORMAT_VERSION;
+        for (AST.TokenType t : AST.TokenType.values()) h = 31 * h + t.name().hashCode();
+        for (AST.ActionTagType t : AST.ActionTagType.values()) h = 31 * h + t.name().hashCode();
+        h = 31 * h + Bytecode.STRIDE;
+        h = 31 * h + (Bytecode.SKIP_END | Bytecode.SKIP_CHAIN << 4 | Bytecode.SKIP_SCOPE << 8);
+        ENGINE_FINGERPRINT = h;
+    }
+
+    // ── 묶음 ──────────────────────────────────────────
+
+    /** 읽은 프로그램 묶음 — 원본 문자열로 찾는다 */
+    public static final class Pack {
+        /** 파일이 없거나 쓸 수 없을 때 — 모든 스크립트를 원본에서 컴파일 */
+        public static final Pack EMPTY = new Pack(Collections.emptyMap(), "미리 컴파일된 스크립트 없음");
+        /** 읽기가 꺼져 있을 때 ({@link #isEnabled()}) — 모든 스크립트를 원본에서 컴파일 */
+        public static final Pack DISABLED = new Pack(Collections.emptyMap(),
+                "미리 컴파일된 스크립트 사용 안 함 (-Dstasischess.precompiled=true로 켠다)");
+
+        private final Map<String, CompiledScript> bySource;
+        private final String status;
+
+        private Pack(Map<String, CompiledScript> bySource, String status) {
+            this.bySource = bySource;
+            this.status = status;
+        }
+
+        /** 원본이 정확히 같은 미리 컴파일된 프로그램, 없으면 null */
+        public CompiledScript get(String source) {
+            return source != null ? bySource.get(source) : null;
+        }
+
+        public int size() { return bySource.size(); }
+
+        public boolean isEmpty() { return bySource.isEmpty(); }
+
+        /** 모든 프로그램 (저장 순서) */
+        public Collection<CompiledScript> scripts() { return bySource.values(); }
+
+        /** 읽기 결과 설명 (로그용) — 버렸다면 그 이유 */
+        public String status() { return status; }
+
+        @Override
+        public String toString() { return "ScriptArtifact.Pack{" + status + "}"; }
+    }
+
+    // ── 쓰기 ──────────────────────────────────────────
+
+    /**
+     * 프로그램들을 파일에 쓴다 (같은 원본은 한 번만). 임시 파일에 쓴 뒤 교체하므로
+     * 실행 중인 서버가 쓰다 만 파일을 읽는 일은 없다.
+     */
+    public static void write(Path file, Collection<CompiledScript> scripts) throws IOException {
+        Map<String, CompiledScript> unique = new LinkedHashMap<>();
+        for (CompiledScript s : scripts) unique.putIfAbsent(s.source(), s);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(ENGINE_FINGERPRINT);
+        out.writeInt(unique.size());
+        for (CompiledScript s : unique.values()) writeEntry(out, s);
+        out.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, bytes.toByteArray());
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, CompiledScript script) throws IOException {
+        Bytecode program = script.bytecode();
+        List<AST.Token> tokens = script.tokens();
+        out.writeByte(script.isJitEligible() ? FLAG_JIT : 0);
+        writeString(out, script.source());
+        out.writeInt(program.length);
+        out.writeInt(program.strings.length);
+        for (String s : program.strings) writeString(out, s);
+        for (int v : program.code) out.writeInt(v);
+        for (AST.Token t : tokens) out.writeInt(t.intArg);
+        out.writeInt(program.chainLabels.length);
+        for (int[] row : program.chainLabels) {
+            for (int v : row) out.writeInt(v);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    // ── 읽기 ──────────────────────────────────────────
+
+    /** 읽기가 켜져 있으면 {@link #load}, 아니면 {@link Pack#DISABLED} */
+    public static Pack loadIfEnabled(Path file) {
+        return ENABLED ? load(file) : Pack.DISABLED;
+    }
+
+    /**
+     * 파일을 메모리 매핑해 읽는다. 예외를 던지지 않으며, 파일이 없거나 형식 버전·엔진 지문·체크섬이
+     * 맞지 않거나 내용이 손상되었으면 빈 묶음을 돌려준다 (이유는 {@link Pack#status()}).
+     */
+    public static Pack load(Path file) {
+        if (!Files.isRegularFile(file)) return Pack.EMPTY;
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < 20 || size > Integer.MAX_VALUE) return rejected(file, "크기가 잘못되었습니다");
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            return rejected(file, "읽기 실패 (" + e.getMessage() + ")");
+        }
+
+        int end = buf.limit() - 4;
+        if (buf.getInt(0) != MAGIC) return rejected(file, "csb 파일이 아닙니다");
+        if (buf.getInt(4) != FORMAT_VERSION) {
+            return rejected(file, "형식 버전 " + buf.getInt(4) + " ≠ " + FORMAT_VERSION);
+        }
+        if (buf.getInt(8) != ENGINE_FINGERPRINT) return rejected(file, "다른 엔진 버전에서 만든 파일입니다");
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buf.duplicate();
+        body.position(0).limit(end);
+        crc.update(body);
+        if ((int) crc.getValue() != buf.getInt(end)) return rejected(file, "체크섬 불일치");
+
+        try {
+            buf.position(12).limit(end);
+            int count = buf.getInt();
+            if (count < 0) throw new IllegalArgumentException("항목 수가 잘못되었습니다");
+            Map<String, CompiledScript> bySource = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                CompiledScript s = readEntry(buf);
+                bySource.put(s.source(), s);
+            }
+            if (buf.hasRemaining()) throw new IllegalArgumentException("끝에 남은 바이트가 있습니다");
+            return new Pack(Collections.unmodifiableMap(bySource), file.getFileName() + ": 프로그램 " + count + "개");
+        } catch (RuntimeException e) {
+            // BufferUnderflowException, IllegalArgumentException (Bytecode.restore), 인덱스 오류 등
+            return rejected(file, "내용이 손상되었습니다 (" + e + ")");
+        }
+    }
+
+    private static Pack rejected(Path file, String reason) {
+        return new Pack(Collections.emptyMap(), file.getFileName() + ": " + reason + " — 원본에서 컴파일");
+    }
+
+    private static CompiledScript readEntry(ByteBuffer buf) {
+        boolean jit = (buf.get() & FLAG_JIT) != 0;
+        String source = readString(buf);
+        int length = count(buf, Bytecode.STRIDE);
+        String[] strings = new String[count(buf, 4)];
+        for (int i = 0; i < strings.length; i++) strings[i] = readString(buf);
+        int[] code = new int[length * Bytecode.STRIDE];
+        buf.asIntBuffer().get(code);
+        buf.position(buf.position() + code.length * 4);
+        int[] intArgs = new int[length];
+        buf.asIntBuffer().get(intArgs);
+        buf.position(buf.position() + length * 4);
+        int chains = buf.getInt();
+        if (chains < 1 || chains > length + 1 || (long) chains * strings.length * 4 > buf.remaining()) {
+            throw new IllegalArgumentException("체인 수가 잘못되었습니다: " + chains);
+        }
+        int[][] chainLabels = new int[chains][strings.length];
+        for (int[] row : chainLabels) {
+            buf.asIntBuffer().get(row);
+            buf.position(buf.position() + row.length * 4);
+        }
+
+        Bytecode program = Bytecode.restore(code, length, strings, chainLabels);
+        AST.TokenType[] types = AST.TokenType.values();
+        List<AST.Token> tokens = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            int base = i * Bytecode.STRIDE;
+            int str = code[base + Bytecode.STR];
+            tokens.add(new AST.Token(types[code[base + Bytecode.OP]], code[base + Bytecode.DX], code[base + Bytecode.DY],
+                    str >= 0 ? strings[str] : null, intArgs[i]));
+        }
+        return CompiledScript.restore(source, tokens, program, jit);
+    }
+
+    /** 개수 필드 — 뒤따를 바이트 수(개수 × 항목당 최소 바이트)가 남은 크기를 넘으면 손상으로 본다 */
+    private static int count(ByteBuffer buf, int bytesEach) {
+        int n = buf.getInt();
+        if (n < 0 || (long) n * bytesEach > buf.remaining()) throw new IllegalArgumentException("개수가 잘못되었습니다: " + n);
+        return n;
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] b = new byte[count(buf, 1)];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
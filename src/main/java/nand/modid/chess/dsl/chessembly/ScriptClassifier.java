@@ -0,0 +1,83 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+/**
+ * ScriptClassifier — 토큰 목록이 단순한 행마 형태로만 이루어졌는지 정적으로 판별한다.
+ *
+ * 스크립트를 세미콜론 단위 체인으로 나누고, 모든 체인이 아래 형태 중 하나와 정확히 같을 때만
+ * {@link MovePattern}을 돌려준다. 하나라도 다르면 null (인터프리터로 실행).
+ * <pre>
+ * 리퍼(leaper)   : take-move(dx, dy) ;
+ * 라이더(rider)  : take-move(dx, dy) repeat(1) ;
+ * 호퍼(hopper)   : do peek(dx, dy) while take-move(dx, dy) ;
+ * </pre>
+ * (dx, dy) = (0, 0)은 자기 칸을 가리키므로 제외한다. 중괄호·라벨·상태·스택·조건식이 섞이면
+ * 실패 시 스킵 규칙이 달라질 수 있으므로 판별하지 않는다 (보수적).
+ */
+public final class ScriptClassifier {
+
+    private ScriptClassifier() {}
+
+    /**
+     * @return 모든 체인이 인식된 형태이면 그 패턴, 아니면 null
+     */
+    public static MovePattern classify(List<AST.Token> tokens) {
+        List<MovePattern.Segment> segments = new ArrayList<>();
+        int i = 0;
+        int n = tokens.size();
+        while (i < n) {
+            int end = i;
+            while (end < n && tokens.get(end).type != AST.TokenType.SEMICOLON) end++;
+
+            List<AST.Token> chain = tokens.subList(i, end);
+            if (!chain.isEmpty()) {
+                MovePattern.Segment seg = classifyChain(chain);
+                if (seg == null) return null;
+                segments.add(seg);
+            }
+            i = end + 1;
+        }
+        return segments.isEmpty() ? null : new MovePattern(segments);
+    }
+
+    private static MovePattern.Segment classifyChain(List<AST.Token> chain) {
+        switch (chain.size()) {
+            case 1: {
+                AST.Token t = chain.get(0);
+                if (t.type == AST.TokenType.TAKE_MOVE && nonZero(t)) {
+                    return new MovePattern.Segment(MovePattern.Shape.LEAPER, t.dx, t.dy);
+                }
+                return null;
+            }
+            case 2: {
+                AST.Token t = chain.get(0);
+                AST.Token r = chain.get(1);
+                if (t.type == AST.TokenType.TAKE_MOVE && nonZero(t)
+                        && r.type == AST.TokenType.REPEAT && r.intArg == 1) {
+                    return new MovePattern.Segment(MovePattern.Shape.RIDER, t.dx, t.dy);
+                }
+                return null;
+            }
+            case 4: {
+                AST.Token d = chain.get(0);
+                AST.Token p = chain.get(1);
+                AST.Token w = chain.get(2);
+                AST.Token t = chain.get(3);
+                if (d.type == AST.TokenType.DO
+                        && p.type == AST.TokenType.PEEK && nonZero(p)
+                        && w.type == AST.TokenType.WHILE
+                        && t.type == AST.TokenType.TAKE_MOVE && t.dx == p.dx && t.dy == p.dy) {
+                    return new MovePattern.Segment(MovePattern.Shape.HOPPER, t.dx, t.dy);
+                }
+                return null;
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static boolean nonZero(AST.Token t) {
+        return t.dx != 0 || t.dy != 0;
+    }
+}
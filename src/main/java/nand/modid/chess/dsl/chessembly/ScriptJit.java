@@ -0,0 +1,822 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import static nand.modid.chess.dsl.chessembly.Bytecode.*;
+
+/**
+ * ScriptJit — {@link Bytecode}를 JVM 클래스로 변환하는 코드 생성 티어.
+ *
+ * 명령어 하나당 JVM 코드 블록 하나를 만들고, 컴파일 때 해석된 주소(repeat, 정적 라벨, 스킵)는
+ * 직접 분기(GOTO)로, 실행 중에만 알 수 있는 주소(while의 do 앵커, 다른 체인의 라벨)는
+ * tableswitch 디스패치로 연결한다. 앵커·lastValue·doIndex·체인 번호·스코프 스택 포인터는 모두 지역 변수이고,
+ * 결과와 대기 태그는 바이트코드 실행기와 같은 {@link ActivationBuffer}/{@link ExecutionScratch}를 사용한다.
+ *
+ * 스킵 규칙(실패한 식 뒤 체인/스코프 끝으로 이동)은 진입 시 열린 중괄호 수에 따라 결과가 달라지므로,
+ * 스캔 구간의 닫는 중괄호마다 "이 깊이로 들어왔으면 여기서 멈춘다"는 비교를 펼쳐서 생성한다.
+ * 따라서 {@link BytecodeInterpreter}의 선형 스캔 폴백까지 포함해 동작이 같다.
+ *
+ * 명령어 블록마다 단계를 세어 {@link ExecutionBudget} 한도를 넘으면 중단한다 (실행기와 같은 단계 수).
+ *
+ * 생성된 클래스는 {@link GeneratedScript}와 같은 패키지의 hidden class로 정의되며,
+ * 참조가 사라지면 함께 언로드된다.
+ */
+public final class ScriptJit {
+
+    private ScriptJit() {}
+
+    /** 이보다 긴 프로그램은 메서드 크기 제한(64KB) 때문에 변환하지 않는다 */
+    public static final int MAX_INSTRUCTIONS = 1500;
+
+    private static final String BASE = "nand/modid/chess/dsl/chessembly/GeneratedScript";
+    private static final String NAME = "nand/modid/chess/dsl/chessembly/GeneratedScript$Jit";
+    private static final String BOARD = "nand/modid/chess/dsl/chessembly/BuiltinOps$BoardState";
+    private static final String BYTECODE = "nand/modid/chess/dsl/chessembly/Bytecode";
+    private static final String OUT = "nand/modid/chess/dsl/chessembly/ActivationBuffer";
+    private static final String SCRATCH = "nand/modid/chess/dsl/chessembly/ExecutionScratch";
+
+    private static final String D_BOARD = "L" + BOARD + ";";
+    private static final String D_OUT = "L" + OUT + ";";
+    private static final String D_SCRATCH = "L" + SCRATCH + ";";
+
+    // ── 지역 변수 슬롯 ────────────────────────────────
+    private static final int THIS = 0, BOARD_ARG = 1, OUT_ARG = 2;
+    private static final int SCRATCH_LOCAL = 3;
+    private static final int AX = 4, AY = 5, LAST = 6, DO_IDX = 7, CHAIN = 8, OPEN = 9;
+    private static final int SCOPE = 10, SP = 11;
+    private static final int HAS_TAKE = 12, TAKE_X = 13, TAKE_Y = 14;
+    private static final int US_X = 15, US_Y = 16;
+    private static final int PC = 17, TX = 18, TY = 19, PX = 20, PY = 21;
+    private static final int STEPS = 22, STEP_LIMIT = 23;
+
+    /** 코드 생성 대상이 될 수 있는지 여부 */
+    public static boolean supports(Bytecode program) {
+        return program.length <= MAX_INSTRUCTIONS;
+    }
+
+    /**
+     * 프로그램을 JVM 클래스로 변환하고 인스턴스를 만든다.
+     *
+     * @throws IllegalArgumentException 프로그램이 너무 긴 경우
+     * @throws IllegalStateException    클래스 정의에 실패한 경우
+     */
+    public static GeneratedScript compile(Bytecode program) {
+        if (!supports(program)) {
+            throw new IllegalArgumentException("코드 생성 한도 초과: " + program.length + " 명령어");
+        }
+        byte[] classBytes = generate(program);
+        try {
+            Class<?> cls = MethodHandles.lookup().defineHiddenClass(classBytes, true).lookupClass();
+            return (GeneratedScript) cls.getConstructor(Bytecode.class).newInstance(program);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("생성된 클래스 정의 실패", e);
+        }
+    }
+
+    // ── 클래스 생성 ───────────────────────────────────
+
+    static byte[] generate(Bytecode program) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String a, String b) {
+                // 생성 코드의 참조형 지역 변수는 항상 같은 타입으로만 병합된다
+                return a.equals(b) ? a : "java/lang/Object";
+            }
+        };
+        cw.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+                NAME, null, BASE, null);
+
+        MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(L" + BYTECODE + ";)V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitVarInsn(Opcodes.ALOAD, 1);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, BASE, "<init>", "(L" + BYTECODE + ";)V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "execute", "(" + D_BOARD + D_OUT + ")V", null, null);
+        mv.visitCode();
+        new Emitter(program, mv).emit();
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /** execute 메서드 본문 생성기 */
+    private static final class Emitter {
+        private final Bytecode program;
+        private final int[] code;
+        private final int n;
+        private final MethodVisitor mv;
+        private final Label[] labels;
+        private final Label dispatch = new Label();
+        private final Label exceeded = new Label();
+        /** 명령어별 스킵 블록 (실패 상태로 도달했을 때) */
+        private final Label[] skipLabels;
+
+        Emitter(Bytecode program, MethodVisitor mv) {
+            this.program = program;
+            this.code = program.code;
+            this.n = program.length;
+            this.mv = mv;
+            this.labels = new Label[n + 1];
+            this.skipLabels = new Label[n];
+            for (int i = 0; i <= n; i++) labels[i] = new Label();
+        }
+
+        void emit() {
+            prologue();
+            for (int i = 0; i < n; i++) {
+                instruction(i);
+            }
+            // 프로그램 끝
+            mv.visitLabel(labels[n]);
+            mv.visitVarInsn(Opcodes.ALOAD, OUT_ARG);
+            mv.visitVarInsn(Opcodes.ILOAD, STEPS);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, OUT, "finish", "(I)V", false);
+            mv.visitInsn(Opcodes.RETURN);
+
+            // 단계 한도 초과
+            mv.visitLabel(exceeded);
+            mv.visitVarInsn(Opcodes.ALOAD, OUT_ARG);
+            mv.visitVarInsn(Opcodes.ILOAD, STEPS);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, OUT, "exceedSteps", "(I)V", false);
+            mv.visitInsn(Opcodes.RETURN);
+
+            for (int i = 0; i < n; i++) {
+                if (skipLabels[i] != null) skipBlock(i);
+            }
+            dispatchBlock();
+        }
+
+        private void prologue() {
+            mv.visitVarInsn(Opcodes.ALOAD, OUT_ARG);
+            mv.visitVarInsn(Opcodes.ALOAD, THIS);
+            mv.visitFieldInsn(Opcodes.GETFIELD, BASE, "program", "L" + BYTECODE + ";");
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, OUT, "reset", "(L" + BYTECODE + ";)V", false);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, SCRATCH, "get", "()" + D_SCRATCH, false);
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitVarInsn(Opcodes.ASTORE, SCRATCH_LOCAL);
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SCRATCH, "reset", "()V", false);
+            mv.visitFieldInsn(Opcodes.GETFIELD, SCRATCH, "scope", "[I");
+            mv.visitVarInsn(Opcodes.ASTORE, SCOPE);
+            for (int slot : new int[]{ AX, AY, CHAIN, OPEN, SP, HAS_TAKE, TAKE_X, TAKE_Y, US_X, US_Y, PC, TX, TY, STEPS }) {
+                iconst(0);
+                mv.visitVarInsn(Opcodes.ISTORE, slot);
+            }
+            iconst(1);
+            mv.visitVarInsn(Opcodes.ISTORE, LAST);
+            iconst(-1);
+            mv.visitVarInsn(Opcodes.ISTORE, DO_IDX);
+            mv.visitVarInsn(Opcodes.ALOAD, BOARD_ARG);
+            mv.visitFieldInsn(Opcodes.GETFIELD, BOARD, "pieceX", "I");
+            mv.visitVarInsn(Opcodes.ISTORE, PX);
+            mv.visitVarInsn(Opcodes.ALOAD, BOARD_ARG);
+            mv.visitFieldInsn(Opcodes.GETFIELD, BOARD, "pieceY", "I");
+            mv.visitVarInsn(Opcodes.ISTORE, PY);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "nand/modid/chess/dsl/chessembly/ExecutionBudget",
+                    "maxSteps", "()I", false);
+            mv.visitVarInsn(Opcodes.ISTORE, STEP_LIMIT);
+        }
+
+        // ── 명령어 ────────────────────────────────────
+
+        private void instruction(int i) {
+            int base = i * STRIDE;
+            int op = code[base + OP];
+            int dx = code[base + DX];
+            int dy = code[base + DY];
+            Label next = labels[i + 1];
+
+            mv.visitLabel(labels[i]);
+            mv.visitIincInsn(STEPS, 1);
+            mv.visitVarInsn(Opcodes.ILOAD, STEPS);
+            mv.visitVarInsn(Opcodes.ILOAD, STEP_LIMIT);
+            mv.visitJumpInsn(Opcodes.IF_ICMPGT, exceeded);
+            if (!EXEMPT[op]) {
+                skipLabels[i] = new Label();
+                mv.visitVarInsn(Opcodes.ILOAD, LAST);
+                mv.visitJumpInsn(Opcodes.IFEQ, skipLabels[i]);
+            }
+
+            switch (op) {
+
+                // ── 구조 ──────────────────────────────
+                case SEMICOLON:
+                    resetChain();
+                    setLast(true);
+                    break;
+
+                case OPEN_BRACE:
+                    pushScope();
+                    setLast(true);
+                    break;
+
+                case CLOSE_BRACE:
+                    popScope();
+                    setLast(true);
+                    break;
+
+                // ── 행마식 ────────────────────────────
+                case TAKE_MOVE: {
+                    Label fail = new Label();
+                    target(dx, dy);
+                    boardQuery("inBounds");
+                    mv.visitJumpInsn(Opcodes.IFEQ, fail);
+                    boardQuery("hasFriendly");
+                    mv.visitJumpInsn(Opcodes.IFNE, fail);
+                    addActivation(dx, dy, AST.MoveType.TAKE_MOVE);
+                    moveAnchor(dx, dy);
+                    boardQuery("hasEnemy");
+                    negate();
+                    mv.visitVarInsn(Opcodes.ISTORE, LAST);
+                    mv.visitJumpInsn(Opcodes.GOTO, next);
+                    mv.visitLabel(fail);
+                    setLast(false);
+                    break;
+                }
+
+                case MOVE: {
+                    Label fail = new Label();
+                    target(dx, dy);
+                    boardQuery("isEmpty");
+                    mv.visitJumpInsn(Opcodes.IFEQ, fail);
+                    addActivation(dx, dy, AST.MoveType.MOVE);
+                    moveAnchor(dx, dy);
+                    mv.visitJumpInsn(Opcodes.GOTO, next);   // lastValue는 이미 true
+                    mv.visitLabel(fail);
+                    setLast(false);
+                    break;
+                }
+
+                case TAKE: {
+                    Label notEnemy = new Label();
+                    Label fail = new Label();
+                    target(dx, dy);
+                    boardQuery("hasEnemy");
+                    mv.visitJumpInsn(Opcodes.IFEQ, notEnemy);
+                    iconst(1);
+                    mv.visitVarInsn(Opcodes.ISTORE, HAS_TAKE);
+                    anchorPlus(AX, dx);
+                    mv.visitVarInsn(Opcodes.ISTORE, TAKE_X);
+                    anchorPlus(AY, dy);
+                    mv.visitVarInsn(Opcodes.ISTORE, TAKE_Y);
+                    addActivation(dx, dy, AST.MoveType.TAKE);
+                    moveAnchor(dx, dy);
+                    mv.visitJumpInsn(Opcodes.GOTO, next);
+                    mv.visitLabel(notEnemy);
+                    boardQuery("inBounds");
+                    mv.visitJumpInsn(Opcodes.IFEQ, fail);
+                    boardQuery("hasFriendly");
+                    mv.visitJumpInsn(Opcodes.IFNE, fail);
+                    moveAnchor(dx, dy);
+                    mv.visitJumpInsn(Opcodes.GOTO, next);
+                    mv.visitLabel(fail);
+                    setLast(false);
+                    break;
+                }
+
+                case JUMP: {
+                    Label fail = new Label();
+                    mv.visitVarInsn(Opcodes.ALOAD, OUT_ARG);
+                    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, OUT, "removeLastIfTake", "()V", false);
+                    mv.visitVarInsn(Opcodes.ILOAD, HAS_TAKE);
+                    mv.visitJumpInsn(Opcodes.IFEQ, fail);
+                    target(dx, dy);
+                    boardQuery("isEmpty");
+                    mv.visitJumpInsn(Opcodes.IFEQ, fail);
+                    mv.visitVarInsn(Opcodes.ALOAD, OUT_ARG);
+                    anchorPlus(AX, dx);
+                    anchorPlus(AY, dy);
+                    iconst(AST.MoveType.JUMP.ordinal());
+                    mv.visitVarInsn(Opcodes.ILOAD, TAKE_X);
+                    mv.visitVarInsn(Opcodes.ILOAD, TAKE_Y);
+                    outAdd();
+                    moveAnchor(dx, dy);
+                    mv.visitJumpInsn(Opcodes.GOTO, next);
+                    mv.visitLabel(fail);
+                    setLast(false);
+                    break;
+                }
+
+                case CATCH: {
+                    Label fail = new Label();
+                    target(dx, dy);
+                    boardQuery("hasEnemy");
+                    mv.visitJumpInsn(Opcodes.IFEQ, fail);
+                    addActivation(dx, dy, AST.MoveType.CATCH);
+                    mv.visitJumpInsn(Opcodes.GOTO, next);
+                    mv.visitLabel(fail);
+                    setLast(false);
+                    break;
+                }
+
+                case SHIFT: {
+                    Label fail = new Label();
+                    target(dx, dy);
+                    boardQuery("inBounds");
+                    mv.visitJumpInsn(Opcodes.IFEQ, fail);
+                    boardQuery("isEmpty");
+                    mv.visitJumpInsn(Opcodes.IFNE, fail);
+                    addActivation(dx, dy, AST.MoveType.SHIFT);
+                    moveAnchor(dx, dy);
+                    mv.visitJumpInsn(Opcodes.GOTO, next);
+                    mv.visitLabel(fail);
+                    setLast(false);
+                    break;
+                }
+
+                case ANCHOR:
+                    moveAnchor(dx, dy);
+                    break;
+
+                // ── 조건식 ────────────────────────────
+                case OBSERVE:
+                    target(dx, dy);
+                    boardQuery("isEmpty");
+                    mv.visitVarInsn(Opcodes.ISTORE, LAST);
+                    break;
+
+                case PEEK: {
+                    Label fail = new Label();
+                    target(dx, dy);
+                    boardQuery("inBounds");
+                    mv.visitJumpInsn(Opcodes.IFEQ, fail);
+                    moveAnchor(dx, dy);
+                    boardQuery("isEmpty");
+                    mv.visitVarInsn(Opcodes.ISTORE, LAST);
+                    mv.visitJumpInsn(Opcodes.GOTO, next);
+                    mv.visitLabel(fail);
+                    setLast(false);
+                    break;
+                }
+
+                case ENEMY:
+                    target(dx, dy);
+                    boardQuery("hasEnemy");
+                    mv.visitVarInsn(Opcodes.ISTORE, LAST);
+                    break;
+
+                case FRIENDLY:
+                    target(dx, dy);
+                    boardQuery("hasFriendly");
+                    mv.visitVarInsn(Opcodes.ISTORE, LAST);
+                    break;
+
+                case PIECE_ON:
+                    target(dx, dy);
+                    mv.visitVarInsn(Opcodes.ALOAD, BOARD_ARG);
+                    mv.visitVarInsn(Opcodes.ILOAD, TX);
+                    mv.visitVarInsn(Opcodes.ILOAD, TY);
+                    iconst(code[base + SYM]);
+                    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BOARD, "hasPieceKind", "(III)Z", false);
+                    mv.visitVarInsn(Opcodes.ISTORE, LAST);
+                    break;
+
+                case DANGER:
+                    target(dx, dy);
+                    boardQuery("isDanger");
+                    mv.visitVarInsn(Opcodes.ISTORE, LAST);
+                    break;
+
+                case CHECK:
+                    mv.visitVarInsn(Opcodes.ALOAD, BOARD_ARG);
+                    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BOARD, "isInCheck", "()Z", false);
+                    mv.visitVarInsn(Opcodes.ISTORE, LAST);
+                    break;
+
+                case BOUND:
+                    target(dx, dy);
+                    boardQuery("inBounds");
+                    negate();
+                    mv.visitVarInsn(Opcodes.ISTORE, LAST);
+                    break;
+
+                case EDGE:                geometry(dx, dy, "edge"); break;
+                case CORNER:              geometry(dx, dy, "corner"); break;
+                case CORNER_TOP_LEFT:     geometry(dx, dy, "cornerTopLeft"); break;
+                case CORNER_TOP_RIGHT:    geometry(dx, dy, "cornerTopRight"); break;
+                case CORNER_BOTTOM_LEFT:  geometry(dx, dy, "cornerBottomLeft"); break;
+                case CORNER_BOTTOM_RIGHT: geometry(dx, dy, "cornerBottomRight"); break;
+
+                case EDGE_TOP:
+                    // py + ay + dy >= height
+                    anchorPlus(PY, AY, dy);
+                    boardField("boardHeight");
+                    compare(Opcodes.IF_ICMPGE);
+                    break;
+
+                case EDGE_BOTTOM:
+                    anchorPlus(PY, AY, dy);
+                    iconst(0);
+                    compare(Opcodes.IF_ICMPLT);
+                    break;
+
+                case EDGE_LEFT:
+                    anchorPlus(PX, AX, dx);
+                    iconst(0);
+                    compare(Opcodes.IF_ICMPLT);
+                    break;
+
+                case EDGE_RIGHT:
+                    anchorPlus(PX, AX, dx);
+                    boardField("boardWidth");
+                    compare(Opcodes.IF_ICMPGE);
+                    break;
+
+                // ── 상태 ──────────────────────────────
+                case PIECE:
+                    if (code[base + SYM] < 0) {
+                        setLast(false);
+                        break;
+                    }
+                    mv.visitVarInsn(Opcodes.ALOAD, BOARD_ARG);
+                    mv.visitFieldInsn(Opcodes.GETFIELD, BOARD, "pieceKind", "I");
+                    iconst(code[base + SYM]);
+                    compare(Opcodes.IF_ICMPEQ);
+                    break;
+
+                case IF_STATE:
+                    mv.visitVarInsn(Opcodes.ALOAD, BOARD_ARG);
+                    iconst(code[base + SYM]);
+                    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BOARD, "getState", "(I)I", false);
+                    iconst(code[base + ARG]);
+                    compare(Opcodes.IF_ICMPEQ);
+                    break;
+
+                case SET_STATE:
+                case TRANSITION:
+                    mv.visitVarInsn(Opcodes.ALOAD, SCRATCH_LOCAL);
+                    iconst(i);
+                    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SCRATCH, "pushStaticTag", "(I)V", false);
+                    break;
+
+                case SET_STATE_RESET:
+                    mv.visitVarInsn(Opcodes.ALOAD, SCRATCH_LOCAL);
+                    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SCRATCH, "removeLastTag", "()V", false);
+                    break;
+
+                // ── 스택 관련 ─────────────────────────
+                case IF_MOVE_STACK: {
+                    Label notEnemy = new Label();
+                    Label notFriendly = new Label();
+                    Label fail = new Label();
+                    target(dx, dy);
+                    boardQuery("hasEnemy");
+                    mv.visitJumpInsn(Opcodes.IFEQ, notEnemy);
+                    mv.visitJumpInsn(Opcodes.GOTO, fail);
+                    mv.visitLabel(notEnemy);
+                    boardQuery("hasFriendly");
+                    mv.visitJumpInsn(Opcodes.IFEQ, notFriendly);
+                    mv.visitVarInsn(Opcodes.ALOAD, BOARD_ARG);
+                    mv.visitVarInsn(Opcodes.ILOAD, TX);
+                    mv.visitVarInsn(Opcodes.ILOAD, TY);
+                    helper("moveStackAt", "(" + D_BOARD + "II)I");
+                    mv.visitJumpInsn(Opcodes.IFLE, fail);
+                    mv.visitVarInsn(Opcodes.ILOAD, TX);
+                    mv.visitVarInsn(Opcodes.ISTORE, US_X);
+                    mv.visitVarInsn(Opcodes.ILOAD, TY);
+                    mv.visitVarInsn(Opcodes.ISTORE, US_Y);
+                    mv.visitJumpInsn(Opcodes.GOTO, next);
+                    // 기준 구현과 동일하게 use-move-stack으로 이어진다
+                    mv.visitLabel(notFriendly);
+                    addUseStackTag();
+                    mv.visitJumpInsn(Opcodes.GOTO, next);
+                    mv.visitLabel(fail);
+                    setLast(false);
+                    break;
+                }
+
+                case USE_MOVE_STACK:
+                    addUseStackTag();
+                    break;
+
+                // ── 제어 ──────────────────────────────
+                case REPEAT: {
+                    // 비면제 명령어이므로 여기 도달했다면 lastValue == true
+                    int target = code[base + TARGET];
+                    if (target >= 0) mv.visitJumpInsn(Opcodes.GOTO, labels[target]);
+                    break;
+                }
+
+                case DO:
+                    iconst(code[base + TARGET]);
+                    mv.visitVarInsn(Opcodes.ISTORE, DO_IDX);
+                    break;
+
+                case WHILE: {
+                    Label fallthrough = new Label();
+                    mv.visitVarInsn(Opcodes.ILOAD, LAST);
+                    mv.visitJumpInsn(Opcodes.IFEQ, fallthrough);
+                    mv.visitVarInsn(Opcodes.ILOAD, DO_IDX);
+                    mv.visitJumpInsn(Opcodes.IFLT, fallthrough);
+                    mv.visitVarInsn(Opcodes.ILOAD, DO_IDX);
+                    mv.visitVarInsn(Opcodes.ISTORE, PC);
+                    mv.visitJumpInsn(Opcodes.GOTO, dispatch);   // lastValue는 이미 true
+                    mv.visitLabel(fallthrough);
+                    setLast(true);
+                    break;
+                }
+
+                case JMP:
+                case JNE: {
+                    Label noJump = new Label();
+                    mv.visitVarInsn(Opcodes.ILOAD, LAST);
+                    mv.visitJumpInsn(op == JMP ? Opcodes.IFEQ : Opcodes.IFNE, noJump);
+                    setLast(true);
+                    labelJump(i, base);
+                    mv.visitLabel(noJump);
+                    setLast(true);
+                    break;
+                }
+
+                case LABEL:
+                    break;
+
+                case NOT:
+                    mv.visitVarInsn(Opcodes.ILOAD, LAST);
+                    negate();
+                    mv.visitVarInsn(Opcodes.ISTORE, LAST);
+                    break;
+
+                case END:
+                    setLast(false);
+                    break;
+
+                default:
+                    break;
+            }
+            // 다음 명령어로 진행 (labels[i + 1]이 바로 뒤에 온다)
+        }
+
+        /** jmp/jne: 정적 체인에서 실행 중이면 직접 분기, 아니면 체인 표 조회 후 디스패치 */
+        private void labelJump(int i, int base) {
+            int staticChain = code[base + ARG];
+            int strIdx = code[base + STR];
+            int target = code[base + TARGET];
+
+            Label otherChain = new Label();
+            mv.visitVarInsn(Opcodes.ILOAD, CHAIN);
+            iconst(staticChain);
+            mv.visitJumpInsn(Opcodes.IF_ICMPNE, otherChain);
+            mv.visitJumpInsn(Opcodes.GOTO, target >= 0 ? labels[target] : labels[i + 1]);
+
+            mv.visitLabel(otherChain);
+            mv.visitVarInsn(Opcodes.ALOAD, THIS);
+            mv.visitFieldInsn(Opcodes.GETFIELD, BASE, "program", "L" + BYTECODE + ";");
+            mv.visitVarInsn(Opcodes.ILOAD, CHAIN);
+            iconst(strIdx);
+            iconst(i + 1);
+            helper("labelAddress", "(L" + BYTECODE + ";III)I");
+            mv.visitVarInsn(Opcodes.ISTORE, PC);
+            mv.visitJumpInsn(Opcodes.GOTO, dispatch);
+        }
+
+        // ── 스킵 블록 ─────────────────────────────────
+
+        /**
+         * 명령어 i에서 실패 상태로 도달한 경우. i+1부터 스캔하는 결과를
+         * 진입 깊이(OPEN)별 비교로 펼친다. 닫는 중괄호 c에서 멈추는 조건은 OPEN + r(c) == 0
+         * (r = 그때까지의 여는 수 - 닫는 수)이며, 처음 만족하는 c가 이긴다.
+         */
+        private void skipBlock(int i) {
+            mv.visitLabel(skipLabels[i]);
+            setLast(true);
+
+            int pc = i + 1;
+            int r = 0;
+            while (pc < n) {
+                int op = code[pc * STRIDE + OP];
+                if (op == SEMICOLON) break;
+                if (op == CLOSE_BRACE) {
+                    if (r <= 0) {
+                        Label notHere = new Label();
+                        mv.visitVarInsn(Opcodes.ILOAD, OPEN);
+                        iconst(-r);
+                        mv.visitJumpInsn(Opcodes.IF_ICMPNE, notHere);
+                        iconst(0);
+                        mv.visitVarInsn(Opcodes.ISTORE, OPEN);
+                        popScope();
+                        mv.visitJumpInsn(Opcodes.GOTO, labels[pc + 1]);
+                        mv.visitLabel(notHere);
+                    }
+                    r--;
+                } else if (op == OPEN_BRACE) {
+                    r++;
+                }
+                pc++;
+            }
+            // 세미콜론 또는 프로그램 끝
+            if (r != 0) mv.visitIincInsn(OPEN, r);
+            if (pc < n) {
+                resetChain();
+                mv.visitJumpInsn(Opcodes.GOTO, labels[pc + 1]);
+            } else {
+                mv.visitJumpInsn(Opcodes.GOTO, labels[n]);
+            }
+        }
+
+        private void dispatchBlock() {
+            mv.visitLabel(dispatch);
+            mv.visitVarInsn(Opcodes.ILOAD, PC);
+            mv.visitTableSwitchInsn(0, n, labels[n], labels);
+        }
+
+        // ── 코드 조각 ─────────────────────────────────
+
+        private void iconst(int v) {
+            if (v >= -1 && v <= 5) mv.visitInsn(Opcodes.ICONST_0 + v);
+            else if (v >= Byte.MIN_VALUE && v <= Byte.MAX_VALUE) mv.visitIntInsn(Opcodes.BIPUSH, v);
+            else if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) mv.visitIntInsn(Opcodes.SIPUSH, v);
+            else mv.visitLdcInsn(v);
+        }
+
+        private void setLast(boolean v) {
+            iconst(v ? 1 : 0);
+            mv.visitVarInsn(Opcodes.ISTORE, LAST);
+        }
+
+        /** 스택의 0/1 반전 */
+        private void negate() {
+            iconst(1);
+            mv.visitInsn(Opcodes.IXOR);
+        }
+
+        /** 스택의 두 int를 비교해 결과를 lastValue에 저장 */
+        private void compare(int ifOpcode) {
+            Label yes = new Label();
+            Label done = new Label();
+            mv.visitJumpInsn(ifOpcode, yes);
+            setLast(false);
+            mv.visitJumpInsn(Opcodes.GOTO, done);
+            mv.visitLabel(yes);
+            setLast(true);
+            mv.visitLabel(done);
+        }
+
+        /** 스택에 anchor + d 를 올린다 */
+        private void anchorPlus(int anchorSlot, int d) {
+            mv.visitVarInsn(Opcodes.ILOAD, anchorSlot);
+            if (d != 0) {
+                iconst(d);
+                mv.visitInsn(Opcodes.IADD);
+            }
+        }
+
+        /** 스택에 piece + anchor + d 를 올린다 */
+        private void anchorPlus(int pieceSlot, int anchorSlot, int d) {
+            mv.visitVarInsn(Opcodes.ILOAD, pieceSlot);
+            mv.visitVarInsn(Opcodes.ILOAD, anchorSlot);
+            mv.visitInsn(Opcodes.IADD);
+            if (d != 0) {
+                iconst(d);
+                mv.visitInsn(Opcodes.IADD);
+            }
+        }
+
+        /** tx, ty = piece + anchor + (dx, dy) */
+        private void target(int dx, int dy) {
+            anchorPlus(PX, AX, dx);
+            mv.visitVarInsn(Opcodes.ISTORE, TX);
+            anchorPlus(PY, AY, dy);
+            mv.visitVarInsn(Opcodes.ISTORE, TY);
+        }
+
+        private void moveAnchor(int dx, int dy) {
+            if (dx != 0) mv.visitIincInsn(AX, dx);
+            if (dy != 0) mv.visitIincInsn(AY, dy);
+        }
+
+        /** board.name(tx, ty) → 스택에 boolean */
+        private void boardQuery(String name) {
+            mv.visitVarInsn(Opcodes.ALOAD, BOARD_ARG);
+            mv.visitVarInsn(Opcodes.ILOAD, TX);
+            mv.visitVarInsn(Opcodes.ILOAD, TY);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BOARD, name, "(II)Z", false);
+        }
+
+        private void boardField(String name) {
+            mv.visitVarInsn(Opcodes.ALOAD, BOARD_ARG);
+            mv.visitFieldInsn(Opcodes.GETFIELD, BOARD, name, "I");
+        }
+
+        private void geometry(int dx, int dy, String helperName) {
+            target(dx, dy);
+            mv.visitVarInsn(Opcodes.ALOAD, BOARD_ARG);
+            mv.visitVarInsn(Opcodes.ILOAD, TX);
+            mv.visitVarInsn(Opcodes.ILOAD, TY);
+            helper(helperName, "(" + D_BOARD + "II)Z");
+            mv.visitVarInsn(Opcodes.ISTORE, LAST);
+        }
+
+        private void helper(String name, String desc) {
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, BASE, name, desc, false);
+        }
+
+        /** 스택: out, dx, dy, type, catchX, catchY → out.add(..., scratch), 질의 답이 확정되면 프로그램 끝으로 */
+        private void outAdd() {
+            mv.visitVarInsn(Opcodes.ALOAD, SCRATCH_LOCAL);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, OUT, "add", "(IIIII" + D_SCRATCH + ")Z", false);
+            mv.visitJumpInsn(Opcodes.IFNE, labels[n]);
+        }
+
+        private void addActivation(int dx, int dy, AST.MoveType type) {
+            mv.visitVarInsn(Opcodes.ALOAD, OUT_ARG);
+            anchorPlus(AX, dx);
+            anchorPlus(AY, dy);
+            iconst(type.ordinal());
+            iconst(ActivationBuffer.NO_CATCH);
+            iconst(ActivationBuffer.NO_CATCH);
+            outAdd();
+        }
+
+        private void addUseStackTag() {
+            mv.visitVarInsn(Opcodes.ALOAD, SCRATCH_LOCAL);
+            mv.visitVarInsn(Opcodes.ILOAD, US_X);
+            mv.visitVarInsn(Opcodes.ILOAD, US_Y);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SCRATCH, "pushUseStack", "(II)V", false);
+        }
+
+        /** 세미콜론/체인 스킵: 앵커·태그·do·take 초기화 후 체인 번호 증가 */
+        private void resetChain() {
+            iconst(0);
+            mv.visitVarInsn(Opcodes.ISTORE, AX);
+            iconst(0);
+            mv.visitVarInsn(Opcodes.ISTORE, AY);
+            mv.visitVarInsn(Opcodes.ALOAD, SCRATCH_LOCAL);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SCRATCH, "clearTags", "()V", false);
+            iconst(-1);
+            mv.visitVarInsn(Opcodes.ISTORE, DO_IDX);
+            iconst(0);
+            mv.visitVarInsn(Opcodes.ISTORE, HAS_TAKE);
+            mv.visitIincInsn(CHAIN, 1);
+        }
+
+        /** scope[sp*2..] = (ax, ay); sp++ (필요하면 배열 확장) */
+        private void pushScope() {
+            Label fits = new Label();
+            mv.visitVarInsn(Opcodes.ILOAD, SP);
+            iconst(2);
+            mv.visitInsn(Opcodes.IMUL);
+            iconst(2);
+            mv.visitInsn(Opcodes.IADD);
+            mv.visitVarInsn(Opcodes.ALOAD, SCOPE);
+            mv.visitInsn(Opcodes.ARRAYLENGTH);
+            mv.visitJumpInsn(Opcodes.IF_ICMPLE, fits);
+            mv.visitVarInsn(Opcodes.ALOAD, SCRATCH_LOCAL);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SCRATCH, "growScope", "()[I", false);
+            mv.visitVarInsn(Opcodes.ASTORE, SCOPE);
+            mv.visitLabel(fits);
+            storeScope(0, AX);
+            storeScope(1, AY);
+            mv.visitIincInsn(SP, 1);
+        }
+
+        private void storeScope(int offset, int slot) {
+            mv.visitVarInsn(Opcodes.ALOAD, SCOPE);
+            mv.visitVarInsn(Opcodes.ILOAD, SP);
+            iconst(2);
+            mv.visitInsn(Opcodes.IMUL);
+            if (offset != 0) {
+                iconst(offset);
+                mv.visitInsn(Opcodes.IADD);
+            }
+            mv.visitVarInsn(Opcodes.ILOAD, slot);
+            mv.visitInsn(Opcodes.IASTORE);
+        }
+
+        /** if (sp > 0) { sp--; ax = scope[sp*2]; ay = scope[sp*2+1]; } */
+        private void popScope() {
+            Label empty = new Label();
+            mv.visitVarInsn(Opcodes.ILOAD, SP);
+            mv.visitJumpInsn(Opcodes.IFLE, empty);
+            mv.visitIincInsn(SP, -1);
+            loadScope(0, AX);
+            loadScope(1, AY);
+            mv.visitLabel(empty);
+        }
+
+        private void loadScope(int offset, int slot) {
+            mv.visitVarInsn(Opcodes.ALOAD, SCOPE);
+            mv.visitVarInsn(Opcodes.ILOAD, SP);
+            iconst(2);
+            mv.visitInsn(Opcodes.IMUL);
+            if (offset != 0) {
+                iconst(offset);
+                mv.visitInsn(Opcodes.IADD);
+            }
+            mv.visitInsn(Opcodes.IALOAD);
+            mv.visitVarInsn(Opcodes.ISTORE, slot);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package nand.modid.chess.dsl.chessembly;
+
+import nand.modid.chess.core.Piece;
+
+import java.util.*;
+
+/**
+ * ScriptSymbols — 컴파일러와 GameState가 함께 쓰는 기물 종류·상태 키 번호 표.
+ *
+ * 스크립트를 컴파일할 때 piece-on / piece / transition의 기물 이름은 {@link Piece.PieceKind} 서수로,
+ * if-state / set-state의 키는 작은 정수 슬롯으로 바꿔 둔다. 실행 중에는 정수만 비교하므로
+ * 문자열 해시나 equals가 일어나지 않는다.
+ *
+ * 기물 이름은 {@link Piece.PieceKind#scriptName()}과 정확히 같아야 한다 (보드의 기물 이름과 같은 규칙).
+ * transition만 {@link Piece.PieceKind#fromString}처럼 대소문자를 가리지 않는다.
+ * 상태 키 슬롯은 처음 본 순서대로 전역으로 매기며 한 번 정해지면 바뀌지 않는다.
+ * 등록 수가 {@link #MAX_STATE_SLOTS}를 넘으면 컴파일을 거부한다.
+ */
+public final class ScriptSymbols {
+
+    private ScriptSymbols() {}
+
+    /** 해석되지 않은 이름 — 어떤 기물과도 같지 않다 */
+    public static final int UNKNOWN = -1;
+
+    /** 등록할 수 있는 상태 키 수 — 슬롯은 회수하지 않으므로 스크립트 리로드를 모두 합친 한도다 */
+    public static final int MAX_STATE_SLOTS = 1024;
+
+    // ── 기물 종류 ─────────────────────────────────────
+
+    private static final Piece.PieceKind[] KINDS = Piece.PieceKind.values();
+    private static final Map<String, Integer> KIND_BY_NAME = new HashMap<>();
+    static {
+        for (Piece.PieceKind kind : KINDS) KIND_BY_NAME.put(kind.scriptName(), kind.ordinal());
+    }
+
+    /** 스크립트 이름의 기물 종류 서수, 없으면 {@link #UNKNOWN} */
+    public static int kindOf(String name) {
+        if (name == null) return UNKNOWN;
+        Integer kind = KIND_BY_NAME.get(name);
+        return kind != null ? kind : UNKNOWN;
+    }
+
+    /** transition 피연산자의 기물 종류 서수 (대소문자 무시), 없으면 {@link #UNKNOWN} */
+    public static int transitionKindOf(String name) {
+        return name != null ? kindOf(name.toLowerCase(Locale.ROOT)) : UNKNOWN;
+    }
+
+    /** 기물 종류 수 (서수는 0 ~ kindCount()-1) */
+    public static int kindCount() { return KINDS.length; }
+
+    /** 서수의 기물 종류, 범위 밖이면 null */
+    public static Piece.PieceKind kind(int ordinal) {
+        return ordinal >= 0 && ordinal < KINDS.length ? KINDS[ordinal] : null;
+    }
+
+    // ── 상태 키 ───────────────────────────────────────
+
+    /** 등록된 상태 키 표 — 읽기는 락 없이 현재 표를 보고, 등록만 락을 잡고 새 표로 바꾼다 */
+    private static final class StateTable {
+        final Map<String, Integer> slotByKey;
+        /** 슬롯 → 키 */
+        final String[] keys;
+
+        StateTable(Map<String, Integer> slotByKey, String[] keys) {
+            this.slotByKey = slotByKey;
+            this.keys = keys;
+        }
+    }
+
+    private static volatile StateTable states = new StateTable(Collections.emptyMap(), new String[0]);
+
+    /** 상태 키의 슬롯 (처음 보면 등록) */
+    public static int stateSlot(String key) {
+        Integer slot = states.slotByKey.get(key);
+        return slot != null ? slot : register(key);
+    }
+
+    private static synchronized int register(String key) {
+        StateTable t = states;
+        Integer slot = t.slotByKey.get(key);
+        if (slot != null) return slot;
+        int n = t.keys.length;
+        if (n >= MAX_STATE_SLOTS) {
+            throw new IllegalStateException("상태 키가 너무 많습니다 (최대 " + MAX_STATE_SLOTS + "개): " + key);
+        }
+        Map<String, Integer> slots = new HashMap<>(t.slotByKey);
+        slots.put(key, n);
+        String[] keys = Arrays.copyOf(t.keys, n + 1);
+        keys[n] = key;
+        states = new StateTable(Collections.unmodifiableMap(slots), keys);
+        return n;
+    }
+
+    /** 이미 등록된 상태 키의 슬롯, 처음 보는 키면 {@link #UNKNOWN} (등록하지 않는다) */
+    public static int findStateSlot(String key) {
+        Integer slot = states.slotByKey.get(key);
+        return slot != null ? slot : UNKNOWN;
+    }
+
+    /** 슬롯의 상태 키, 범위 밖이면 null */
+    public static String stateKey(int slot) {
+        String[] keys = states.keys;
+        return slot >= 0 && slot < keys.length ? keys[slot] : null;
+    }
+
+    /** 지금까지 등록된 상태 키 수 */
+    public static int stateSlotCount() {
+        return states.keys.length;
+    }
+}
@@ -0,0 +1,112 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+/**
+ * ScriptValidator — 외부에서 불러온 Chessembly 스크립트의 정적 검사.
+ *
+ * Lexer는 모르는 단어나 인자가 모자란 식을 조용히 END로 바꾸므로, 사용자 스크립트는
+ * 컴파일 전에 이 검사로 오류를 보고한다. 검사 항목:
+ * <ul>
+ *   <li>알 수 없는 단어</li>
+ *   <li>인자가 모자라 END가 되는 식 (piece-on, piece, if-state, transition, jmp, jne, label)</li>
+ *   <li>짝이 맞지 않는 중괄호</li>
+ *   <li>같은 체인(;)에 정의되지 않은 라벨로의 jmp / jne — 실행기는 라벨을 체인마다 찾으므로
+ *       다른 체인의 라벨로 가는 점프는 아무 일도 하지 않는다</li>
+ *   <li>piece-on, piece, transition의 알 수 없는 기물 이름 ({@link ScriptSymbols})</li>
+ * </ul>
+ */
+public final class ScriptValidator {
+
+    private ScriptValidator() {}
+
+    /**
+     * @return 오류 메시지 목록 ("줄:열 내용" 형식), 문제가 없으면 빈 목록
+     */
+    public static List<String> validate(String source) {
+        List<String> errors = new ArrayList<>();
+        if (source == null) return errors;
+
+        // 체인(;) 번호 → 라벨 — Interpreter처럼 세미콜론 수로 체인을 센다
+        List<Set<String>> labels = new ArrayList<>();
+        labels.add(new HashSet<>());
+        List<Integer> jumpPositions = new ArrayList<>();
+        List<Integer> jumpChains = new ArrayList<>();
+        List<String> jumpTargets = new ArrayList<>();
+        Deque<Integer> openBraces = new ArrayDeque<>();
+
+        Lexer lexer = new Lexer(source);
+        while (lexer.advance()) {
+            int at = lexer.tokenStart();
+            switch (lexer.type()) {
+                case OPEN_BRACE:
+                    openBraces.push(at);
+                    break;
+                case CLOSE_BRACE:
+                    if (openBraces.isEmpty()) errors.add(position(source, at) + " 여는 중괄호 없이 '}'가 있습니다");
+                    else openBraces.pop();
+                    break;
+                case SEMICOLON:
+                    labels.add(new HashSet<>());
+                    break;
+                case LABEL:
+                    labels.get(labels.size() - 1).add(lexer.strArg());
+                    break;
+                case PIECE_ON:
+                case PIECE:
+                    if (ScriptSymbols.kindOf(lexer.strArg()) == ScriptSymbols.UNKNOWN) {
+                        errors.add(position(source, at) + " 알 수 없는 기물: " + lexer.strArg());
+                    }
+                    break;
+                case TRANSITION:
+                    if (ScriptSymbols.transitionKindOf(lexer.strArg()) == ScriptSymbols.UNKNOWN) {
+                        errors.add(position(source, at) + " 알 수 없는 기물: " + lexer.strArg());
+                    }
+                    break;
+                case JMP:
+                case JNE:
+                    jumpPositions.add(at);
+                    jumpChains.add(labels.size() - 1);
+                    jumpTargets.add(lexer.strArg());
+                    break;
+                case END: {
+                    String word = lexer.word();
+                    if (Symbols.keyword(word, 0, word.length()) == Symbols.NOT_KEYWORD) {
+                        errors.add(position(source, at) + " 알 수 없는 명령: " + word);
+                    } else if (!word.equals("end")) {
+                        errors.add(position(source, at) + " 인자가 부족합니다: " + word);
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+        while (!openBraces.isEmpty()) {
+            errors.add(position(source, openBraces.pollLast()) + " 닫히지 않은 '{'");
+        }
+        for (int i = 0; i < jumpTargets.size(); i++) {
+            String target = jumpTargets.get(i);
+            if (labels.get(jumpChains.get(i)).contains(target)) continue;
+            boolean elsewhere = false;
+            for (Set<String> chain : labels) elsewhere |= chain.contains(target);
+            errors.add(position(source, jumpPositions.get(i))
+                    + (elsewhere ? " 다른 체인(;)의 라벨로는 이동할 수 없습니다: " : " 정의되지 않은 라벨: ") + target);
+        }
+        return errors;
+    }
+
+    /** 입력 위치 → "줄:열" (1부터) */
+    private static String position(String source, int index) {
+        int line = 1, column = 1;
+        for (int i = 0; i < index && i < source.length(); i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return line + ":" + column;
+    }
+}
@@ -0,0 +1,205 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.SplittableRandom;
+
+/**
+ * SliderAttacks — 8x8 보드용 매직 비트보드 슬라이더(룩/비숍 방향) 공격표.
+ *
+ * 칸 번호는 y * 8 + x (a1 = 0). 표는 클래스 초기화 때 한 번 생성한다.
+ * 매직 상수는 이 클래스의 탐색기(고정 시드)로 미리 찾아 둔 값을 먼저 검증해 쓰고,
+ * 충돌하면 그 칸만 다시 탐색한다 (탐색 전체는 수백 ms가 걸려 시작 시간에 부담이 된다).
+ *
+ * {@link MovePattern}이 단위 방향 라이더(take-move(±1|0, ±1|0) repeat(1))를 처리할 때 사용한다.
+ * 방향별 순서가 필요하므로 공격 집합을 {@link #ray(int, int)}로 잘라 가까운 칸부터 꺼낸다.
+ */
+public final class SliderAttacks {
+
+    private SliderAttacks() {}
+
+    /** -Dstasischess.magic=false 로 비활성화 (칸별 표 사용) */
+    private static volatile boolean enabled =
+            !"false".equalsIgnoreCase(System.getProperty("stasischess.magic", "true"));
+
+    public static boolean isEnabled() { return enabled; }
+
+    public static void setEnabled(boolean value) { enabled = value; }
+
+    // ── 방향 ──────────────────────────────────────────
+    /** 방향 번호: 0..3 직교 (+x, -x, +y, -y), 4..7 대각 (+x+y, +x-y, -x+y, -x-y) */
+    private static final int[] DIR_X = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] DIR_Y = { 0, 0, 1, -1, 1, -1, 1, -1 };
+
+    /** (dx, dy) 단위 벡터의 방향 번호, 단위 벡터가 아니면 -1 */
+    public static int direction(int dx, int dy) {
+        for (int d = 0; d < 8; d++) {
+            if (DIR_X[d] == dx && DIR_Y[d] == dy) return d;
+        }
+        return -1;
+    }
+
+    public static boolean isDiagonal(int direction) { return direction >= 4; }
+
+    /** 방향이 칸 번호가 증가하는 쪽인지 (가까운 칸 = 최하위 비트) */
+    public static boolean ascending(int direction) {
+        int step = DIR_Y[direction] * 8 + DIR_X[direction];
+        return step > 0;
+    }
+
+    // ── 표 ────────────────────────────────────────────
+
+    private static final long[][] RAYS = new long[8][64];
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = new long[64];
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = new long[64];
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    // 고정 시드 0x5EEDC4E55 탐색 결과
+    private static final long[] KNOWN_ROOK_MAGICS = {
+        0x0880004000801022L, 0x4440200440021000L, 0x088008D002200080L, 0x2500209000090004L,
+        0x1080040068008022L, 0x2200010842004410L, 0x1500008409000200L, 0x020000804029040AL,
+        0x4800800040008020L, 0x2082002200410082L, 0x0301001041082000L, 0xC041808008003000L,
+        0x00A4800400800800L, 0x0010800200800400L, 0x0184800100020080L, 0x0040800040802100L,
+        0x4000848004400060L, 0x8684444010002000L, 0x2006820010204200L, 0x0000090021001000L,
+        0x2009010008001004L, 0x900C008004020080L, 0x4108040001100288L, 0x5020220000804114L,
+        0x0080034240002000L, 0x03D0104040002000L, 0x4000100480200480L, 0x0040401200200A00L,
+        0x1032000600102008L, 0x0B820002801C0080L, 0x080A004200011488L, 0x0002908200140041L,
+        0x0080002000400040L, 0x10E0804000802003L, 0x0220100080802000L, 0x2204805004800801L,
+        0xC805004413000800L, 0x0050020080800400L, 0x0010800100800200L, 0x0004008502000864L,
+        0x0002008100420020L, 0x000150002008C000L, 0x090C410020090010L, 0x88422200400A0011L,
+        0x0008002040040400L, 0x0002001004020008L, 0x00008D2842040010L, 0x4204410080420004L,
+        0x0040800821004100L, 0x0200842000400480L, 0x0020620140B68200L, 0x80100008E1510100L,
+        0x0080800801040180L, 0x0803000804000300L, 0x0000080162300400L, 0x4002108041040200L,
+        0x8200102040800101L, 0x4602400016210481L, 0x08000A0040102082L, 0x0410210108100005L,
+        0x1011001008000423L, 0x11B1000400020801L, 0x0000012200881004L, 0x000008204401008AL
+    };
+
+    private static final long[] KNOWN_BISHOP_MAGICS = {
+        0x08040104010A0A00L, 0x20080800C4004040L, 0x211008B0A1010804L, 0x0108061840900088L,
+        0x0210882000442020L, 0x3009045241040400L, 0xC010A80802100046L, 0x02018A0802010400L,
+        0x080010111001204AL, 0x0080041024005080L, 0x8140418103010080L, 0x0040640428800614L,
+        0x0000411041302012L, 0x0022008820880490L, 0x402000450C10C080L, 0x1454020704925000L,
+        0x4044000988080800L, 0x02A0000404041044L, 0x05020030102A0320L, 0x020420180A0060A8L,
+        0x8882004C02110000L, 0x0083000200514404L, 0x002C040209046208L, 0x2285180044008409L,
+        0x2002081020481020L, 0x1004020004884820L, 0x02180A000C4A0600L, 0x0480802008020020L,
+        0x0481020004008400L, 0x0470030001806104L, 0x4304084404210408L, 0x0002890040844802L,
+        0x2201200800105020L, 0x8803A49001201200L, 0x0400222408480800L, 0x0004208020080200L,
+        0x0008020010040900L, 0x1002004100021008L, 0x0002108A00010800L, 0x3050810100A04410L,
+        0x0024100808230400L, 0x10010410AA004420L, 0x01000C0048002401L, 0x0081011414041800L,
+        0x0400812012000100L, 0x0040182804204840L, 0x0144100220420A00L, 0x0410020216204040L,
+        0x8006010420050020L, 0x48120280D8082001L, 0x8000428048280000L, 0x1000230042020081L,
+        0x8244A21002120340L, 0x0100081001820880L, 0x0421044102340000L, 0x0004114802008404L,
+        0x2080842110022010L, 0x0020007309082000L, 0x1010200052080400L, 0x4201009200460800L,
+        0x00084040E014A401L, 0x2101004011240121L, 0x0520404204840080L, 0x0A4C907009012380L
+    };
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            for (int d = 0; d < 8; d++) RAYS[d][sq] = slowRay(sq, d, 0L);
+        }
+        SplittableRandom rnd = new SplittableRandom(0x5EED_C4E55L);
+        for (int sq = 0; sq < 64; sq++) {
+            ROOK_MASK[sq] = relevantMask(sq, 0);
+            BISHOP_MASK[sq] = relevantMask(sq, 4);
+            ROOK_TABLE[sq] = findMagic(sq, 0, ROOK_MASK[sq], KNOWN_ROOK_MAGICS[sq], ROOK_MAGIC, ROOK_SHIFT, rnd);
+            BISHOP_TABLE[sq] = findMagic(sq, 4, BISHOP_MASK[sq], KNOWN_BISHOP_MAGICS[sq], BISHOP_MAGIC, BISHOP_SHIFT, rnd);
+        }
+    }
+
+    /** 빈 보드에서 sq부터 direction 방향으로의 광선 (sq 제외) */
+    public static long ray(int sq, int direction) {
+        return RAYS[direction][sq];
+    }
+
+    /** 직교 4방향 공격 집합 (첫 차단 칸 포함) */
+    public static long rookAttacks(int sq, long occupancy) {
+        int idx = (int) (((occupancy & ROOK_MASK[sq]) * ROOK_MAGIC[sq]) >>> ROOK_SHIFT[sq]);
+        return ROOK_TABLE[sq][idx];
+    }
+
+    /** 대각 4방향 공격 집합 (첫 차단 칸 포함) */
+    public static long bishopAttacks(int sq, long occupancy) {
+        int idx = (int) (((occupancy & BISHOP_MASK[sq]) * BISHOP_MAGIC[sq]) >>> BISHOP_SHIFT[sq]);
+        return BISHOP_TABLE[sq][idx];
+    }
+
+    // ── 표 생성 ───────────────────────────────────────
+
+    /** 느린 기준 구현: 차단 칸을 포함해 광선을 따라간다 */
+    static long slowRay(int sq, int d, long occupancy) {
+        long attacks = 0L;
+        int x = sq & 7, y = sq >>> 3;
+        while (true) {
+            x += DIR_X[d];
+            y += DIR_Y[d];
+            if (x < 0 || x >= 8 || y < 0 || y >= 8) break;
+            long bit = 1L << (y * 8 + x);
+            attacks |= bit;
+            if ((occupancy & bit) != 0) break;
+        }
+        return attacks;
+    }
+
+    static long slowAttacks(int sq, int firstDir, long occupancy) {
+        long attacks = 0L;
+        for (int d = firstDir; d < firstDir + 4; d++) attacks |= slowRay(sq, d, occupancy);
+        return attacks;
+    }
+
+    /** 결과에 영향을 주는 칸: 각 광선에서 보드 가장자리 칸을 뺀 것 */
+    private static long relevantMask(int sq, int firstDir) {
+        long mask = 0L;
+        for (int d = firstDir; d < firstDir + 4; d++) {
+            long ray = RAYS[d][sq];
+            // 광선의 마지막(가장자리) 칸 제외
+            long edge = ascending(d) ? Long.highestOneBit(ray) : Long.lowestOneBit(ray);
+            mask |= ray & ~edge;
+        }
+        return mask;
+    }
+
+    private static long[] findMagic(int sq, int firstDir, long mask, long known, long[] magics, int[] shifts,
+                                    SplittableRandom rnd) {
+        int bits = Long.bitCount(mask);
+        int size = 1 << bits;
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        // 마스크의 모든 부분집합 (carry-rippler)
+        long subset = 0L;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = slowAttacks(sq, firstDir, subset);
+            subset = (subset - mask) & mask;
+        }
+
+        int shift = 64 - bits;
+        long[] table = new long[size];
+        // used[idx] == attempt 이면 이번 시도에서 채워진 칸 (매 시도마다 배열을 비우지 않는다)
+        int[] used = new int[size];
+        for (int attempt = 1; attempt < 10_000_000; attempt++) {
+            long magic = attempt == 1 ? known : rnd.nextLong() & rnd.nextLong() & rnd.nextLong();
+            if (attempt > 1 && Long.bitCount((mask * magic) & 0xFF00_0000_0000_0000L) < 6) continue;
+            boolean ok = true;
+            for (int i = 0; i < size && ok; i++) {
+                int idx = (int) ((occupancies[i] * magic) >>> shift);
+                if (used[idx] != attempt) {
+                    used[idx] = attempt;
+                    table[idx] = attacks[i];
+                } else if (table[idx] != attacks[i]) {
+                    ok = false;
+                }
+            }
+            if (ok) {
+                magics[sq] = magic;
+                shifts[sq] = shift;
+                return table;
+            }
+        }
+        throw new IllegalStateException("매직 상수를 찾지 못했습니다: " + sq);
+    }
+}
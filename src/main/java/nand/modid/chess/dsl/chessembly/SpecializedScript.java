@@ -0,0 +1,784 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+import static nand.modid.chess.dsl.chessembly.Bytecode.*;
+
+/**
+ * SpecializedScript — 한 출발 칸에 맞춰 특수화한 {@link Bytecode} 프로그램.
+ *
+ * 출발 칸과 보드 크기가 정해지면 앵커, 스코프 스택, 점프 주소와 edge/corner/bound 같은
+ * 기하 조건식은 보드 점유와 무관하게 결정된다. 빌더는 인터프리터 상태를 직접 따라가며
+ * 보드를 조회해야 하는 명령어(기물 조회, 위협 칸, 체크, 상태, 이동 스택)에서만 갈라지는
+ * 조회 그래프를 만든다.
+ * <ul>
+ *   <li>노드 — 조회 하나 (절대 좌표와 피연산자가 고정됨), 같은 인터프리터 상태는 한 노드로 합친다</li>
+ *   <li>간선 — 조회 결과별로 다음 조회까지 실행할 동작(활성화 추가, 태그 조작)과 명령어 수</li>
+ * </ul>
+ * 보드 밖 목표 칸, 기하 조건식, 그 결과로 도달할 수 없는 분기는 그래프에 남지 않고,
+ * 반사 비숍처럼 앵커가 바뀌며 반복하는 체인은 칸마다 펼쳐진다.
+ *
+ * 결과와 단계 수는 {@link BytecodeInterpreter}와 같다. 보드 밖에 기물이 있으면 보드 밖 조회의
+ * 결과가 달라지므로 사용하지 않는다 ({@link CompiledScript#run} 참조). 노드 수나 한 간선의
+ * 명령어 수가 한도를 넘는 출발 칸은 특수화하지 않고 기존 티어로 실행한다.
+ */
+public final class SpecializedScript {
+
+    /** -Dstasischess.specialize=false 로 비활성화 */
+    private static volatile boolean enabled =
+            !"false".equalsIgnoreCase(System.getProperty("stasischess.specialize", "true"));
+
+    public static boolean isEnabled() { return enabled; }
+
+    public static void setEnabled(boolean value) { enabled = value; }
+
+    /** 출발 칸 하나의 최대 조회 노드 수 */
+    static final int MAX_NODES = 2048;
+    /** 조회 없이 이어지는 명령어 수 한도 (넘으면 무한 루프일 수 있으므로 포기) */
+    static final int MAX_EDGE_STEPS = 1 << 16;
+
+    // ── 조회 종류와 결과 ──────────────────────────────
+    /** pieceAt — 결과 R_EMPTY / R_ENEMY / R_FRIENDLY */
+    private static final int P_CELL = 0;
+    /** hasPieceKind(x, y, 종류) */
+    private static final int P_NAME = 1;
+    /** isDanger(x, y) */
+    private static final int P_DANGER = 2;
+    /** isInCheck() */
+    private static final int P_CHECK = 3;
+    /** 기물 자신의 종류 비교 */
+    private static final int P_SELF = 4;
+    /** getState(슬롯) == 값 */
+    private static final int P_STATE = 5;
+    /** if-move-stack — 결과 R_EMPTY / R_ENEMY / R_STACK / R_NO_STACK */
+    private static final int P_STACK = 6;
+
+    private static final int R_EMPTY = 0, R_ENEMY = 1, R_FRIENDLY = 2;
+    /** 보드 밖 칸 — 빌드 때만 쓰는 정적 결과 */
+    private static final int R_OUTSIDE = 3;
+    private static final int R_STACK = 2, R_NO_STACK = 3;
+    private static final int R_FALSE = 0, R_TRUE = 1;
+
+    // ── 그래프 레이아웃 (int[] 하나) ──────────────────
+    // [시작 간선] [노드] [노드] ...
+    // 노드: [KIND] [X] [Y] [SYM] [VALUE] [간선 × 결과 수] — SYM은 기물 종류 서수 또는 상태 슬롯
+    // 간선: [TARGET] [STEPS] [ACTION_START] [ACTION_END] — TARGET은 다음 노드의 오프셋
+    private static final int NODE_HEADER = 5;
+    private static final int EDGE_STRIDE = 4;
+    private static final int END_NODE = -1;
+
+    // ── 동작 ──────────────────────────────────────────
+    /** A_ADD dx dy type catchX catchY */
+    private static final int A_ADD = 0;
+    private static final int A_REMOVE_LAST_IF_TAKE = 1;
+    /** A_STATIC_TAG 명령어주소 */
+    private static final int A_STATIC_TAG = 2;
+    private static final int A_REMOVE_LAST_TAG = 3;
+    /** A_USE_STACK x y */
+    private static final int A_USE_STACK = 4;
+    private static final int A_CLEAR_TAGS = 5;
+
+    private static final int TAKE_MOVE_TYPE = AST.MoveType.TAKE_MOVE.ordinal();
+    private static final int MOVE_TYPE = AST.MoveType.MOVE.ordinal();
+    private static final int TAKE_TYPE = AST.MoveType.TAKE.ordinal();
+    private static final int CATCH_TYPE = AST.MoveType.CATCH.ordinal();
+    private static final int SHIFT_TYPE = AST.MoveType.SHIFT.ordinal();
+    private static final int JUMP_TYPE = AST.MoveType.JUMP.ordinal();
+    private static final int NO_CATCH = ActivationBuffer.NO_CATCH;
+
+    private final Bytecode program;
+    private final int[] graph;
+    private final int[] actions;
+    private final int nodeCount;
+
+    private SpecializedScript(Bytecode program, int[] graph, int[] actions, int nodeCount) {
+        this.program = program;
+        this.graph = graph;
+        this.actions = actions;
+        this.nodeCount = nodeCount;
+    }
+
+    private static int outcomes(int kind) {
+        return kind == P_CELL ? 3 : kind == P_STACK ? 4 : 2;
+    }
+
+    /**
+     * (프로그램, 보드 크기, 출발 칸)에 대한 특수화 프로그램을 만든다.
+     *
+     * @return 한도를 넘으면 null
+     */
+    public static SpecializedScript build(Bytecode program, int width, int height, int pieceX, int pieceY) {
+        return new Builder(program, width, height, pieceX, pieceY).build();
+    }
+
+    /** 조회 노드 수 */
+    public int nodeCount() { return nodeCount; }
+
+    /** 표가 차지하는 대략의 바이트 수 (객체와 배열 헤더 포함) */
+    public long memoryBytes() {
+        return 32 + 2 * 16 + 4L * (graph.length + actions.length);
+    }
+
+    // ── 실행 ──────────────────────────────────────────
+
+    /**
+     * 결과를 버퍼에 기록한다. 보드 크기와 기물 위치는 빌드할 때와 같아야 한다.
+     * {@link ExecutionBudget}의 단계 한도를 넘으면 바이트코드 실행기와 같이 중단한다.
+     */
+    public void execute(BuiltinOps.BoardState board, ActivationBuffer out) {
+        final int[] g = this.graph;
+        final int[] actions = this.actions;
+        out.reset(program);
+        final ExecutionScratch s = ExecutionScratch.get();
+        s.reset();
+
+        final int stepLimit = ExecutionBudget.maxSteps();
+        int steps = 0;
+        int e = 0;
+        while (true) {
+            steps += g[e + 1];
+            if (steps > stepLimit) {
+                out.exceedSteps(stepLimit + 1);
+                return;
+            }
+            int end = g[e + 3];
+            for (int a = g[e + 2]; a < end; ) {
+                switch (actions[a]) {
+                    case A_ADD:
+                        if (out.add(actions[a + 1], actions[a + 2], actions[a + 3], actions[a + 4], actions[a + 5], s)) {
+                            out.finish(steps);   // 질의 답 확정
+                            return;
+                        }
+                        a += 6;
+                        break;
+                    case A_REMOVE_LAST_IF_TAKE:
+                        out.removeLastIfTake();
+                        a++;
+                        break;
+                    case A_STATIC_TAG:
+                        s.pushStaticTag(actions[a + 1]);
+                        a += 2;
+                        break;
+                    case A_REMOVE_LAST_TAG:
+                        s.removeLastTag();
+                        a++;
+                        break;
+                    case A_USE_STACK:
+                        s.pushUseStack(actions[a + 1], actions[a + 2]);
+                        a += 3;
+                        break;
+                    default:
+                        s.clearTags();
+                        a++;
+                        break;
+                }
+            }
+            int node = g[e];
+            if (node == END_NODE) break;
+            e = node + NODE_HEADER + probe(g, node, board) * EDGE_STRIDE;
+        }
+        out.finish(steps);
+    }
+
+    private int probe(int[] g, int base, BuiltinOps.BoardState board) {
+        int x = g[base + 1], y = g[base + 2];
+        switch (g[base]) {
+            case P_CELL: {
+                BuiltinOps.PieceInfo info = board.pieceAt(x, y);
+                if (info == null) return R_EMPTY;
+                return info.isWhite == board.isWhite ? R_FRIENDLY : R_ENEMY;
+            }
+            case P_NAME:
+                return board.hasPieceKind(x, y, g[base + 3]) ? R_TRUE : R_FALSE;
+            case P_DANGER:
+                return board.isDanger(x, y) ? R_TRUE : R_FALSE;
+            case P_CHECK:
+                return board.isInCheck() ? R_TRUE : R_FALSE;
+            case P_SELF:
+                return board.pieceKind == g[base + 3] ? R_TRUE : R_FALSE;
+            case P_STATE:
+                return board.getState(g[base + 3]) == g[base + 4] ? R_TRUE : R_FALSE;
+            default: {
+                BuiltinOps.PieceInfo info = board.pieceAt(x, y);
+                if (info == null) return R_EMPTY;
+                if (info.isWhite != board.isWhite) return R_ENEMY;
+                return board.moveStackAt(x, y) > 0 ? R_STACK : R_NO_STACK;
+            }
+        }
+    }
+
+    // ── 출발 칸 표 ────────────────────────────────────
+
+    /**
+     * 보드 크기 하나에 대한 칸별 특수화 프로그램 표. 처음 실행되는 칸에서 만든다.
+     * 원소는 불변 객체이므로 두 스레드가 같은 칸을 동시에 만들어도 결과만 중복될 뿐 안전하다.
+     */
+    static final class Table {
+        /** 한도를 넘어 특수화하지 않는 칸 표시 */
+        private static final SpecializedScript UNSPECIALIZABLE =
+                new SpecializedScript(Bytecode.compile(Collections.emptyList()), new int[0], new int[0], 0);
+
+        final int width, height;
+        private final SpecializedScript[] byOrigin;
+
+        Table(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.byOrigin = new SpecializedScript[width * height];
+        }
+
+        /** 칸의 특수화 프로그램, 특수화할 수 없으면 null */
+        SpecializedScript get(Bytecode program, int x, int y) {
+            int idx = y * width + x;
+            SpecializedScript sp = byOrigin[idx];
+            if (sp == null) {
+                sp = build(program, width, height, x, y);
+                if (sp == null) sp = UNSPECIALIZABLE;
+                byOrigin[idx] = sp;
+            }
+            return sp == UNSPECIALIZABLE ? null : sp;
+        }
+
+        /** 만들어진 칸 수 (특수화하지 못한 칸 제외) */
+        int builtCount() {
+            int n = 0;
+            for (SpecializedScript sp : byOrigin) if (sp != null && sp != UNSPECIALIZABLE) n++;
+            return n;
+        }
+
+        /** 만들어진 칸 프로그램과 표 자체의 바이트 수 */
+        long memoryBytes() {
+            long bytes = 16 + 4L * byOrigin.length;
+            for (SpecializedScript sp : byOrigin) if (sp != null && sp != UNSPECIALIZABLE) bytes += sp.memoryBytes();
+            return bytes;
+        }
+    }
+
+    // ── 빌더 ──────────────────────────────────────────
+
+    /** 조회 직전의 인터프리터 상태 (노드 병합 키) */
+    private static final class State {
+        int pc, chainIndex, numOpenBrace;
+        int anchorX, anchorY;
+        boolean lastValue = true;
+        int doIndex = -1;
+        boolean hasTake;
+        int takeX, takeY;
+        int usableX, usableY;
+        /** 체인 시작 후 태그를 넣었을 수 있는지 (아니면 체인 끝의 태그 비우기를 생략) */
+        boolean tagsPending;
+        /** [anchorX, anchorY] 쌍, 길이가 곧 크기 */
+        int[] scope = new int[0];
+
+        State copy() {
+            State c = new State();
+            c.pc = pc; c.chainIndex = chainIndex; c.numOpenBrace = numOpenBrace;
+            c.anchorX = anchorX; c.anchorY = anchorY;
+            c.lastValue = lastValue;
+            c.doIndex = doIndex;
+            c.hasTake = hasTake;
+            c.takeX = takeX; c.takeY = takeY;
+            c.usableX = usableX; c.usableY = usableY;
+            c.tagsPending = tagsPending;
+            c.scope = scope;   // 변경 시 새 배열로 교체
+            return c;
+        }
+
+        void pushScope() {
+            int[] next = Arrays.copyOf(scope, scope.length + 2);
+            next[scope.length] = anchorX;
+            next[scope.length + 1] = anchorY;
+            scope = next;
+        }
+
+        void popScope() {
+            if (scope.length == 0) return;
+            anchorX = scope[scope.length - 2];
+            anchorY = scope[scope.length - 1];
+            scope = Arrays.copyOf(scope, scope.length - 2);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State)) return false;
+            State s = (State) o;
+            // take 좌표는 hasTake일 때만 의미가 있다
+            return pc == s.pc && chainIndex == s.chainIndex && numOpenBrace == s.numOpenBrace
+                    && anchorX == s.anchorX && anchorY == s.anchorY && lastValue == s.lastValue
+                    && doIndex == s.doIndex && hasTake == s.hasTake
+                    && (!hasTake || (takeX == s.takeX && takeY == s.takeY))
+                    && usableX == s.usableX && usableY == s.usableY && tagsPending == s.tagsPending
+                    && Arrays.equals(scope, s.scope);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = pc;
+            h = h * 31 + chainIndex;
+            h = h * 31 + numOpenBrace;
+            h = h * 31 + anchorX;
+            h = h * 31 + anchorY;
+            h = h * 31 + (lastValue ? 1 : 0);
+            h = h * 31 + doIndex;
+            h = h * 31 + (hasTake ? 1 + takeX * 97 + takeY : 0);
+            h = h * 31 + usableX;
+            h = h * 31 + usableY;
+            h = h * 31 + (tagsPending ? 1 : 0);
+            return h * 31 + Arrays.hashCode(scope);
+        }
+    }
+
+    /** 기호 실행으로 조회 그래프를 만든다 */
+    private static final class Builder {
+        /** resolve 결과: 조회가 아닌 명령어 / 실행 시 조회가 필요한 명령어 */
+        private static final int NOT_PROBE = -1, NEEDS_PROBE = -2;
+
+        private final Bytecode program;
+        private final int[] code;
+        private final int n;
+        private final int width, height, pieceX, pieceY;
+
+        /** 상태 → 노드 오프셋 */
+        private final Map<State, Integer> offsets = new HashMap<>();
+        /** 등록 순서의 노드 상태와 오프셋 */
+        private final List<State> states = new ArrayList<>();
+        private final List<Integer> order = new ArrayList<>();
+        private int[] graph = new int[256];
+        private int graphLength = EDGE_STRIDE;   // 시작 간선
+        private int[] actions = new int[64];
+        private int actionLength;
+
+        /** resolve가 NEEDS_PROBE를 돌려줄 때 채우는 조회 */
+        private int probeKind, probeX, probeY, probeSym, probeValue;
+
+        Builder(Bytecode program, int width, int height, int pieceX, int pieceY) {
+            this.program = program;
+            this.code = program.code;
+            this.n = program.length;
+            this.width = width;
+            this.height = height;
+            this.pieceX = pieceX;
+            this.pieceY = pieceY;
+        }
+
+        SpecializedScript build() {
+            if (!edge(0, new State(), 0, 0)) return null;
+            for (int i = 0; i < states.size(); i++) {
+                State at = states.get(i);
+                int offset = order.get(i);
+                int outcomes = outcomes(graph[offset]);
+                for (int o = 0; o < outcomes; o++) {
+                    State next = at.copy();
+                    int base = next.pc * STRIDE;
+                    next.pc++;
+                    int start = actionLength;
+                    apply(next, code[base], base, o);
+                    if (!edge(offset + NODE_HEADER + o * EDGE_STRIDE, next, 1, start)) return null;
+                }
+            }
+            return new SpecializedScript(program, Arrays.copyOf(graph, graphLength),
+                    Arrays.copyOf(actions, actionLength), states.size());
+        }
+
+        /** 다음 조회(또는 끝)까지 실행하고 slot 위치에 간선을 기록한다. 한도를 넘으면 false */
+        private boolean edge(int slot, State st, int steps, int actionStart) {
+            int more = runToProbe(st);
+            if (more < 0) return false;
+            int target = END_NODE;
+            if (st.pc < n) {
+                target = node(st);
+                if (target < 0) return false;
+            }
+            graph[slot] = target;
+            graph[slot + 1] = steps + more;
+            graph[slot + 2] = actionStart;
+            graph[slot + 3] = actionLength;
+            return true;
+        }
+
+        /** 조회 직전 상태의 노드 오프셋 (없으면 등록), 노드 한도를 넘으면 -1 */
+        private int node(State st) {
+            Integer known = offsets.get(st);
+            if (known != null) return known;
+            if (states.size() >= MAX_NODES) return -1;
+            int base = st.pc * STRIDE;
+            resolve(st, code[base], base);   // probe* 필드 채움
+            int offset = graphLength;
+            int size = NODE_HEADER + outcomes(probeKind) * EDGE_STRIDE;
+            if (offset + size > graph.length) graph = Arrays.copyOf(graph, Math.max(offset + size, graph.length * 2));
+            graph[offset] = probeKind;
+            graph[offset + 1] = probeX;
+            graph[offset + 2] = probeY;
+            graph[offset + 3] = probeSym;
+            graph[offset + 4] = probeValue;
+            graphLength = offset + size;
+            offsets.put(st, offset);
+            states.add(st);
+            order.add(offset);
+            return offset;
+        }
+
+        /**
+         * 조회가 필요한 명령어 직전 또는 프로그램 끝까지 실행한다.
+         *
+         * @return 실행한 명령어 수, 한도를 넘으면 -1
+         */
+        private int runToProbe(State st) {
+            int steps = 0;
+            while (st.pc < n) {
+                if (steps > MAX_EDGE_STEPS) return -1;
+                int base = st.pc * STRIDE;
+                int op = code[base];
+                if (!st.lastValue && !EXEMPT[op]) {
+                    steps++;
+                    st.pc++;
+                    skip(st, base);
+                    continue;
+                }
+                int outcome = resolve(st, op, base);
+                if (outcome == NEEDS_PROBE) return steps;
+                steps++;
+                st.pc++;
+                apply(st, op, base, outcome);
+            }
+            return steps;
+        }
+
+        /** 종료 규칙 — BytecodeInterpreter와 같다 */
+        private void skip(State st, int base) {
+            if (st.numOpenBrace == 0) {
+                int info = code[base + SKIP_INFO];
+                switch (info & 3) {
+                    case SKIP_CHAIN:
+                        endChain(st);
+                        break;
+                    case SKIP_SCOPE:
+                        st.popScope();
+                        break;
+                    default:
+                        break;
+                }
+                st.numOpenBrace = info >>> 2;
+                st.pc = code[base + SKIP];
+            } else {
+                while (st.pc < n) {
+                    int tt = code[st.pc * STRIDE];
+                    if (tt == SEMICOLON) {
+                        endChain(st);
+                        st.pc++;
+                        break;
+                    } else if (tt == CLOSE_BRACE) {
+                        if (st.numOpenBrace > 0) {
+                            st.numOpenBrace--;
+                            st.pc++;
+                            continue;
+                        }
+                        st.popScope();
+                        st.pc++;
+                        break;
+                    } else if (tt == OPEN_BRACE) {
+                        st.numOpenBrace++;
+                        st.pc++;
+                    } else {
+                        st.pc++;
+                    }
+                }
+            }
+            st.lastValue = true;
+        }
+
+        private void endChain(State st) {
+            st.anchorX = 0; st.anchorY = 0;
+            if (st.tagsPending) {
+                emit(A_CLEAR_TAGS);
+                st.tagsPending = false;
+            }
+            st.doIndex = -1;
+            st.hasTake = false;
+            st.chainIndex++;
+        }
+
+        private boolean inBounds(int x, int y) {
+            return x >= 0 && x < width && y >= 0 && y < height;
+        }
+
+        /**
+         * 명령어의 조회 결과를 빌드 때 정할 수 있으면 그 결과, 조회가 아니면 NOT_PROBE,
+         * 실행 시 조회가 필요하면 probe* 필드를 채우고 NEEDS_PROBE.
+         */
+        private int resolve(State st, int op, int base) {
+            int tx = pieceX + st.anchorX + code[base + DX];
+            int ty = pieceY + st.anchorY + code[base + DY];
+            probeX = tx;
+            probeY = ty;
+            probeSym = -1;
+            probeValue = 0;
+            switch (op) {
+                case JUMP:
+                    if (!st.hasTake || !inBounds(tx, ty)) return R_OUTSIDE;
+                    probeKind = P_CELL;
+                    return NEEDS_PROBE;
+                case TAKE_MOVE: case MOVE: case TAKE: case CATCH: case SHIFT:
+                case OBSERVE: case PEEK: case ENEMY: case FRIENDLY:
+                    if (!inBounds(tx, ty)) return R_OUTSIDE;
+                    probeKind = P_CELL;
+                    return NEEDS_PROBE;
+                case PIECE_ON:
+                    if (!inBounds(tx, ty) || code[base + SYM] < 0) return R_FALSE;
+                    probeKind = P_NAME;
+                    probeSym = code[base + SYM];
+                    return NEEDS_PROBE;
+                case DANGER:
+                    probeKind = P_DANGER;
+                    return NEEDS_PROBE;
+                case CHECK:
+                    probeKind = P_CHECK;
+                    return NEEDS_PROBE;
+                case PIECE:
+                    if (code[base + SYM] < 0) return R_FALSE;
+                    probeKind = P_SELF;
+                    probeSym = code[base + SYM];
+                    return NEEDS_PROBE;
+                case IF_STATE:
+                    probeKind = P_STATE;
+                    probeSym = code[base + SYM];
+                    probeValue = code[base + ARG];
+                    return NEEDS_PROBE;
+                case IF_MOVE_STACK:
+                    if (!inBounds(tx, ty)) return R_EMPTY;
+                    probeKind = P_STACK;
+                    return NEEDS_PROBE;
+                default:
+                    return NOT_PROBE;
+            }
+        }
+
+        /** 명령어 하나를 조회 결과와 함께 적용한다 (pc는 이미 다음 명령어) — BytecodeInterpreter와 같다 */
+        private void apply(State st, int op, int base, int outcome) {
+            final int dx = code[base + DX];
+            final int dy = code[base + DY];
+            final int ox = st.anchorX + dx, oy = st.anchorY + dy;
+            final int tx = pieceX + ox, ty = pieceY + oy;
+
+            switch (op) {
+                // ── 구조 ──
+                case SEMICOLON:
+                    endChain(st);
+                    st.lastValue = true;
+                    break;
+                case OPEN_BRACE:
+                    st.pushScope();
+                    st.lastValue = true;
+                    break;
+                case CLOSE_BRACE:
+                    st.popScope();
+                    st.lastValue = true;
+                    break;
+
+                // ── 행마식 ──
+                case TAKE_MOVE:
+                    if (outcome == R_OUTSIDE || outcome == R_FRIENDLY) {
+                        st.lastValue = false;
+                    } else {
+                        add(ox, oy, TAKE_MOVE_TYPE, NO_CATCH, NO_CATCH);
+                        moveAnchor(st, dx, dy);
+                        st.lastValue = outcome != R_ENEMY;
+                    }
+                    break;
+                case MOVE:
+                    if (outcome == R_EMPTY) {
+                        add(ox, oy, MOVE_TYPE, NO_CATCH, NO_CATCH);
+                        moveAnchor(st, dx, dy);
+                        st.lastValue = true;
+                    } else {
+                        st.lastValue = false;
+                    }
+                    break;
+                case TAKE:
+                    if (outcome == R_ENEMY) {
+                        st.hasTake = true;
+                        st.takeX = ox; st.takeY = oy;
+                        add(ox, oy, TAKE_TYPE, NO_CATCH, NO_CATCH);
+                        moveAnchor(st, dx, dy);
+                        st.lastValue = true;
+                    } else if (outcome == R_EMPTY) {
+                        moveAnchor(st, dx, dy);
+                        st.lastValue = true;
+                    } else {
+                        st.lastValue = false;
+                    }
+                    break;
+                case JUMP:
+                    emit(A_REMOVE_LAST_IF_TAKE);
+                    if (st.hasTake && outcome == R_EMPTY) {
+                        add(ox, oy, JUMP_TYPE, st.takeX, st.takeY);
+                        moveAnchor(st, dx, dy);
+                        st.lastValue = true;
+                    } else {
+                        st.lastValue = false;
+                    }
+                    break;
+                case CATCH:
+                    if (outcome == R_ENEMY) {
+                        add(ox, oy, CATCH_TYPE, NO_CATCH, NO_CATCH);
+                        st.lastValue = true;
+                    } else {
+                        st.lastValue = false;
+                    }
+                    break;
+                case SHIFT:
+                    if (outcome == R_ENEMY || outcome == R_FRIENDLY) {
+                        add(ox, oy, SHIFT_TYPE, NO_CATCH, NO_CATCH);
+                        moveAnchor(st, dx, dy);
+                        st.lastValue = true;
+                    } else {
+                        st.lastValue = false;
+                    }
+                    break;
+                case ANCHOR:
+                    moveAnchor(st, dx, dy);
+                    st.lastValue = true;
+                    break;
+
+                // ── 조건식 ──
+                case OBSERVE:
+                    st.lastValue = outcome == R_EMPTY;
+                    break;
+                case PEEK:
+                    if (outcome == R_OUTSIDE) {
+                        st.lastValue = false;
+                    } else {
+                        moveAnchor(st, dx, dy);
+                        st.lastValue = outcome == R_EMPTY;
+                    }
+                    break;
+                case ENEMY:
+                    st.lastValue = outcome == R_ENEMY;
+                    break;
+                case FRIENDLY:
+                    st.lastValue = outcome == R_FRIENDLY;
+                    break;
+                case PIECE_ON:
+                case DANGER:
+                case CHECK:
+                case PIECE:
+                case IF_STATE:
+                    st.lastValue = outcome == R_TRUE;
+                    break;
+
+                // ── 기하 조건식: 출발 칸과 보드 크기만으로 결정 ──
+                case BOUND:
+                    st.lastValue = !inBounds(tx, ty);
+                    break;
+                case EDGE:
+                    st.lastValue = tx < 0 || tx >= width || ty < 0 || ty >= height;
+                    break;
+                case EDGE_TOP:
+                    st.lastValue = ty >= height;
+                    break;
+                case EDGE_BOTTOM:
+                    st.lastValue = ty < 0;
+                    break;
+                case EDGE_LEFT:
+                    st.lastValue = tx < 0;
+                    break;
+                case EDGE_RIGHT:
+                    st.lastValue = tx >= width;
+                    break;
+                case CORNER:
+                    st.lastValue = (tx < 0 || tx >= width) && (ty < 0 || ty >= height);
+                    break;
+                case CORNER_TOP_LEFT:
+                    st.lastValue = tx < 0 && ty >= height;
+                    break;
+                case CORNER_TOP_RIGHT:
+                    st.lastValue = tx >= width && ty >= height;
+                    break;
+                case CORNER_BOTTOM_LEFT:
+                    st.lastValue = tx < 0 && ty < 0;
+                    break;
+                case CORNER_BOTTOM_RIGHT:
+                    st.lastValue = tx >= width && ty < 0;
+                    break;
+
+                // ── 상태 ──
+                case SET_STATE:
+                case TRANSITION:
+                    emit(A_STATIC_TAG, st.pc - 1);
+                    st.tagsPending = true;
+                    st.lastValue = true;
+                    break;
+                case SET_STATE_RESET:
+                    emit(A_REMOVE_LAST_TAG);
+                    st.lastValue = true;
+                    break;
+
+                // ── 스택 관련 ──
+                case IF_MOVE_STACK:
+                    if (outcome == R_ENEMY || outcome == R_NO_STACK) {
+                        st.lastValue = false;
+                    } else if (outcome == R_STACK) {
+                        st.usableX = tx; st.usableY = ty;
+                        st.lastValue = true;
+                    } else {
+                        emit(A_USE_STACK, st.usableX, st.usableY);
+                        st.tagsPending = true;
+                        st.lastValue = true;
+                    }
+                    break;
+                case USE_MOVE_STACK:
+                    emit(A_USE_STACK, st.usableX, st.usableY);
+                    st.tagsPending = true;
+                    st.lastValue = true;
+                    break;
+
+                // ── 제어 ──
+                case REPEAT: {
+                    int target = code[base + TARGET];
+                    if (st.lastValue && target >= 0) st.pc = target;
+                    break;
+                }
+                case DO:
+                    if (st.lastValue) st.doIndex = code[base + TARGET];
+                    break;
+                case WHILE:
+                    if (st.lastValue && st.doIndex >= 0) st.pc = st.doIndex;
+                    st.lastValue = true;
+                    break;
+                case JMP:
+                    if (st.lastValue) st.pc = BytecodeInterpreter.jumpTarget(program, base, st.chainIndex, st.pc);
+                    st.lastValue = true;
+                    break;
+                case JNE:
+                    if (!st.lastValue) st.pc = BytecodeInterpreter.jumpTarget(program, base, st.chainIndex, st.pc);
+                    st.lastValue = true;
+                    break;
+                case NOT:
+                    st.lastValue = !st.lastValue;
+                    break;
+                case END:
+                    st.lastValue = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private static void moveAnchor(State st, int dx, int dy) {
+            st.anchorX += dx;
+            st.anchorY += dy;
+        }
+
+        private void add(int ox, int oy, int type, int catchX, int catchY) {
+            emit(A_ADD, ox, oy, type, catchX, catchY);
+        }
+
+        private void emit(int... words) {
+            if (actionLength + words.length > actions.length) {
+                actions = Arrays.copyOf(actions, Math.max(actionLength + words.length, actions.length * 2));
+            }
+            System.arraycopy(words, 0, actions, actionLength, words.length);
+            actionLength += words.length;
+        }
+    }
+}
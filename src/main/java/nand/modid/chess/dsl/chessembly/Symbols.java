@@ -0,0 +1,91 @@
+package nand.modid.chess.dsl.chessembly;
+
+/**
+ * Symbols — Chessembly 키워드 표와 피연산자 문자열(기물 이름, 상태 키, 라벨)의 심볼 표.
+ *
+ * 키워드 표는 클래스 초기화 때 한 번 만들고 바꾸지 않으므로 락 없이 어느 스레드에서나 조회한다.
+ * 피연산자는 {@link Lexer}마다 가진 {@link Table}로 중복을 없앤다 — 표가 렉서와 함께 사라지므로
+ * 전역 락도, 사용자 스크립트가 키울 수 있는 전역 상한도 없다.
+ * 어느 쪽이든 {@link CharSequence}의 구간을 그대로 조회하므로, 이미 있는 이름은 새 String을 만들지 않는다.
+ */
+final class Symbols {
+
+    private Symbols() {}
+
+    /** 키워드가 아닌 단어의 keyword 값 */
+    static final int NOT_KEYWORD = -1;
+
+    // 키워드 → 번호 (열린 주소법, 초기화 뒤 읽기 전용)
+    private static final String[] KEYWORD_NAMES;
+    private static final int[] KEYWORD_IDS;
+
+    static {
+        String[] words = Lexer.KEYWORDS;
+        int size = Integer.highestOneBit(words.length * 4 - 1) << 1;
+        KEYWORD_NAMES = new String[size];
+        KEYWORD_IDS = new int[size];
+        for (int id = 0; id < words.length; id++) {
+            int i = slot(KEYWORD_NAMES, words[id], 0, words[id].length());
+            if (i >= 0) throw new IllegalStateException("중복 키워드: " + words[id]);
+            KEYWORD_NAMES[-i - 1] = words[id];
+            KEYWORD_IDS[-i - 1] = id;
+        }
+    }
+
+    /** 구간 [start, end)의 해시 — String.hashCode()와 같은 값 */
+    static int hash(CharSequence s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) h = 31 * h + s.charAt(i);
+        return h;
+    }
+
+    private static boolean same(String name, CharSequence s, int start, int end) {
+        if (name.length() != end - start) return false;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != s.charAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    /** names에서 구간과 같은 이름의 칸, 없으면 -(빈 칸 + 1) — names 길이는 2의 거듭제곱이고 빈 칸이 있어야 한다 */
+    private static int slot(String[] names, CharSequence s, int start, int end) {
+        int mask = names.length - 1;
+        int i = hash(s, start, end) & mask;
+        while (true) {
+            String name = names[i];
+            if (name == null) return -(i + 1);
+            if (same(name, s, start, end)) return i;
+            i = (i + 1) & mask;
+        }
+    }
+
+    /** 구간이 키워드면 그 번호, 아니면 {@link #NOT_KEYWORD} */
+    static int keyword(CharSequence s, int start, int end) {
+        int i = slot(KEYWORD_NAMES, s, start, end);
+        return i >= 0 ? KEYWORD_IDS[i] : NOT_KEYWORD;
+    }
+
+    /** 렉서 하나의 피연산자 표 — 한 스레드에서만 쓴다 */
+    static final class Table {
+        private String[] names = new String[32];
+        private int count;
+
+        /** 구간에 해당하는 문자열 — 같은 표에서 같은 이름은 같은 인스턴스 */
+        String intern(CharSequence s, int start, int end) {
+            int i = slot(names, s, start, end);
+            if (i >= 0) return names[i];
+            String name = s.subSequence(start, end).toString();
+            names[-i - 1] = name;
+            if (++count * 2 > names.length) rehash();
+            return name;
+        }
+
+        private void rehash() {
+            String[] old = names;
+            names = new String[old.length * 2];
+            for (String name : old) {
+                if (name != null) names[-slot(names, name, 0, name.length()) - 1] = name;
+            }
+        }
+    }
+}
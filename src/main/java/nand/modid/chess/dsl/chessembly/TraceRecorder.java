@@ -0,0 +1,169 @@
+package nand.modid.chess.dsl.chessembly;
+
+import java.util.*;
+
+/**
+ * TraceRecorder — 디버그 모드 실행 추적을 고정 크기 링 버퍼에 이진 이벤트로 기록한다.
+ *
+ * 실행 중에는 문자열을 만들지 않고 int 몇 개만 쓴다. 사람이 읽는 형식은
+ * {@link #format(int)}을 호출할 때(/chess debug, /chess trace) 비로소 만든다.
+ * 버퍼가 차면 가장 오래된 이벤트부터 덮어쓴다.
+ *
+ * 이벤트 하나는 {@link #EVENT_INTS}개의 int이다.
+ * <pre>
+ * [HEAD] [A] [B] [C]
+ * HEAD = 종류 | (opcode 또는 이동 종류) &lt;&lt; 8 | lastValue &lt;&lt; 16
+ * BEGIN      : A = 기물 x, B = 기물 y, C = 토큰 수      (토큰 목록·기물 이름은 참조 배열에 보관)
+ * STEP       : A = pc, B = 앵커 x, C = 앵커 y          (opcode = TokenType.ordinal())
+ * ACTIVATION : A = dx, B = dy, C = 0                   (이동 종류 = MoveType.ordinal())
+ * END        : A = 단계 수, B = 활성화 수, C = 예산 초과 여부
+ * </pre>
+ * 스레드마다 하나씩 있으며({@link #forCurrentThread()}), 처음 기록할 때 배열을 만든다.
+ */
+public final class TraceRecorder {
+
+    /** -Dstasischess.trace.events — 스레드별 링 버퍼의 이벤트 수 */
+    public static final int CAPACITY = Math.max(64, Integer.getInteger("stasischess.trace.events", 16_384));
+
+    static final int EVENT_INTS = 4;
+    static final int BEGIN = 0, STEP = 1, ACTIVATION = 2, END = 3;
+
+    private static final AST.TokenType[] TOKEN_TYPES = AST.TokenType.values();
+    private static final AST.MoveType[] MOVE_TYPES = AST.MoveType.values();
+
+    private static final ThreadLocal<TraceRecorder> RECORDERS = ThreadLocal.withInitial(TraceRecorder::new);
+
+    /** 현재 스레드의 기록기 */
+    public static TraceRecorder forCurrentThread() {
+        return RECORDERS.get();
+    }
+
+    private int[] events;
+    /** BEGIN 이벤트의 토큰 목록과 기물 이름 (다른 이벤트 칸은 null) */
+    private Object[] tokenLists;
+    private String[] pieceNames;
+    /** 지금까지 기록한 이벤트 수 (덮어쓴 것 포함) */
+    private long written;
+
+    private TraceRecorder() {}
+
+    // ── 기록 ──────────────────────────────────────────
+
+    private int slot() {
+        if (events == null) {
+            events = new int[CAPACITY * EVENT_INTS];
+            tokenLists = new Object[CAPACITY];
+            pieceNames = new String[CAPACITY];
+        }
+        int slot = (int) (written % CAPACITY);
+        written++;
+        return slot;
+    }
+
+    private void put(int slot, int head, int a, int b, int c) {
+        int base = slot * EVENT_INTS;
+        events[base] = head;
+        events[base + 1] = a;
+        events[base + 2] = b;
+        events[base + 3] = c;
+    }
+
+    void begin(List<AST.Token> tokens, BuiltinOps.BoardState board) {
+        int slot = slot();
+        put(slot, BEGIN, board.pieceX, board.pieceY, tokens.size());
+        tokenLists[slot] = tokens;
+        pieceNames[slot] = board.pieceName;
+    }
+
+    void step(int pc, AST.TokenType type, int anchorX, int anchorY, boolean lastValue) {
+        int slot = slot();
+        put(slot, STEP | type.ordinal() << 8 | (lastValue ? 1 << 16 : 0), pc, anchorX, anchorY);
+        tokenLists[slot] = null;
+        pieceNames[slot] = null;
+    }
+
+    void activation(int dx, int dy, AST.MoveType type) {
+        int slot = slot();
+        put(slot, ACTIVATION | type.ordinal() << 8, dx, dy, 0);
+        tokenLists[slot] = null;
+        pieceNames[slot] = null;
+    }
+
+    void end(int steps, int activations, boolean budgetExceeded) {
+        int slot = slot();
+        put(slot, END, steps, activations, budgetExceeded ? 1 : 0);
+        tokenLists[slot] = null;
+        pieceNames[slot] = null;
+    }
+
+    /** 기록 비우기 */
+    public void clear() {
+        written = 0;
+        if (tokenLists != null) {
+            Arrays.fill(tokenLists, null);
+            Arrays.fill(pieceNames, null);
+        }
+    }
+
+    /** 버퍼에 남아 있는 이벤트 수 */
+    public int size() {
+        return (int) Math.min(written, CAPACITY);
+    }
+
+    // ── 출력 ──────────────────────────────────────────
+
+    /**
+     * 최근 실행들을 사람이 읽는 형식으로 만든다.
+     *
+     * @param maxRuns 최근 실행 몇 개를 출력할지 (덮어써져 시작이 잘린 실행은 제외)
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> format(int maxRuns) {
+        List<String> lines = new ArrayList<>();
+        int count = size();
+        if (count == 0 || maxRuns <= 0) return lines;
+        long first = written - count;
+
+        // 뒤에서부터 BEGIN을 maxRuns개 찾는다
+        long start = -1;
+        int runs = 0;
+        for (long e = written - 1; e >= first && runs < maxRuns; e--) {
+            if ((events[(int) (e % CAPACITY) * EVENT_INTS] & 0xFF) == BEGIN) {
+                start = e;
+                runs++;
+            }
+        }
+        if (start < 0) return lines;
+
+        List<AST.Token> tokens = Collections.emptyList();
+        for (long e = start; e < written; e++) {
+            int slot = (int) (e % CAPACITY);
+            int base = slot * EVENT_INTS;
+            int head = events[base];
+            int a = events[base + 1], b = events[base + 2], c = events[base + 3];
+            switch (head & 0xFF) {
+                case BEGIN:
+                    tokens = (List<AST.Token>) tokenLists[slot];
+                    lines.add(String.format("[trace] %s at (%d, %d), %d tokens", pieceNames[slot], a, b, c));
+                    break;
+                case STEP: {
+                    String token = a < tokens.size() ? tokens.get(a).toString()
+                                                     : TOKEN_TYPES[(head >>> 8) & 0xFF].name();
+                    lines.add(String.format("  [PC:%d] %s | Anchor(%d,%d) | last=%b",
+                            a, token, b, c, (head & 1 << 16) != 0));
+                    break;
+                }
+                case ACTIVATION:
+                    lines.add(String.format("    → Activation(%d, %d) %s", a, b, MOVE_TYPES[(head >>> 8) & 0xFF]));
+                    break;
+                case END:
+                    lines.add(String.format("[trace] end: %d steps, %d activations%s", a, b,
+                            c != 0 ? " (budget exceeded)" : ""));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,98 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.*;
+import nand.modid.chess.dsl.chessembly.*;
+
+/**
+ * BoardAnalysis — 공격 지도, 기동성 히트맵처럼 한 기물 종류의 행마를 여러 칸에서 알아야 하는 분석.
+ *
+ * 기물 종류마다 {@link BitboardEvaluator}로 그 종류가 있는(또는 있을 수 있는) 모든 칸을 한 번에 실행한다.
+ * 기물 상태·변환·이동 스택 식이 있어 비트보드로 표현할 수 없는 스크립트는 공격 지도에서는 기물마다
+ * {@link CompiledScript#run}으로 실행해 같은 결과를 내고, 가정한 칸에 기물을 놓는 기동성 지도에서는 거부한다.
+ *
+ * 결과는 행마가 닿는 칸(이동 종류 무관, 비트 = y * BOARD_WIDTH + x)이며 턴·스턴·이동 스택 소진과 무관하다 —
+ * 합법 수가 아니라 영향 범위다. 합법 수 캐시와 실행 비용 통계({@link ScriptCostStats})에는 남기지 않는다.
+ */
+public final class BoardAnalysis {
+
+    private BoardAnalysis() {}
+
+    private static final Piece.PieceKind[] KINDS = Piece.PieceKind.values();
+
+    /** 비트보드로 표현할 수 없는 스크립트의 기물별 실행용 버퍼 */
+    private static final ThreadLocal<ActivationBuffer> BUFFER = ThreadLocal.withInitial(ActivationBuffer::new);
+
+    /**
+     * 플레이어 기물(중립기물 제외)의 행마가 닿는 칸.
+     *
+     * @param player 0 = 백, 1 = 흑
+     */
+    public static long attackMap(GameState state, int player) {
+        boolean white = player == 0;
+        // 기물 종류(위장 반영) → 그 종류인 자기 기물의 칸
+        long[] origins = new long[KINDS.length];
+        for (long own = state.getOccupancy(player); own != 0; own &= own - 1) {
+            int sq = Long.numberOfTrailingZeros(own);
+            Piece.PieceData p = state.getPieceAt(Move.Square.ofIndex(sq));
+            if (p != null) origins[p.effectiveKind().ordinal()] |= 1L << sq;
+        }
+
+        long reach = 0L;
+        for (Piece.PieceKind kind : KINDS) {
+            long from = origins[kind.ordinal()];
+            if (from == 0L) continue;
+            CompiledScript script = state.getScripts().get(kind, white);
+            BitboardEvaluator evaluator = script.bitboard();
+            if (evaluator != null) {
+                reach |= evaluator.evaluate(view(state, white, kind), from).reach(from);
+                continue;
+            }
+            for (; from != 0; from &= from - 1) {
+                Piece.PieceData p = state.getPieceAt(Move.Square.ofIndex(Long.numberOfTrailingZeros(from)));
+                reach |= scalarReach(state, p, script);
+            }
+        }
+        return reach;
+    }
+
+    /**
+     * 현재 보드에서 kind 기물을 각 칸에 놓았을 때 닿는 칸 수 (기동성 히트맵, 인덱스 = y * BOARD_WIDTH + x).
+     * 그 칸에 다른 기물이 있으면 그 기물을 대신한다.
+     *
+     * @param player 기물의 색 (0 = 백, 1 = 흑)
+     * @throws IllegalArgumentException 행마법을 비트보드로 표현할 수 없을 때
+     */
+    public static int[] mobilityMap(GameState state, Piece.PieceKind kind, int player) {
+        boolean white = player == 0;
+        CompiledScript script = state.getScripts().get(kind, white);
+        BitboardEvaluator evaluator = script.bitboard();
+        if (evaluator == null) evaluator = BitboardEvaluator.compile(script);   // 거부 사유와 함께 던진다
+        BitboardEvaluator.Result result = evaluator.evaluate(view(state, white, kind));
+        int[] mobility = new int[RuleSet.BOARD_WIDTH * RuleSet.BOARD_HEIGHT];
+        for (int sq = 0; sq < mobility.length; sq++) mobility[sq] = result.mobility(sq);
+        return mobility;
+    }
+
+    /** 색 관점 뷰에 이동하는 기물의 종류만 정한다 (위치는 분석기가 쓰지 않는다) */
+    private static BuiltinOps.BoardState view(GameState state, boolean white, Piece.PieceKind kind) {
+        BuiltinOps.BoardState view = state.toChessemblyView(white);
+        view.pieceName = kind.scriptName();
+        view.pieceKind = kind.ordinal();
+        return view;
+    }
+
+    /** 기물 하나를 스칼라 실행기로 실행해 닿는 칸 */
+    private static long scalarReach(GameState state, Piece.PieceData piece, CompiledScript script) {
+        BuiltinOps.BoardState board = state.toChessemblyBoard(piece);
+        if (board == null) return 0L;
+        ActivationBuffer buf = BUFFER.get();
+        script.run(board, buf);
+        long reach = 0L;
+        for (int i = 0; i < buf.size(); i++) {
+            int tx = piece.pos.x + buf.dx(i), ty = piece.pos.y + buf.dy(i);
+            if (tx < 0 || tx >= RuleSet.BOARD_WIDTH || ty < 0 || ty >= RuleSet.BOARD_HEIGHT) continue;
+            reach |= 1L << (ty * RuleSet.BOARD_WIDTH + tx);
+        }
+        return reach;
+    }
+}
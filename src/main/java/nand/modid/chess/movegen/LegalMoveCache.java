@@ -0,0 +1,145 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.Piece;
+import nand.modid.chess.dsl.chessembly.AST;
+import nand.modid.chess.dsl.chessembly.BuiltinOps;
+
+import java.util.*;
+
+/**
+ * LegalMoveCache — 기물별 합법 수 캐시. {@link nand.modid.chess.core.GameState}가 하나씩 가진다.
+ *
+ * 항목마다 행마법 실행이 조회한 칸의 비트 집합(읽기 집합)을 함께 저장한다. 게임 상태가 칸의 내용을
+ * 바꾸면 {@link #invalidate(long)}로 바뀐 칸을 알리고, 다음 조회 때 읽기 집합이 겹치는 항목만 버린다.
+ * 따라서 수 하나를 둔 뒤 보드 전체를 다시 조회해도 행마법은 영향을 받은 기물만 다시 실행된다.
+ *
+ * 기물 자신의 변화(위치, 종류, 색 관점, 상태)는 조회 때 항목에 저장한 값과 비교하여 확인하므로
+ * 필드를 직접 바꿔도 잘못된 결과를 돌려주지 않는다. 다른 기물의 이동 스택이나 위협 칸을 읽은
+ * 실행(READS_STACK, READS_DANGER, READS_UNTRACKED)은 칸만으로 무효화할 수 없어 저장하지 않는다.
+ * 행마법 세대가 바뀌면 전부 버린다. 항목은 기물 핸들로 찾는 배열에 둔다 — 잡힌 기물의 핸들은
+ * 재사용되므로 GameState는 잡을 때 {@link #remove(int)}로 항목을 지운다.
+ */
+public final class LegalMoveCache {
+
+    private static final int UNCACHEABLE = BuiltinOps.BoardState.READS_STACK
+            | BuiltinOps.BoardState.READS_DANGER | BuiltinOps.BoardState.READS_UNTRACKED;
+
+    static final class Entry {
+        final int x, y;
+        final Piece.PieceKind kind;
+        final boolean perspectiveWhite;
+        /** READS_STATE인 경우에만 비교하는 기물 상태 사본 */
+        final boolean readsState;
+        final Piece.PieceState state;
+        final long readSet;
+        /** {@link PackedMoveList} 형식의 수 (PIECE 칸은 추가할 때 덮어쓴다) */
+        final int[] moves;
+        final List<AST.ActionTag>[] tags;
+
+        Entry(Piece.PieceData piece, boolean perspectiveWhite, long readSet, int readFlags,
+              int[] moves, List<AST.ActionTag>[] tags) {
+            this.x = piece.pos.x;
+            this.y = piece.pos.y;
+            this.kind = piece.effectiveKind();
+            this.perspectiveWhite = perspectiveWhite;
+            this.readsState = (readFlags & BuiltinOps.BoardState.READS_STATE) != 0;
+            this.state = readsState ? piece.state.copy() : null;
+            this.readSet = readSet;
+            this.moves = moves;
+            this.tags = tags;
+        }
+
+        boolean matches(Piece.PieceData piece, boolean perspectiveWhite) {
+            return piece.pos.x == x && piece.pos.y == y
+                    && piece.effectiveKind() == kind
+                    && this.perspectiveWhite == perspectiveWhite
+                    && (!readsState || piece.state.equals(state));
+        }
+    }
+
+    /** 핸들 → 항목, 없으면 null */
+    private Entry[] entries = new Entry[32];
+    /** 아직 항목에 반영하지 않은 바뀐 칸 */
+    private long dirty;
+    private ScriptRegistry.Generation generation;
+
+    private long hits, misses;
+
+    public LegalMoveCache() {}
+
+    /** 칸 내용이 바뀌었음을 알린다 (비트 = y*8+x) */
+    public void invalidate(long squares) {
+        dirty |= squares;
+    }
+
+    /** 전부 버린다 */
+    public void clear() {
+        Arrays.fill(entries, null);
+        dirty = 0L;
+    }
+
+    /** 캐시된 기물 수 */
+    public int size() {
+        sweep();
+        int n = 0;
+        for (Entry e : entries) {
+            if (e != null) n++;
+        }
+        return n;
+    }
+
+    /** 캐시에서 찾은 횟수 */
+    public long hits() { return hits; }
+
+    /** 행마법을 다시 실행한 횟수 */
+    public long misses() { return misses; }
+
+    private void sweep() {
+        if (dirty == 0L) return;
+        long changed = dirty;
+        dirty = 0L;
+        for (int h = 0; h < entries.length; h++) {
+            Entry e = entries[h];
+            if (e != null && (e.readSet & changed) != 0) entries[h] = null;
+        }
+    }
+
+    /** 유효한 항목, 없으면 null */
+    Entry lookup(Piece.PieceData piece, boolean perspectiveWhite, ScriptRegistry.Generation scripts) {
+        if (generation != scripts) {
+            clear();
+            generation = scripts;
+        }
+        sweep();
+        int h = piece.handle();
+        Entry e = h >= 0 && h < entries.length ? entries[h] : null;
+        if (e != null && e.matches(piece, perspectiveWhite)) {
+            hits++;
+            return e;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * 실행 결과 저장 — out의 [first, out.size()) 구간이 이 기물의 수.
+     * 칸으로 무효화할 수 없는 의존성이 있으면 저장하지 않는다.
+     */
+    void store(Piece.PieceData piece, boolean perspectiveWhite, long readSet, int readFlags,
+               PackedMoveList out, int first) {
+        int h = piece.handle();
+        if (h < 0) return;
+        if ((readFlags & UNCACHEABLE) != 0) {
+            remove(h);
+            return;
+        }
+        if (h >= entries.length) entries = Arrays.copyOf(entries, Math.max(h + 1, entries.length * 2));
+        entries[h] = new Entry(piece, perspectiveWhite, readSet, readFlags,
+                out.copyData(first, out.size()), out.copyTags(first, out.size()));
+    }
+
+    /** 보드에서 사라진 기물의 항목 제거 */
+    public void remove(int handle) {
+        if (handle >= 0 && handle < entries.length) entries[handle] = null;
+    }
+}
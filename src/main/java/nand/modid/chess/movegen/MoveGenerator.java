@@ -8,11 +8,27 @@ import java.util.*;
 /**
  * MoveGenerator — Chessembly 인터프리터를 사용하여 합법 수를 생성한다.
  * Rust의 GameState::get_legal_moves()를 별도 클래스로 분리.
+ *
+ * 스크립트는 게임이 이번 턴에 고정한 {@link ScriptRegistry} 세대(외부 파일 또는 {@link ScriptCache}의
+ * 내장 스크립트)에서 컴파일된 프로그램을 가져와 실행하므로 호출마다 다시 렉싱하지 않는다. 평소에는 {@link CompiledScript#run}으로 실행하여
+ * 바이트코드 실행기 또는 승격된 JVM 클래스를 사용하고 ({@code -Dstasischess.jit=false}면 출발 칸 특수화도 없이 항상 실행기),
+ * 디버그 모드에서는 실행 추적({@link TraceRecorder})을 남기기 위해 토큰 인터프리터를 사용한다.
+ * 어느 경로든 {@link ExecutionBudget}을 넘긴 스크립트는 수를 하나도 내지 않으며,
+ * 실행 비용은 {@link ScriptCostStats}에 기물 종류별로 기록된다.
+ * 한 진영 전체가 필요하면 {@link #generateAllForSide}로 보드 상태를 공유하며 한 번에 생성한다.
+ *
+ * 디버그 모드가 아니면 결과를 게임의 {@link LegalMoveCache}에 읽기 집합과 함께 저장하고,
+ * 기물과 그 기물이 조회한 칸이 바뀌지 않았으면 행마법을 다시 실행하지 않는다.
+ *
+ * 수 하나만 알면 되는 질의({@link #findMove}, {@link #hasLegalMove}, {@link #countLegalMoves})는
+ * 캐시에 결과가 없으면 {@link ActivationBuffer}의 질의 모드로 답이 확정되는 즉시 실행을 멈춘다.
+ * 일부만 실행한 결과는 캐시하지 않고 실행 비용 통계에도 넣지 않는다.
  */
 public final class MoveGenerator {
 
     private MoveGenerator() {}
 
+
     /**
      * 특정 기물의 모든 합법 수를 계산한다.
      *
@@ -21,47 +37,259 @@ public final class MoveGenerator {
      * @return 합법 수 목록
      */
     public static List<Move.LegalMove> generateLegalMoves(GameState state, String pieceId) {
-        List<Move.LegalMove> legalMoves = new ArrayList<>();
+        return generateLegalMoves(state, state.getPiece(pieceId));
+    }
 
-        Piece.PieceData piece = state.getPiece(pieceId);
+    /** {@link #generateLegalMoves(GameState, String)}와 같되 기물을 핸들로 찾는다 */
+    public static List<Move.LegalMove> generateLegalMoves(GameState state, int handle) {
+        return generateLegalMoves(state, state.getPiece(handle));
+    }
+
+    private static List<Move.LegalMove> generateLegalMoves(GameState state, Piece.PieceData piece) {
         if (piece == null || !piece.canMove() || piece.pos == null) {
-            return legalMoves;
+            return new ArrayList<>();
         }
 
-        Move.Square pos = piece.pos;
+        PackedMoveList out = SINGLE.get();
+        out.clear();
+        int index = out.addPiece(piece);
+        if (!appendCached(state, piece, index, out)) {
+            // Chessembly 보드 상태 생성
+            BuiltinOps.BoardState board = state.toChessemblyBoard(piece);
+            if (board == null) return new ArrayList<>();
+            collect(state, piece, index, board, out);
+        }
+
+        List<Move.LegalMove> legalMoves = new ArrayList<>(out.size());
+        for (int i = 0; i < out.size(); i++) legalMoves.add(out.toLegalMove(i));
+        return legalMoves;
+    }
 
-        // Chessembly 보드 상태 생성
-        BuiltinOps.BoardState board = state.toChessemblyBoard(pieceId);
-        if (board == null) return legalMoves;
+    /**
+     * 한 플레이어가 이번 턴에 움직일 수 있는 모든 기물(자기 기물과 중립기물)의 합법 수를 한 번에 계산한다.
+     *
+     * 기물마다 보드 상태를 찾는 대신 색 관점별 뷰를 한 번만 받아 (보통 자기 색과 중립기물용
+     * 현재 턴 색, 같으면 하나) 기물 위치·이름만 바꿔 가며 공유한다. 기물은 (y, x) 순서로 평가하며,
+     * 결과는 기물별로 {@link #generateLegalMoves}와 같다.
+     *
+     * @param state  현재 게임 상태
+     * @param player 플레이어 (0 = 백, 1 = 흑)
+     * @return 합법 수 목록 (새 인스턴스)
+     */
+    public static PackedMoveList generateAllForSide(GameState state, int player) {
+        PackedMoveList out = new PackedMoveList();
+        generateAllForSide(state, player, out);
+        return out;
+    }
 
+    /** {@link #generateAllForSide(GameState, int)}와 같되, 호출자의 목록을 비우고 재사용한다 */
+    public static void generateAllForSide(GameState state, int player, PackedMoveList out) {
+        out.clear();
+
+        // 중립기물의 관점은 기물마다가 아니라 현재 턴으로 한 번만 정한다
+        boolean neutralWhite = state.getTurn() == 0;
+        BuiltinOps.BoardState whiteView = null, blackView = null;
+
+        // 비트 순서(y * 8 + x)가 곧 (y, x) 평가 순서다
+        for (long movers = state.getOccupancy(player) | state.getNeutralOccupancy(); movers != 0; movers &= movers - 1) {
+            Piece.PieceData piece = state.getPieceAt(Move.Square.ofIndex(Long.numberOfTrailingZeros(movers)));
+            if (piece == null || !piece.canMove()) continue;
+            int index = out.addPiece(piece);
+            if (appendCached(state, piece, index, out)) continue;
+
+            boolean perspective = piece.isNeutral() ? neutralWhite : piece.isWhite();
+            BuiltinOps.BoardState view;
+            if (perspective) {
+                if (whiteView == null) whiteView = state.toChessemblyView(true);
+                view = whiteView;
+            } else {
+                if (blackView == null) blackView = state.toChessemblyView(false);
+                view = blackView;
+            }
+            view.pieceX = piece.pos.x;
+            view.pieceY = piece.pos.y;
+            Piece.PieceKind kind = piece.effectiveKind();
+            view.pieceName = kind.scriptName();
+            view.pieceKind = kind.ordinal();
+            collect(state, piece, index, view, out);
+        }
+    }
+
+    // ── 조기 종료 질의 ─────────────────────────────────
+
+    /**
+     * 기물이 to로 가는 첫 합법 수, 없으면 null. {@link #generateLegalMoves} 목록에서 to로 가는 첫 수와 같다.
+     * 행마법은 그 칸으로 가는 활성화가 확정되는 즉시 멈춘다.
+     */
+    public static Move.LegalMove findMove(GameState state, String pieceId, Move.Square to) {
+        return findMove(state, state.getPiece(pieceId), to);
+    }
+
+    public static Move.LegalMove findMove(GameState state, int handle, Move.Square to) {
+        return findMove(state, state.getPiece(handle), to);
+    }
+
+    private static Move.LegalMove findMove(GameState state, Piece.PieceData piece, Move.Square to) {
+        if (piece == null || !piece.canMove() || piece.pos == null || to == null) return null;
+        if (state.isDebugMode()) {
+            // 디버그 모드는 전체 실행 추적을 남긴다
+            for (Move.LegalMove m : generateLegalMoves(state, piece)) {
+                if (m.to.equals(to)) return m;
+            }
+            return null;
+        }
+
+        PackedMoveList out = SINGLE.get();
+        out.clear();
+        int index = out.addPiece(piece);
+        if (appendCached(state, piece, index, out)) {
+            for (int i = 0; i < out.size(); i++) {
+                if (out.toX(i) == to.x && out.toY(i) == to.y) return out.toLegalMove(i);
+            }
+            return null;
+        }
+
+        BuiltinOps.BoardState board = state.toChessemblyBoard(piece);
+        if (board == null) return null;
+        ActivationBuffer buf = QUERY.get();
+        buf.queryReaches(to.x - piece.pos.x, to.y - piece.pos.y);
+        scriptFor(state, piece).run(board, buf);
+        int match = buf.match();
+        if (match < 0) return null;
+        addActivation(out, index, board, piece.pos, buf, match);
+        return out.toLegalMove(0);
+    }
+
+    /** 기물에게 합법 수가 하나라도 있는지 — 행마법은 첫 활성화가 확정되면 멈춘다 */
+    public static boolean hasLegalMove(GameState state, String pieceId) {
+        return countLegalMoves(state, pieceId, 1) > 0;
+    }
+
+    public static boolean hasLegalMove(GameState state, int handle) {
+        return countLegalMoves(state, handle, 1) > 0;
+    }
+
+    /**
+     * 기물의 합법 수 개수, 단 limit개에서 세기를 멈춘다 (반환값은 최대 limit).
+     * 수 목록을 만들지 않으므로 limit이 크더라도 {@link #generateLegalMoves}보다 싸다.
+     */
+    public static int countLegalMoves(GameState state, String pieceId, int limit) {
+        return countLegalMoves(state, state.getPiece(pieceId), limit);
+    }
+
+    public static int countLegalMoves(GameState state, int handle, int limit) {
+        return countLegalMoves(state, state.getPiece(handle), limit);
+    }
+
+    private static int countLegalMoves(GameState state, Piece.PieceData piece, int limit) {
+        if (piece == null || !piece.canMove() || piece.pos == null || limit <= 0) return 0;
+        if (state.isDebugMode()) return Math.min(generateLegalMoves(state, piece).size(), limit);
+
+        PackedMoveList out = SINGLE.get();
+        out.clear();
+        int index = out.addPiece(piece);
+        if (appendCached(state, piece, index, out)) return Math.min(out.size(), limit);
+
+        BuiltinOps.BoardState board = state.toChessemblyBoard(piece);
+        if (board == null) return 0;
+        ActivationBuffer buf = QUERY.get();
+        buf.queryCount(limit);
+        scriptFor(state, piece).run(board, buf);
+        return Math.min(buf.size(), limit);
+    }
+
+    /** 스레드별 재사용 결과 버퍼 */
+    private static final ThreadLocal<ActivationBuffer> BUFFER = ThreadLocal.withInitial(ActivationBuffer::new);
+
+    /** 질의용 스레드별 버퍼 (질의 모드가 생성용 버퍼에 남지 않도록 따로 둔다) */
+    private static final ThreadLocal<ActivationBuffer> QUERY = ThreadLocal.withInitial(ActivationBuffer::new);
+
+    /** generateLegalMoves용 스레드별 재사용 수 목록 */
+    private static final ThreadLocal<PackedMoveList> SINGLE = ThreadLocal.withInitial(PackedMoveList::new);
+
+    /** 중립기물은 현재 플레이어(turn)의 색 관점에서 방향을 결정한다 (예: 폰 방향) */
+    private static boolean perspectiveOf(GameState state, Piece.PieceData piece) {
+        return piece.isNeutral() ? (state.getTurn() == 0) : piece.isWhite();
+    }
+
+    private static CompiledScript scriptFor(GameState state, Piece.PieceData piece) {
+        return state.getScripts().get(piece.effectiveKind(), perspectiveOf(state, piece));
+    }
+
+    /** 디버그 모드는 실행 추적을 남겨야 하므로 캐시를 쓰지 않는다 */
+    private static LegalMoveCache cacheOf(GameState state) {
+        return state.isDebugMode() ? null : state.getMoveCache();
+    }
+
+    /** 캐시에 유효한 결과가 있으면 out에 추가하고 true */
+    private static boolean appendCached(GameState state, Piece.PieceData piece, int index, PackedMoveList out) {
+        LegalMoveCache cache = cacheOf(state);
+        if (cache == null) return false;
+        LegalMoveCache.Entry cached = cache.lookup(piece, perspectiveOf(state, piece), state.getScripts());
+        if (cached == null) return false;
+        out.append(index, cached.moves, cached.tags);
+        return true;
+    }
+
+    /** 기물 하나의 행마법을 board 위에서 실행하여 out에 수를 추가하고, 읽기 집합과 함께 캐시에 저장한다 */
+    private static void collect(GameState state, Piece.PieceData piece, int index, BuiltinOps.BoardState board,
+                                PackedMoveList out) {
         // 행마법 스크립트 결정
-        // 중립기물은 현재 플레이어(turn)의 색 관점에서 방향을 결정한다 (예: 폰 방향)
-        boolean isWhiteForScript = piece.isNeutral() ? (state.getTurn() == 0) : piece.isWhite();
-        String script = piece.effectiveKind().chessemblyScript(isWhiteForScript);
-
-        // 인터프리터 실행
-        Interpreter interpreter = new Interpreter();
-        interpreter.setDebug(state.isDebugMode());
-        interpreter.setLogger(state.getDebugLogger());
-        interpreter.parse(script);
-        List<AST.Activation> activations = interpreter.execute(board);
-
-        // Activation → LegalMove 변환
-        for (AST.Activation act : activations) {
-            Move.Square target = new Move.Square(pos.x + act.dx, pos.y + act.dy);
-            if (!target.isValid()) continue;
-
-            Move.Square catchTo = new Move.Square(0, 0);
-            if (act.catchTo != null) {
-                catchTo = new Move.Square(pos.x + act.catchTo[0], pos.y + act.catchTo[1]);
+        boolean isWhiteForScript = perspectiveOf(state, piece);
+        CompiledScript script = state.getScripts().get(piece.effectiveKind(), isWhiteForScript);
+        Move.Square pos = piece.pos;
+        int first = out.size();
+        // 포획 여부 판정까지 읽기 집합에 포함한다
+        board.beginReadTracking();
+
+        // 인터프리터 실행 → 수 변환
+        if (state.isDebugMode()) {
+            Interpreter interpreter = new Interpreter();
+            interpreter.setDebug(true);
+            List<AST.Activation> activations = interpreter.execute(script, board);
+            ScriptCostStats.record(piece.effectiveKind(), interpreter.lastSteps(), activations.size(),
+                    interpreter.lastBudgetExceeded());
+            for (AST.Activation act : activations) {
+                boolean hasCatch = act.catchTo != null;
+                addMove(out, index, board, pos, act.dx, act.dy, act.moveType.ordinal(), hasCatch,
+                        hasCatch ? act.catchTo[0] : 0, hasCatch ? act.catchTo[1] : 0,
+                        act.tags.isEmpty() ? null : act.tags);
             }
+        } else {
+            ActivationBuffer buf = BUFFER.get();
+            script.run(board, buf);
+            ScriptCostStats.record(piece.effectiveKind(), buf.steps(), buf.size(), buf.budgetExceeded());
+            for (int i = 0; i < buf.size(); i++) addActivation(out, index, board, pos, buf, i);
+        }
 
-            boolean isCapture = state.getBoard().contains(target);
+        board.endReadTracking();
+        LegalMoveCache cache = cacheOf(state);
+        if (cache != null) cache.store(piece, isWhiteForScript, board.readSet(), board.readFlags(), out, first);
+    }
 
-            legalMoves.add(new Move.LegalMove(
-                    pos, target, act.moveType, isCapture, act.tags, catchTo));
+    private static void addActivation(PackedMoveList out, int index, BuiltinOps.BoardState board, Move.Square pos,
+                                      ActivationBuffer buf, int i) {
+        int set = buf.tagSet(i);
+        int n = buf.tagCount(set);
+        List<AST.ActionTag> tags = null;
+        if (n > 0) {
+            tags = new ArrayList<>(n);
+            for (int k = 0; k < n; k++) tags.add(buf.tag(set, k));
         }
+        addMove(out, index, board, pos, buf.dx(i), buf.dy(i), buf.moveTypeOrdinal(i), buf.hasCatch(i),
+                buf.catchX(i), buf.catchY(i), tags);
+    }
 
-        return legalMoves;
+    private static void addMove(PackedMoveList out, int index, BuiltinOps.BoardState board, Move.Square pos,
+                                int dx, int dy, int moveType,
+                                boolean hasCatch, int catchX, int catchY, List<AST.ActionTag> tags) {
+        int tx = pos.x + dx, ty = pos.y + dy;
+        if (tx < 0 || tx >= 8 || ty < 0 || ty >= 8) return;
+
+        // board에는 게임 보드의 모든 기물이 등록되어 있으므로 점유 여부가 같다
+        boolean isCapture = board.pieceAt(tx, ty) != null;
+
+        out.add(index, pos.x, pos.y, tx, ty, moveType, isCapture,
+                hasCatch, pos.x + catchX, pos.y + catchY, tags);
     }
 }
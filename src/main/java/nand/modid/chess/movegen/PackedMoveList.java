@@ -0,0 +1,182 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.Move;
+import nand.modid.chess.core.Piece;
+import nand.modid.chess.dsl.chessembly.AST;
+
+import java.util.*;
+
+/**
+ * PackedMoveList — 한 진영 전체의 합법 수를 객체 대신 int 배열에 담는 목록.
+ *
+ * 수 하나는 {@link #STRIDE}칸을 차지한다.
+ * <pre>
+ * [PIECE] [FROM_X] [FROM_Y] [TO_X] [TO_Y] [TYPE] [FLAGS] [CATCH_X] [CATCH_Y]
+ * </pre>
+ * <ul>
+ *   <li>PIECE     — {@link #pieceId(int)}·{@link #pieceHandle(int)}로 조회하는 기물 인덱스 (생성 순서)</li>
+ *   <li>TYPE      — AST.MoveType.ordinal()</li>
+ *   <li>FLAGS     — {@link #CAPTURE}, {@link #HAS_CATCH}</li>
+ *   <li>CATCH_X/Y — jump가 잡는 칸 (절대 좌표), 없으면 0</li>
+ * </ul>
+ * 태그가 있는 수만 태그 목록을 따로 보관한다. {@link MoveGenerator#generateAllForSide}가 채우며,
+ * 같은 인스턴스를 넘겨 재사용하면 배열이 충분히 커진 뒤에는 다시 할당하지 않는다.
+ * 스레드 간에 공유하지 않는다.
+ */
+public final class PackedMoveList {
+
+    public static final int STRIDE = 9;
+    public static final int PIECE = 0, FROM_X = 1, FROM_Y = 2, TO_X = 3, TO_Y = 4,
+                            TYPE = 5, FLAGS = 6, CATCH_X = 7, CATCH_Y = 8;
+
+    /** FLAGS 비트 */
+    public static final int CAPTURE = 1, HAS_CATCH = 2;
+
+    private static final AST.MoveType[] MOVE_TYPES = AST.MoveType.values();
+
+    private int[] data = new int[STRIDE * 64];
+    private int size;
+
+    /** 수별 태그 목록, 태그가 없으면 null */
+    private List<AST.ActionTag>[] tags = newTagArray(64);
+
+    private final List<String> pieceIds = new ArrayList<>();
+    /** 기물 인덱스 → 게임 안 핸들 ({@link nand.modid.chess.core.GameState#getPiece(int)}) */
+    private int[] pieceHandles = new int[16];
+
+    public PackedMoveList() {}
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<AST.ActionTag>[] newTagArray(int n) {
+        return (List<AST.ActionTag>[]) new List[n];
+    }
+
+    /** 비운다 (배열은 유지) */
+    public void clear() {
+        Arrays.fill(tags, 0, size, null);
+        size = 0;
+        pieceIds.clear();
+    }
+
+    // ── 읽기 ──────────────────────────────────────────
+
+    /** 수의 개수 */
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /** 이번 생성에서 평가한 기물 수 (수가 없는 기물 포함) */
+    public int pieceCount() { return pieceIds.size(); }
+
+    /** 기물 인덱스의 ID */
+    public String pieceId(int piece) { return pieceIds.get(piece); }
+
+    /** 기물 인덱스의 핸들 */
+    public int pieceHandle(int piece) {
+        if (piece < 0 || piece >= pieceIds.size()) throw new IndexOutOfBoundsException("기물 인덱스: " + piece);
+        return pieceHandles[piece];
+    }
+
+    public int piece(int i) { return data[i * STRIDE + PIECE]; }
+
+    public int fromX(int i) { return data[i * STRIDE + FROM_X]; }
+
+    public int fromY(int i) { return data[i * STRIDE + FROM_Y]; }
+
+    public int toX(int i) { return data[i * STRIDE + TO_X]; }
+
+    public int toY(int i) { return data[i * STRIDE + TO_Y]; }
+
+    public AST.MoveType moveType(int i) { return MOVE_TYPES[data[i * STRIDE + TYPE]]; }
+
+    public boolean isCapture(int i) { return (data[i * STRIDE + FLAGS] & CAPTURE) != 0; }
+
+    public boolean hasCatch(int i) { return (data[i * STRIDE + FLAGS] & HAS_CATCH) != 0; }
+
+    public int catchX(int i) { return data[i * STRIDE + CATCH_X]; }
+
+    public int catchY(int i) { return data[i * STRIDE + CATCH_Y]; }
+
+    /** 수의 태그 (없으면 빈 목록) */
+    public List<AST.ActionTag> tags(int i) {
+        List<AST.ActionTag> t = tags[i];
+        return t != null ? Collections.unmodifiableList(t) : Collections.emptyList();
+    }
+
+    /** i번째 수를 {@link Move.LegalMove}로 변환 */
+    public Move.LegalMove toLegalMove(int i) {
+        int base = i * STRIDE;
+        return new Move.LegalMove(
+                Move.Square.of(data[base + FROM_X], data[base + FROM_Y]),
+                Move.Square.of(data[base + TO_X], data[base + TO_Y]),
+                MOVE_TYPES[data[base + TYPE]],
+                (data[base + FLAGS] & CAPTURE) != 0,
+                tags[i],
+                Move.Square.of(data[base + CATCH_X], data[base + CATCH_Y]));
+    }
+
+    /** 특정 기물의 수만 {@link Move.LegalMove} 목록으로 변환 (기존 API 호환용) */
+    public List<Move.LegalMove> movesFor(String pieceId) {
+        List<Move.LegalMove> out = new ArrayList<>();
+        int piece = pieceIds.indexOf(pieceId);
+        if (piece < 0) return out;
+        for (int i = 0; i < size; i++) {
+            if (data[i * STRIDE + PIECE] == piece) out.add(toLegalMove(i));
+        }
+        return out;
+    }
+
+    // ── 쓰기 (MoveGenerator 전용) ─────────────────────
+
+    /** 기물 등록, 기물 인덱스 반환 */
+    int addPiece(Piece.PieceData piece) {
+        int index = pieceIds.size();
+        if (index == pieceHandles.length) pieceHandles = Arrays.copyOf(pieceHandles, index * 2);
+        pieceHandles[index] = piece.handle();
+        pieceIds.add(piece.id);
+        return index;
+    }
+
+    void add(int piece, int fromX, int fromY, int toX, int toY, int type, boolean capture,
+             boolean hasCatch, int catchX, int catchY, List<AST.ActionTag> moveTags) {
+        if ((size + 1) * STRIDE > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+            tags = Arrays.copyOf(tags, tags.length * 2);
+        }
+        int base = size * STRIDE;
+        data[base + PIECE] = piece;
+        data[base + FROM_X] = fromX;
+        data[base + FROM_Y] = fromY;
+        data[base + TO_X] = toX;
+        data[base + TO_Y] = toY;
+        data[base + TYPE] = type;
+        data[base + FLAGS] = (capture ? CAPTURE : 0) | (hasCatch ? HAS_CATCH : 0);
+        data[base + CATCH_X] = hasCatch ? catchX : 0;
+        data[base + CATCH_Y] = hasCatch ? catchY : 0;
+        tags[size] = moveTags;
+        size++;
+    }
+
+    /** [from, to) 구간의 수 데이터 복사 (캐시 저장용) */
+    int[] copyData(int from, int to) {
+        return Arrays.copyOfRange(data, from * STRIDE, to * STRIDE);
+    }
+
+    /** [from, to) 구간의 태그 복사 (캐시 저장용) */
+    List<AST.ActionTag>[] copyTags(int from, int to) {
+        return Arrays.copyOfRange(tags, from, to);
+    }
+
+    /** 캐시에 저장한 수를 기물 인덱스만 바꿔 추가 */
+    void append(int piece, int[] moves, List<AST.ActionTag>[] moveTags) {
+        int count = moveTags.length;
+        while ((size + count) * STRIDE > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+            tags = Arrays.copyOf(tags, tags.length * 2);
+        }
+        System.arraycopy(moves, 0, data, size * STRIDE, count * STRIDE);
+        System.arraycopy(moveTags, 0, tags, size, count);
+        for (int i = size; i < size + count; i++) data[i * STRIDE + PIECE] = piece;
+        size += count;
+    }
+}
@@ -0,0 +1,84 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.Piece;
+import nand.modid.chess.dsl.chessembly.CompiledScript;
+import nand.modid.chess.dsl.chessembly.ScriptArtifact;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ScriptCache — 기물 종류별 컴파일된 Chessembly 프로그램 공유 캐시.
+ *
+ * 키는 (PieceKind, 색, 스크립트 해시)이다. 슬롯은 (kind, 색)마다 하나이며,
+ * 저장된 프로그램의 원본 해시가 현재 스크립트와 다르면 다시 컴파일하여 교체한다.
+ * 모든 게임이 같은 인스턴스를 공유하며, 조회는 락 없이 수행된다.
+ * 캐시된 내장 스크립트는 자주 실행되면 JVM 클래스로 승격된다 ({@link CompiledScript#run}).
+ */
+public final class ScriptCache {
+
+    private ScriptCache() {}
+
+    private static final Piece.PieceKind[] KINDS = Piece.PieceKind.values();
+
+    /** index = kind.ordinal() * 2 + (isWhite ? 0 : 1) */
+    private static final AtomicReferenceArray<CompiledScript> SLOTS =
+            new AtomicReferenceArray<>(KINDS.length * 2);
+
+    private static int slot(Piece.PieceKind kind, boolean isWhite) {
+        return kind.ordinal() * 2 + (isWhite ? 0 : 1);
+    }
+
+    /**
+     * 기물 종류·색에 해당하는 컴파일된 프로그램을 반환한다.
+     * 캐시에 없거나 스크립트가 바뀌었으면 컴파일 후 저장한다.
+     */
+    public static CompiledScript get(Piece.PieceKind kind, boolean isWhite) {
+        String script = kind.chessemblyScript(isWhite);
+        int idx = slot(kind, isWhite);
+        CompiledScript cached = SLOTS.get(idx);
+        if (cached != null && cached.matches(script)) return cached;
+
+        CompiledScript compiled = CompiledScript.compile(script, true);
+        // 동시에 다른 스레드가 같은 스크립트를 넣었다면 그 인스턴스를 재사용한다
+        while (true) {
+            CompiledScript current = SLOTS.get(idx);
+            if (current != null && current.matches(script)) return current;
+            if (SLOTS.compareAndSet(idx, current, compiled)) return compiled;
+        }
+    }
+
+    /**
+     * 모든 내장 기물 스크립트를 미리 컴파일한다 (모드 초기화 시 호출).
+     *
+     * @return 컴파일된 프로그램 수
+     */
+    public static int warmUp() {
+        return warmUp(ScriptArtifact.Pack.EMPTY);
+    }
+
+    /**
+     * 모든 내장 기물 스크립트를 준비한다. 미리 컴파일된 묶음에 원본이 같은 프로그램이 있으면
+     * 그것을 쓰고, 없으면 컴파일한다.
+     *
+     * @return 준비된 프로그램 수
+     */
+    public static int warmUp(ScriptArtifact.Pack precompiled) {
+        int count = 0;
+        for (Piece.PieceKind kind : KINDS) {
+            for (boolean white : new boolean[]{ true, false }) {
+                CompiledScript loaded = precompiled.get(kind.chessemblyScript(white));
+                if (loaded != null && loaded.isJitEligible()) SLOTS.compareAndSet(slot(kind, white), null, loaded);
+                get(kind, white);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** 캐시 비우기 (테스트/리로드용) */
+    public static void clear() {
+        for (int i = 0; i < SLOTS.length(); i++) {
+            SLOTS.set(i, null);
+        }
+    }
+}
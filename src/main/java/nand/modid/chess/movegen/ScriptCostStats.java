@@ -0,0 +1,122 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.Piece;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ScriptCostStats — 기물 종류별 행마법 실행 비용 통계 (실행 횟수, 단계, 활성화, 예산 초과).
+ *
+ * 기록은 락 없이 {@link LongAdder}와 {@link AtomicLongArray}로만 한다.
+ * 단계 분포는 2의 거듭제곱 구간 히스토그램으로 모으므로 p99는 구간 상한으로 근사한다.
+ */
+public final class ScriptCostStats {
+
+    private ScriptCostStats() {}
+
+    /** 구간 b: 단계 수 s가 2^(b-1) <= s < 2^b (b = 0이면 s = 0) */
+    private static final int BUCKETS = 33;
+
+    private static final class Counters {
+        final LongAdder executions = new LongAdder();
+        final LongAdder steps = new LongAdder();
+        final LongAdder activations = new LongAdder();
+        final LongAdder exceeded = new LongAdder();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    }
+
+    private static final Piece.PieceKind[] KINDS = Piece.PieceKind.values();
+    private static final Counters[] COUNTERS = new Counters[KINDS.length];
+
+    static {
+        for (int i = 0; i < COUNTERS.length; i++) COUNTERS[i] = new Counters();
+    }
+
+    /** 실행 한 번의 비용을 기록한다 */
+    public static void record(Piece.PieceKind kind, int steps, int activations, boolean budgetExceeded) {
+        Counters c = COUNTERS[kind.ordinal()];
+        c.executions.increment();
+        c.steps.add(steps);
+        c.activations.add(activations);
+        if (budgetExceeded) c.exceeded.increment();
+        c.histogram.incrementAndGet(32 - Integer.numberOfLeadingZeros(Math.max(steps, 0)));
+    }
+
+    /** 통계 초기화 */
+    public static void reset() {
+        for (Counters c : COUNTERS) {
+            c.executions.reset();
+            c.steps.reset();
+            c.activations.reset();
+            c.exceeded.reset();
+            for (int b = 0; b < BUCKETS; b++) c.histogram.set(b, 0);
+        }
+    }
+
+    // ── 조회 ──────────────────────────────────────────
+
+    /** 기물 종류 하나의 요약 */
+    public static final class Summary {
+        public final Piece.PieceKind kind;
+        public final long executions;
+        public final double meanSteps;
+        /** 단계 수 p99의 상한 (2의 거듭제곱 구간) */
+        public final long p99Steps;
+        public final double meanActivations;
+        public final long budgetExceeded;
+
+        Summary(Piece.PieceKind kind, long executions, double meanSteps, long p99Steps,
+                double meanActivations, long budgetExceeded) {
+            this.kind = kind;
+            this.executions = executions;
+            this.meanSteps = meanSteps;
+            this.p99Steps = p99Steps;
+            this.meanActivations = meanActivations;
+            this.budgetExceeded = budgetExceeded;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d runs, steps mean %.1f p99 <= %d, activations mean %.1f, over budget %d",
+                    kind.scriptName(), executions, meanSteps, p99Steps, meanActivations, budgetExceeded);
+        }
+    }
+
+    public static Summary summary(Piece.PieceKind kind) {
+        Counters c = COUNTERS[kind.ordinal()];
+        long executions = c.executions.sum();
+        if (executions == 0) return new Summary(kind, 0, 0, 0, 0, 0);
+
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] = c.histogram.get(b);
+            total += counts[b];
+        }
+        long rank = (long) Math.ceil(total * 0.99);
+        long seen = 0;
+        long p99 = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank) {
+                p99 = b == 0 ? 0 : (1L << b) - 1;
+                break;
+            }
+        }
+        return new Summary(kind, executions, c.steps.sum() / (double) executions, p99,
+                c.activations.sum() / (double) executions, c.exceeded.sum());
+    }
+
+    /** 한 번 이상 실행된 기물 종류의 요약 (평균 단계 내림차순) */
+    public static List<Summary> snapshot() {
+        List<Summary> out = new ArrayList<>();
+        for (Piece.PieceKind kind : KINDS) {
+            Summary s = summary(kind);
+            if (s.executions > 0) out.add(s);
+        }
+        out.sort(Comparator.comparingDouble((Summary s) -> s.meanSteps).reversed());
+        return out;
+    }
+}
@@ -0,0 +1,62 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.Piece;
+import nand.modid.chess.dsl.chessembly.CompiledScript;
+import nand.modid.chess.dsl.chessembly.ScriptArtifact;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * ScriptPrecompiler — 내장 행마법과 스크립트 디렉터리의 .chessembly 파일을 검사·컴파일해
+ * .csb 묶음({@link ScriptArtifact})으로 저장하는 오프라인 컴파일러.
+ *
+ * 실행: {@code ./gradlew precompileScripts [-Pscripts=디렉터리] [-Pout=파일.csb]}
+ * Gradle 태스크는 기본으로 개발 서버 디렉터리(run/mods/stasischess) 아래를 쓴다. main을 인자 없이 실행하면
+ * {@link ScriptRegistry#defaultDirectory()}와 {@link ScriptRegistry#defaultArtifact()}를 쓴다.
+ * 검사 오류가 하나라도 있으면 파일을 쓰지 않고 종료 코드 1로 끝난다.
+ */
+public final class ScriptPrecompiler {
+
+    private ScriptPrecompiler() {}
+
+    public static void main(String[] args) throws IOException {
+        Path directory = args.length > 0 ? Paths.get(args[0]) : ScriptRegistry.defaultDirectory();
+        Path out = args.length > 1 ? Paths.get(args[1]) : ScriptRegistry.defaultArtifact();
+        long start = System.nanoTime();
+        List<String> errors = new ArrayList<>();
+        int count = precompile(directory, out, errors);
+        if (count < 0) {
+            for (String error : errors) System.err.println(error);
+            System.err.println("컴파일 실패: 오류 " + errors.size() + "개, " + out + "을(를) 쓰지 않았습니다");
+            System.exit(1);
+        }
+        System.out.printf("%s: 프로그램 %d개 (%.1f ms)%n", out, count, (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * 내장 스크립트(모든 기물 종류·색)와 디렉터리의 스크립트를 컴파일해 파일에 쓴다.
+     *
+     * @return 쓴 프로그램 수 (같은 원본은 하나로 센다), 검사 오류가 있으면 -1 (errors에 내용)
+     */
+    public static int precompile(Path directory, Path out, List<String> errors) throws IOException {
+        ScriptRegistry.Scan scan = ScriptRegistry.scan(directory, ScriptArtifact.Pack.EMPTY);
+        if (!scan.errors.isEmpty()) {
+            errors.addAll(scan.errors);
+            return -1;
+        }
+        Map<String, CompiledScript> scripts = new LinkedHashMap<>();
+        for (Piece.PieceKind kind : Piece.PieceKind.values()) {
+            for (boolean white : new boolean[]{ true, false }) {
+                String source = kind.chessemblyScript(white);
+                scripts.putIfAbsent(source, CompiledScript.compile(source, true));
+            }
+        }
+        for (CompiledScript s : scan.overrides) {
+            if (s != null) scripts.putIfAbsent(s.source(), s);
+        }
+        ScriptArtifact.write(out, scripts.values());
+        return scripts.size();
+    }
+}
@@ -0,0 +1,319 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.Piece;
+import nand.modid.chess.dsl.chessembly.CompiledScript;
+import nand.modid.chess.dsl.chessembly.ScriptArtifact;
+import nand.modid.chess.dsl.chessembly.ScriptSymbols;
+import nand.modid.chess.dsl.chessembly.ScriptValidator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * ScriptRegistry — {@code mods/stasischess/scripts/}의 외부 .chessembly 파일로 내장 행마법을 덮어쓰는 레지스트리.
+ *
+ * 파일 이름 규칙 (이름은 {@link Piece.PieceKind#scriptName()}):
+ * <pre>
+ *   rook.chessembly         — 백/흑 공통
+ *   pawn.white.chessembly   — 백 전용 (공통 파일보다 우선)
+ *   pawn.black.chessembly   — 흑 전용
+ * </pre>
+ * 파일이 없는 기물은 내장 스크립트({@link ScriptCache})를 사용한다.
+ *
+ * 리로드는 전용 백그라운드 스레드에서 파일을 읽고 검사·컴파일한 뒤, 오류가 하나도 없을 때만
+ * 새 {@link Generation}을 원자적으로 교체한다. 오류가 있으면 이전 세대를 그대로 유지한다.
+ * 게임은 턴이 시작될 때 세대를 고정하므로 ({@link nand.modid.chess.core.GameState#endTurn()})
+ * 한 턴 안에서는 행마법이 바뀌지 않는다.
+ * {@link ScriptPrecompiler}로 만든 .csb 묶음을 {@link #usePrecompiled}로 주면, 원본이 같은 파일은
+ * 검사·컴파일 없이 묶음의 프로그램을 쓴다.
+ *
+ * if-state / set-state의 상태 키 슬롯({@link ScriptSymbols#stateSlot})은 세대와 무관하게 전역이며
+ * 리로드해도 회수하지 않는다 — 이전 세대를 쓰는 게임과 기물 상태가 그 번호를 계속 쓰기 때문이다.
+ * 따라서 서버가 실행되는 동안 모든 리로드에 걸쳐 서로 다른 상태 키는 {@link ScriptSymbols#MAX_STATE_SLOTS}개까지이고,
+ * 넘으면 그 파일은 컴파일 오류로 보고되어 리로드가 적용되지 않는다.
+ */
+public final class ScriptRegistry {
+
+    private ScriptRegistry() {}
+
+    public static final String EXTENSION = ".chessembly";
+
+    /** 기본 스크립트 디렉터리 (서버 실행 디렉터리 기준, 로그/스냅샷과 같은 위치) */
+    public static Path defaultDirectory() {
+        return Paths.get("mods", "stasischess", "scripts");
+    }
+
+    private static final Piece.PieceKind[] KINDS = Piece.PieceKind.values();
+
+    // ── 세대 ──────────────────────────────────────────
+
+    /** 한 번의 리로드 결과로 만들어진 불변 스크립트 집합 */
+    public static final class Generation {
+        private final int version;
+        /** index = kind.ordinal() * 2 + (isWhite ? 0 : 1), null이면 내장 스크립트 */
+        private final CompiledScript[] overrides;
+        private final int overrideCount;
+
+        private Generation(int version, CompiledScript[] overrides) {
+            this.version = version;
+            this.overrides = overrides;
+            int n = 0;
+            for (CompiledScript s : overrides) if (s != null) n++;
+            this.overrideCount = n;
+        }
+
+        public int version() { return version; }
+
+        /** 외부 파일로 덮어쓴 (기물 종류, 색) 수 */
+        public int overrideCount() { return overrideCount; }
+
+        /** 이 세대에서 기물 종류·색에 해당하는 컴파일된 프로그램 */
+        public CompiledScript get(Piece.PieceKind kind, boolean isWhite) {
+            CompiledScript s = overrides[kind.ordinal() * 2 + (isWhite ? 0 : 1)];
+            return s != null ? s : ScriptCache.get(kind, isWhite);
+        }
+
+        /** 외부 파일로 덮어썼는지 여부 */
+        public boolean isOverridden(Piece.PieceKind kind, boolean isWhite) {
+            return overrides[kind.ordinal() * 2 + (isWhite ? 0 : 1)] != null;
+        }
+    }
+
+    private static final Generation BUILTIN = new Generation(0, new CompiledScript[KINDS.length * 2]);
+
+    private static final AtomicReference<Generation> CURRENT = new AtomicReference<>(BUILTIN);
+
+    /** 현재 세대 (락 없이 조회) */
+    public static Generation current() {
+        return CURRENT.get();
+    }
+
+    // ── 리로드 ────────────────────────────────────────
+
+    /** 리로드 결과 보고 */
+    public static final class ReloadReport {
+        public final int version;
+        public final int files;
+        public final int overrides;
+        public final long elapsedMillis;
+        public final List<String> errors;
+
+        ReloadReport(int version, int files, int overrides, long elapsedMillis, List<String> errors) {
+            this.version = version;
+            this.files = files;
+            this.overrides = overrides;
+            this.elapsedMillis = elapsedMillis;
+            this.errors = Collections.unmodifiableList(errors);
+        }
+
+        /** 새 세대가 적용되었는지 (오류가 있으면 이전 세대 유지) */
+        public boolean applied() { return errors.isEmpty(); }
+
+        @Override
+        public String toString() {
+            if (!applied()) {
+                return "스크립트 리로드 실패 (" + errors.size() + "개 오류, " + elapsedMillis + " ms) — 이전 세대 v"
+                        + current().version() + " 유지";
+            }
+            return "스크립트 리로드 완료: v" + version + ", 파일 " + files + "개, 덮어쓴 행마법 " + overrides
+                    + "개 (" + elapsedMillis + " ms)";
+        }
+    }
+
+    private static final ExecutorService COMPILER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "StasisChess-ScriptCompiler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** 백그라운드 스레드에서 리로드한다. 호출 스레드(서버 틱)는 기다리지 않는다. */
+    public static CompletableFuture<ReloadReport> reloadAsync(Path directory) {
+        return CompletableFuture.supplyAsync(() -> reload(directory), COMPILER);
+    }
+
+    /**
+     * 디렉터리의 스크립트를 읽어 검사·컴파일하고, 오류가 없으면 새 세대로 교체한다.
+     * 디렉터리가 없으면 내장 스크립트만 쓰는 세대가 된다.
+     */
+    public static synchronized ReloadReport reload(Path directory) {
+        long start = System.nanoTime();
+        Scan scan = scan(directory, precompiled);
+        List<String> errors = scan.errors;
+
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        if (!errors.isEmpty()) {
+            return new ReloadReport(CURRENT.get().version(), scan.files, 0, elapsed, errors);
+        }
+        Generation next = new Generation(CURRENT.get().version() + 1, scan.overrides);
+        CURRENT.set(next);
+        return new ReloadReport(next.version(), scan.files, next.overrideCount(), elapsed, errors);
+    }
+
+    // ── 미리 컴파일된 프로그램 ────────────────────────
+
+    /** 리로드가 재사용할 미리 컴파일된 묶음 (원본이 같은 파일만 검사·컴파일을 건너뛴다) */
+    private static volatile ScriptArtifact.Pack precompiled = ScriptArtifact.Pack.EMPTY;
+
+    /** 기본 .csb 경로 (스크립트 디렉터리 옆) */
+    public static Path defaultArtifact() {
+        return Paths.get("mods", "stasischess", "scripts" + ScriptArtifact.EXTENSION);
+    }
+
+    /** 이후 리로드에서 쓸 미리 컴파일된 묶음을 정한다 (모드 초기화 시) */
+    public static void usePrecompiled(ScriptArtifact.Pack pack) {
+        precompiled = pack != null ? pack : ScriptArtifact.Pack.EMPTY;
+    }
+
+    // ── 디렉터리 검사 ─────────────────────────────────
+
+    /** 디렉터리를 읽고 검사·컴파일한 결과 (세대는 바꾸지 않는다) */
+    static final class Scan {
+        /** index = kind.ordinal() * 2 + (isWhite ? 0 : 1) */
+        final CompiledScript[] overrides = new CompiledScript[KINDS.length * 2];
+        final List<String> errors = new ArrayList<>();
+        int files;
+    }
+
+    /**
+     * 디렉터리의 스크립트를 읽어 검사·컴파일한다. 미리 컴파일된 묶음에 원본이 같은 프로그램이 있으면
+     * 그것을 쓴다 (묶음에는 검사를 통과한 프로그램만 들어 있다).
+     */
+    static Scan scan(Path directory, ScriptArtifact.Pack pack) {
+        Scan result = new Scan();
+        List<String> errors = result.errors;
+        CompiledScript[] overrides = result.overrides;
+        boolean[] colorSpecific = new boolean[KINDS.length * 2];
+        int files = 0;
+
+        List<Path> paths = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> stream = Files.list(directory)) {
+                stream.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).sorted().forEach(paths::add);
+            } catch (IOException e) {
+                errors.add(directory + ": 디렉터리를 읽을 수 없습니다 (" + e.getMessage() + ")");
+            }
+        }
+
+        for (Path path : paths) {
+            files++;
+            String fileName = path.getFileName().toString();
+            String name = fileName.substring(0, fileName.length() - EXTENSION.length());
+            Boolean color = null;   // null = 공통
+            if (name.endsWith(".white")) {
+                color = true;
+                name = name.substring(0, name.length() - ".white".length());
+            } else if (name.endsWith(".black")) {
+                color = false;
+                name = name.substring(0, name.length() - ".black".length());
+            }
+            Piece.PieceKind kind = kindOf(name);
+            if (kind == null) {
+                errors.add(fileName + ": 알 수 없는 기물 이름 '" + name + "'");
+                continue;
+            }
+
+            String source;
+            try {
+                source = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                errors.add(fileName + ": 읽기 실패 (" + e.getMessage() + ")");
+                continue;
+            }
+            CompiledScript compiled = pack.get(source);
+            if (compiled == null || !compiled.isJitEligible()) {
+                List<String> problems = ScriptValidator.validate(source);
+                if (!problems.isEmpty()) {
+                    for (String problem : problems) errors.add(fileName + ":" + problem);
+                    continue;
+                }
+                try {
+                    compiled = CompiledScript.compile(source, true);
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    // 검사를 통과해도 상태 키 슬롯이 다 찼으면 컴파일이 거부된다
+                    errors.add(fileName + ": 컴파일 실패 (" + e.getMessage() + ")");
+                    continue;
+                }
+            }
+            for (boolean white : new boolean[]{ true, false }) {
+                if (color != null && color != white) continue;
+                int idx = kind.ordinal() * 2 + (white ? 0 : 1);
+                // 색 전용 파일이 공통 파일보다 우선
+                if (color == null && colorSpecific[idx]) continue;
+                overrides[idx] = compiled;
+                colorSpecific[idx] = color != null;
+            }
+        }
+
+        result.files = files;
+        return result;
+    }
+
+    private static Piece.PieceKind kindOf(String scriptName) {
+        return ScriptSymbols.kind(ScriptSymbols.kindOf(scriptName));
+    }
+
+    /** 내장 스크립트만 쓰는 세대로 되돌린다 (테스트용) */
+    public static synchronized void resetToBuiltin() {
+        CURRENT.set(new Generation(CURRENT.get().version() + 1, new CompiledScript[KINDS.length * 2]));
+    }
+
+    // ── 파일 감시 ─────────────────────────────────────
+
+    /** 변경이 몰릴 때 한 번만 리로드하기 위한 대기 시간 */
+    private static final long DEBOUNCE_MILLIS = 250;
+
+    private static Thread watcher;
+
+    /**
+     * 디렉터리 변경을 감시하여 자동으로 리로드한다 (디렉터리가 없으면 만든다).
+     * 결과는 백그라운드 스레드에서 listener로 전달된다.
+     */
+    public static synchronized void startWatching(Path directory, Consumer<ReloadReport> listener) throws IOException {
+        stopWatching();
+        Files.createDirectories(directory);
+        WatchService service = directory.getFileSystem().newWatchService();
+        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+        Thread t = new Thread(() -> {
+            try (WatchService ws = service) {
+                while (!Thread.currentThread().isInterrupted()) {
+                    WatchKey key = ws.take();
+                    // 편집기가 여러 이벤트를 연달아 내므로 잠시 모은다
+                    Thread.sleep(DEBOUNCE_MILLIS);
+                    boolean relevant = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        Object context = event.context();
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || (context != null && context.toString().endsWith(EXTENSION))) {
+                            relevant = true;
+                        }
+                    }
+                    if (!key.reset()) break;
+                    if (relevant) reloadAsync(directory).thenAccept(listener);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // 종료
+            } catch (IOException e) {
+                // 감시 서비스 닫기 실패 — 무시
+            }
+        }, "StasisChess-ScriptWatcher");
+        t.setDaemon(true);
+        t.start();
+        watcher = t;
+    }
+
+    /** 파일 감시 중지 */
+    public static synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.interrupt();
+            watcher = null;
+        }
+    }
+}
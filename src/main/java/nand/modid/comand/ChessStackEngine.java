@@ -2,6 +2,7 @@ package nand.modid.comand;
 
 import nand.modid.chess.core.*;
 import nand.modid.chess.core.GameState;
+import nand.modid.chess.movegen.PackedMoveList;
 
 import java.util.*;
 
@@ -52,29 +53,52 @@ public final class ChessStackEngine {
     /** 특정 위치의 합법 수 목록 반환 */
     public List<Move.LegalMove> getLegalMoves(String gameId, int x, int y) {
         GameState state = getGame(gameId);
-        return state.getLegalMovesAt(new Move.Square(x, y));
+        return state.getLegalMovesAt(Move.Square.of(x, y));
+    }
+
+    /** 기물 핸들의 합법 수 목록 반환 */
+    public List<Move.LegalMove> getLegalMoves(String gameId, int pieceHandle) {
+        return getGame(gameId).getLegalMoves(pieceHandle);
+    }
+
+    /** 플레이어가 움직일 수 있는 모든 기물(중립기물 포함)의 합법 수를 한 번에 반환 */
+    public PackedMoveList getAllLegalMoves(String gameId, int player) {
+        return getGame(gameId).getAllLegalMoves(player);
     }
 
     /** 이동 실행 → 캡처된 기물 ID (없으면 null) */
     public String makeMove(String gameId, int fromX, int fromY, int toX, int toY) {
         GameState state = getGame(gameId);
-        Move.Square from = new Move.Square(fromX, fromY);
-        Move.Square to = new Move.Square(toX, toY);
+        Move.Square from = Move.Square.of(fromX, fromY);
+        Move.Square to = Move.Square.of(toX, toY);
+
+        Move.LegalMove lm = state.findLegalMoveAt(from, to);
+        if (lm == null) throw new IllegalArgumentException("유효하지 않은 이동: " + from + " → " + to);
+        return state.movePieceByLegalMove(lm);
+    }
+
+    /** 핸들의 기물을 (toX, toY)로 이동 → 캡처된 기물 ID (없으면 null) */
+    public String makeMove(String gameId, int pieceHandle, int toX, int toY) {
+        GameState state = getGame(gameId);
+        Piece.PieceData piece = state.getPiece(pieceHandle);
+        if (piece == null || piece.pos == null) throw new IllegalArgumentException("기물을 찾을 수 없습니다: " + pieceHandle);
+        Move.Square to = Move.Square.of(toX, toY);
+
+        Move.LegalMove lm = state.findLegalMoveAt(piece.pos, to);
+        if (lm == null) throw new IllegalArgumentException("유효하지 않은 이동: " + piece.pos + " → " + to);
+        return state.movePieceByLegalMove(lm);
+    }
 
-        List<Move.LegalMove> moves = state.getLegalMovesAt(from);
-        for (Move.LegalMove lm : moves) {
-            if (lm.to.equals(to)) {
-                return state.movePieceByLegalMove(lm);
-            }
-        }
-        throw new IllegalArgumentException("유효하지 않은 이동: " + from + " → " + to);
+    /** 플레이어가 지금 착수나 이동을 하나라도 할 수 있는지 (수 목록을 만들지 않는다) */
+    public boolean hasAnyLegalAction(String gameId, int player) {
+        return getGame(gameId).hasAnyLegalAction(player);
     }
 
     /** 착수 실행 → 배치된 기물 ID */
     public String placePiece(String gameId, String kindName, int x, int y) {
         GameState state = getGame(gameId);
         Piece.PieceKind kind = Piece.PieceKind.fromString(kindName);
-        return state.placePiece(state.getTurn(), kind, new Move.Square(x, y));
+        return state.placePiece(state.getTurn(), kind, Move.Square.of(x, y));
     }
 
     /** 포켓에 기물 추가 */
@@ -111,7 +135,17 @@ public final class ChessStackEngine {
 
     /** 특정 위치 기물 정보 */
     public Piece.PieceData getPieceAt(String gameId, int x, int y) {
-        return getGame(gameId).getPieceAt(new Move.Square(x, y));
+        return getGame(gameId).getPieceAt(Move.Square.of(x, y));
+    }
+
+    /** 특정 위치 기물의 핸들 (없으면 {@link Piece.PieceData#NO_HANDLE}) */
+    public int getPieceHandleAt(String gameId, int x, int y) {
+        return getGame(gameId).getBoard().getHandle(x, y);
+    }
+
+    /** 핸들의 기물 정보 (없으면 null) */
+    public Piece.PieceData getPiece(String gameId, int pieceHandle) {
+        return getGame(gameId).getPiece(pieceHandle);
     }
 
     /** 보드 위 모든 기물 */
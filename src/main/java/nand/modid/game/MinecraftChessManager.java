@@ -4,6 +4,9 @@ import nand.modid.comand.ChessStackEngine;
 import nand.modid.chess.core.GameState;
 import nand.modid.chess.core.Piece;
 import nand.modid.chess.core.Move;
+import nand.modid.chess.dsl.chessembly.ExecutionBudget;
+import nand.modid.chess.dsl.chessembly.TraceRecorder;
+import nand.modid.chess.movegen.ScriptCostStats;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.component.DataComponentTypes;
@@ -33,6 +36,9 @@ import java.util.*;
 public class MinecraftChessManager {
     private static final MinecraftChessManager INSTANCE = new MinecraftChessManager();
 
+    /** /chess debug에서 채팅으로 보여 줄 최대 추적 줄 수 (나머지는 /chess trace) */
+    private static final int TRACE_CHAT_LINES = 40;
+
     private static class MoveAnimation {
         String gameId;
         String pieceId;
@@ -630,7 +636,7 @@ public class MinecraftChessManager {
                     player.sendMessage(Text.literal("§aPlaced " + kind.name()), false);
 
                     String prefix = currentPlayer == 0 ? "w:" : "b:";
-                    moveHistory.add(prefix + abbrev(kind) + "@" + new Move.Square(boardX, boardY).toNotation());
+                    moveHistory.add(prefix + abbrev(kind) + "@" + Move.Square.of(boardX, boardY).toNotation());
                     saveGameLog(null);
                     saveSnapshot(null);
 
@@ -682,7 +688,7 @@ public class MinecraftChessManager {
                         double startY = boardOrigin.getY() + 1.0;
 
                         // CATCH 여부를 이동 실행 전에 미리 확인
-                        Move.Square toSq = new Move.Square(boardX, boardY);
+                        Move.Square toSq = Move.Square.of(boardX, boardY);
                         boolean isCatch = currentLegalMoves.stream()
                                 .anyMatch(lm -> lm.to.equals(toSq)
                                         && lm.moveType == nand.modid.chess.dsl.chessembly.AST.MoveType.CATCH);
@@ -721,7 +727,7 @@ public class MinecraftChessManager {
 
                         String prefix = piece.owner == 0 ? "w:" : "b:";
                         String moveStr = prefix + abbrev(piece.effectiveKind())
-                                + new Move.Square(selectedSquare[0], selectedSquare[1]).toNotation() + ">"
+                                + Move.Square.of(selectedSquare[0], selectedSquare[1]).toNotation() + ">"
                                 + toSq.toNotation();
                         moveHistory.add(moveStr);
                         saveGameLog(null);
@@ -972,7 +978,8 @@ public class MinecraftChessManager {
 
     /**
      * /chess debugmode 명령어: Chessembly 인터프리터의 디버그 모드를 토글한다.
-     * 활성화 시 합법 수 계산마다 서버 콘솔에 실행 추적 로그가 출력된다.
+     * 활성화 시 합법 수 계산마다 실행 추적이 서버 스레드의 링 버퍼({@link TraceRecorder})에 이진 형식으로 기록되고,
+     * /chess debug 또는 /chess trace로 요청할 때만 문자열로 변환된다.
      */
     public void toggleDebugMode(ServerPlayerEntity player) {
         if (activeGameId == null) {
@@ -983,25 +990,34 @@ public class MinecraftChessManager {
         boolean next = !state.isDebugMode();
         state.setDebugMode(next);
         if (next) {
-            // 플레이어 UUID만 보관 → 서버 틱에서 안전하게 조회
-            java.util.UUID playerUuid = player.getUuid();
-            state.setDebugLogger(msg -> {
-                net.minecraft.server.MinecraftServer server = player.getServer();
-                if (server == null)
-                    return;
-                net.minecraft.server.network.ServerPlayerEntity target = server.getPlayerManager()
-                        .getPlayer(playerUuid);
-                if (target != null) {
-                    target.sendMessage(Text.literal("§8[dbg] §7" + msg), false);
-                }
-            });
-            send(player, "§a[StasisChess] Chessembly debug mode §l§aON§r§a — 인게임 채팅으로 실행 추적이 출력됩니다.");
+            TraceRecorder.forCurrentThread().clear();
+            send(player, "§a[StasisChess] Chessembly debug mode §l§aON§r§a — /chess debug, /chess trace 로 실행 추적을 확인하세요.");
         } else {
-            state.setDebugLogger(null);
             send(player, "§c[StasisChess] Chessembly debug mode §l§cOFF§r§c.");
         }
     }
 
+    /**
+     * /chess trace 명령어: 링 버퍼에 남은 실행 추적 전체를 mods/stasischess/logs/trace-*.txt로 저장한다.
+     */
+    public void dumpTrace(ServerPlayerEntity player) {
+        List<String> lines = TraceRecorder.forCurrentThread().format(Integer.MAX_VALUE);
+        if (lines.isEmpty()) {
+            send(player, "§7[StasisChess] No trace recorded. Enable it with /chess debugmode.");
+            return;
+        }
+        try {
+            java.nio.file.Path logDir = java.nio.file.Paths.get("mods", "stasischess", "logs");
+            java.nio.file.Files.createDirectories(logDir);
+            java.nio.file.Path traceFile = logDir.resolve("trace-" + System.currentTimeMillis() + ".txt");
+            java.nio.file.Files.write(traceFile, lines);
+            send(player, "§a[StasisChess] Trace saved: " + traceFile + " (" + lines.size() + " lines)");
+        } catch (Exception e) {
+            StasisChess.LOGGER.error("Failed to save chessembly trace: " + e.getMessage());
+            send(player, "§cFailed to save trace: " + e.getMessage());
+        }
+    }
+
     /**
      * /chess debug 명령어: 현재 엔진 내부의 모든 값을 플레이어 채팅에 출력한다.
      */
@@ -1056,7 +1072,7 @@ public class MinecraftChessManager {
         for (int y = 7; y >= 0; y--) {
             StringBuilder row = new StringBuilder("§7  ").append(y + 1).append("  ");
             for (int x = 0; x < 8; x++) {
-                Piece.PieceData p = state.getPieceAt(new Move.Square(x, y));
+                Piece.PieceData p = state.getPieceAt(Move.Square.of(x, y));
                 if (p == null) {
                     row.append("§8. ");
                 } else {
@@ -1120,6 +1136,35 @@ public class MinecraftChessManager {
             }
         }
 
+        // ── 최근 실행 추적 ─────────────────────────────────
+        if (state.isDebugMode()) {
+            List<String> trace = TraceRecorder.forCurrentThread().format(1);
+            send(player, "§e§lLast Script Trace (" + trace.size() + " lines)");
+            int shown = Math.min(trace.size(), TRACE_CHAT_LINES);
+            for (int i = 0; i < shown; i++) {
+                send(player, "  §7" + trace.get(i));
+            }
+            if (shown < trace.size()) {
+                send(player, "  §8... " + (trace.size() - shown) + " more — /chess trace");
+            }
+        }
+
+        // ── 행마법 실행 비용 ───────────────────────────────
+        List<ScriptCostStats.Summary> costs = ScriptCostStats.snapshot();
+        send(player, String.format("§e§lScript Cost §7(budget %d steps / %d activations, scripts v%d)",
+                ExecutionBudget.maxSteps(),
+                ExecutionBudget.maxActivations(),
+                state.getScripts().version()));
+        if (costs.isEmpty()) {
+            send(player, "  §8(no runs)");
+        } else {
+            for (ScriptCostStats.Summary c : costs) {
+                send(player, String.format("  §7%s §f%d runs §7steps §f%.1f §7p99≤§f%d §7acts §f%.1f%s",
+                        c.kind.name(), c.executions, c.meanSteps, c.p99Steps, c.meanActivations,
+                        c.budgetExceeded > 0 ? " §cOVER×" + c.budgetExceeded : ""));
+            }
+        }
+
         send(player, "§b§l=========================================");
     }
 
@@ -1234,7 +1279,7 @@ public class MinecraftChessManager {
             for (int y = 7; y >= 0; y--) {
                 sb.append("  ").append(y + 1).append("  ");
                 for (int x = 0; x < 8; x++) {
-                    Piece.PieceData p = state.getPieceAt(new Move.Square(x, y));
+                    Piece.PieceData p = state.getPieceAt(Move.Square.of(x, y));
                     if (p == null) {
                         sb.append(".  ");
                     } else {
@@ -0,0 +1,101 @@
+package nand.modid.chess.bench;
+
+import nand.modid.chess.core.*;
+
+import java.util.*;
+
+/**
+ * BoardBench — 체스판 조회·전체 순회: 예전 HashMap 보드 / 배열 보드 비교.
+ *
+ * 실행: {@code ./gradlew bench -Pbench=BoardBench}
+ * 보드는 고정 시드로 만든 8x8 무작위 배치 256개(칸마다 1/3 확률로 기물)를 돌아가며 사용한다.
+ * 조회는 64칸 전부를 좌표로 묻는다 — HashMap은 예전 코드처럼 매번 new Square, 배열 보드는 Square.of.
+ */
+public final class BoardBench {
+
+    private static final int ROUNDS = 20;
+    private static final int REPS = 200;
+
+    public static void main(String[] args) {
+        Random rnd = new Random(4242L);
+        List<Map<Move.Square, String>> maps = new ArrayList<>();
+        List<Board> boards = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            Map<Move.Square, String> map = new HashMap<>();
+            Board board = new Board();
+            for (int y = 0; y < RuleSet.BOARD_HEIGHT; y++) {
+                for (int x = 0; x < RuleSet.BOARD_WIDTH; x++) {
+                    if (rnd.nextInt(3) == 0) {
+                        String id = "piece_" + rnd.nextInt(1000);
+                        map.put(new Move.Square(x, y), id);
+                        board.put(Move.Square.of(x, y), id);
+                    }
+                }
+            }
+            maps.add(map);
+            boards.add(board);
+        }
+
+        double mapLookup = measure(() -> {
+            int n = 0;
+            for (Map<Move.Square, String> map : maps) {
+                for (int y = 0; y < RuleSet.BOARD_HEIGHT; y++) {
+                    for (int x = 0; x < RuleSet.BOARD_WIDTH; x++) {
+                        if (map.get(new Move.Square(x, y)) != null) n++;
+                    }
+                }
+            }
+            return n;
+        }, maps.size());
+        double arrayLookup = measure(() -> {
+            int n = 0;
+            for (Board board : boards) {
+                for (int y = 0; y < RuleSet.BOARD_HEIGHT; y++) {
+                    for (int x = 0; x < RuleSet.BOARD_WIDTH; x++) {
+                        if (board.get(Move.Square.of(x, y)) != null) n++;
+                    }
+                }
+            }
+            return n;
+        }, boards.size());
+        System.out.printf("lookup (64 squares)   HashMap %7.1f ns   array %7.1f ns%n", mapLookup, arrayLookup);
+
+        double mapIter = measure(() -> {
+            int n = 0;
+            for (Map<Move.Square, String> map : maps) {
+                for (Map.Entry<Move.Square, String> e : map.entrySet()) n += e.getKey().x + e.getValue().length();
+            }
+            return n;
+        }, maps.size());
+        double arrayIter = measure(() -> {
+            int n = 0;
+            for (Board board : boards) {
+                for (Map.Entry<Move.Square, String> e : board.entries()) n += e.getKey().x + e.getValue().length();
+            }
+            return n;
+        }, boards.size());
+        int[] acc = new int[1];
+        double arrayForEach = measure(() -> {
+            acc[0] = 0;
+            for (Board board : boards) board.forEach((sq, id) -> acc[0] += sq.x + id.length());
+            return acc[0];
+        }, boards.size());
+        System.out.printf("iterate               HashMap %7.1f ns   array entries %7.1f ns   array forEach %7.1f ns%n",
+                mapIter, arrayIter, arrayForEach);
+    }
+
+    private interface Body { int run(); }
+
+    /** 보드 한 개당 평균 ns (가장 빠른 라운드) */
+    private static double measure(Body body, int boardCount) {
+        int sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < ROUNDS; r++) {
+            long t0 = System.nanoTime();
+            for (int rep = 0; rep < REPS; rep++) sink += body.run();
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        if (sink == 42) System.out.print("");
+        return best / (double) (REPS * boardCount);
+    }
+}
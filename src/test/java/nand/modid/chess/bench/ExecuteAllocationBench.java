@@ -0,0 +1,92 @@
+package nand.modid.chess.bench;
+
+import nand.modid.chess.core.Piece;
+import nand.modid.chess.dsl.chessembly.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * ExecuteAllocationBench — 스크립트 실행 한 번당 할당량/시간 측정.
+ *
+ * 빌드에 JMH가 없으므로 일반 main 클래스로 둔다. 실행: {@code ./gradlew bench -Pbench=ExecuteAllocationBench}
+ * 할당량은 com.sun.management.ThreadMXBean으로 측정하며, 워밍업 뒤 같은 스레드에서 잰다.
+ *
+ * 비교 대상:
+ *   list      — CompiledScript.run(board) (매번 List&lt;Activation&gt; 생성)
+ *   buffer    — CompiledScript.run(board, buffer), 바이트코드 실행기 (jit=false — 출발 칸 특수화 없음)
+ *   buffer+jit — 같은 호출, 생성된 JVM 클래스
+ */
+public final class ExecuteAllocationBench {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    public static void main(String[] args) {
+        List<CompiledScript> scripts = new ArrayList<>();
+        for (Piece.PieceKind kind : Piece.PieceKind.values()) {
+            scripts.add(CompiledScript.compile(kind.chessemblyScript(true), true));
+        }
+        BuiltinOps.BoardState board = sampleBoard();
+
+        GeneratedScript.setEnabled(false);
+        report("list", scripts, () -> {
+            int sink = 0;
+            for (CompiledScript s : scripts) sink += s.run(board).size();
+            return sink;
+        });
+
+        ActivationBuffer buffer = new ActivationBuffer();
+        report("buffer", scripts, () -> {
+            int sink = 0;
+            for (CompiledScript s : scripts) {
+                s.run(board, buffer);
+                sink += buffer.size();
+            }
+            return sink;
+        });
+
+        GeneratedScript.setEnabled(true);
+        GeneratedScript.setThreshold(1);
+        report("buffer+jit", scripts, () -> {
+            int sink = 0;
+            for (CompiledScript s : scripts) {
+                s.run(board, buffer);
+                sink += buffer.size();
+            }
+            return sink;
+        });
+    }
+
+    private interface Round { int run(); }
+
+    private static void report(String name, List<CompiledScript> scripts, Round round) {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) sink += round.run();
+
+        long bytes0 = mx.getThreadAllocatedBytes(tid);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) sink += round.run();
+        long t1 = System.nanoTime();
+        long bytes1 = mx.getThreadAllocatedBytes(tid);
+
+        long calls = (long) ITERATIONS * scripts.size();
+        System.out.printf("%-11s %8.1f ns/call %10.1f B/call   (sink=%d)%n",
+                name, (t1 - t0) / (double) calls, (bytes1 - bytes0) / (double) calls, sink);
+    }
+
+    /** 중앙에 이동 기물, 주변에 아군/적 기물이 섞인 8x8 보드 */
+    static BuiltinOps.BoardState sampleBoard() {
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 3, 3, "queen", true);
+        board.putPiece(3, 3, "queen", true, 0, 2);
+        board.putPiece(3, 6, "pawn", false, 0, 1);
+        board.putPiece(6, 6, "rook", false, 0, 1);
+        board.putPiece(1, 1, "pawn", true, 0, 1);
+        board.putPiece(5, 3, "knight", true, 0, 1);
+        board.putPiece(0, 3, "bishop", false, 0, 1);
+        board.putPiece(4, 5, "pawn", false, 0, 1);
+        return board;
+    }
+}
@@ -0,0 +1,64 @@
+package nand.modid.chess.bench;
+
+import nand.modid.chess.dsl.chessembly.*;
+import nand.modid.chess.movegen.StandardGenerators;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * LexerBench — 내장 스크립트 전체를 토큰화하는 시간/할당량 비교.
+ *
+ * 실행: {@code ./gradlew bench -Pbench=LexerBench}
+ *
+ * 비교 대상:
+ *   legacy — 이전 Lexer (단어/인자마다 substring, StringBuilder, List 생성)
+ *   tokens — 현재 Lexer.tokenizeAll()
+ *   cursor — 현재 Lexer의 커서 API (Token 객체 없음)
+ */
+public final class LexerBench {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+
+    public static void main(String[] args) {
+        List<String> scripts = new ArrayList<>(StandardGenerators.getAllBuiltinScripts().values());
+
+        report("legacy", scripts, () -> {
+            int sink = 0;
+            for (String s : scripts) sink += new LegacyLexer(s).tokenizeAll().size();
+            return sink;
+        });
+        report("tokens", scripts, () -> {
+            int sink = 0;
+            for (String s : scripts) sink += new Lexer(s).tokenizeAll().size();
+            return sink;
+        });
+        report("cursor", scripts, () -> {
+            int sink = 0;
+            for (String s : scripts) {
+                Lexer lexer = new Lexer(s);
+                while (lexer.advance()) sink += lexer.dx();
+            }
+            return sink;
+        });
+    }
+
+    private interface Round { int run(); }
+
+    private static void report(String name, List<String> scripts, Round round) {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) sink += round.run();
+
+        long bytes0 = mx.getThreadAllocatedBytes(tid);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) sink += round.run();
+        long t1 = System.nanoTime();
+        long bytes1 = mx.getThreadAllocatedBytes(tid);
+
+        System.out.printf("%-7s %10.1f us/round %12.1f B/round   (%d scripts, sink=%d)%n",
+                name, (t1 - t0) / 1000.0 / ITERATIONS, (bytes1 - bytes0) / (double) ITERATIONS, scripts.size(), sink);
+    }
+}
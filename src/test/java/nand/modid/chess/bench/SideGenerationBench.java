@@ -0,0 +1,82 @@
+package nand.modid.chess.bench;
+
+import nand.modid.chess.core.*;
+import nand.modid.chess.dsl.chessembly.TestPositions;
+import nand.modid.chess.movegen.*;
+
+/**
+ * SideGenerationBench — 한 진영 전체 합법 수: 기물별 generateLegalMoves 반복 / generateAllForSide 비교,
+ * 그리고 합법 수 캐시가 찬 상태와 칸 하나가 바뀐 뒤의 재조회.
+ *
+ * 실행: {@code ./gradlew bench -Pbench=SideGenerationBench}
+ * 포지션은 양측 기물 10개씩과 중립기물 하나를 배치한 고정 포지션이다.
+ */
+public final class SideGenerationBench {
+
+    private static final int ROUNDS = 20;
+    private static final int REPS = 2_000;
+
+    public static void main(String[] args) {
+        GameState state = position();
+        PackedMoveList reused = new PackedMoveList();
+
+        LegalMoveCache cache = state.getMoveCache();
+        double perPiece = measure(() -> {
+            cache.clear();
+            int n = 0;
+            for (Piece.PieceData p : state.getBoardPieces()) {
+                if (p.owner == 0 || p.isNeutral()) n += MoveGenerator.generateLegalMoves(state, p.id).size();
+            }
+            return n;
+        });
+        double batch = measure(() -> {
+            cache.clear();
+            return MoveGenerator.generateAllForSide(state, 0).size();
+        });
+        double batchReused = measure(() -> {
+            cache.clear();
+            MoveGenerator.generateAllForSide(state, 0, reused);
+            return reused.size();
+        });
+        double batchCached = measure(() -> {
+            MoveGenerator.generateAllForSide(state, 0, reused);
+            return reused.size();
+        });
+        // 기물 하나를 옮겼다 되돌리는 것처럼 한 칸만 바뀐 뒤의 재조회
+        long changed = 1L << (3 * 8 + 4);   // e4
+        double afterChange = measure(() -> {
+            cache.invalidate(changed);
+            MoveGenerator.generateAllForSide(state, 0, reused);
+            return reused.size();
+        });
+        System.out.printf("moves per side: %d%n", reused.size());
+        System.out.printf("per-piece %8.2f us   batch %8.2f us   batch (reused list) %8.2f us%n",
+                perPiece, batch, batchReused);
+        System.out.printf("cached    %8.2f us   one square changed %8.2f us%n", batchCached, afterChange);
+    }
+
+    private interface Body { int run(); }
+
+    /** 진영 한 번 생성당 최소 평균 µs (라운드 중 최선) */
+    private static double measure(Body body) {
+        int sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < ROUNDS; r++) {
+            long t0 = System.nanoTime();
+            for (int rep = 0; rep < REPS; rep++) sink += body.run();
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        if (sink == 42) System.out.print("");
+        return best / (REPS * 1e3);
+    }
+
+    private static GameState position() {
+        Piece.PieceKind[] kinds = {
+            Piece.PieceKind.QUEEN, Piece.PieceKind.ROOK, Piece.PieceKind.BISHOP, Piece.PieceKind.KNIGHT,
+            Piece.PieceKind.PAWN, Piece.PieceKind.PAWN, Piece.PieceKind.AMAZON, Piece.PieceKind.CANNON,
+            Piece.PieceKind.GRASSHOPPER, Piece.PieceKind.KNIGHTRIDER
+        };
+        return TestPositions.mixed(kinds, new String[]{ "d2", "a2", "c3", "b3", "e3", "f3", "d4", "h3", "g4", "c4" },
+                new String[]{ "d7", "a7", "c6", "b6", "e6", "f6", "d5", "h6", "g5", "c5" }, "f4");
+    }
+}
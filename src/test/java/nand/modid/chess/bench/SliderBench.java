@@ -0,0 +1,90 @@
+package nand.modid.chess.bench;
+
+import nand.modid.chess.core.Piece;
+import nand.modid.chess.dsl.chessembly.*;
+
+import java.util.*;
+
+/**
+ * SliderBench — 슬라이더 기물 생성: 바이트코드 실행기 / 칸별 표 / 매직 비트보드 비교.
+ *
+ * 실행: {@code ./gradlew bench -Pbench=SliderBench}
+ * 보드는 고정 시드로 만든 8x8 무작위 배치 256개를 돌아가며 사용한다.
+ */
+public final class SliderBench {
+
+    private static final Piece.PieceKind[] KINDS = {
+        Piece.PieceKind.QUEEN, Piece.PieceKind.ROOK, Piece.PieceKind.BISHOP,
+        Piece.PieceKind.AMAZON, Piece.PieceKind.ARCHBISHOP
+    };
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        long t0 = System.nanoTime();
+        SliderAttacks.rookAttacks(0, 0L);   // 표 생성 (클래스 초기화)
+        System.out.printf("magic table init: %.1f ms%n", (System.nanoTime() - t0) / 1e6);
+
+        List<BuiltinOps.BoardState> boards = boards(256);
+        ActivationBuffer out = new ActivationBuffer();
+        GeneratedScript.setEnabled(false);
+
+        for (Piece.PieceKind kind : KINDS) {
+            CompiledScript script = CompiledScript.compile(kind.chessemblyScript(true));
+            MovePattern pattern = script.pattern();
+
+            double interp = measure(boards, b -> {
+                BytecodeInterpreter.execute(script.bytecode(), b, out);
+                return out.size();
+            });
+            SliderAttacks.setEnabled(false);
+            double table = measure(boards, b -> {
+                pattern.generate(b, out);
+                return out.size();
+            });
+            SliderAttacks.setEnabled(true);
+            double magic = measure(boards, b -> {
+                pattern.generate(b, out);
+                return out.size();
+            });
+            System.out.printf("%-11s interpreter %7.1f ns   table %7.1f ns   magic %7.1f ns%n",
+                    kind, interp, table, magic);
+        }
+    }
+
+    private interface Body { int run(BuiltinOps.BoardState board); }
+
+    /** 보드 한 개당 평균 ns (워밍업 라운드 제외) */
+    private static double measure(List<BuiltinOps.BoardState> boards, Body body) {
+        int sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < ROUNDS; r++) {
+            long t0 = System.nanoTime();
+            for (int rep = 0; rep < 200; rep++) {
+                for (BuiltinOps.BoardState b : boards) sink += body.run(b);
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        if (sink == 42) System.out.print("");
+        return best / (200.0 * boards.size());
+    }
+
+    private static List<BuiltinOps.BoardState> boards(int count) {
+        Random rnd = new Random(1234L);
+        String[] names = { "pawn", "knight", "bishop", "rook", "queen", "king" };
+        List<BuiltinOps.BoardState> boards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int px = rnd.nextInt(8), py = rnd.nextInt(8);
+            BuiltinOps.BoardState b = new BuiltinOps.BoardState(8, 8, px, py, "queen", true);
+            for (int y = 0; y < 8; y++) {
+                for (int x = 0; x < 8; x++) {
+                    if ((x != px || y != py) && rnd.nextInt(4) == 0) {
+                        b.putPiece(x, y, names[rnd.nextInt(names.length)], rnd.nextBoolean(), 0, 1);
+                    }
+                }
+            }
+            b.putPiece(px, py, "queen", true, 0, 1);
+            boards.add(b);
+        }
+        return boards;
+    }
+}
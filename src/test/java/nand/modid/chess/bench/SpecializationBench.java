@@ -0,0 +1,119 @@
+package nand.modid.chess.bench;
+
+import nand.modid.chess.core.Piece;
+import nand.modid.chess.dsl.chessembly.*;
+
+import java.util.*;
+
+/**
+ * SpecializationBench — 출발 칸별 특수화 프로그램: 바이트코드 실행기 / 생성 클래스 / 특수화 비교,
+ * 그리고 모든 기물 종류·색에 대한 64칸 표의 크기와 생성 시간.
+ *
+ * 실행: {@code ./gradlew bench -Pbench=SpecializationBench}
+ * 패턴 표로 처리되는 기물(리퍼/라이더/호퍼)은 특수화 티어를 거치지 않으므로 실행 비교에서 뺀다.
+ * 보드는 고정 시드로 만든 8x8 무작위 배치 256개를 돌아가며 사용한다.
+ */
+public final class SpecializationBench {
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        // ── 64칸 × 기물 종류 표 ──
+        long bytes = 0, tierBytes = 0;
+        int origins = 0, nodes = 0, failed = 0;
+        long t0 = System.nanoTime();
+        for (Piece.PieceKind kind : Piece.PieceKind.values()) {
+            for (boolean white : new boolean[]{ true, false }) {
+                CompiledScript script = CompiledScript.compile(kind.chessemblyScript(white));
+                Bytecode program = script.bytecode();
+                long kindBytes = 16 + 4 * 64;
+                for (int sq = 0; sq < 64; sq++) {
+                    SpecializedScript sp = SpecializedScript.build(program, 8, 8, sq & 7, sq >>> 3);
+                    if (sp == null) {
+                        failed++;
+                        continue;
+                    }
+                    origins++;
+                    nodes += sp.nodeCount();
+                    kindBytes += sp.memoryBytes();
+                }
+                bytes += kindBytes;
+                if (script.pattern() == null) tierBytes += kindBytes;
+            }
+        }
+        System.out.printf("table: %d kinds x 2 colors, %d origins (%d unspecializable), %d probe nodes, %.1f KiB, built in %.1f ms%n",
+                Piece.PieceKind.values().length, origins, failed, nodes, bytes / 1024.0, (System.nanoTime() - t0) / 1e6);
+        System.out.printf("table for kinds not covered by MovePattern: %.1f KiB%n", tierBytes / 1024.0);
+
+        // ── 실행 비교 ──
+        List<BuiltinOps.BoardState> boards = boards(256);
+        ActivationBuffer out = new ActivationBuffer();
+        double sumInterp = 0, sumJit = 0, sumSpec = 0;
+        for (Piece.PieceKind kind : Piece.PieceKind.values()) {
+            CompiledScript script = CompiledScript.compile(kind.chessemblyScript(true));
+            if (script.pattern() != null || script.bytecode().length() == 0) continue;
+            GeneratedScript generated = ScriptJit.compile(script.bytecode());
+            SpecializedScript[] table = new SpecializedScript[64];
+            for (int sq = 0; sq < 64; sq++) table[sq] = SpecializedScript.build(script.bytecode(), 8, 8, sq & 7, sq >>> 3);
+
+            double interp = measure(boards, b -> {
+                BytecodeInterpreter.execute(script.bytecode(), b, out);
+                return out.size();
+            });
+            double jit = measure(boards, b -> {
+                generated.execute(b, out);
+                return out.size();
+            });
+            double spec = measure(boards, b -> {
+                SpecializedScript sp = table[b.pieceY * 8 + b.pieceX];
+                if (sp != null) sp.execute(b, out);
+                else BytecodeInterpreter.execute(script.bytecode(), b, out);
+                return out.size();
+            });
+            sumInterp += interp;
+            sumJit += jit;
+            sumSpec += spec;
+            System.out.printf("%-16s interpreter %7.1f ns   generated %7.1f ns   specialized %7.1f ns%n",
+                    kind, interp, jit, spec);
+        }
+        System.out.printf("%-16s interpreter %7.1f ns   generated %7.1f ns   specialized %7.1f ns%n",
+                "total", sumInterp, sumJit, sumSpec);
+    }
+
+    private interface Body { int run(BuiltinOps.BoardState board); }
+
+    /** 보드 한 개당 평균 ns (라운드 중 최선) */
+    private static double measure(List<BuiltinOps.BoardState> boards, Body body) {
+        int sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < ROUNDS; r++) {
+            long t0 = System.nanoTime();
+            for (int rep = 0; rep < 100; rep++) {
+                for (BuiltinOps.BoardState b : boards) sink += body.run(b);
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        if (sink == 42) System.out.print("");
+        return best / (100.0 * boards.size());
+    }
+
+    private static List<BuiltinOps.BoardState> boards(int count) {
+        Random rnd = new Random(1234L);
+        String[] names = { "pawn", "knight", "bishop", "rook", "queen", "king" };
+        List<BuiltinOps.BoardState> boards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int px = rnd.nextInt(8), py = rnd.nextInt(8);
+            BuiltinOps.BoardState b = new BuiltinOps.BoardState(8, 8, px, py, "queen", true);
+            for (int y = 0; y < 8; y++) {
+                for (int x = 0; x < 8; x++) {
+                    if ((x != px || y != py) && rnd.nextInt(4) == 0) {
+                        b.putPiece(x, y, names[rnd.nextInt(names.length)], rnd.nextBoolean(), 0, 1);
+                    }
+                }
+            }
+            b.putPiece(px, py, "queen", true, 0, 1);
+            boards.add(b);
+        }
+        return boards;
+    }
+}
@@ -0,0 +1,135 @@
+package nand.modid.chess.bench;
+
+import nand.modid.chess.core.*;
+import nand.modid.chess.dsl.chessembly.ScriptArtifact;
+import nand.modid.chess.movegen.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * StartupBench — 모드 초기화(내장 스크립트 준비 + 외부 스크립트 리로드)부터 첫 합법 수 조회까지의 시간:
+ * 원본 컴파일 / 미리 컴파일된 .csb 묶음 비교.
+ *
+ * 실행: {@code ./gradlew bench -Pbench=StartupBench}
+ * 클래스 로딩·JIT 상태가 섞이지 않도록 측정마다 새 JVM을 띄운다 (두 방식을 번갈아 RUNS회씩, 중앙값).
+ * 외부 스크립트 묶음은 모든 기물 종류에 대해 내장 스크립트 여러 개를 이어 붙인 파일로 만든다.
+ */
+public final class StartupBench {
+
+    private static final int RUNS = 9;
+    /** 외부 스크립트 한 파일에 이어 붙일 내장 스크립트 수 */
+    private static final int PACK_FACTOR = 6;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("child")) {
+            child(args[1].equals("artifact"), Paths.get(args[2]), Paths.get(args[3]));
+            return;
+        }
+
+        Path dir = Files.createTempDirectory("startup-bench");
+        Path scripts = dir.resolve("scripts");
+        Path csb = dir.resolve("scripts" + ScriptArtifact.EXTENSION);
+        try {
+            Files.createDirectories(scripts);
+            Piece.PieceKind[] kinds = Piece.PieceKind.values();
+            for (int k = 0; k < kinds.length; k++) {
+                StringBuilder sb = new StringBuilder();
+                for (int j = 0; j < PACK_FACTOR; j++) {
+                    sb.append(kinds[(k + j) % kinds.length].chessemblyScript(j % 2 == 0)).append('\n');
+                }
+                Files.write(scripts.resolve(kinds[k].scriptName() + ScriptRegistry.EXTENSION),
+                        sb.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            List<String> errors = new ArrayList<>();
+            long t0 = System.nanoTime();
+            int count = ScriptPrecompiler.precompile(scripts, csb, errors);
+            if (count < 0) throw new IllegalStateException(errors.toString());
+            System.out.printf("artifact: %d programs, %.1f KiB, precompiled in %.1f ms%n",
+                    count, Files.size(csb) / 1024.0, (System.nanoTime() - t0) / 1e6);
+
+            long[][] source = new long[RUNS][], artifact = new long[RUNS][];
+            for (int r = 0; r < RUNS; r++) {
+                source[r] = runChild("source", scripts, csb);
+                artifact[r] = runChild("artifact", scripts, csb);
+            }
+            report("source", source);
+            report("artifact", artifact);
+        } finally {
+            try (java.util.stream.Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    /** 새 JVM에서 한 번 측정: [초기화 ns, 첫 조회 ns] */
+    private static long[] runChild(String mode, Path scripts, Path csb) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process p = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                StartupBench.class.getName(), "child", mode, scripts.toString(), csb.toString())
+                .redirectErrorStream(true).start();
+        String line;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+            line = in.readLine();
+        }
+        if (p.waitFor() != 0 || line == null) throw new IllegalStateException(mode + " 측정 실패: " + line);
+        String[] parts = line.trim().split(" ");
+        return new long[]{ Long.parseLong(parts[0]), Long.parseLong(parts[1]) };
+    }
+
+    private static void child(boolean useArtifact, Path scripts, Path csb) throws IOException {
+        warmJdk(scripts);
+        long t0 = System.nanoTime();
+        ScriptArtifact.Pack pack = useArtifact ? ScriptArtifact.load(csb) : ScriptArtifact.Pack.EMPTY;
+        if (useArtifact && pack.isEmpty()) throw new IllegalStateException(pack.status());
+        ScriptRegistry.usePrecompiled(pack);
+        ScriptCache.warmUp(pack);
+        if (!ScriptRegistry.reload(scripts).applied()) throw new IllegalStateException("리로드 실패");
+        long t1 = System.nanoTime();
+
+        GameState state = new GameState(0);
+        state.setupExperimentalPosition();
+        String id = state.placePiece(0, Piece.PieceKind.QUEEN, Move.Square.fromNotation("d4"));
+        for (Piece.PieceData p : state.getBoardPieces()) p.stun = 0;
+        int moves = state.getLegalMoves(id).size();
+        long t2 = System.nanoTime();
+        if (moves == 0) throw new IllegalStateException("합법 수 없음");
+        System.out.println((t1 - t0) + " " + (t2 - t1));
+    }
+
+    /**
+     * 서버에서는 이미 초기화되어 있을 JDK 기반(람다 부트스트랩, 스트림, NIO 파일 읽기, 문자열 결합)을 먼저 쓴다.
+     * 그러지 않으면 어느 방식이든 처음 이것들을 쓰는 단계가 수십 ms를 떠안아 스크립트 비용이 가려진다.
+     */
+    private static void warmJdk(Path scripts) throws IOException {
+        Path tmp = Files.createTempFile("warm", ".bin");
+        try {
+            Files.write(tmp, new byte[64]);
+            try (java.nio.channels.FileChannel ch = java.nio.channels.FileChannel.open(tmp, StandardOpenOption.READ)) {
+                ch.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, ch.size()).getInt(0);
+            }
+            try (java.util.stream.Stream<Path> files = Files.list(scripts)) {
+                files.filter(p -> p.toString().endsWith("x")).sorted().forEach(p -> { });
+            }
+            if (String.format("%d", Files.readAllBytes(tmp).length).isEmpty() || ("" + tmp).isEmpty()) {
+                throw new IllegalStateException();
+            }
+        } finally {
+            Files.delete(tmp);
+        }
+    }
+
+    private static void report(String mode, long[][] runs) {
+        long[] init = new long[runs.length], total = new long[runs.length];
+        for (int i = 0; i < runs.length; i++) {
+            init[i] = runs[i][0];
+            total[i] = runs[i][0] + runs[i][1];
+        }
+        Arrays.sort(init);
+        Arrays.sort(total);
+        System.out.printf("%-9s init %7.1f ms   init + first legal-move query %7.1f ms   (median of %d JVMs)%n",
+                mode, init[runs.length / 2] / 1e6, total[runs.length / 2] / 1e6, runs.length);
+    }
+}
@@ -0,0 +1,91 @@
+package nand.modid.chess.bench;
+
+import nand.modid.chess.core.Piece;
+import nand.modid.chess.dsl.chessembly.ScriptSymbols;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * StateBench — 기물별 상태: 예전 HashMap&lt;String, Integer&gt; / 슬롯 PieceState 비교.
+ *
+ * 실행: {@code ./gradlew bench -Pbench=StateBench}
+ * 메모리는 상태 객체 N개를 만들어 둔 채 GC 뒤 힙 사용량 차이를 N으로 나눈 값(대략치)이다.
+ * 복사는 PieceData.copy()·보드 뷰가 하던 일(새 맵 + putAll / copy()), 읽기는 if-state 한 번(키 조회 / 슬롯 조회)이다.
+ * 키가 0개(대부분의 기물)와 1개(charge)인 경우를 따로 잰다.
+ */
+public final class StateBench {
+
+    private static final int COUNT = 200_000;
+    private static final int ROUNDS = 20;
+    private static final int REPS = 2_000_000;
+
+    public static void main(String[] args) {
+        String key = "charge";
+        int slot = ScriptSymbols.stateSlot(key);
+
+        for (int keys = 0; keys <= 1; keys++) {
+            final boolean withKey = keys == 1;
+            long mapBytes = bytesPer(i -> {
+                Map<String, Integer> m = new HashMap<>();
+                if (withKey) m.put(key, i & 3);
+                return m;
+            });
+            long slotBytes = bytesPer(i -> {
+                Piece.PieceState s = new Piece.PieceState();
+                if (withKey) s.putSlot(slot, i & 3);
+                return s;
+            });
+            System.out.printf("memory (%d key)   HashMap %4d B   PieceState %4d B%n", keys, mapBytes, slotBytes);
+
+            Map<String, Integer> map = new HashMap<>();
+            Piece.PieceState state = new Piece.PieceState();
+            if (withKey) {
+                map.put(key, 2);
+                state.putSlot(slot, 2);
+            }
+            double mapCopy = measure(() -> {
+                Map<String, Integer> c = new HashMap<>();
+                c.putAll(map);
+                return c.size();
+            });
+            double slotCopy = measure(() -> state.copy().size());
+            System.out.printf("copy   (%d key)   HashMap %6.1f ns   PieceState %6.1f ns%n", keys, mapCopy, slotCopy);
+
+            double mapRead = measure(() -> map.getOrDefault(key, 0));
+            double slotRead = measure(() -> state.getSlot(slot));
+            System.out.printf("read   (%d key)   HashMap %6.1f ns   PieceState %6.1f ns%n", keys, mapRead, slotRead);
+        }
+    }
+
+    private interface Body { int run(); }
+
+    /** 한 번당 평균 ns (가장 빠른 라운드) */
+    private static double measure(Body body) {
+        int sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < ROUNDS; r++) {
+            long t0 = System.nanoTime();
+            for (int rep = 0; rep < REPS; rep++) sink += body.run();
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        if (sink == 42) System.out.print("");
+        return best / (double) REPS;
+    }
+
+    /** 객체 하나당 힙 바이트 (대략치) */
+    private static long bytesPer(IntFunction<Object> factory) {
+        Object[] keep = new Object[COUNT];
+        long before = usedAfterGc();
+        for (int i = 0; i < COUNT; i++) keep[i] = factory.apply(i);
+        long after = usedAfterGc();
+        if (keep[COUNT - 1] == null) System.out.print("");
+        return (after - before) / COUNT;
+    }
+
+    private static long usedAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
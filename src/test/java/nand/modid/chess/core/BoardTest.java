@@ -0,0 +1,205 @@
+package nand.modid.chess.core;
+
+import nand.modid.chess.dsl.chessembly.BuiltinOps;
+import nand.modid.chess.dsl.chessembly.TestPositions;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BoardTest — 배열 보드가 예전 HashMap 보드와 같은 내용을 돌려주고, 좌표가 표준 인스턴스이며,
+ * GameState의 점유 비트보드·기물 핸들·Chessembly 뷰가 착수·이동·포획 후에도 보드 내용과 일치하는지 검증.
+ */
+@DisplayName("배열 보드 테스트")
+class BoardTest {
+
+    @Test
+    @DisplayName("1. 보드 안 좌표는 같은 객체, 보드 밖 좌표는 값으로만 같다")
+    void squaresAreCanonical() {
+        for (int y = 0; y < RuleSet.BOARD_HEIGHT; y++) {
+            for (int x = 0; x < RuleSet.BOARD_WIDTH; x++) {
+                Move.Square sq = Move.Square.of(x, y);
+                assertSame(sq, Move.Square.of(x, y));
+                assertSame(sq, Move.Square.ofIndex(sq.index()));
+                assertSame(sq, Move.Square.fromNotation(sq.toNotation()));
+                assertEquals(sq, new Move.Square(x, y));
+            }
+        }
+        Move.Square outside = Move.Square.of(8, 3);
+        assertFalse(outside.isValid());
+        assertEquals(outside, Move.Square.of(8, 3));
+    }
+
+    @Test
+    @DisplayName("2. 무작위 put/remove 후 조회·순회 결과가 HashMap과 같다")
+    void matchesHashMap() {
+        Random rnd = new Random(77L);
+        Board board = new Board();
+        Map<Move.Square, String> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            Move.Square sq = Move.Square.of(rnd.nextInt(RuleSet.BOARD_WIDTH), rnd.nextInt(RuleSet.BOARD_HEIGHT));
+            if (rnd.nextBoolean()) {
+                String id = "piece_" + i;
+                board.put(sq, id);
+                expected.put(sq, id);
+            } else {
+                assertEquals(expected.remove(sq), board.remove(sq));
+            }
+            assertEquals(expected.size(), board.size());
+        }
+        assertEquals(expected, board.asMap());
+        assertEquals(expected.entrySet(), board.entries());
+        assertNull(board.get(Move.Square.of(-1, 0)));
+        assertNull(board.get(null));
+        assertFalse(board.contains(Move.Square.of(0, 9)));
+        assertThrows(IllegalArgumentException.class, () -> board.put(Move.Square.of(9, 9), "x"));
+        assertThrows(UnsupportedOperationException.class, () -> board.asMap().put(Move.Square.of(0, 0), "x"));
+
+        board.clear();
+        assertEquals(0, board.size());
+        assertFalse(board.entries().iterator().hasNext());
+    }
+
+    @Test
+    @DisplayName("3. 무작위 대국 동안 점유 비트보드와 Chessembly 뷰가 보드에서 다시 만든 값과 같다")
+    void occupancyTracksBoard() {
+        Random rnd = new Random(2024L);
+        for (int game = 0; game < 20; game++) {
+            GameState state = new GameState(0);
+            state.setupExperimentalPosition();
+            state.placeNeutralPiece(Piece.PieceKind.NEUTRAL_SENTINEL, Move.Square.of(rnd.nextInt(8), 3 + rnd.nextInt(2)));
+            assertOccupancyMatches(state);
+            for (int ply = 0; ply < 60 && state.checkVictory() == Move.GameResult.ONGOING; ply++) {
+                int player = state.getTurn();
+                List<Move.LegalMove> moves = new ArrayList<>();
+                for (Piece.PieceData p : state.getBoardPieces()) {
+                    if (p.owner == player) moves.addAll(state.getLegalMoves(p.id));
+                }
+                List<Piece.PieceSpec> pocket = state.getPocket(player);
+                if (!pocket.isEmpty() && (moves.isEmpty() || rnd.nextInt(3) == 0)) {
+                    Piece.PieceKind kind = pocket.get(rnd.nextInt(pocket.size())).kind;
+                    Move.Square sq = Move.Square.of(rnd.nextInt(8), rnd.nextInt(8));
+                    try {
+                        state.placePiece(player, kind, sq);
+                    } catch (IllegalStateException ignored) {
+                        // 막힌 칸·프로모션 칸 — 이번 턴은 넘어간다
+                    }
+                } else if (!moves.isEmpty()) {
+                    state.movePieceByLegalMove(moves.get(rnd.nextInt(moves.size())));
+                }
+                assertOccupancyMatches(state);
+                state.endTurn();
+                assertViewsMatch(state);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("4. 잡힌 기물의 핸들은 재사용되고 ID는 새로 받으며, 핸들과 ID 조회 결과가 같다")
+    void handlesAreReused() {
+        GameState state = new GameState(0);
+        state.setupExperimentalPosition();
+        String queen = state.placePiece(0, Piece.PieceKind.QUEEN, Move.Square.fromNotation("d4"));
+        state.endTurn();
+        String rook = state.placePiece(1, Piece.PieceKind.ROOK, Move.Square.fromNotation("d6"));
+        int rookHandle = state.getPiece(rook).handle();
+        assertEquals(rookHandle, state.getTurnActions().get(0).pieceHandle);
+        assertSame(state.getPiece(rook), state.getPiece(rookHandle));
+        assertEquals(rookHandle, state.getBoard().getHandle(Move.Square.fromNotation("d6")));
+        state.endTurn();
+
+        state.capture(queen, rook);
+        assertNull(state.getPiece(rookHandle));
+        assertNull(state.getPiece(rook));
+        assertEquals(Piece.PieceData.NO_HANDLE, state.getBoard().getHandle(Move.Square.fromNotation("d6")));
+        int limit = state.getHandleLimit();
+
+        state.endTurn();
+        String knight = state.placePiece(1, Piece.PieceKind.KNIGHT, Move.Square.fromNotation("b8"));
+        assertNotEquals(rook, knight);
+        assertEquals(rookHandle, state.getPiece(knight).handle());
+        assertEquals(limit, state.getHandleLimit());
+
+        TestPositions.clearStuns(state);
+        int queenHandle = state.getPiece(queen).handle();
+        assertFalse(state.getLegalMoves(queenHandle).isEmpty());
+        assertEquals(state.getLegalMoves(queen).toString(), state.getLegalMoves(queenHandle).toString());
+    }
+
+    @Test
+    @DisplayName("5. 같은 국면의 반복 질의는 같은 뷰를 다시 쓰고 기물을 다시 등록하지 않는다")
+    void viewsArePersistent() {
+        GameState state = new GameState(0);
+        state.setupExperimentalPosition();
+        String queen = state.placePiece(0, Piece.PieceKind.QUEEN, Move.Square.fromNotation("d4"));
+        BuiltinOps.BoardState view = state.toChessemblyBoard(queen);
+        BuiltinOps.PieceInfo info = view.pieceAt(3, 3);
+        assertNotNull(info);
+        state.getLegalMoves(queen);
+        assertSame(view, state.toChessemblyView(true));
+        assertSame(info, state.toChessemblyBoard(queen).pieceAt(3, 3));
+
+        // 스택이 바뀐 칸만 다시 쓴다
+        BuiltinOps.PieceInfo king = view.pieceAt(4, 0);
+        state.endTurn();
+        assertSame(view, state.toChessemblyView(true));
+        assertSame(king, view.pieceAt(4, 0));
+        assertEquals(state.getPiece(queen).moveStack, view.pieceAt(3, 3).move_stack);
+        assertViewsMatch(state);
+    }
+
+    private static void assertViewsMatch(GameState state) {
+        for (boolean white : new boolean[] { true, false }) {
+            BuiltinOps.BoardState view = state.toChessemblyView(white);
+            BuiltinOps.BoardState fresh = new BuiltinOps.BoardState(
+                    RuleSet.BOARD_WIDTH, RuleSet.BOARD_HEIGHT, 0, 0, "", white);
+            for (Piece.PieceData p : state.getBoardPieces()) {
+                Piece.PieceKind kind = p.effectiveKind();
+                fresh.putPiece(p.pos.x, p.pos.y, kind.scriptName(), kind.ordinal(),
+                        p.isNeutral() ? white : p.isWhite(), p.stun, p.moveStack, p.state);
+            }
+            assertEquals(fresh.occupancy(), view.occupancy());
+            assertEquals(fresh.friendlyOccupancy(), view.friendlyOccupancy());
+            assertEquals(fresh.pieces.size(), view.pieces.size());
+            for (int y = 0; y < RuleSet.BOARD_HEIGHT; y++) {
+                for (int x = 0; x < RuleSet.BOARD_WIDTH; x++) {
+                    BuiltinOps.PieceInfo a = fresh.pieceAt(x, y), b = view.pieceAt(x, y);
+                    if (a == null) {
+                        assertNull(b);
+                        continue;
+                    }
+                    assertNotNull(b);
+                    assertEquals(a.name, b.name);
+                    assertEquals(a.kind, b.kind);
+                    assertEquals(a.isWhite, b.isWhite);
+                    assertEquals(a.stun_stack, b.stun_stack);
+                    assertEquals(a.move_stack, b.move_stack);
+                    assertEquals(a.state, b.state);
+                }
+            }
+        }
+    }
+
+    private static void assertOccupancyMatches(GameState state) {
+        long white = 0, black = 0, neutral = 0;
+        long[] kinds = new long[Piece.PieceKind.values().length];
+        for (Map.Entry<Move.Square, String> e : state.getBoard().entries()) {
+            Piece.PieceData p = state.getPiece(e.getValue());
+            assertSame(p, state.getPiece(state.getBoard().getHandle(e.getKey())));
+            long bit = 1L << e.getKey().index();
+            if (p.isNeutral()) neutral |= bit;
+            else if (p.owner == 0) white |= bit;
+            else black |= bit;
+            kinds[p.kind.ordinal()] |= bit;
+        }
+        assertEquals(white, state.getWhiteOccupancy());
+        assertEquals(black, state.getBlackOccupancy());
+        assertEquals(neutral, state.getNeutralOccupancy());
+        assertEquals(white | black | neutral, state.getOccupancy());
+        for (Piece.PieceKind kind : Piece.PieceKind.values()) {
+            assertEquals(kinds[kind.ordinal()], state.getKindOccupancy(kind), kind.toString());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package nand.modid.chess.core;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GameSnapshotTest — 스냅샷이 찍은 때의 상태를 그대로 유지하고, 바뀌지 않은 기물을 이전 스냅샷과 공유하며,
+ * thaw한 GameState가 원래 게임과 같은 상태에서 따로 진행되는지 검증.
+ */
+@DisplayName("GameSnapshot 테스트")
+class GameSnapshotTest {
+
+    @Test
+    @DisplayName("1. 바뀐 것이 없으면 같은 스냅샷을, 바뀌면 바뀐 기물만 새로 담은 스냅샷을 돌려준다")
+    void sharesUnchangedPieces() {
+        GameState state = new GameState(0);
+        state.setupExperimentalPosition();
+        String knight = state.placePiece(0, Piece.PieceKind.KNIGHT, Move.Square.fromNotation("b1"));
+        state.endTurn();
+        GameSnapshot first = state.snapshot();
+        assertSame(first, state.snapshot());
+        String before = describe(first);
+
+        String pawn = state.placePiece(1, Piece.PieceKind.PAWN, Move.Square.fromNotation("d7"));
+        GameSnapshot second = state.snapshot();
+        assertNotSame(first, second);
+        assertEquals(before, describe(first));
+        assertEquals(describe(state), describe(second));
+        assertNull(first.getPieceAt(Move.Square.fromNotation("d7")));
+        assertEquals(pawn, second.getPieceAt(Move.Square.fromNotation("d7")).id);
+
+        int k = state.getPiece(knight).handle();
+        assertSame(first.getPiece(k), second.getPiece(k));
+        assertSame(second.getPiece(k), second.getPieceAt(Move.Square.fromNotation("b1")));
+        assertNotEquals(first.getHash(), second.getHash());
+        assertEquals(1, first.getPocket(1).size() - second.getPocket(1).size());
+        assertThrows(UnsupportedOperationException.class, () -> second.getPocket(0).clear());
+    }
+
+    @Test
+    @DisplayName("2. thaw한 상태는 스냅샷과 같고, 원래 게임과 따로 진행된다")
+    void thawForksIndependently() {
+        GameState state = new GameState(0);
+        state.setupExperimentalPosition();
+        state.placePiece(0, Piece.PieceKind.QUEEN, Move.Square.fromNotation("d4"));
+        state.endTurn();
+        state.placeNeutralPiece(Piece.PieceKind.NEUTRAL_PYLON, Move.Square.fromNotation("e5"));
+        GameSnapshot snap = state.snapshot();
+
+        GameState fork = snap.thaw();
+        assertEquals(describe(snap), describe(fork));
+        assertEquals(legalMoves(state), legalMoves(fork));
+        assertEquals(fork.computeHash(), fork.getHash());
+        assertSame(snap, fork.snapshot());
+
+        fork.placePiece(1, Piece.PieceKind.ROOK, Move.Square.fromNotation("a8"));
+        fork.endTurn();
+        assertEquals(describe(snap), describe(state));
+        assertNull(state.getPieceAt(Move.Square.fromNotation("a8")));
+        assertNotNull(fork.getPieceAt(Move.Square.fromNotation("a8")));
+        assertEquals(fork.computeHash(), fork.getHash());
+        assertNotEquals(state.getHash(), fork.getHash());
+    }
+
+    @Test
+    @DisplayName("3. 무작위 진행 중 찍은 스냅샷은 끝까지 그때 상태를 유지하고, thaw하면 그 상태로 돌아온다")
+    void snapshotsSurviveRandomPlay() {
+        Random rnd = new Random(24L);
+        for (int game = 0; game < 6; game++) {
+            GameState state = new GameState(0);
+            state.setupExperimentalPosition();
+            List<GameSnapshot> snaps = new ArrayList<>();
+            List<String> expected = new ArrayList<>();
+            Deque<GameState.Undo> undos = new ArrayDeque<>();
+            for (int step = 0; step < 150 && state.checkVictory() == Move.GameResult.ONGOING; step++) {
+                try {
+                    if (!undos.isEmpty() && rnd.nextInt(4) == 0) state.unmake(undos.pop());
+                    else undos.push(randomMake(state, rnd));
+                } catch (IllegalStateException | IllegalArgumentException ignored) {
+                    // 불가능한 행동 — 상태는 그대로다
+                }
+                if (rnd.nextInt(3) == 0) {
+                    GameSnapshot s = state.snapshot();
+                    assertEquals(describe(state), describe(s));
+                    snaps.add(s);
+                    expected.add(describe(s));
+                }
+            }
+            for (int i = 0; i < snaps.size(); i++) {
+                GameSnapshot s = snaps.get(i);
+                assertEquals(expected.get(i), describe(s));
+                GameState thawed = s.thaw();
+                assertEquals(expected.get(i), describe(thawed));
+                assertEquals(thawed.computeHash(), thawed.getHash());
+            }
+        }
+    }
+
+    // ── 무작위 행동 ─────────────────────────────────
+
+    private static GameState.Undo randomMake(GameState state, Random rnd) {
+        int player = state.getTurn();
+        if (rnd.nextInt(4) == 0) return state.makeEndTurn();
+        List<Piece.PieceSpec> pocket = state.getPocket(player);
+        if (!pocket.isEmpty() && rnd.nextBoolean()) {
+            Piece.PieceKind kind = pocket.get(rnd.nextInt(pocket.size())).kind;
+            return state.makePlace(player, kind, Move.Square.of(rnd.nextInt(8), rnd.nextInt(8)));
+        }
+        List<Piece.PieceData> movers = new ArrayList<>();
+        for (Piece.PieceData p : state.getBoardPieces()) {
+            if (p.owner == player || p.isNeutral()) movers.add(p);
+        }
+        Piece.PieceData mover = movers.get(rnd.nextInt(movers.size()));
+        List<Move.LegalMove> moves = state.getLegalMoves(mover.id);
+        if (moves.isEmpty()) return state.makeEndTurn();
+        return state.make(moves.get(rnd.nextInt(moves.size())));
+    }
+
+    // ── 상태 비교 ───────────────────────────────────
+
+    private static String describe(GameSnapshot s) {
+        StringBuilder sb = header(s.getHash(), s.getTurn(), s.getActiveHandle(), s.isActionTaken(),
+                s.getHandleLimit(), s.getTurnActions(), s.getPocket(0), s.getPocket(1));
+        for (int h = 0; h < s.getHandleLimit(); h++) {
+            GameSnapshot.PieceRecord r = s.getPiece(h);
+            if (r == null) continue;
+            sb.append(h).append(' ').append(r.id).append(' ').append(r.handle).append(' ').append(r.kind)
+              .append(' ').append(r.owner).append(' ').append(r.pos).append(" stun=").append(r.stun)
+              .append(" stack=").append(r.moveStack).append(" royal=").append(r.isRoyal)
+              .append(" disguise=").append(r.disguise).append(' ').append(new TreeMap<>(r.state)).append('\n');
+        }
+        for (GameSnapshot.PieceRecord r : s.getBoardPieces()) sb.append(r.pos).append('=').append(r.id).append(' ');
+        return sb.toString();
+    }
+
+    private static String describe(GameState state) {
+        StringBuilder sb = header(state.getHash(), state.getTurn(), state.getActiveHandle(), state.isActionTaken(),
+                state.getHandleLimit(), state.getTurnActions(), state.getPocket(0), state.getPocket(1));
+        for (int h = 0; h < state.getHandleLimit(); h++) {
+            Piece.PieceData p = state.getPiece(h);
+            if (p == null) continue;
+            sb.append(h).append(' ').append(p.id).append(' ').append(p.handle()).append(' ').append(p.kind)
+              .append(' ').append(p.owner).append(' ').append(p.pos).append(" stun=").append(p.stun)
+              .append(" stack=").append(p.moveStack).append(" royal=").append(p.isRoyal)
+              .append(" disguise=").append(p.disguise).append(' ').append(new TreeMap<>(p.state)).append('\n');
+        }
+        state.getBoard().forEach((sq, id) -> sb.append(sq).append('=').append(id).append(' '));
+        return sb.toString();
+    }
+
+    private static StringBuilder header(long hash, int turn, int active, boolean taken, int limit,
+                                        List<Move.Action> actions, List<Piece.PieceSpec> white,
+                                        List<Piece.PieceSpec> black) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("hash=").append(hash).append(" turn=").append(turn).append(" active=").append(active)
+          .append(" taken=").append(taken).append(" limit=").append(limit).append('\n');
+        for (Move.Action a : actions) {
+            sb.append("action ").append(a.type).append(' ').append(a.pieceId).append(' ').append(a.to).append('\n');
+        }
+        sb.append("pockets ").append(white).append(' ').append(black).append('\n');
+        return sb;
+    }
+
+    private static String legalMoves(GameState state) {
+        StringBuilder sb = new StringBuilder();
+        for (Piece.PieceData p : state.getBoardPieces()) sb.append(p.id).append(state.getLegalMoves(p.id));
+        return sb.toString();
+    }
+}
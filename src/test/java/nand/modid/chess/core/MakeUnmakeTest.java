@@ -0,0 +1,233 @@
+package nand.modid.chess.core;
+
+import nand.modid.chess.dsl.chessembly.AST;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MakeUnmakeTest — make/unmake가 무작위 행동(착수, 이동, 포획, Shift, Jump 잡기, 행동 태그, 스턴, 계승,
+ * 위장, 턴 넘기기) 뒤에 상태를 정확히 되돌리는지 검증. 되돌린 뒤 같은 행동을 다시 두면 같은 ID·핸들이 나와야 한다.
+ */
+@DisplayName("make/unmake 테스트")
+class MakeUnmakeTest {
+
+    private static final Piece.PieceKind[] TRANSITIONS = {
+        Piece.PieceKind.QUEEN, Piece.PieceKind.KNIGHT, Piece.PieceKind.FERZ, Piece.PieceKind.CAMEL
+    };
+
+    @Test
+    @DisplayName("1. 행동마다 make → unmake → make 하면 직전·직후 상태가 그대로 나온다")
+    void roundTripsEachAction() {
+        Random rnd = new Random(31L);
+        int made = 0;
+        for (int game = 0; game < 12; game++) {
+            GameState state = newGame(rnd);
+            for (int step = 0; step < 120 && state.checkVictory() == Move.GameResult.ONGOING; step++) {
+                Supplier<GameState.Undo> action = randomAction(state, rnd);
+                String before = snapshot(state);
+                String movesBefore = legalMoves(state);
+                GameState.Undo undo;
+                try {
+                    undo = action.get();
+                } catch (IllegalStateException | IllegalArgumentException e) {
+                    // 실패한 make는 아무것도 바꾸지 않는다
+                    assertEquals(before, snapshot(state));
+                    continue;
+                }
+                String after = snapshot(state);
+                assertEquals(state.computeHash(), state.getHash());
+                state.unmake(undo);
+                assertEquals(before, snapshot(state));
+                assertEquals(movesBefore, legalMoves(state));
+
+                action.get();
+                assertEquals(after, snapshot(state));
+                made++;
+            }
+        }
+        assertTrue(made > 500, "make 횟수: " + made);
+    }
+
+    @Test
+    @DisplayName("2. 긴 행동 열을 역순으로 되돌리면 처음 상태와 같다")
+    void unwindsLongSequences() {
+        Random rnd = new Random(8L);
+        for (int game = 0; game < 8; game++) {
+            GameState state = newGame(rnd);
+            String start = snapshot(state);
+            String startMoves = legalMoves(state);
+            Deque<GameState.Undo> undos = new ArrayDeque<>();
+            for (int step = 0; step < 200 && state.checkVictory() == Move.GameResult.ONGOING; step++) {
+                try {
+                    undos.push(randomAction(state, rnd).get());
+                } catch (IllegalStateException | IllegalArgumentException ignored) {
+                    // 불가능한 행동 — 상태는 그대로다
+                }
+            }
+            assertEquals(state.computeHash(), state.getHash());
+            while (!undos.isEmpty()) state.unmake(undos.pop());
+            assertEquals(start, snapshot(state));
+            assertEquals(startMoves, legalMoves(state));
+        }
+    }
+
+    @Test
+    @DisplayName("3. 잡힌 기물은 스턴·스택·상태·핸들까지 돌아오고, 되돌린 기록은 다시 쓸 수 없다")
+    void restoresCapturedPiece() {
+        GameState state = new GameState(0);
+        state.setupExperimentalPosition();
+        String queen = state.placePiece(0, Piece.PieceKind.QUEEN, Move.Square.fromNotation("d4"));
+        state.endTurn();
+        String rook = state.placePiece(1, Piece.PieceKind.ROOK, Move.Square.fromNotation("d6"));
+        Piece.PieceData victim = state.getPiece(rook);
+        int handle = victim.handle();
+        state.setupPieceState(handle, "charge", 2);
+        state.endTurn();
+        state.setupStun(state.getPiece(queen).handle(), 0);
+        assertEquals(state.computeHash(), state.getHash());
+
+        String before = snapshot(state);
+        GameState.Undo undo = state.make(new Move.LegalMove(Move.Square.fromNotation("d4"),
+                Move.Square.fromNotation("d6"), AST.MoveType.TAKE, true, null, null));
+        assertNull(state.getPiece(rook));
+        state.unmake(undo);
+        assertEquals(before, snapshot(state));
+        assertSame(victim, state.getPiece(handle));
+        assertEquals(Integer.valueOf(2), victim.state.get("charge"));
+        assertThrows(IllegalStateException.class, () -> state.unmake(undo));
+    }
+
+    // ── 무작위 행동 ─────────────────────────────────
+
+    private static GameState newGame(Random rnd) {
+        GameState state = new GameState(0);
+        state.setupExperimentalPosition();
+        state.placeNeutralPiece(Piece.PieceKind.NEUTRAL_PYLON, Move.Square.of(rnd.nextInt(8), 3 + rnd.nextInt(2)));
+        return state;
+    }
+
+    /** 현재 상태에서 고른 행동 — 같은 객체를 다시 호출하면 같은 행동을 한다 */
+    private static Supplier<GameState.Undo> randomAction(GameState state, Random rnd) {
+        int player = state.getTurn();
+        List<Piece.PieceData> board = state.getBoardPieces();
+        List<Piece.PieceData> movers = new ArrayList<>();
+        for (Piece.PieceData p : board) {
+            if (p.owner == player || p.isNeutral()) movers.add(p);
+        }
+        Piece.PieceData mover = movers.get(rnd.nextInt(movers.size()));
+        Piece.PieceData other = board.get(rnd.nextInt(board.size()));
+
+        switch (rnd.nextInt(10)) {
+            case 0:
+                return state::makeEndTurn;
+            case 1: {
+                List<Piece.PieceSpec> pocket = state.getPocket(player);
+                if (pocket.isEmpty()) return state::makeEndTurn;
+                Piece.PieceKind kind = pocket.get(rnd.nextInt(pocket.size())).kind;
+                Move.Square sq = Move.Square.of(rnd.nextInt(8), rnd.nextInt(8));
+                return () -> state.makePlace(player, kind, sq);
+            }
+            case 2: {
+                Move.Action stun = Move.Action.stun(other.handle(), other.id, 1 + rnd.nextInt(3));
+                return () -> state.make(stun);
+            }
+            case 3: {
+                Move.Action action = rnd.nextBoolean()
+                        ? Move.Action.crown(mover.handle(), mover.id)
+                        : Move.Action.disguise(mover.handle(), mover.id, TRANSITIONS[rnd.nextInt(TRANSITIONS.length)].name());
+                return () -> state.make(action);
+            }
+            case 4: {
+                // 스크립트가 만들지 않는 Shift·Jump 잡기·Catch도 GameState는 처리해야 한다
+                AST.MoveType[] types = { AST.MoveType.SHIFT, AST.MoveType.JUMP, AST.MoveType.CATCH };
+                AST.MoveType type = types[rnd.nextInt(types.length)];
+                Move.Square to = type == AST.MoveType.JUMP ? Move.Square.of(rnd.nextInt(8), rnd.nextInt(8)) : other.pos;
+                Move.Square catchTo = type == AST.MoveType.JUMP ? other.pos : null;
+                Move.LegalMove mv = new Move.LegalMove(mover.pos, to, type, type != AST.MoveType.SHIFT,
+                        randomTags(board, rnd), catchTo);
+                return () -> state.make(mv);
+            }
+            default: {
+                List<Move.LegalMove> moves = state.getLegalMoves(mover.id);
+                if (moves.isEmpty()) return state::makeEndTurn;
+                Move.LegalMove legal = moves.get(rnd.nextInt(moves.size()));
+                Move.LegalMove mv = new Move.LegalMove(legal.from, legal.to, legal.moveType, legal.isCapture,
+                        rnd.nextBoolean() ? randomTags(board, rnd) : legal.tags, legal.catchTo);
+                return () -> state.make(mv);
+            }
+        }
+    }
+
+    private static List<AST.ActionTag> randomTags(List<Piece.PieceData> board, Random rnd) {
+        List<AST.ActionTag> tags = new ArrayList<>();
+        for (int i = rnd.nextInt(3); i >= 0; i--) {
+            switch (rnd.nextInt(3)) {
+                case 0:
+                    tags.add(new AST.ActionTag(AST.ActionTagType.TRANSITION, null, 0,
+                            TRANSITIONS[rnd.nextInt(TRANSITIONS.length)].scriptName(), null));
+                    break;
+                case 1:
+                    tags.add(new AST.ActionTag(AST.ActionTagType.SET_STATE, rnd.nextBoolean() ? "charge" : "mode",
+                            rnd.nextInt(4), null, null));
+                    break;
+                default:
+                    tags.add(new AST.ActionTag(AST.ActionTagType.USEING_STACK, null, 0, null,
+                            board.get(rnd.nextInt(board.size())).pos));
+            }
+        }
+        return tags;
+    }
+
+    // ── 상태 비교 ───────────────────────────────────
+
+    /** 공개 접근자로 볼 수 있는 모든 상태 */
+    private static String snapshot(GameState state) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("hash=").append(state.getHash())
+          .append(" turn=").append(state.getTurn())
+          .append(" active=").append(state.getActiveHandle())
+          .append(" taken=").append(state.isActionTaken())
+          .append(" scripts=").append(System.identityHashCode(state.getScripts()))
+          .append(" limit=").append(state.getHandleLimit()).append('\n');
+        for (Move.Action a : state.getTurnActions()) {
+            sb.append("action ").append(a.type).append(' ').append(a.pieceHandle).append(' ').append(a.pieceId)
+              .append(' ').append(a.from).append(' ').append(a.to).append(' ').append(a.asKind)
+              .append(' ').append(a.stunAmount).append('\n');
+        }
+        sb.append("pockets ").append(state.getPocket(0)).append(' ').append(state.getPocket(1)).append('\n');
+        for (int h = 0; h < state.getHandleLimit(); h++) {
+            Piece.PieceData p = state.getPiece(h);
+            if (p == null) continue;
+            sb.append(h).append(' ').append(p.id).append(' ').append(p.handle()).append(' ').append(p.kind)
+              .append(' ').append(p.owner).append(' ').append(p.pos).append(" stun=").append(p.stun)
+              .append(" stack=").append(p.moveStack).append(" royal=").append(p.isRoyal)
+              .append(" disguise=").append(p.disguise).append(' ').append(new TreeMap<>(p.state))
+              .append(' ').append(state.getPiece(p.id) == p).append('\n');
+        }
+        state.getBoard().forEach((sq, id) ->
+            sb.append(sq).append('=').append(id).append('#').append(state.getBoard().getHandle(sq)).append(' '));
+        sb.append('\n').append(state.getWhiteOccupancy()).append(' ').append(state.getBlackOccupancy())
+          .append(' ').append(state.getNeutralOccupancy());
+        for (Piece.PieceKind kind : Piece.PieceKind.values()) sb.append(' ').append(state.getKindOccupancy(kind));
+        return sb.toString();
+    }
+
+    /** 보드 위 모든 기물의 합법 수 — 캐시와 Chessembly 뷰가 되돌린 상태와 맞는지 본다 */
+    private static String legalMoves(GameState state) {
+        StringBuilder sb = new StringBuilder();
+        for (Piece.PieceData p : state.getBoardPieces()) {
+            sb.append(p.id).append(state.getLegalMoves(p.handle())).append(tagsOf(state.getLegalMoves(p.id)));
+        }
+        return sb.toString();
+    }
+
+    private static String tagsOf(List<Move.LegalMove> moves) {
+        StringBuilder sb = new StringBuilder();
+        for (Move.LegalMove mv : moves) sb.append(mv.tags).append(mv.catchTo);
+        return sb.toString();
+    }
+}
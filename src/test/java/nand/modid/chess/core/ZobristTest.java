@@ -0,0 +1,147 @@
+package nand.modid.chess.core;
+
+import nand.modid.chess.dsl.chessembly.AST;
+import nand.modid.chess.dsl.chessembly.ScriptSymbols;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ZobristTest — GameState의 증분 해시가 다시 계산한 값과 같고, 같은 국면은 같은 해시를,
+ * 행동 가능성이 다른 국면(스턴, 스택, 로얄, 위장, 상태, 포켓, 턴, 행동 여부)은 다른 해시를 갖는지 검증.
+ */
+@DisplayName("Zobrist 해시 테스트")
+class ZobristTest {
+
+    @Test
+    @DisplayName("1. 착수 순서가 달라도 같은 국면이면 해시가 같다 (기물 ID와 포켓 순서는 무관)")
+    void transpositionsShareHash() {
+        GameState a = new GameState(0);
+        a.setupExperimentalPosition();
+        GameState b = new GameState(0);
+        b.setupPocketUnchecked(0, reversed(a.getPocket(0)));
+        b.setupPocketUnchecked(1, reversed(a.getPocket(1)));
+        assertEquals(a.getHash(), b.getHash());
+
+        // a: 백 나이트 b1 → 흑 폰 d7 → 백 비숍 c1, b: 백 비숍 c1 → 흑 폰 d7 → 백 나이트 b1
+        a.placePiece(0, Piece.PieceKind.KNIGHT, Move.Square.fromNotation("b1"));
+        a.endTurn();
+        a.placePiece(1, Piece.PieceKind.PAWN, Move.Square.fromNotation("d7"));
+        a.endTurn();
+        a.placePiece(0, Piece.PieceKind.BISHOP, Move.Square.fromNotation("c1"));
+
+        b.placePiece(0, Piece.PieceKind.BISHOP, Move.Square.fromNotation("c1"));
+        b.endTurn();
+        b.placePiece(1, Piece.PieceKind.PAWN, Move.Square.fromNotation("d7"));
+        b.endTurn();
+        b.placePiece(0, Piece.PieceKind.KNIGHT, Move.Square.fromNotation("b1"));
+        // 먼저 둔 기물은 스턴이 더 줄어 있으므로 아직 다른 국면이다
+        assertNotEquals(a.getHash(), b.getHash());
+
+        // 스턴이 모두 풀리면 같은 국면
+        for (int i = 0; i < 12; i++) {
+            a.endTurn();
+            b.endTurn();
+        }
+        assertNotEquals(a.getBoard().get(Move.Square.fromNotation("b1")), b.getBoard().get(Move.Square.fromNotation("b1")));
+        assertEquals(a.computeHash(), a.getHash());
+        assertEquals(b.computeHash(), b.getHash());
+        assertEquals(a.getHash(), b.getHash());
+    }
+
+    @Test
+    @DisplayName("2. 행동 가능성을 바꾸는 변경은 모두 해시를 바꾸고, 증분 값은 다시 계산한 값과 같다")
+    void everyFeatureChangesHash() {
+        GameState state = new GameState(0);
+        state.setupExperimentalPosition();
+        Set<Long> seen = new HashSet<>();
+        assertNew(state, seen);
+
+        String queen = state.placePiece(0, Piece.PieceKind.QUEEN, Move.Square.fromNotation("d4"));
+        assertNew(state, seen);                          // 기물·포켓·행동 여부
+        state.endTurn();
+        assertNew(state, seen);                          // 턴·행동 여부·스턴
+        String rook = state.placePiece(1, Piece.PieceKind.ROOK, Move.Square.fromNotation("d6"));
+        assertNew(state, seen);
+        state.endTurn();
+        assertNew(state, seen);
+
+        Piece.PieceData q = state.getPiece(queen);
+        while (q.stun > 0) {
+            state.endTurn();
+            assertNew(state, seen);
+            state.endTurn();
+            assertNew(state, seen);
+        }
+        long before = state.getHash();
+        GameState.Undo undo = state.make(new Move.LegalMove(q.pos, Move.Square.fromNotation("d6"),
+                AST.MoveType.TAKE, true,
+                Collections.singletonList(new AST.ActionTag(AST.ActionTagType.SET_STATE, "charge", 1, null, null)),
+                null));
+        assertNull(state.getPiece(rook));
+        assertNew(state, seen);                          // 잡기·스택 이전·상태·이동 중
+        state.unmake(undo);
+        assertEquals(before, state.getHash());
+
+        int stack = q.moveStack;
+        state.movePieceByLegalMove(state.findLegalMoveAt(q.pos, Move.Square.fromNotation("d5")));
+        assertNew(state, seen);                          // 위치·스택·이동 중
+        assertEquals(stack - 1, q.moveStack);
+
+        state.endTurn();
+        state.endTurn();
+        state.crownPiece(0, queen);
+        assertNew(state, seen);                          // 로얄
+        state.endTurn();
+        state.endTurn();
+        state.disguisePiece(0, queen, Piece.PieceKind.KNIGHT);
+        assertNew(state, seen);                          // 위장·스택
+    }
+
+    @Test
+    @DisplayName("3. String.hashCode가 같은 상태 키도 다른 해시 키를 얻는다")
+    void collidingStateKeysDiffer() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        int aa = ScriptSymbols.stateSlot("Aa"), bb = ScriptSymbols.stateSlot("BB");
+        for (int sq = 0; sq < 64; sq++) {
+            assertNotEquals(Zobrist.state(sq, aa, 1), Zobrist.state(sq, bb, 1));
+        }
+
+        GameState state = new GameState(0);
+        state.setupExperimentalPosition();
+        state.placePiece(0, Piece.PieceKind.QUEEN, Move.Square.fromNotation("d4"));
+        state.endTurn();
+        state.endTurn();
+        Piece.PieceData q = state.getPieceAt(Move.Square.fromNotation("d4"));
+        while (q.stun > 0) {
+            state.endTurn();
+            state.endTurn();
+        }
+        GameState.Undo undo = state.make(stateMove(q));
+        long plain = state.getHash();
+        state.unmake(undo);
+        state.make(stateMove(q, "Aa", "BB"));
+        assertEquals(state.computeHash(), state.getHash());
+        assertNotEquals(plain, state.getHash(), "같은 값의 두 키가 XOR로 지워지면 안 된다");
+    }
+
+    /** d4 → d5, 주어진 상태 키를 모두 1로 정한다 */
+    private static Move.LegalMove stateMove(Piece.PieceData p, String... keys) {
+        List<AST.ActionTag> tags = new ArrayList<>();
+        for (String key : keys) tags.add(new AST.ActionTag(AST.ActionTagType.SET_STATE, key, 1, null, null));
+        return new Move.LegalMove(p.pos, Move.Square.fromNotation("d5"), AST.MoveType.MOVE, false, tags, null);
+    }
+
+    private static void assertNew(GameState state, Set<Long> seen) {
+        assertEquals(state.computeHash(), state.getHash());
+        assertTrue(seen.add(state.getHash()), "이미 나온 해시");
+    }
+
+    private static List<Piece.PieceSpec> reversed(List<Piece.PieceSpec> pocket) {
+        List<Piece.PieceSpec> copy = new ArrayList<>(pocket);
+        Collections.reverse(copy);
+        return copy;
+    }
+}
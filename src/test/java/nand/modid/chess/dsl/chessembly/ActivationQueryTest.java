@@ -0,0 +1,113 @@
+package nand.modid.chess.dsl.chessembly;
+
+import nand.modid.chess.core.Piece;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ActivationQueryTest — 질의 모드(exists, reaches, count)가 모든 실행 티어에서 전체 실행 결과로 계산한 답과 같고,
+ * 답이 확정되면 실제로 일찍 멈추는지 검증.
+ */
+@DisplayName("Chessembly 조기 종료 질의 테스트")
+class ActivationQueryTest {
+
+    private interface Tier { void run(BuiltinOps.BoardState board, ActivationBuffer out); }
+
+    @Test
+    @DisplayName("1. 무작위 보드에서 모든 티어의 질의 답이 전체 실행 결과와 같다")
+    void answersMatchFullRun() {
+        Random rnd = new Random(1501L);
+        ActivationBuffer full = new ActivationBuffer();
+        ActivationBuffer out = new ActivationBuffer();
+        for (String source : RandomBoards.allScripts()) {
+            CompiledScript script = CompiledScript.compile(source);
+            Bytecode program = script.bytecode();
+            GeneratedScript generated = ScriptJit.compile(program);
+            Map<String, Tier> tiers = new LinkedHashMap<>();
+            tiers.put("interpreter", (b, o) -> BytecodeInterpreter.execute(program, b, o));
+            tiers.put("generated", generated::execute);
+            tiers.put("specialized", (b, o) -> {
+                SpecializedScript sp = SpecializedScript.build(program, 8, 8, b.pieceX, b.pieceY);
+                if (sp != null) sp.execute(b, o);
+                else BytecodeInterpreter.execute(program, b, o);
+            });
+            if (script.pattern() != null) tiers.put("pattern", (b, o) -> assertTrue(script.pattern().generate(b, o)));
+
+            for (int i = 0; i < 20; i++) {
+                BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                BytecodeInterpreter.execute(program, board, full);
+                List<AST.Activation> expected = full.toActivations();
+                List<int[]> offsets = new ArrayList<>();
+                for (AST.Activation a : expected) offsets.add(new int[]{ a.dx, a.dy });
+                offsets.add(new int[]{ rnd.nextInt(15) - 7, rnd.nextInt(15) - 7 });
+
+                for (Map.Entry<String, Tier> tier : tiers.entrySet()) {
+                    String where = tier.getKey() + ", 스크립트: " + source;
+
+                    out.queryExists();
+                    tier.getValue().run(board, out);
+                    assertEquals(!expected.isEmpty(), !out.isEmpty(), where);
+
+                    int limit = 1 + rnd.nextInt(4);
+                    out.queryCount(limit);
+                    tier.getValue().run(board, out);
+                    assertEquals(Math.min(expected.size(), limit), Math.min(out.size(), limit), where);
+
+                    for (int[] off : offsets) {
+                        out.queryReaches(off[0], off[1]);
+                        tier.getValue().run(board, out);
+                        int first = -1;
+                        for (int k = 0; k < expected.size() && first < 0; k++) {
+                            if (expected.get(k).dx == off[0] && expected.get(k).dy == off[1]) first = k;
+                        }
+                        assertEquals(first, out.match(), where + " (" + off[0] + ", " + off[1] + ")");
+                        if (first >= 0) {
+                            assertEquals(RandomBoards.describe(expected.subList(first, first + 1)),
+                                    RandomBoards.describe(out.toActivations().subList(first, first + 1)), where);
+                        }
+                    }
+                    out.queryAll();
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("2. 빈 보드의 퀸은 첫 수에서 멈추고, take는 뒤따르는 jump가 지울 수 있어 바로 확정하지 않는다")
+    void stopsEarly() {
+        Bytecode queen = CompiledScript.compile(Piece.PieceKind.QUEEN.chessemblyScript(true)).bytecode();
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 3, 3, "queen", true);
+        board.putPiece(3, 3, "queen", true, 0, 1);
+        ActivationBuffer out = new ActivationBuffer();
+        BytecodeInterpreter.execute(queen, board, out);
+        int fullSteps = out.steps();
+        assertEquals(27, out.size());
+
+        out.queryExists();
+        BytecodeInterpreter.execute(queen, board, out);
+        assertTrue(out.stoppedEarly());
+        assertTrue(out.steps() * 10 < fullSteps, out.steps() + " / " + fullSteps);
+
+        out.queryReaches(1, 1);
+        BytecodeInterpreter.execute(queen, board, out);
+        assertTrue(out.stoppedEarly());
+        assertTrue(out.steps() < fullSteps, out.steps() + " / " + fullSteps);
+        assertEquals(AST.MoveType.TAKE_MOVE, out.moveType(out.match()));
+
+        // take(1, 0)은 jump(1, 0)이 지우므로 (1, 0)에는 닿지 않는다
+        Bytecode hop = CompiledScript.compile("take(1, 0) jump(1, 0); take(1, 0); move(0, 1);").bytecode();
+        board.putPiece(4, 3, "pawn", false, 0, 1);
+        out.queryReaches(1, 0);
+        BytecodeInterpreter.execute(hop, board, out);
+        assertEquals(1, out.match(), "두 번째 체인의 take가 첫 수");
+        assertEquals(AST.MoveType.TAKE, out.moveType(out.match()));
+        out.queryReaches(2, 0);
+        BytecodeInterpreter.execute(hop, board, out);
+        assertEquals(0, out.match());
+        assertEquals(AST.MoveType.JUMP, out.moveType(out.match()));
+        out.queryAll();
+    }
+}
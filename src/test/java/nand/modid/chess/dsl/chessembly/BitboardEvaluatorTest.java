@@ -0,0 +1,114 @@
+package nand.modid.chess.dsl.chessembly;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BitboardEvaluatorTest — 64칸 동시 분석 결과가 출발 칸마다 기준 실행기를 돌린 결과와 같은지 검증.
+ */
+@DisplayName("Chessembly 비트보드 분석기 테스트")
+class BitboardEvaluatorTest {
+
+    @Test
+    @DisplayName("1. 무작위 보드에서 모든 출발 칸의 목표 칸이 기준 구현과 같다")
+    void matchesReferenceOnEveryOrigin() {
+        Random rnd = new Random(1401L);
+        Interpreter reference = new Interpreter();
+        int checked = 0;
+        for (String source : RandomBoards.allScripts()) {
+            CompiledScript script = CompiledScript.compile(source);
+            BitboardEvaluator evaluator;
+            try {
+                evaluator = BitboardEvaluator.compile(script);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            for (int i = 0; i < 8; i++) {
+                BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                board.removePiece(board.pieceX, board.pieceY);
+                BitboardEvaluator.Result result = evaluator.evaluate(board);
+                long reach = 0L;
+                for (int sq = 0; sq < 64; sq++) {
+                    long[] expected = expectedTargets(reference, script, board, sq);
+                    for (AST.MoveType type : AST.MoveType.values()) {
+                        assertEquals(expected[type.ordinal()], result.targets(sq, type),
+                                "스크립트: " + source + ", 칸 " + sq + ", " + type);
+                    }
+                    reach |= result.targets(sq);
+                }
+                assertEquals(reach, result.reach(-1L), "스크립트: " + source);
+                checked++;
+            }
+        }
+        assertTrue(checked > 100);
+    }
+
+    @Test
+    @DisplayName("2. 룩의 기동성과 공격 지도")
+    void rookMobilityAndReach() {
+        BitboardEvaluator rook = BitboardEvaluator.compile(
+                "take-move(1, 0) repeat(1); take-move(-1, 0) repeat(1); take-move(0, 1) repeat(1); take-move(0, -1) repeat(1);");
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 0, 0, "rook", true);
+        board.putPiece(3, 0, "pawn", false, 0, 1);
+        board.putPiece(0, 2, "pawn", true, 0, 1);
+        BitboardEvaluator.Result result = rook.evaluate(board);
+        assertEquals(4, result.mobility(0), "a1: b1, c1, d1(잡기), a2");
+        assertEquals(14, result.mobility(36));
+        assertEquals(0x000000000000000EL | 0x0000000000000100L, result.targets(0));
+        assertEquals(0L, result.diverged());
+    }
+
+    @Test
+    @DisplayName("3. 기물 상태·이동 스택 식은 거부하고, 끝나지 않는 루프는 결과를 비운다")
+    void rejectsUnsupportedAndMarksDivergence() {
+        for (String source : new String[]{
+                "if-state(k, 0) move(0, 1);", "set-state(k, 1) move(0, 1);", "transition(queen) move(0, 1);",
+                "if-move-stack(1, 0) move(0, 1);", "use-move-stack move(0, 1);" }) {
+            assertThrows(IllegalArgumentException.class, () -> BitboardEvaluator.compile(source), source);
+        }
+
+        String spin = "edge-top(0, 1) not anchor(0, 0) repeat(1); move(0, 1);";
+        BitboardEvaluator loop = BitboardEvaluator.compile(spin);
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 0, 0, "rook", true);
+        BitboardEvaluator.Result result = loop.evaluate(board);
+        assertEquals(~0xFF00000000000000L, result.diverged(), "맨 윗줄만 루프에 들어가지 않는다");
+        assertEquals(0L, result.targets(0));
+        assertEquals(0L, result.targets(60), "맨 윗줄에서는 move(0, 1)이 보드 밖");
+
+        Interpreter reference = new Interpreter();
+        CompiledScript script = CompiledScript.compile(spin);
+        assertTrue(reference.execute(script, placed(board, 0)).isEmpty(), "기준 구현도 단계 한도로 결과를 버린다");
+
+        BuiltinOps.BoardState wide = new BuiltinOps.BoardState(10, 8, 0, 0, "rook", true);
+        assertThrows(IllegalArgumentException.class, () -> loop.evaluate(wide));
+    }
+
+    /** 이동하는 기물을 출발 칸에 놓은 스칼라 보드 */
+    private static BuiltinOps.BoardState placed(BuiltinOps.BoardState board, int sq) {
+        int x = sq & 7, y = sq >>> 3;
+        BuiltinOps.BoardState b = new BuiltinOps.BoardState(8, 8, x, y, board.pieceName, board.isWhite);
+        for (Map.Entry<Long, BuiltinOps.PieceInfo> e : board.pieces.entrySet()) {
+            BuiltinOps.PieceInfo p = e.getValue();
+            long k = e.getKey();
+            b.putPiece((int) (k >> 32), (int) k, p.name, p.isWhite, p.stun_stack, p.move_stack, p.state);
+        }
+        b.putPiece(x, y, board.pieceName, board.isWhite, 0, 1);
+        b.dangerSquares.addAll(board.dangerSquares);
+        b.inCheck = board.inCheck;
+        return b;
+    }
+
+    /** 출발 칸에서 기준 구현이 만든 이동 종류별 목표 칸 */
+    private static long[] expectedTargets(Interpreter reference, CompiledScript script,
+                                          BuiltinOps.BoardState board, int sq) {
+        long[] targets = new long[AST.MoveType.values().length];
+        int x = sq & 7, y = sq >>> 3;
+        for (AST.Activation a : reference.execute(script, placed(board, sq))) {
+            targets[a.moveType.ordinal()] |= 1L << ((y + a.dy) * 8 + x + a.dx);
+        }
+        return targets;
+    }
+}
@@ -0,0 +1,81 @@
+package nand.modid.chess.dsl.chessembly;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BytecodeInterpreterTest — 바이트코드 실행기가 토큰 인터프리터(기준 구현)와 같은 결과를 내는지 검증.
+ */
+@DisplayName("Chessembly 바이트코드 실행기 테스트")
+class BytecodeInterpreterTest {
+
+    @Test
+    @DisplayName("1. 무작위 보드에서 모든 스크립트의 결과가 토큰 인터프리터와 같다")
+    void matchesTokenInterpreter() {
+        Random rnd = new Random(20240917L);
+        Interpreter reference = new Interpreter();
+        for (String source : RandomBoards.allScripts()) {
+            CompiledScript script = CompiledScript.compile(source);
+            for (int i = 0; i < 200; i++) {
+                BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                String expected = RandomBoards.describe(reference.execute(script, board));
+                String actual = RandomBoards.describe(BytecodeInterpreter.execute(script.bytecode(), board));
+                assertEquals(expected, actual, "스크립트: " + source);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("2. repeat 역방향 주소와 jmp 라벨 주소가 컴파일 시점에 해석된다")
+    void resolvesTargets() {
+        Bytecode bc = CompiledScript.compile("take-move(1, 0) repeat(1); observe(0, 1) jmp(a) move(0, 1) label(a);").bytecode();
+        assertEquals(0, bc.operand(1, Bytecode.TARGET), "repeat(1)은 직전 명령어로 돌아간다");
+        assertEquals(Bytecode.JMP, bc.op(4));
+        assertEquals(7, bc.operand(4, Bytecode.TARGET), "jmp(a)는 label(a) 다음 주소로 이동한다");
+        assertEquals(3, bc.operand(0, Bytecode.SKIP), "실패 시 첫 체인의 세미콜론 다음으로 이동한다");
+    }
+
+    @Test
+    @DisplayName("3. 재사용 버퍼에 기록한 결과가 토큰 인터프리터와 같다")
+    void reusedBufferMatches() {
+        Random rnd = new Random(7L);
+        Interpreter reference = new Interpreter();
+        ActivationBuffer out = new ActivationBuffer();
+        for (String source : RandomBoards.allScripts()) {
+            CompiledScript script = CompiledScript.compile(source);
+            for (int i = 0; i < 20; i++) {
+                BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                BytecodeInterpreter.execute(script.bytecode(), board, out);
+                String expected = RandomBoards.describe(reference.execute(script, board));
+                assertEquals(expected, RandomBoards.describe(out.toActivations()), "스크립트: " + source);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("4. 보드 상태의 기물 맵은 읽기 전용이고, 같은 칸을 덮어써도 격자와 비트보드가 맞다")
+    void boardStateStaysConsistent() {
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 0, 0, "rook", true);
+        board.putPiece(3, 0, "pawn", false, 0, 1);
+        assertEquals(1L << 3, board.occupancy());
+        assertThrows(UnsupportedOperationException.class,
+                () -> board.pieces.put(BuiltinOps.BoardState.key(5, 0), board.pieceAt(3, 0)));
+        assertThrows(UnsupportedOperationException.class, () -> board.pieces.clear());
+
+        board.putPiece(3, 0, "pawn", true, 0, 1);
+        assertEquals(1L << 3, board.friendlyOccupancy(), "같은 칸을 덮어쓰면 색이 바뀐다");
+        board.removePiece(3, 0);
+        board.putPiece(4, 0, "pawn", false, 0, 1);
+        assertEquals(1L << 4, board.occupancy(), "빼고 넣어 크기가 같아도 격자가 맞다");
+        assertNull(board.pieceAt(3, 0));
+        assertEquals(0L, board.friendlyOccupancy());
+
+        CompiledScript rook = CompiledScript.compile("take-move(1, 0) repeat(1);");
+        assertEquals(RandomBoards.describe(new Interpreter().execute(rook, board)),
+                RandomBoards.describe(rook.run(board)));
+        assertEquals(4, rook.run(board).size(), "b1, c1, d1, e1(잡기)");
+    }
+}
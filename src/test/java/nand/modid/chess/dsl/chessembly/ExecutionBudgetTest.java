@@ -0,0 +1,95 @@
+package nand.modid.chess.dsl.chessembly;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExecutionBudgetTest — 끝나지 않는 스크립트가 모든 티어에서 예산 초과로 중단되고,
+ * 예산 안에서는 티어별 단계 수가 같은지 검증.
+ */
+@DisplayName("Chessembly 실행 예산 테스트")
+class ExecutionBudgetTest {
+
+    private static final String[] RUNAWAY = {
+        "label(a) jmp(a);",
+        "anchor(1, 0) anchor(-1, 0) repeat(2);",
+        "move(0, 1); do anchor(0, 0) while not end;",
+    };
+
+    @Test
+    @DisplayName("1. 끝나지 않는 스크립트는 세 티어 모두 예산 초과로 중단되고 활성화를 내지 않는다")
+    void runawayScriptsStop() {
+        BuiltinOps.BoardState board = RandomBoards.randomBoard(new Random(7L));
+        ActivationBuffer out = new ActivationBuffer();
+        for (String source : RUNAWAY) {
+            CompiledScript script = CompiledScript.compile(source);
+
+            BytecodeInterpreter.execute(script.bytecode(), board, out);
+            assertTrue(out.budgetExceeded(), "실행기: " + source);
+            assertEquals(0, out.size());
+            assertEquals(ExecutionBudget.maxSteps() + 1, out.steps());
+
+            ScriptJit.compile(script.bytecode()).execute(board, out);
+            assertTrue(out.budgetExceeded(), "생성된 클래스: " + source);
+            assertEquals(0, out.size());
+            assertEquals(ExecutionBudget.maxSteps() + 1, out.steps());
+
+            Interpreter reference = new Interpreter();
+            assertTrue(reference.execute(script, board).isEmpty());
+            assertTrue(reference.lastBudgetExceeded(), "토큰 인터프리터: " + source);
+        }
+    }
+
+    @Test
+    @DisplayName("2. 예산 안에서는 세 티어의 단계 수가 같다")
+    void stepsMatchAcrossTiers() {
+        Random rnd = new Random(99L);
+        Interpreter reference = new Interpreter();
+        ActivationBuffer out = new ActivationBuffer();
+        for (String source : RandomBoards.allScripts()) {
+            CompiledScript script = CompiledScript.compile(source);
+            GeneratedScript generated = ScriptJit.compile(script.bytecode());
+            for (int i = 0; i < 50; i++) {
+                BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                reference.execute(script, board);
+                assertFalse(reference.lastBudgetExceeded());
+
+                BytecodeInterpreter.execute(script.bytecode(), board, out);
+                assertFalse(out.budgetExceeded());
+                assertEquals(reference.lastSteps(), out.steps(), "실행기: " + source);
+
+                generated.execute(board, out);
+                assertEquals(reference.lastSteps(), out.steps(), "생성된 클래스: " + source);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("3. 활성화 한도를 넘으면 결과 전체를 버린다")
+    void activationLimit() {
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 0, 0, "rook", true);
+        board.putPiece(0, 0, "rook", true, 0, 1);
+        CompiledScript script = CompiledScript.compile("move(1, 0) repeat(1);");
+        ActivationBuffer out = new ActivationBuffer();
+        try {
+            ExecutionBudget.setMaxActivations(7);
+            BytecodeInterpreter.execute(script.bytecode(), board, out);
+            assertFalse(out.budgetExceeded());
+            assertEquals(7, out.size());
+
+            ExecutionBudget.setMaxActivations(6);
+            BytecodeInterpreter.execute(script.bytecode(), board, out);
+            assertTrue(out.budgetExceeded());
+            assertEquals(0, out.size());
+
+            Interpreter reference = new Interpreter();
+            assertTrue(reference.execute(script, board).isEmpty());
+            assertTrue(reference.lastBudgetExceeded());
+        } finally {
+            ExecutionBudget.setMaxActivations(4096);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package nand.modid.chess.dsl.chessembly;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LexerTest — 재작성한 Lexer가 이전 구현({@link LegacyLexer})과 같은 토큰을 내는지 검증.
+ */
+@DisplayName("Chessembly Lexer 테스트")
+class LexerTest {
+
+    /** 인자 처리가 까다로운 입력 */
+    private static final String[] TRICKY = {
+        "# 주석만\n",
+        "move(1, 0) # 줄 끝 주석 take(1, 1)\n take(-1, 1);",
+        "take-move( +5 , -3 ) move(2147483647, -2147483648) move(2147483648, 1);",
+        "move(1 2, 0) move(1,) move(,1) move(, , 2, 3) move( ) move",
+        "piece-on(king, 0) piece-on( king , 1, 2 ) piece-on((a, b), 1, 2)",
+        "label(a(b, c)) jmp( a(b, c) ) jne() label() piece() transition()",
+        "set-state(k) set-state(k, 7) if-state(k) if-state( key , -1 ) repeat repeat() repeat(3)",
+        "unknown(1, 2) ) , move(1, 1) ,, ;; }{ take(0, 1)",
+        "take(1, 1) move(1, (2)",
+        "move\t(\n1,\n2\n) take(１, ٢)",
+        "move(-, 1) move(+, 1) move(--1, 1) move(0x10, 1) move(1_0, 1)",
+        "move(1, 0)#x\r\nmove(0, 1)",
+    };
+
+    @Test
+    @DisplayName("1. 모든 스크립트와 까다로운 입력에서 이전 구현과 같은 토큰을 낸다")
+    void matchesLegacyLexer() {
+        List<String> inputs = new ArrayList<>(RandomBoards.allScripts());
+        inputs.addAll(Arrays.asList(TRICKY));
+        for (String source : inputs) {
+            assertEquals(describe(new LegacyLexer(source).tokenizeAll()),
+                    describe(new Lexer(source).tokenizeAll()), "입력: " + source);
+        }
+    }
+
+    @Test
+    @DisplayName("2. 커서 API는 tokenizeAll과 같은 순서로 토큰을 읽고, 이름 인자는 공유 인스턴스다")
+    void cursorMatchesTokens() {
+        String source = "piece(rook) take-move(1, 0) repeat(1); piece-on(rook, 0, 1) label(rook);";
+        List<AST.Token> tokens = new Lexer(source).tokenizeAll();
+        Lexer cursor = new Lexer(new StringBuilder(source));
+        for (AST.Token t : tokens) {
+            assertTrue(cursor.advance());
+            assertEquals(t.type, cursor.type());
+            assertEquals(t.dx, cursor.dx());
+            assertEquals(t.dy, cursor.dy());
+            assertEquals(t.intArg, cursor.intArg());
+            assertEquals(t.strArg, cursor.strArg());
+        }
+        assertFalse(cursor.advance());
+        assertNull(cursor.type());
+
+        assertSame(tokens.get(0).strArg, tokens.get(4).strArg);
+        assertSame(tokens.get(0).strArg, tokens.get(5).strArg);
+    }
+
+    private static String describe(List<AST.Token> tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (AST.Token t : tokens) {
+            sb.append(t.type).append('(').append(t.dx).append(',').append(t.dy).append(',')
+              .append(t.strArg).append(',').append(t.intArg).append(") ");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package nand.modid.chess.dsl.chessembly;
+
+import nand.modid.chess.core.Piece;
+import nand.modid.chess.movegen.StandardGenerators;
+
+import java.util.*;
+
+/**
+ * RandomBoards — 실행기 동등성 테스트용 무작위 보드와 비교 헬퍼.
+ */
+final class RandomBoards {
+
+    private RandomBoards() {}
+
+    /** 동작이 까다로운 수작업 스크립트 (라벨, 스코프, 불균형 중괄호, 체인을 넘는 repeat 등) */
+    static final String[] EDGE_CASE_SCRIPTS = {
+        "take-move(1, 1) { take-move(1, 0) repeat(1) } { take-move(0, 1) repeat(1) };",
+        "observe(0, 1) jne(a) move(0, 1) label(a) take(1, 1) jump(1, 1);",
+        "peek(1, 0) jmp(x) move(0, 1) label(x) label(x) move(0, -1);",
+        "move(1, 0); move(1, 0) take-move(-1, 0) take-move(0, 1) repeat(2);",
+        "{ take(1, 0) { move(0, 1) ; } take-move(1, 1) } move(-1, 0);",
+        "}} take-move(1, 0) { { move(0, 1) ; take(0, -1) } } not while catch(1, 1);",
+        "set-state(k, 1) transition(queen) take-move(0, 1) set-state() move(0, 2);",
+        "if-state(k, 0) piece(rook) take-move(1, 0) repeat(1); piece-on(king, 0, 1) shift(0, 1);",
+        "if-move-stack(1, 0) use-move-stack move(0, 1); if-move-stack(0, -1) move(-1, -1);",
+        "edge(2, 0) not corner(-1, -1) bound(0, 9) edge-left(-5, 0) move(1, 1);",
+        "do take(1, 0) enemy(0, 0) not while jump(1, 0) repeat(1);",
+        "anchor(2, 2) danger(0, 0) not check not take-move(0, 0); end move(1, 0);",
+        "take-move(1, 0) repeat(0); jne(none) label(q) take-move(0, 1) jmp(q);",
+    };
+
+    /** 모든 내장 기물 스크립트 (백/흑) + 수작업 스크립트 */
+    static List<String> allScripts() {
+        List<String> scripts = new ArrayList<>();
+        for (Piece.PieceKind kind : Piece.PieceKind.values()) {
+            scripts.add(kind.chessemblyScript(true));
+            scripts.add(kind.chessemblyScript(false));
+        }
+        scripts.addAll(StandardGenerators.getAllBuiltinScripts().values());
+        scripts.addAll(Arrays.asList(EDGE_CASE_SCRIPTS));
+        return scripts;
+    }
+
+    /** 무작위 8x8 보드 (이동하는 기물 포함) */
+    static BuiltinOps.BoardState randomBoard(Random rnd) {
+        int px = rnd.nextInt(8), py = rnd.nextInt(8);
+        boolean white = rnd.nextBoolean();
+        Piece.PieceKind[] kinds = Piece.PieceKind.values();
+        String moverName = kinds[rnd.nextInt(kinds.length)].scriptName();
+        BuiltinOps.BoardState bs = new BuiltinOps.BoardState(8, 8, px, py, moverName, white);
+        int density = rnd.nextInt(40);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                if (x == px && y == py) continue;
+                if (rnd.nextInt(64) < density) {
+                    Map<String, Integer> state = new HashMap<>();
+                    if (rnd.nextInt(4) == 0) state.put("k", rnd.nextInt(2));
+                    bs.putPiece(x, y, kinds[rnd.nextInt(kinds.length)].scriptName(), rnd.nextBoolean(),
+                            rnd.nextInt(2), rnd.nextInt(3), state);
+                }
+            }
+        }
+        Map<String, Integer> moverState = new HashMap<>();
+        if (rnd.nextBoolean()) moverState.put("k", rnd.nextInt(2));
+        bs.putPiece(px, py, moverName, white, 0, 1 + rnd.nextInt(3), moverState);
+        if (rnd.nextInt(3) == 0) bs.dangerSquares.add(BuiltinOps.BoardState.key(rnd.nextInt(8), rnd.nextInt(8)));
+        bs.inCheck = rnd.nextInt(4) == 0;
+        return bs;
+    }
+
+    /** 비교용 정규 문자열 (순서, 태그, catchTo 포함) */
+    static String describe(List<AST.Activation> activations) {
+        StringBuilder sb = new StringBuilder();
+        for (AST.Activation a : activations) {
+            sb.append(a.dx).append(',').append(a.dy).append(',').append(a.moveType);
+            if (a.catchTo != null) sb.append(" catch=").append(a.catchTo[0]).append(',').append(a.catchTo[1]);
+            for (AST.ActionTag t : a.tags) {
+                sb.append(' ').append(t).append('@').append(t.where_stack_is_comming);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
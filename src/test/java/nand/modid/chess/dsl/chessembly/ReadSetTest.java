@@ -0,0 +1,107 @@
+package nand.modid.chess.dsl.chessembly;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReadSetTest — 실행 티어마다 기록한 읽기 집합 밖의 칸을 바꿔도 결과가 바뀌지 않는지 검증.
+ */
+@DisplayName("Chessembly 읽기 집합 테스트")
+class ReadSetTest {
+
+    @AfterEach
+    void restoreTier() {
+        GeneratedScript.setEnabled(true);
+    }
+
+    /** 읽기 집합 밖의 무작위 칸 하나의 내용을 바꾼다 (기물 자신의 칸 제외). 바꿀 칸이 없으면 false */
+    private static boolean mutateOutside(BuiltinOps.BoardState board, long readSet, Random rnd) {
+        long free = ~readSet & ~(1L << (board.pieceY * 8 + board.pieceX));
+        if (free == 0L) return false;
+        int n = rnd.nextInt(Long.bitCount(free));
+        for (int i = 0; i < n; i++) free &= free - 1;
+        int idx = Long.numberOfTrailingZeros(free);
+        int x = idx & 7, y = idx >>> 3;
+        if (board.pieceAt(x, y) != null && rnd.nextBoolean()) {
+            board.removePiece(x, y);
+        } else {
+            board.putPiece(x, y, rnd.nextBoolean() ? "rook" : "pawn", rnd.nextBoolean(), 0, rnd.nextInt(3));
+        }
+        return true;
+    }
+
+    @Test
+    @DisplayName("1. 토큰 인터프리터: 읽기 집합 밖의 칸은 결과에 영향을 주지 않는다")
+    void interpreterReadSetIsSound() {
+        Random rnd = new Random(77L);
+        Interpreter tracked = new Interpreter();
+        tracked.setTrackReads(true);
+        Interpreter reference = new Interpreter();
+        for (String source : RandomBoards.allScripts()) {
+            CompiledScript script = CompiledScript.compile(source);
+            for (int i = 0; i < 100; i++) {
+                BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                String before = RandomBoards.describe(tracked.execute(script, board));
+                if (!mutateOutside(board, tracked.lastReadSet(), rnd)) continue;
+                assertEquals(before, RandomBoards.describe(reference.execute(script, board)), "스크립트: " + source);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("2. 바이트코드 실행기, 생성 클래스, 패턴 표의 읽기 집합도 결과를 보존한다")
+    void fastTierReadSetsAreSound() {
+        Random rnd = new Random(78L);
+        Interpreter reference = new Interpreter();
+        ActivationBuffer out = new ActivationBuffer();
+        for (String source : RandomBoards.allScripts()) {
+            CompiledScript script = CompiledScript.compile(source);
+            GeneratedScript generated = ScriptJit.compile(script.bytecode());
+            for (int i = 0; i < 100; i++) {
+                for (int tier = 0; tier < 3; tier++) {
+                    if (tier == 2 && script.pattern() == null) continue;
+                    BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                    board.beginReadTracking();
+                    if (tier == 0) {
+                        BytecodeInterpreter.execute(script.bytecode(), board, out);
+                    } else if (tier == 1) {
+                        generated.execute(board, out);
+                    } else {
+                        script.pattern().generate(board, out);
+                    }
+                    board.endReadTracking();
+                    String before = RandomBoards.describe(out.toActivations());
+                    if (!mutateOutside(board, board.readSet(), rnd)) continue;
+                    assertEquals(before, RandomBoards.describe(reference.execute(script, board)),
+                            "tier " + tier + " 스크립트: " + source);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("3. 룩 광선은 막은 기물 칸까지만 읽고, 상태·스택 의존성은 플래그로 남는다")
+    void sliderReadSetAndFlags() {
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 0, 0, "rook", true);
+        board.putPiece(0, 0, "rook", true, 0, 1);
+        board.putPiece(0, 2, "pawn", false, 0, 1);
+        board.putPiece(2, 0, "pawn", true, 0, 1);
+        CompiledScript rook = CompiledScript.compile("take-move(1, 0) repeat(1); take-move(0, 1) repeat(1);");
+        assertNotNull(rook.pattern());
+        board.beginReadTracking();
+        rook.pattern().generate(board, new ActivationBuffer());
+        board.endReadTracking();
+        assertEquals((1L << 1) | (1L << 2) | (1L << 8) | (1L << 16), board.readSet());
+        assertEquals(0, board.readFlags());
+
+        Interpreter interpreter = new Interpreter();
+        interpreter.setTrackReads(true);
+        interpreter.execute(CompiledScript.compile("if-state(k, 0) move(1, 0); if-move-stack(2, 0) move(0, 1);"), board);
+        int flags = interpreter.lastReadFlags();
+        assertTrue((flags & BuiltinOps.BoardState.READS_STATE) != 0);
+        assertTrue((flags & BuiltinOps.BoardState.READS_STACK) != 0);
+    }
+}
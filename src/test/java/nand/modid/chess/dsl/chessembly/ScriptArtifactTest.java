@@ -0,0 +1,102 @@
+package nand.modid.chess.dsl.chessembly;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScriptArtifactTest — .csb로 저장했다 읽은 프로그램이 원본에서 컴파일한 것과 같고,
+ * 형식 버전·체크섬이 맞지 않는 파일은 버리고 원본 컴파일로 돌아가는지 검증.
+ */
+@DisplayName("Chessembly 사전 컴파일 묶음 테스트")
+class ScriptArtifactTest {
+
+    @Test
+    @DisplayName("1. 저장했다 읽은 프로그램의 토큰·명령어·실행 결과가 원본 컴파일과 같다")
+    void roundTripMatchesSourceCompilation() throws IOException {
+        List<CompiledScript> scripts = new ArrayList<>();
+        for (String source : RandomBoards.allScripts()) scripts.add(CompiledScript.compile(source, true));
+        Path file = Files.createTempFile("scripts", ScriptArtifact.EXTENSION);
+        try {
+            ScriptArtifact.write(file, scripts);
+            ScriptArtifact.Pack pack = ScriptArtifact.load(file);
+            assertEquals(new LinkedHashSet<>(RandomBoards.allScripts()).size(), pack.size(), pack.status());
+
+            Random rnd = new Random(1701L);
+            ActivationBuffer expected = new ActivationBuffer();
+            ActivationBuffer actual = new ActivationBuffer();
+            for (CompiledScript original : scripts) {
+                CompiledScript loaded = pack.get(original.source());
+                String where = "스크립트: " + original.source();
+                assertNotNull(loaded, where);
+                assertTrue(loaded.isJitEligible());
+                assertEquals(original.tokens().toString(), loaded.tokens().toString(), where);
+                assertEquals(original.bytecode().disassemble(), loaded.bytecode().disassemble(), where);
+                assertEquals(original.pattern() != null, loaded.pattern() != null, where);
+                for (int i = 0; i < 5; i++) {
+                    BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                    BytecodeInterpreter.execute(original.bytecode(), board, expected);
+                    BytecodeInterpreter.execute(loaded.bytecode(), board, actual);
+                    assertEquals(RandomBoards.describe(expected.toActivations()),
+                            RandomBoards.describe(actual.toActivations()), where);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("2. 없는 파일, 다른 형식 버전, 손상된 파일은 빈 묶음이 된다")
+    void rejectsMismatchedFiles() throws IOException {
+        Path file = Files.createTempFile("scripts", ScriptArtifact.EXTENSION);
+        try {
+            assertTrue(ScriptArtifact.load(file.resolveSibling("missing" + ScriptArtifact.EXTENSION)).isEmpty());
+
+            ScriptArtifact.write(file, List.of(CompiledScript.compile("take-move(1, 0) repeat(1);", true)));
+            byte[] good = Files.readAllBytes(file);
+            assertEquals(1, ScriptArtifact.load(file).size());
+
+            byte[] version = good.clone();
+            version[7]++;
+            Files.write(file, version);
+            ScriptArtifact.Pack pack = ScriptArtifact.load(file);
+            assertTrue(pack.isEmpty());
+            assertTrue(pack.status().contains("형식 버전"), pack.status());
+
+            byte[] corrupt = good.clone();
+            corrupt[good.length / 2] ^= 0x40;
+            Files.write(file, corrupt);
+            pack = ScriptArtifact.load(file);
+            assertTrue(pack.isEmpty());
+            assertTrue(pack.status().contains("체크섬"), pack.status());
+
+            Files.write(file, Arrays.copyOf(good, good.length - 9));
+            assertTrue(ScriptArtifact.load(file).isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("3. 플래그가 없으면 초기화 경로는 파일이 있어도 읽지 않는다")
+    void loadIsOptIn() throws IOException {
+        Path file = Files.createTempFile("scripts", ScriptArtifact.EXTENSION);
+        try {
+            ScriptArtifact.write(file, List.of(CompiledScript.compile("take-move(1, 0) repeat(1);", true)));
+            ScriptArtifact.Pack pack = ScriptArtifact.loadIfEnabled(file);
+            if (ScriptArtifact.isEnabled()) {
+                assertEquals(1, pack.size());
+            } else {
+                assertSame(ScriptArtifact.Pack.DISABLED, pack);
+                assertTrue(pack.isEmpty());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package nand.modid.chess.dsl.chessembly;
+
+import nand.modid.chess.core.Piece;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScriptClassifierTest — 정적 판별기와 표 기반 생성이 토큰 인터프리터와 같은 결과를 내는지 검증.
+ */
+@DisplayName("Chessembly 스크립트 판별기 테스트")
+class ScriptClassifierTest {
+
+    @Test
+    @DisplayName("1. 판별된 모든 스크립트의 표/매직 비트보드 결과가 토큰 인터프리터와 같다")
+    void classifiedScriptsMatchInterpreter() {
+        Random rnd = new Random(5150L);
+        Interpreter reference = new Interpreter();
+        ActivationBuffer out = new ActivationBuffer();
+        int classified = 0;
+        for (String source : RandomBoards.allScripts()) {
+            CompiledScript script = CompiledScript.compile(source);
+            MovePattern pattern = script.pattern();
+            if (pattern == null) continue;
+            classified++;
+            for (int i = 0; i < 300; i++) {
+                BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                String expected = RandomBoards.describe(reference.execute(script, board));
+                // 매직 비트보드 경로와 칸별 표 경로 모두
+                for (boolean magic : new boolean[]{ true, false }) {
+                    SliderAttacks.setEnabled(magic);
+                    try {
+                        assertTrue(pattern.generate(board, out));
+                    } finally {
+                        SliderAttacks.setEnabled(true);
+                    }
+                    assertEquals(expected, RandomBoards.describe(out.toActivations()),
+                            "스크립트: " + source + (magic ? " (magic)" : " (table)"));
+                }
+            }
+        }
+        assertTrue(classified > 0, "판별된 스크립트가 있어야 한다");
+    }
+
+    @Test
+    @DisplayName("2. 내장 기물의 형태를 올바르게 판별하고, 복잡한 스크립트는 판별하지 않는다")
+    void classifiesBuiltinShapes() {
+        assertEquals("leaper×8", shape(Piece.PieceKind.KNIGHT));
+        assertEquals("rider×4", shape(Piece.PieceKind.ROOK));
+        assertEquals("leaper×8 rider×8", shape(Piece.PieceKind.AMAZON));
+        assertEquals("hopper×8", shape(Piece.PieceKind.GRASSHOPPER));
+        assertNull(CompiledScript.compile(Piece.PieceKind.PAWN.chessemblyScript(true)).pattern());
+        assertNull(CompiledScript.compile(Piece.PieceKind.BOUNCING_BISHOP.chessemblyScript(true)).pattern());
+        assertNull(CompiledScript.compile("take-move(1, 0) repeat(2);").pattern(), "repeat(2)는 라이더가 아니다");
+        assertNull(CompiledScript.compile("take-move(0, 0) repeat(1);").pattern(), "제자리 이동은 판별하지 않는다");
+        assertNull(CompiledScript.compile("set-state(k, 1) take-move(1, 0);").pattern());
+    }
+
+    private static String shape(Piece.PieceKind kind) {
+        MovePattern pattern = CompiledScript.compile(kind.chessemblyScript(true)).pattern();
+        assertNotNull(pattern, kind + "는 판별되어야 한다");
+        return pattern.summary();
+    }
+}
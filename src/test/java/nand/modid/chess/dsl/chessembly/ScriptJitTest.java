@@ -0,0 +1,61 @@
+package nand.modid.chess.dsl.chessembly;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScriptJitTest — 코드 생성 티어가 토큰 인터프리터(기준 구현)와 같은 결과를 내는지 검증.
+ */
+@DisplayName("Chessembly 코드 생성 티어 테스트")
+class ScriptJitTest {
+
+    @AfterEach
+    void restoreTier() {
+        GeneratedScript.setEnabled(true);
+        GeneratedScript.setThreshold(64);
+    }
+
+    @Test
+    @DisplayName("1. 무작위 보드에서 생성된 클래스의 결과가 토큰 인터프리터와 같다")
+    void matchesTokenInterpreter() {
+        Random rnd = new Random(20241003L);
+        Interpreter reference = new Interpreter();
+        for (String source : RandomBoards.allScripts()) {
+            CompiledScript script = CompiledScript.compile(source);
+            GeneratedScript generated = ScriptJit.compile(script.bytecode());
+            for (int i = 0; i < 200; i++) {
+                BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                String expected = RandomBoards.describe(reference.execute(script, board));
+                String actual = RandomBoards.describe(generated.execute(board));
+                assertEquals(expected, actual, "스크립트: " + source);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("2. 임계 횟수 이후 승격되고, 비활성화하면 인터프리터로 실행된다")
+    void promotesAfterThreshold() {
+        GeneratedScript.setThreshold(3);
+        CompiledScript script = CompiledScript.compile("take-move(1, 0) repeat(1); move(0, 1);", true);
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 0, 0, "rook", true);
+        String expected = RandomBoards.describe(new Interpreter().execute(script, board));
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(expected, RandomBoards.describe(script.run(board)));
+        }
+        assertFalse(script.isGenerated(), "임계 횟수 전에는 승격되지 않는다");
+        assertEquals(expected, RandomBoards.describe(script.run(board)));
+        assertTrue(script.isGenerated(), "임계 횟수에 도달하면 승격된다");
+
+        GeneratedScript.setEnabled(false);
+        assertEquals(expected, RandomBoards.describe(script.run(board)));
+
+        CompiledScript plain = CompiledScript.compile("take-move(1, 0) repeat(1); move(0, 1);");
+        GeneratedScript.setEnabled(true);
+        for (int i = 0; i < 10; i++) plain.run(board);
+        assertFalse(plain.isGenerated(), "대상으로 표시되지 않은 프로그램은 승격되지 않는다");
+    }
+}
@@ -0,0 +1,119 @@
+package nand.modid.chess.dsl.chessembly;
+
+import nand.modid.chess.core.Piece;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScriptSymbolsTest — 기물 이름·상태 키가 컴파일 때 번호로 해석되고, 모르는 이름은 검사 오류가 되는지,
+ * 슬롯으로 담은 기물 상태가 키 맵과 같게 동작하는지 검증.
+ */
+@DisplayName("Chessembly 기호 해석 테스트")
+class ScriptSymbolsTest {
+
+    @Test
+    @DisplayName("1. 내장 스크립트의 이름은 모두 해석되고, 모르는 이름은 검사 오류이자 컴파일 오류다")
+    void resolvesBuiltinNamesAndReportsUnknown() {
+        for (Piece.PieceKind kind : Piece.PieceKind.values()) {
+            assertEquals(kind.ordinal(), ScriptSymbols.kindOf(kind.scriptName()));
+            for (boolean white : new boolean[]{ true, false }) {
+                String source = kind.chessemblyScript(white);
+                assertEquals(List.of(), ScriptValidator.validate(source), kind.toString());
+                Bytecode program = CompiledScript.compile(source).bytecode();
+                for (int pc = 0; pc < program.length(); pc++) {
+                    int op = program.op(pc);
+                    if (op == Bytecode.PIECE_ON || op == Bytecode.PIECE || op == Bytecode.TRANSITION
+                            || op == Bytecode.IF_STATE || op == Bytecode.SET_STATE) {
+                        assertTrue(program.operand(pc, Bytecode.SYM) >= 0, kind + " @" + pc);
+                    }
+                }
+            }
+        }
+
+        assertEquals(Piece.PieceKind.QUEEN.ordinal(), ScriptSymbols.transitionKindOf("Queen"), "transition은 대소문자 무시");
+        assertEquals(ScriptSymbols.UNKNOWN, ScriptSymbols.kindOf("Queen"));
+
+        List<String> errors = ScriptValidator.validate(
+                "piece-on(dragon, 0, 1) move(0, 1);\npiece(Rook) move(1, 0);\ntransition(wyvern) transition(KNIGHT);");
+        assertEquals(List.of("1:1 알 수 없는 기물: dragon", "2:1 알 수 없는 기물: Rook", "3:1 알 수 없는 기물: wyvern"), errors);
+
+        // 검사를 거치지 않는 내장 스크립트 경로도 컴파일에서 거부한다
+        for (String source : new String[]{ "piece-on(dragon, 0, 1) move(0, 1);", "piece(Rook) move(1, 0);", "transition(wyvern)" }) {
+            assertThrows(IllegalArgumentException.class, () -> CompiledScript.compile(source, true), source);
+        }
+    }
+
+    @Test
+    @DisplayName("2. 모든 티어가 번호로 비교해도 기준 구현과 같고, 상태 슬롯은 키 조회와 같은 값을 낸다")
+    void tiersCompareSymbols() {
+        String source = "piece(rook) move(0, 1); piece-on(pawn, 1, 0) take(1, 0); "
+                + "if-state(charge, 2) move(-1, 0); if-state(unset, 0) move(0, -1);";
+        CompiledScript script = CompiledScript.compile(source);
+        Bytecode program = script.bytecode();
+        GeneratedScript generated = ScriptJit.compile(program);
+        Interpreter reference = new Interpreter();
+        ActivationBuffer out = new ActivationBuffer();
+
+        for (String mover : new String[]{ "rook", "bishop", "dragon" }) {
+            BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 3, 3, mover, true);
+            board.putPiece(4, 3, "pawn", false, 0, 1);
+            board.putPiece(3, 4, "dragon", false, 0, 1);
+            board.putPiece(3, 3, mover, true, 0, 1, Map.of("charge", 2));
+            assertEquals(2, board.getState(ScriptSymbols.stateSlot("charge")));
+            assertEquals(board.getState("charge"), board.getState(ScriptSymbols.stateSlot("charge")));
+
+            String expected = RandomBoards.describe(reference.execute(script, board));
+            BytecodeInterpreter.execute(program, board, out);
+            assertEquals(expected, RandomBoards.describe(out.toActivations()), "interpreter, " + mover);
+            generated.execute(board, out);
+            assertEquals(expected, RandomBoards.describe(out.toActivations()), "generated, " + mover);
+            SpecializedScript.build(program, 8, 8, 3, 3).execute(board, out);
+            assertEquals(expected, RandomBoards.describe(out.toActivations()), "specialized, " + mover);
+        }
+        assertEquals(ScriptSymbols.UNKNOWN, ScriptSymbols.kindOf("dragon"), "모르는 이름은 같은 이름의 기물과도 같지 않다");
+    }
+
+    @Test
+    @DisplayName("3. 슬롯 기물 상태는 키 맵과 같은 내용을 보이고, 사본은 따로 바뀐다")
+    void pieceStateMatchesMap() {
+        Piece.PieceState state = new Piece.PieceState();
+        assertTrue(state.isEmpty());
+        assertNull(state.get("never-registered-key"));
+        assertEquals(ScriptSymbols.UNKNOWN, ScriptSymbols.findStateSlot("never-registered-key"), "조회는 키를 등록하지 않는다");
+
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 70; i++) {
+            String key = "slot-test-" + i;
+            assertNull(state.put(key, i));
+            expected.put(key, i);
+        }
+        int far = ScriptSymbols.stateSlot("slot-test-69");
+        assertTrue(far >= 64, "둘째 비트마스크 워드까지 쓴다");
+        assertEquals(69, state.getSlot(far));
+        assertEquals(Integer.valueOf(3), state.put("slot-test-3", 30));
+        expected.put("slot-test-3", 30);
+        assertEquals(Integer.valueOf(5), state.remove("slot-test-5"));
+        expected.remove("slot-test-5");
+        assertFalse(state.hasSlot(ScriptSymbols.stateSlot("slot-test-5")));
+        assertEquals(0, state.getSlot(ScriptSymbols.stateSlot("slot-test-5")));
+
+        assertEquals(expected, state);
+        assertEquals(state, expected);
+        assertEquals(expected.hashCode(), state.hashCode());
+        assertEquals(expected, new HashMap<>(state));
+
+        Piece.PieceState copy = state.copy();
+        assertEquals(state, copy);
+        copy.putSlot(far, -1);
+        assertEquals(69, state.getSlot(far));
+        assertNotEquals(state, copy);
+        copy.clear();
+        assertTrue(copy.isEmpty());
+        assertEquals(-1, copy.nextSlot(0));
+        assertEquals(69, expected.size());
+        assertEquals(69, state.size());
+    }
+}
@@ -0,0 +1,27 @@
+package nand.modid.chess.dsl.chessembly;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SliderAttacksTest — 매직 비트보드 조회가 광선 추적 기준 구현과 같은지 검증.
+ */
+@DisplayName("매직 비트보드 슬라이더 공격표 테스트")
+class SliderAttacksTest {
+
+    @Test
+    @DisplayName("1. 무작위 점유 상태에서 룩/비숍 공격 집합이 광선 추적과 같다")
+    void matchesSlowRays() {
+        Random rnd = new Random(64L);
+        for (int sq = 0; sq < 64; sq++) {
+            for (int i = 0; i < 500; i++) {
+                long occ = rnd.nextLong() & rnd.nextLong();
+                assertEquals(SliderAttacks.slowAttacks(sq, 0, occ), SliderAttacks.rookAttacks(sq, occ), "rook " + sq);
+                assertEquals(SliderAttacks.slowAttacks(sq, 4, occ), SliderAttacks.bishopAttacks(sq, occ), "bishop " + sq);
+            }
+        }
+    }
+}
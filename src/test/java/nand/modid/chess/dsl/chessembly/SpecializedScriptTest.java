@@ -0,0 +1,106 @@
+package nand.modid.chess.dsl.chessembly;
+
+import nand.modid.chess.core.Piece;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SpecializedScriptTest — 출발 칸별 특수화 프로그램이 기준 구현과 같은 결과·단계 수를 내는지,
+ * 기하 조건과 보드 밖 광선이 실제로 접혀 없어지는지 검증.
+ */
+@DisplayName("Chessembly 출발 칸 특수화 테스트")
+class SpecializedScriptTest {
+
+    @AfterEach
+    void restoreTier() {
+        SpecializedScript.setEnabled(true);
+        GeneratedScript.setEnabled(true);
+        GeneratedScript.setAsmHidden(false);
+        GeneratedScript.setThreshold(64);
+    }
+
+    @Test
+    @DisplayName("1. 무작위 보드에서 특수화 프로그램의 결과와 단계 수가 기준 구현과 같다")
+    void matchesReference() {
+        Random rnd = new Random(1301L);
+        Interpreter reference = new Interpreter();
+        ActivationBuffer expected = new ActivationBuffer();
+        ActivationBuffer actual = new ActivationBuffer();
+        for (String source : RandomBoards.allScripts()) {
+            CompiledScript script = CompiledScript.compile(source);
+            Map<Integer, SpecializedScript> byOrigin = new HashMap<>();
+            for (int i = 0; i < 200; i++) {
+                BuiltinOps.BoardState board = RandomBoards.randomBoard(rnd);
+                SpecializedScript sp = byOrigin.computeIfAbsent(board.pieceY * 8 + board.pieceX,
+                        k -> SpecializedScript.build(script.bytecode(), 8, 8, k & 7, k >>> 3));
+                if (sp == null) continue;
+                BytecodeInterpreter.execute(script.bytecode(), board, expected);
+                sp.execute(board, actual);
+                assertEquals(RandomBoards.describe(reference.execute(script, board)),
+                        RandomBoards.describe(actual.toActivations()), "스크립트: " + source);
+                assertEquals(expected.steps(), actual.steps(), "단계 수, 스크립트: " + source);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("2. 보드 밖 광선과 기하 조건식은 조회 노드로 남지 않는다")
+    void geometryIsFolded() {
+        Bytecode rook = CompiledScript.compile(
+                "take-move(1, 0) repeat(1); take-move(-1, 0) repeat(1); take-move(0, 1) repeat(1); take-move(0, -1) repeat(1);")
+                .bytecode();
+        assertEquals(14, SpecializedScript.build(rook, 8, 8, 0, 0).nodeCount(), "a1 룩은 위·오른쪽 14칸만 조회한다");
+        assertEquals(14, SpecializedScript.build(rook, 8, 8, 3, 4).nodeCount());
+
+        Bytecode edges = CompiledScript.compile("edge-top(0, 1) move(1, 0); corner(-1, -1) move(0, 1);").bytecode();
+        assertEquals(0, SpecializedScript.build(edges, 8, 8, 4, 4).nodeCount(), "가운데 칸에서는 두 체인 모두 실패");
+        assertEquals(1, SpecializedScript.build(edges, 8, 8, 4, 7).nodeCount(), "윗변에서는 move(1, 0)만 조회");
+        assertEquals(1, SpecializedScript.build(edges, 8, 8, 0, 0).nodeCount(), "왼쪽 아래 모서리에서는 move(0, 1)만 조회");
+
+        // 반사 비숍: 모든 칸에서 반사 체인이 유한한 그래프로 펼쳐진다
+        Bytecode bouncing = CompiledScript.compile(Piece.PieceKind.BOUNCING_BISHOP.chessemblyScript(true)).bytecode();
+        for (int sq = 0; sq < 64; sq++) {
+            assertNotNull(SpecializedScript.build(bouncing, 8, 8, sq & 7, sq >>> 3), "칸 " + sq);
+        }
+    }
+
+    @Test
+    @DisplayName("3. ASM이 없을 때 사용하고, 보드 밖에 기물이 있거나 티어나 코드 생성을 설정으로 끄면 실행기로 실행한다")
+    void fallsBackWhenNotApplicable() {
+        GeneratedScript.setAsmHidden(true);
+        GeneratedScript.setThreshold(1);
+        String source = "take-move(1, 0) repeat(1); move(9, 0); enemy(-1, 0) move(0, 1);";
+        CompiledScript script = CompiledScript.compile(source, true);
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 0, 0, "rook", true);
+        board.putPiece(0, 0, "rook", true, 0, 1);
+        board.putPiece(4, 0, "pawn", false, 0, 1);
+        board.putPiece(-1, 0, "pawn", false, 0, 1);
+        Interpreter reference = new Interpreter();
+        assertEquals(RandomBoards.describe(reference.execute(script, board)), RandomBoards.describe(script.run(board)));
+        assertEquals(0, script.specializedOrigins(), "보드 밖 기물이 있으면 특수화하지 않는다");
+
+        board.removePiece(-1, 0);
+        assertEquals(RandomBoards.describe(reference.execute(script, board)), RandomBoards.describe(script.run(board)));
+        assertEquals(1, script.specializedOrigins());
+        assertTrue(script.specializationBytes() > 0);
+
+        SpecializedScript.setEnabled(false);
+        board.pieceX = 1;
+        board.putPiece(1, 0, "rook", true, 0, 1);
+        assertEquals(RandomBoards.describe(reference.execute(script, board)), RandomBoards.describe(script.run(board)));
+        assertEquals(1, script.specializedOrigins(), "비활성화하면 새 칸을 특수화하지 않는다");
+
+        // -Dstasischess.jit=false는 특수화로 대신하지 않는 인터프리터 전용 모드
+        SpecializedScript.setEnabled(true);
+        GeneratedScript.setEnabled(false);
+        CompiledScript forced = CompiledScript.compile(source, true);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(RandomBoards.describe(reference.execute(forced, board)), RandomBoards.describe(forced.run(board)));
+        }
+        assertEquals(0, forced.specializedOrigins());
+        assertFalse(forced.isGenerated());
+    }
+}
@@ -0,0 +1,47 @@
+package nand.modid.chess.dsl.chessembly;
+
+import nand.modid.chess.core.GameState;
+import nand.modid.chess.core.Move;
+import nand.modid.chess.core.Piece;
+
+/**
+ * TestPositions — 합법 수 생성·캐시 테스트와 벤치마크가 함께 쓰는 GameState 포지션.
+ *
+ * 모든 변경은 GameState 메서드를 거치므로 합법 수 캐시, 해시, 보드 뷰, 스냅샷이 보드와 같은 국면을 가리킨다.
+ */
+public final class TestPositions {
+
+    private TestPositions() {}
+
+    /**
+     * 실험용 포켓에서 백과 흑이 번갈아 kinds[i]를 whiteSquares[i], blackSquares[i]에 놓고,
+     * neutral 칸에 중립 센티넬을 둔 뒤 모든 기물의 스턴을 푼 포지션 (백 차례).
+     */
+    public static GameState mixed(Piece.PieceKind[] white, String[] whiteSquares,
+                                  Piece.PieceKind[] black, String[] blackSquares, String neutral) {
+        GameState state = new GameState(0);
+        state.setupExperimentalPosition();
+        for (int i = 0; i < white.length; i++) {
+            state.placePiece(0, white[i], Move.Square.fromNotation(whiteSquares[i]));
+            state.endTurn();
+            state.placePiece(1, black[i], Move.Square.fromNotation(blackSquares[i]));
+            state.endTurn();
+        }
+        state.placeNeutralPiece(Piece.PieceKind.NEUTRAL_SENTINEL, Move.Square.fromNotation(neutral));
+        clearStuns(state);
+        return state;
+    }
+
+    /** 양쪽이 같은 종류를 놓는 {@link #mixed} */
+    public static GameState mixed(Piece.PieceKind[] kinds, String[] whiteSquares, String[] blackSquares,
+                                  String neutral) {
+        return mixed(kinds, whiteSquares, kinds, blackSquares, neutral);
+    }
+
+    /** 보드 위 모든 기물의 스턴을 0으로 만든다 */
+    public static void clearStuns(GameState state) {
+        for (Piece.PieceData p : state.getBoardPieces()) {
+            if (p.stun != 0) state.setupStun(p.handle(), 0);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package nand.modid.chess.dsl.chessembly;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TraceRecorderTest — 디버그 실행이 이진 추적으로 기록되고, 요청할 때 올바르게 형식화되는지 검증.
+ */
+@DisplayName("Chessembly 실행 추적 테스트")
+class TraceRecorderTest {
+
+    @Test
+    @DisplayName("1. 디버그 실행의 단계와 활성화가 순서대로 기록된다")
+    void recordsDebugRun() {
+        TraceRecorder trace = TraceRecorder.forCurrentThread();
+        trace.clear();
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 5, 0, "rook", true);
+        board.putPiece(5, 0, "rook", true, 0, 1);
+        CompiledScript script = CompiledScript.compile("take-move(1, 0) repeat(1); move(0, 1);");
+
+        Interpreter interpreter = new Interpreter();
+        interpreter.setDebug(true);
+        List<AST.Activation> activations = interpreter.execute(script, board);
+
+        List<String> lines = trace.format(1);
+        assertEquals("[trace] rook at (5, 0), 5 tokens", lines.get(0));
+        assertEquals("  [PC:0] Token{TAKE_MOVE, dx=1, dy=0} | Anchor(0,0) | last=true", lines.get(1));
+        assertEquals("    → Activation(1, 0) TAKE_MOVE", lines.get(2));
+        long steps = lines.stream().filter(l -> l.startsWith("  [PC:")).count();
+        long acts = lines.stream().filter(l -> l.startsWith("    → Activation")).count();
+        assertEquals(interpreter.lastSteps(), steps);
+        assertEquals(activations.size(), acts);
+        assertEquals("[trace] end: " + steps + " steps, " + acts + " activations", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    @DisplayName("2. 버퍼가 넘치면 오래된 실행을 버리고, 디버그가 꺼져 있으면 기록하지 않는다")
+    void ringBufferKeepsRecentRuns() {
+        TraceRecorder trace = TraceRecorder.forCurrentThread();
+        trace.clear();
+        BuiltinOps.BoardState board = new BuiltinOps.BoardState(8, 8, 0, 0, "queen", true);
+        board.putPiece(0, 0, "queen", true, 0, 1);
+        CompiledScript script = CompiledScript.compile(
+                nand.modid.chess.core.Piece.PieceKind.QUEEN.chessemblyScript(true));
+
+        new Interpreter().execute(script, board);
+        assertEquals(0, trace.size());
+
+        Interpreter interpreter = new Interpreter();
+        interpreter.setDebug(true);
+        int runs = TraceRecorder.CAPACITY / 10;
+        for (int i = 0; i < runs; i++) interpreter.execute(script, board);
+        assertEquals(TraceRecorder.CAPACITY, trace.size());
+
+        List<String> all = trace.format(Integer.MAX_VALUE);
+        assertTrue(all.get(0).startsWith("[trace] queen"), "잘린 실행으로 시작하지 않는다");
+        List<String> last = trace.format(1);
+        List<String> lastTwo = trace.format(2);
+        assertEquals(last.size() * 2, lastTwo.size());
+        assertEquals(last, lastTwo.subList(last.size(), lastTwo.size()));
+        trace.clear();
+    }
+}
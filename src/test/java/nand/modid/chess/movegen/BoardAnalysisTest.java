@@ -0,0 +1,77 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.*;
+import nand.modid.chess.dsl.chessembly.TestPositions;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BoardAnalysisTest — 비트보드 분석기로 만든 공격 지도·기동성 지도가 기물마다 합법 수를 생성한 결과와 같은지 검증.
+ */
+@DisplayName("보드 분석 테스트")
+class BoardAnalysisTest {
+
+    private static GameState position() {
+        Piece.PieceKind[] white = { Piece.PieceKind.QUEEN, Piece.PieceKind.PAWN, Piece.PieceKind.KNIGHT,
+                                    Piece.PieceKind.CANNON, Piece.PieceKind.BOUNCING_BISHOP };
+        Piece.PieceKind[] black = { Piece.PieceKind.ROOK, Piece.PieceKind.PAWN, Piece.PieceKind.GRASSHOPPER,
+                                    Piece.PieceKind.TEMPEST_ROOK, Piece.PieceKind.KNIGHTRIDER };
+        return TestPositions.mixed(white, new String[]{ "d3", "e2", "b3", "a4", "g3" },
+                black, new String[]{ "d6", "e7", "c6", "h5", "f6" }, "e4");
+    }
+
+    /** 기물 하나의 합법 수 목표 칸 */
+    private static long targets(GameState state, Piece.PieceData p) {
+        long bits = 0L;
+        for (Move.LegalMove m : state.getLegalMoves(p.id)) bits |= 1L << m.to.index();
+        return bits;
+    }
+
+    @Test
+    @DisplayName("1. 공격 지도와 기동성 지도가 기물별 합법 수와 같다")
+    void matchesPerPieceMoves() {
+        GameState state = position();
+        for (int player = 0; player < 2; player++) {
+            long expected = 0L;
+            for (Piece.PieceData p : state.getBoardPieces()) {
+                if (p.owner != player) continue;
+                long t = targets(state, p);
+                expected |= t;
+                int[] mobility = BoardAnalysis.mobilityMap(state, p.effectiveKind(), player);
+                assertEquals(Long.bitCount(t), mobility[p.pos.index()], p.id + " " + p.effectiveKind());
+            }
+            assertEquals(expected, BoardAnalysis.attackMap(state, player), "플레이어 " + player);
+        }
+    }
+
+    @Test
+    @DisplayName("2. 비트보드로 표현할 수 없는 스크립트는 공격 지도에서 기물마다 실행하고, 기동성 지도는 거부한다")
+    void unsupportedScriptsFallBack() throws IOException {
+        Path dir = Files.createTempDirectory("scripts");
+        try {
+            Files.write(dir.resolve("rook.chessembly"),
+                    "set-state(charge, 1) take-move(1, 0) repeat(1); take-move(0, 1) repeat(1);".getBytes(StandardCharsets.UTF_8));
+            assertTrue(ScriptRegistry.reload(dir).applied());
+            GameState state = position();
+            assertNull(state.getScripts().get(Piece.PieceKind.ROOK, false).bitboard());
+
+            long expected = 0L;
+            for (Piece.PieceData p : state.getBoardPieces()) {
+                if (p.owner == 1) expected |= targets(state, p);
+            }
+            assertEquals(expected, BoardAnalysis.attackMap(state, 1));
+            assertThrows(IllegalArgumentException.class,
+                    () -> BoardAnalysis.mobilityMap(state, Piece.PieceKind.ROOK, 1));
+        } finally {
+            ScriptRegistry.resetToBuiltin();
+            Files.deleteIfExists(dir.resolve("rook.chessembly"));
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.*;
+import nand.modid.chess.dsl.chessembly.TestPositions;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LegalMoveCacheTest — 읽기 집합 기반 합법 수 캐시가 매번 새로 계산한 결과와 같고,
+ * 수를 둔 뒤에는 영향받은 기물만 다시 계산하는지 검증.
+ */
+@DisplayName("합법 수 캐시 테스트")
+class LegalMoveCacheTest {
+
+    private static GameState position() {
+        Piece.PieceKind[] kinds = { Piece.PieceKind.ROOK, Piece.PieceKind.KNIGHT, Piece.PieceKind.BISHOP,
+                                    Piece.PieceKind.PAWN, Piece.PieceKind.CANNON, Piece.PieceKind.GRASSHOPPER };
+        return TestPositions.mixed(kinds, new String[]{ "a1", "b1", "c2", "d3", "h2", "f2" },
+                new String[]{ "a8", "b8", "c7", "d6", "h7", "f7" }, "e5");
+    }
+
+    private static String describe(List<Move.LegalMove> moves) {
+        StringBuilder sb = new StringBuilder();
+        for (Move.LegalMove m : moves) sb.append(m).append(" catch=").append(m.catchTo).append(' ').append(m.tags.size()).append('\n');
+        return sb.toString();
+    }
+
+    /** 캐시를 거친 결과와 디버그 모드(캐시 미사용, 토큰 인터프리터)의 결과를 모든 기물에 대해 비교 */
+    private static void assertMatchesFresh(GameState state) {
+        Map<String, String> cached = new TreeMap<>();
+        for (Piece.PieceData p : state.getBoardPieces()) cached.put(p.id, describe(state.getLegalMoves(p.id)));
+        state.setDebugMode(true);
+        try {
+            for (Piece.PieceData p : state.getBoardPieces()) {
+                assertEquals(describe(state.getLegalMoves(p.id)), cached.get(p.id), p.id + " " + p.kind + " @ " + p.pos);
+            }
+        } finally {
+            state.setDebugMode(false);
+        }
+    }
+
+    @Test
+    @DisplayName("1. 무작위로 진행한 게임에서 캐시 결과가 새로 계산한 결과와 같다")
+    void cachedMovesMatchFreshMoves() {
+        GameState state = position();
+        Random rnd = new Random(5L);
+        for (int ply = 0; ply < 60 && state.checkVictory() == Move.GameResult.ONGOING; ply++) {
+            assertMatchesFresh(state);
+            List<Move.LegalMove> candidates = new ArrayList<>();
+            for (Piece.PieceData p : state.getBoardPieces()) {
+                if (p.owner == state.getTurn() || p.isNeutral()) candidates.addAll(state.getLegalMoves(p.id));
+            }
+            if (!candidates.isEmpty()) {
+                Move.LegalMove mv = candidates.get(rnd.nextInt(candidates.size()));
+                try {
+                    state.movePieceByLegalMove(mv);
+                } catch (IllegalStateException e) {
+                    // 규칙상 둘 수 없는 수 (예: 중립기물 포획) — 상태는 바뀌지 않는다
+                }
+            }
+            state.endTurn();
+        }
+    }
+
+    @Test
+    @DisplayName("2. 수 하나를 둔 뒤에는 읽기 집합이 겹치는 기물만 다시 계산한다")
+    void onlyAffectedPiecesAreRecomputed() {
+        GameState state = position();
+        LegalMoveCache cache = state.getMoveCache();
+        List<Piece.PieceData> all = state.getBoardPieces();
+        for (Piece.PieceData p : all) state.getLegalMoves(p.id);
+        long misses = cache.misses();
+        for (Piece.PieceData p : all) state.getLegalMoves(p.id);
+        assertEquals(misses, cache.misses(), "바뀐 것이 없으면 다시 계산하지 않는다");
+
+        // b1 나이트를 a3로 — 킹 쪽, h파일 기물 등 멀리 있는 기물은 영향받지 않는다
+        Move.LegalMove jump = null;
+        for (Move.LegalMove m : state.getLegalMovesAt(Move.Square.fromNotation("b1"))) {
+            if (m.to.equals(Move.Square.fromNotation("a3"))) jump = m;
+        }
+        assertNotNull(jump);
+        state.movePieceByLegalMove(jump);
+        misses = cache.misses();
+        for (Piece.PieceData p : state.getBoardPieces()) state.getLegalMoves(p.id);
+        long recomputed = cache.misses() - misses;
+        assertTrue(recomputed > 0 && recomputed < state.getBoardPieces().size() / 2,
+                "다시 계산한 기물 수: " + recomputed);
+        assertMatchesFresh(state);
+    }
+}
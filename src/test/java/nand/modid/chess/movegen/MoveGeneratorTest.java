@@ -0,0 +1,85 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.*;
+import nand.modid.chess.dsl.chessembly.TestPositions;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MoveGeneratorTest — 진영 단위 일괄 생성이 기물별 생성과 같은 결과를 내는지 검증.
+ */
+@DisplayName("일괄 합법 수 생성 테스트")
+class MoveGeneratorTest {
+
+    /** 양측 기물과 중립기물이 섞인 포지션 (모든 기물 스턴 해제) */
+    private static GameState mixedPosition() {
+        Piece.PieceKind[] white = { Piece.PieceKind.QUEEN, Piece.PieceKind.PAWN, Piece.PieceKind.KNIGHT,
+                                    Piece.PieceKind.CANNON, Piece.PieceKind.GRASSHOPPER };
+        Piece.PieceKind[] black = { Piece.PieceKind.ROOK, Piece.PieceKind.PAWN, Piece.PieceKind.BISHOP,
+                                    Piece.PieceKind.AMAZON, Piece.PieceKind.BOUNCING_BISHOP };
+        return TestPositions.mixed(white, new String[]{ "d3", "e2", "b3", "a4", "g3" },
+                black, new String[]{ "d6", "e7", "c6", "h5", "f6" }, "e4");
+    }
+
+    private static List<String> perPiece(GameState state, int player) {
+        List<String> out = new ArrayList<>();
+        for (Piece.PieceData p : state.getBoardPieces()) {
+            if (p.owner != player && !p.isNeutral()) continue;
+            for (Move.LegalMove m : MoveGenerator.generateLegalMoves(state, p.id)) out.add(describe(p.id, m));
+        }
+        Collections.sort(out);
+        return out;
+    }
+
+    private static List<String> batch(GameState state, int player) {
+        PackedMoveList moves = MoveGenerator.generateAllForSide(state, player);
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) out.add(describe(moves.pieceId(moves.piece(i)), moves.toLegalMove(i)));
+        Collections.sort(out);
+        return out;
+    }
+
+    private static String describe(String pieceId, Move.LegalMove m) {
+        return pieceId + " " + m.from + "→" + m.to + " " + m.moveType + " capture=" + m.isCapture
+                + " catch=" + m.catchTo + " tags=" + m.tags.size();
+    }
+
+    @Test
+    @DisplayName("1. 양측 모두 기물별 생성과 같은 수를 낸다 (중립기물 포함)")
+    void batchMatchesPerPiece() {
+        GameState state = mixedPosition();
+        for (int player = 0; player <= 1; player++) {
+            List<String> expected = perPiece(state, player);
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, batch(state, player), "player " + player);
+        }
+    }
+
+    @Test
+    @DisplayName("2. 재사용한 목록과 기물별 조회가 일치한다")
+    void reusedListAndMovesFor() {
+        GameState state = mixedPosition();
+        PackedMoveList moves = new PackedMoveList();
+        MoveGenerator.generateAllForSide(state, 1, moves);
+        MoveGenerator.generateAllForSide(state, 0, moves);
+
+        int total = 0;
+        for (int k = 0; k < moves.pieceCount(); k++) {
+            String id = moves.pieceId(k);
+            Piece.PieceData p = state.getPiece(id);
+            assertTrue(p.owner == 0 || p.isNeutral());
+            List<Move.LegalMove> single = MoveGenerator.generateLegalMoves(state, id);
+            List<Move.LegalMove> packed = moves.movesFor(id);
+            assertEquals(single.size(), packed.size(), id);
+            for (int i = 0; i < single.size(); i++) {
+                assertEquals(single.get(i).toString(), packed.get(i).toString());
+            }
+            total += packed.size();
+        }
+        assertEquals(moves.size(), total);
+        assertEquals(moves.size(), state.getAllLegalMoves(0).size());
+    }
+}
@@ -0,0 +1,103 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.*;
+import nand.modid.chess.dsl.chessembly.TestPositions;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MoveQueryTest — 조기 종료 질의(findMove, hasLegalMove, countLegalMoves)와 이를 쓰는 GameState 검사가
+ * 전체 합법 수 목록으로 판단한 결과와 같은지 검증.
+ */
+@DisplayName("합법 수 질의 테스트")
+class MoveQueryTest {
+
+    private static GameState position() {
+        Piece.PieceKind[] kinds = { Piece.PieceKind.QUEEN, Piece.PieceKind.KNIGHT, Piece.PieceKind.CANNON,
+                                    Piece.PieceKind.PAWN, Piece.PieceKind.BOUNCING_BISHOP, Piece.PieceKind.TEMPEST_ROOK };
+        return TestPositions.mixed(kinds, new String[]{ "d1", "b1", "c2", "d3", "h2", "f2" },
+                new String[]{ "d8", "b8", "c7", "d6", "h7", "f7" }, "e5");
+    }
+
+    /** 모든 기물·칸에 대해 질의 결과를 목록과 비교 (캐시가 있든 없든) */
+    private static void assertQueriesMatchList(GameState state) {
+        for (Piece.PieceData p : state.getBoardPieces()) {
+            for (boolean cached : new boolean[]{ false, true }) {
+                if (!cached) state.getMoveCache().clear();
+                List<Move.LegalMove> moves = state.getLegalMoves(p.id);
+                if (!cached) state.getMoveCache().clear();
+                String where = p.id + " " + p.kind + " @ " + p.pos + (cached ? " (캐시)" : "");
+
+                assertEquals(!moves.isEmpty(), MoveGenerator.hasLegalMove(state, p.id), where);
+                assertEquals(Math.min(moves.size(), 3), MoveGenerator.countLegalMoves(state, p.id, 3), where);
+                for (int sq = 0; sq < 64; sq++) {
+                    Move.Square to = new Move.Square(sq & 7, sq >>> 3);
+                    Move.LegalMove expected = null;
+                    for (Move.LegalMove m : moves) {
+                        if (m.to.equals(to)) { expected = m; break; }
+                    }
+                    Move.LegalMove actual = MoveGenerator.findMove(state, p.id, to);
+                    assertEquals(String.valueOf(expected), String.valueOf(actual), where + " → " + to);
+                    if (expected != null) {
+                        assertEquals(expected.catchTo, actual.catchTo, where);
+                        assertEquals(expected.tags.size(), actual.tags.size(), where);
+                    }
+                    assertEquals(expected != null, state.isValidMove(p.id, p.pos, to), where + " → " + to);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("1. 무작위로 진행한 게임에서 질의 결과가 합법 수 목록과 같다")
+    void queriesMatchMoveList() {
+        GameState state = position();
+        Random rnd = new Random(15L);
+        for (int ply = 0; ply < 30 && state.checkVictory() == Move.GameResult.ONGOING; ply++) {
+            assertQueriesMatchList(state);
+
+            boolean anyMove = false;
+            for (Piece.PieceData p : state.getBoardPieces()) {
+                if ((p.owner == state.getTurn() || p.isNeutral()) && !state.getLegalMoves(p.id).isEmpty()) anyMove = true;
+            }
+            if (state.getPocket(state.getTurn()).isEmpty()) {
+                assertEquals(anyMove, state.hasAnyLegalAction(state.getTurn()));
+            }
+            assertFalse(state.hasAnyLegalAction(1 - state.getTurn()), "상대 턴에는 행동할 수 없다");
+
+            List<Move.LegalMove> candidates = new ArrayList<>();
+            for (Piece.PieceData p : state.getBoardPieces()) {
+                if (p.owner == state.getTurn() || p.isNeutral()) candidates.addAll(state.getLegalMoves(p.id));
+            }
+            if (!candidates.isEmpty()) {
+                Move.LegalMove mv = candidates.get(rnd.nextInt(candidates.size()));
+                try {
+                    state.applyAction(Move.Action.move(state.getBoard().get(mv.from), mv.from, mv.to));
+                } catch (IllegalStateException e) {
+                    // 규칙상 둘 수 없는 수 (예: 중립기물 포획) — 상태는 바뀌지 않는다
+                }
+            }
+            state.endTurn();
+        }
+    }
+
+    @Test
+    @DisplayName("2. 디버그 모드에서도 같은 답을 낸다")
+    void debugModeFallsBackToFullGeneration() {
+        GameState state = position();
+        Move.Square d1 = Move.Square.fromNotation("d1");
+        Move.Square d2 = Move.Square.fromNotation("d2");
+        assertTrue(state.isValidMove(state.getBoard().get(d1), d1, d2));
+        state.setDebugMode(true);
+        try {
+            assertTrue(state.isValidMove(state.getBoard().get(d1), d1, d2));
+            assertNotNull(state.findLegalMoveAt(d1, d2));
+            assertNull(state.findLegalMoveAt(d1, Move.Square.fromNotation("e3")));
+        } finally {
+            state.setDebugMode(false);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package nand.modid.chess.movegen;
+
+import nand.modid.chess.core.*;
+import nand.modid.chess.dsl.chessembly.ScriptArtifact;
+import nand.modid.chess.dsl.chessembly.ScriptValidator;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScriptRegistryTest — 외부 스크립트 리로드, 검사 실패 시 세대 유지, 턴 단위 세대 고정 검증.
+ */
+@DisplayName("외부 스크립트 레지스트리 테스트")
+class ScriptRegistryTest {
+
+    @Test
+    @DisplayName("1. 파일로 행마법을 덮어쓰고, 색 전용 파일이 공통 파일보다 우선한다")
+    void reloadOverridesBuiltin() throws IOException {
+        Path dir = Files.createTempDirectory("scripts");
+        try {
+            write(dir, "rook.chessembly", "take-move(1, 0);");
+            write(dir, "pawn.chessembly", "move(0, 2);");
+            write(dir, "pawn.black.chessembly", "move(0, -2);");
+
+            ScriptRegistry.ReloadReport report = ScriptRegistry.reload(dir);
+            assertTrue(report.applied(), report.errors.toString());
+            assertEquals(3, report.files);
+            assertEquals(4, report.overrides);
+
+            ScriptRegistry.Generation g = ScriptRegistry.current();
+            assertEquals(report.version, g.version());
+            assertEquals("take-move(1, 0);", g.get(Piece.PieceKind.ROOK, false).source());
+            assertEquals("move(0, 2);", g.get(Piece.PieceKind.PAWN, true).source());
+            assertEquals("move(0, -2);", g.get(Piece.PieceKind.PAWN, false).source());
+            assertFalse(g.isOverridden(Piece.PieceKind.KNIGHT, true));
+            assertSame(ScriptCache.get(Piece.PieceKind.KNIGHT, true), g.get(Piece.PieceKind.KNIGHT, true));
+        } finally {
+            ScriptRegistry.resetToBuiltin();
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    @DisplayName("2. 오류가 있으면 이전 세대를 유지하고 위치와 함께 보고한다")
+    void invalidScriptKeepsPreviousGeneration() throws IOException {
+        Path dir = Files.createTempDirectory("scripts");
+        try {
+            write(dir, "rook.chessembly", "take-move(1, 0);");
+            assertTrue(ScriptRegistry.reload(dir).applied());
+            ScriptRegistry.Generation before = ScriptRegistry.current();
+
+            write(dir, "knight.chessembly", "take-move(1, 2);\n  jump-far(1, 1) { move(0, 1);");
+            write(dir, "dragon.chessembly", "move(0, 1);");
+            ScriptRegistry.ReloadReport report = ScriptRegistry.reload(dir);
+            assertFalse(report.applied());
+            assertSame(before, ScriptRegistry.current());
+            String errors = String.join("\n", report.errors);
+            assertTrue(errors.contains("knight.chessembly:2:3 알 수 없는 명령: jump-far"), errors);
+            assertTrue(errors.contains("닫히지 않은 '{'"), errors);
+            assertTrue(errors.contains("dragon.chessembly"), errors);
+        } finally {
+            ScriptRegistry.resetToBuiltin();
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    @DisplayName("3. 게임은 턴이 끝날 때까지 이전 세대를 사용한다")
+    void gamePinsGenerationForTurn() throws IOException {
+        Path dir = Files.createTempDirectory("scripts");
+        try {
+            GameState state = GameState.newDefault();
+            String king = state.getBoard().get(new Move.Square(4, 0));
+            int builtinMoves = state.getLegalMoves(king).size();
+            assertEquals(5, builtinMoves);
+
+            write(dir, "king.chessembly", "take-move(1, 0);");
+            assertTrue(ScriptRegistry.reload(dir).applied());
+            assertEquals(builtinMoves, state.getLegalMoves(king).size(), "턴 도중에는 바뀌지 않는다");
+
+            state.endTurn();
+            state.endTurn();
+            assertEquals(1, state.getLegalMoves(king).size());
+        } finally {
+            ScriptRegistry.resetToBuiltin();
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    @DisplayName("4. 내장 스크립트는 모두 검사를 통과한다")
+    void builtinScriptsValidate() {
+        for (Piece.PieceKind kind : Piece.PieceKind.values()) {
+            for (boolean white : new boolean[]{ true, false }) {
+                assertEquals(Collections.emptyList(), ScriptValidator.validate(kind.chessemblyScript(white)),
+                        kind + (white ? " (백)" : " (흑)"));
+            }
+        }
+        assertFalse(ScriptValidator.validate("jmp(nowhere) move(0, 1);").isEmpty());
+        assertFalse(ScriptValidator.validate("piece-on(king, 1) move(0, 1);").isEmpty());
+        assertFalse(ScriptValidator.validate("move(0, 1) } ;").isEmpty());
+        assertEquals(Collections.emptyList(), ScriptValidator.validate("label(a) move(0, 1) jmp(a); jne(b) label(b);"));
+        List<String> crossChain = ScriptValidator.validate("label(a) move(0, 1);\nmove(1, 0) jmp(a);");
+        assertEquals(1, crossChain.size(), crossChain.toString());
+        assertTrue(crossChain.get(0).startsWith("2:12 다른 체인(;)의 라벨"), crossChain.get(0));
+    }
+
+    @Test
+    @DisplayName("5. 미리 컴파일한 .csb 묶음의 프로그램을 리로드가 그대로 쓰고, 오류가 있으면 묶음을 쓰지 않는다")
+    void precompiledArtifactIsReused() throws IOException {
+        Path dir = Files.createTempDirectory("scripts");
+        Path out = dir.resolve("pack" + ScriptArtifact.EXTENSION);
+        try {
+            write(dir, "rook.chessembly", "take-move(1, 0) repeat(1);");
+            List<String> errors = new ArrayList<>();
+            int count = ScriptPrecompiler.precompile(dir, out, errors);
+            assertTrue(count > 1, errors.toString());
+
+            ScriptArtifact.Pack pack = ScriptArtifact.load(out);
+            assertEquals(count, pack.size(), pack.status());
+            ScriptRegistry.usePrecompiled(pack);
+            assertTrue(ScriptRegistry.reload(dir).applied());
+            assertSame(pack.get("take-move(1, 0) repeat(1);"), ScriptRegistry.current().get(Piece.PieceKind.ROOK, true));
+
+            write(dir, "knight.chessembly", "jmp(nowhere);");
+            Files.delete(out);
+            assertEquals(-1, ScriptPrecompiler.precompile(dir, out, errors));
+            assertFalse(errors.isEmpty());
+            assertFalse(Files.exists(out));
+        } finally {
+            ScriptRegistry.usePrecompiled(ScriptArtifact.Pack.EMPTY);
+            ScriptRegistry.resetToBuiltin();
+            deleteAll(dir);
+        }
+    }
+
+    private static void write(Path dir, String name, String content) throws IOException {
+        Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.delete(p);
+        }
+        Files.delete(dir);
+    }
+}